@@ -29,6 +29,9 @@ public class EvmOptions implements CLIOptions<EvmConfiguration> {
   /** The constant WORLDSTATE_UPDATE_MODE. */
   public static final String WORLDSTATE_UPDATE_MODE = "--Xevm-worldstate-update-mode";
 
+  /** The constant WORD_STACK_ENABLED. */
+  public static final String WORD_STACK_ENABLED = "--Xevm-word-stack-enabled";
+
   /** Default constructor. */
   EvmOptions() {}
 
@@ -63,13 +66,23 @@ public class EvmOptions implements CLIOptions<EvmConfiguration> {
       EvmConfiguration.WorldUpdaterMode
           .STACKED; // Stacked Updater.  Years of battle tested correctness.
 
+  @CommandLine.Option(
+      names = {WORD_STACK_ENABLED},
+      description =
+          "Keep the EVM operand stack words as long limbs, so arithmetic does not allocate",
+      fallbackValue = "true",
+      hidden = true,
+      arity = "0..1")
+  private Boolean wordStackEnabled = false;
+
   @Override
   public EvmConfiguration toDomainObject() {
-    return new EvmConfiguration(jumpDestCacheWeightKilobytes, worldstateUpdateMode);
+    return new EvmConfiguration(
+        jumpDestCacheWeightKilobytes, worldstateUpdateMode, wordStackEnabled);
   }
 
   @Override
   public List<String> getCLIOptions() {
-    return List.of(JUMPDEST_CACHE_WEIGHT, WORLDSTATE_UPDATE_MODE);
+    return List.of(JUMPDEST_CACHE_WEIGHT, WORLDSTATE_UPDATE_MODE, WORD_STACK_ENABLED);
   }
 }
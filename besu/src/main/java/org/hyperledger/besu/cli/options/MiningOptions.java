@@ -23,8 +23,12 @@ import static org.hyperledger.besu.ethereum.core.MiningConfiguration.MutableInit
 import static org.hyperledger.besu.ethereum.core.MiningConfiguration.MutableInitValues.DEFAULT_MIN_BLOCK_OCCUPANCY_RATIO;
 import static org.hyperledger.besu.ethereum.core.MiningConfiguration.MutableInitValues.DEFAULT_MIN_PRIORITY_FEE_PER_GAS;
 import static org.hyperledger.besu.ethereum.core.MiningConfiguration.MutableInitValues.DEFAULT_MIN_TRANSACTION_GAS_PRICE;
+import static org.hyperledger.besu.ethereum.core.MiningConfiguration.Unstable.DEFAULT_MAX_DA_BLOCK_SIZE;
+import static org.hyperledger.besu.ethereum.core.MiningConfiguration.Unstable.DEFAULT_MAX_DA_TX_SIZE;
 import static org.hyperledger.besu.ethereum.core.MiningConfiguration.Unstable.DEFAULT_MAX_OMMERS_DEPTH;
+import static org.hyperledger.besu.ethereum.core.MiningConfiguration.Unstable.DEFAULT_MIN_L1_PROFIT_PER_DA_BYTE;
 import static org.hyperledger.besu.ethereum.core.MiningConfiguration.Unstable.DEFAULT_POS_BLOCK_CREATION_MAX_TIME;
+import static org.hyperledger.besu.ethereum.core.MiningConfiguration.Unstable.DEFAULT_POS_BLOCK_CREATION_REPEAT_ON_NEW_TRANSACTIONS;
 import static org.hyperledger.besu.ethereum.core.MiningConfiguration.Unstable.DEFAULT_POS_BLOCK_CREATION_REPETITION_MIN_DURATION;
 import static org.hyperledger.besu.ethereum.core.MiningConfiguration.Unstable.DEFAULT_POW_JOB_TTL;
 import static org.hyperledger.besu.ethereum.core.MiningConfiguration.Unstable.DEFAULT_REMOTE_SEALERS_LIMIT;
@@ -205,6 +209,37 @@ public class MiningOptions implements CLIOptions<MiningConfiguration> {
                 + " then it waits before next repetition. Must be positive and ≤ 2000 (default: ${DEFAULT-VALUE} milliseconds)")
     private Long posBlockCreationRepetitionMinDuration =
         DEFAULT_POS_BLOCK_CREATION_REPETITION_MIN_DURATION;
+
+    @CommandLine.Option(
+        hidden = true,
+        names = {"--Xpos-block-creation-repeat-on-new-transactions"},
+        arity = "0..1",
+        description =
+            "If enabled, a PoS block creation is repeated as soon as a new transaction is added to the pool,"
+                + " waiting at least 100 milliseconds between repetitions instead of the repetition min duration (default: ${DEFAULT-VALUE})")
+    private Boolean posBlockCreationRepeatOnNewTransactions =
+        DEFAULT_POS_BLOCK_CREATION_REPEAT_ON_NEW_TRANSACTIONS;
+
+    @CommandLine.Option(
+        hidden = true,
+        names = {"--Xmax-da-tx-size"},
+        description =
+            "Maximum estimated data availability size, in bytes, of a transaction selected by an OP Stack sequencer, 0 means no limit (default: ${DEFAULT-VALUE})")
+    private Long maxDaTxSize = DEFAULT_MAX_DA_TX_SIZE;
+
+    @CommandLine.Option(
+        hidden = true,
+        names = {"--Xmax-da-block-size"},
+        description =
+            "Maximum estimated data availability size, in bytes, of a block built by an OP Stack sequencer, 0 means no limit (default: ${DEFAULT-VALUE})")
+    private Long maxDaBlockSize = DEFAULT_MAX_DA_BLOCK_SIZE;
+
+    @CommandLine.Option(
+        hidden = true,
+        names = {"--Xmin-l1-profit-per-da-byte"},
+        description =
+            "Minimum priority fee plus L1 data fee (in Wei), per byte of estimated data availability size, paid by a transaction for it to be selected by an OP Stack sequencer (default: ${DEFAULT-VALUE})")
+    private Wei minL1ProfitPerDaByte = DEFAULT_MIN_L1_PROFIT_PER_DA_BYTE;
   }
 
   private TransactionSelectionService transactionSelectionService;
@@ -300,6 +335,11 @@ public class MiningOptions implements CLIOptions<MiningConfiguration> {
           commandLine, "--Xpos-block-creation-repetition-min-duration must be positive and ≤ 2000");
     }
 
+    if (unstableOptions.maxDaTxSize < 0 || unstableOptions.maxDaBlockSize < 0) {
+      throw new ParameterException(
+          commandLine, "--Xmax-da-tx-size and --Xmax-da-block-size must not be negative");
+    }
+
     if (genesisConfigOptions.isPoa()) {
       CommandLineUtils.failIfOptionDoesntMeetRequirement(
           commandLine,
@@ -348,6 +388,13 @@ public class MiningOptions implements CLIOptions<MiningConfiguration> {
         miningConfiguration.getUnstable().getPosBlockCreationMaxTime();
     miningOptions.unstableOptions.posBlockCreationRepetitionMinDuration =
         miningConfiguration.getUnstable().getPosBlockCreationRepetitionMinDuration();
+    miningOptions.unstableOptions.posBlockCreationRepeatOnNewTransactions =
+        miningConfiguration.getUnstable().isPosBlockCreationRepeatedOnNewTransactions();
+    miningOptions.unstableOptions.maxDaTxSize = miningConfiguration.getUnstable().getMaxDaTxSize();
+    miningOptions.unstableOptions.maxDaBlockSize =
+        miningConfiguration.getUnstable().getMaxDaBlockSize();
+    miningOptions.unstableOptions.minL1ProfitPerDaByte =
+        miningConfiguration.getUnstable().getMinL1ProfitPerDaByte();
 
     miningConfiguration.getCoinbase().ifPresent(coinbase -> miningOptions.coinbase = coinbase);
     miningConfiguration.getTargetGasLimit().ifPresent(tgl -> miningOptions.targetGasLimit = tgl);
@@ -393,6 +440,11 @@ public class MiningOptions implements CLIOptions<MiningConfiguration> {
                 .posBlockCreationMaxTime(unstableOptions.posBlockCreationMaxTime)
                 .posBlockCreationRepetitionMinDuration(
                     unstableOptions.posBlockCreationRepetitionMinDuration)
+                .isPosBlockCreationRepeatedOnNewTransactions(
+                    unstableOptions.posBlockCreationRepeatOnNewTransactions)
+                .maxDaTxSize(unstableOptions.maxDaTxSize)
+                .maxDaBlockSize(unstableOptions.maxDaBlockSize)
+                .minL1ProfitPerDaByte(unstableOptions.minL1ProfitPerDaByte)
                 .build())
         .build();
   }
@@ -257,6 +257,14 @@ public class TransactionPoolOptions implements CLIOptions<TransactionPoolConfigu
     private static final String ETH65_TX_ANNOUNCED_BUFFERING_PERIOD_FLAG =
         "--Xeth65-tx-announced-buffering-period-milliseconds";
 
+    private static final String OFF_HEAP_PAYLOAD_MIN_SIZE_FLAG =
+        "--Xtx-pool-off-heap-payload-min-size";
+
+    private static final String OFF_HEAP_PAYLOAD_MAX_SIZE_FLAG =
+        "--Xtx-pool-off-heap-payload-max-size";
+
+    private static final String JOURNAL_MAX_SIZE_FLAG = "--Xtx-pool-journal-max-size";
+
     @CommandLine.Option(
         names = {TX_MESSAGE_KEEP_ALIVE_SEC_FLAG},
         paramLabel = "<INTEGER>",
@@ -277,6 +285,35 @@ public class TransactionPoolOptions implements CLIOptions<TransactionPoolConfigu
         arity = "1")
     private Duration eth65TrxAnnouncedBufferingPeriod =
         TransactionPoolConfiguration.Unstable.ETH65_TRX_ANNOUNCED_BUFFERING_PERIOD;
+
+    @CommandLine.Option(
+        names = {OFF_HEAP_PAYLOAD_MIN_SIZE_FLAG},
+        paramLabel = "<INTEGER>",
+        hidden = true,
+        description =
+            "Min size in bytes of the payload of a pending transaction for it to be stored off heap, 0 means that all the payloads are stored on the heap (default: ${DEFAULT-VALUE})",
+        arity = "1")
+    private Integer offHeapPayloadMinSize =
+        TransactionPoolConfiguration.Unstable.DEFAULT_OFF_HEAP_PAYLOAD_MIN_SIZE;
+
+    @CommandLine.Option(
+        names = {OFF_HEAP_PAYLOAD_MAX_SIZE_FLAG},
+        paramLabel = "<LONG>",
+        hidden = true,
+        description =
+            "Max size in bytes of all the payloads of the pending transactions stored off heap, it must stay below the max direct memory of the JVM (default: ${DEFAULT-VALUE})",
+        arity = "1")
+    private Long offHeapPayloadMaxSize =
+        TransactionPoolConfiguration.Unstable.DEFAULT_OFF_HEAP_PAYLOAD_MAX_SIZE;
+
+    @CommandLine.Option(
+        names = {JOURNAL_MAX_SIZE_FLAG},
+        paramLabel = "<INTEGER>",
+        hidden = true,
+        description =
+            "Max size in bytes of the memory mapped journal of the changes of the pool, used instead of saving the pool on shutdown when save and restore is enabled, 0 means that the journal is disabled (default: ${DEFAULT-VALUE})",
+        arity = "1")
+    private Integer journalMaxSize = TransactionPoolConfiguration.Unstable.DEFAULT_JOURNAL_MAX_SIZE;
   }
 
   private TransactionPoolOptions() {}
@@ -334,6 +371,9 @@ public class TransactionPoolOptions implements CLIOptions<TransactionPoolConfigu
         config.getUnstable().getTxMessageKeepAliveSeconds();
     options.unstableOptions.eth65TrxAnnouncedBufferingPeriod =
         config.getUnstable().getEth65TrxAnnouncedBufferingPeriod();
+    options.unstableOptions.offHeapPayloadMinSize = config.getUnstable().getOffHeapPayloadMinSize();
+    options.unstableOptions.offHeapPayloadMaxSize = config.getUnstable().getOffHeapPayloadMaxSize();
+    options.unstableOptions.journalMaxSize = config.getUnstable().getJournalMaxSize();
 
     return options;
   }
@@ -392,6 +432,9 @@ public class TransactionPoolOptions implements CLIOptions<TransactionPoolConfigu
             ImmutableTransactionPoolConfiguration.Unstable.builder()
                 .txMessageKeepAliveSeconds(unstableOptions.txMessageKeepAliveSeconds)
                 .eth65TrxAnnouncedBufferingPeriod(unstableOptions.eth65TrxAnnouncedBufferingPeriod)
+                .offHeapPayloadMinSize(unstableOptions.offHeapPayloadMinSize)
+                .offHeapPayloadMaxSize(unstableOptions.offHeapPayloadMaxSize)
+                .journalMaxSize(unstableOptions.journalMaxSize)
                 .build())
         .build();
   }
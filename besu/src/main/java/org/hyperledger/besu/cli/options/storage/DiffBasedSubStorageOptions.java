@@ -17,14 +17,21 @@ package org.hyperledger.besu.cli.options.storage;
 import static org.hyperledger.besu.ethereum.worldstate.DiffBasedSubStorageConfiguration.DEFAULT_LIMIT_TRIE_LOGS_ENABLED;
 import static org.hyperledger.besu.ethereum.worldstate.DiffBasedSubStorageConfiguration.DEFAULT_MAX_LAYERS_TO_LOAD;
 import static org.hyperledger.besu.ethereum.worldstate.DiffBasedSubStorageConfiguration.DEFAULT_TRIE_LOG_PRUNING_WINDOW_SIZE;
+import static org.hyperledger.besu.ethereum.worldstate.DiffBasedSubStorageConfiguration.DiffBasedUnstable.DEFAULT_ARCHIVE_ENABLED;
 import static org.hyperledger.besu.ethereum.worldstate.DiffBasedSubStorageConfiguration.DiffBasedUnstable.DEFAULT_CODE_USING_CODE_HASH_ENABLED;
+import static org.hyperledger.besu.ethereum.worldstate.DiffBasedSubStorageConfiguration.DiffBasedUnstable.DEFAULT_FLAT_DB_VERIFICATION_ENABLED;
 import static org.hyperledger.besu.ethereum.worldstate.DiffBasedSubStorageConfiguration.DiffBasedUnstable.DEFAULT_FULL_FLAT_DB_ENABLED;
+import static org.hyperledger.besu.ethereum.worldstate.DiffBasedSubStorageConfiguration.DiffBasedUnstable.DEFAULT_STORAGE_PREFETCH_ENABLED;
+import static org.hyperledger.besu.ethereum.worldstate.DiffBasedSubStorageConfiguration.DiffBasedUnstable.DEFAULT_TRIE_LOG_ENCODING;
+import static org.hyperledger.besu.ethereum.worldstate.DiffBasedSubStorageConfiguration.DiffBasedUnstable.DEFAULT_TRIE_LOG_PRUNING_RATE_LIMIT;
+import static org.hyperledger.besu.ethereum.worldstate.DiffBasedSubStorageConfiguration.DiffBasedUnstable.DEFAULT_TRIE_LOG_RANGES_ENABLED;
 import static org.hyperledger.besu.ethereum.worldstate.DiffBasedSubStorageConfiguration.MINIMUM_TRIE_LOG_RETENTION_LIMIT;
 
 import org.hyperledger.besu.cli.options.CLIOptions;
 import org.hyperledger.besu.cli.util.CommandLineUtils;
 import org.hyperledger.besu.ethereum.worldstate.DiffBasedSubStorageConfiguration;
 import org.hyperledger.besu.ethereum.worldstate.ImmutableDiffBasedSubStorageConfiguration;
+import org.hyperledger.besu.ethereum.worldstate.TrieLogEncoding;
 import org.hyperledger.besu.plugin.services.storage.DataStorageFormat;
 
 import java.util.List;
@@ -116,6 +123,56 @@ public class DiffBasedSubStorageOptions implements CLIOptions<DiffBasedSubStorag
             "Enables parallelization of transactions to optimize processing speed by concurrently loading and executing necessary data in advance. (default: ${DEFAULT-VALUE})")
     private Boolean isParallelTxProcessingEnabled = false;
 
+    @Option(
+        hidden = true,
+        names = {"--Xbonsai-archive-enabled"},
+        arity = "1",
+        description =
+            "Enables keeping the accounts and storage of each block in the flat database to read the state of past blocks without rolling back the world state. Only applies to a new database. (default: ${DEFAULT-VALUE})")
+    private boolean archiveEnabled = DEFAULT_ARCHIVE_ENABLED;
+
+    @Option(
+        hidden = true,
+        names = {"--Xbonsai-trie-logs-pruning-rate-limit"},
+        paramLabel = "<INTEGER>",
+        arity = "1",
+        description =
+            "The max number of trie logs to prune per second, 0 for no limit. (default: ${DEFAULT-VALUE})")
+    private int trieLogPruningRateLimit = DEFAULT_TRIE_LOG_PRUNING_RATE_LIMIT;
+
+    @Option(
+        hidden = true,
+        names = {"--Xbonsai-flat-db-verification-enabled"},
+        arity = "1",
+        description =
+            "Enables checking the full flat database against the world state tries in the background at startup. (default: ${DEFAULT-VALUE})")
+    private boolean flatDbVerificationEnabled = DEFAULT_FLAT_DB_VERIFICATION_ENABLED;
+
+    @Option(
+        hidden = true,
+        names = {"--Xbonsai-trie-log-encoding"},
+        paramLabel = "<ENCODING>",
+        arity = "1",
+        description =
+            "The format of the new trie logs, one of: ${COMPLETION-CANDIDATES}. The trie logs of all the formats are read. (default: ${DEFAULT-VALUE})")
+    private TrieLogEncoding trieLogEncoding = DEFAULT_TRIE_LOG_ENCODING;
+
+    @Option(
+        hidden = true,
+        names = {"--Xbonsai-trie-log-ranges-enabled"},
+        arity = "1",
+        description =
+            "Enables compacting the trie logs of the canonical chain into ranges, to roll the world state across many blocks at once. Only the ranges that fit in the number of layers to load are compacted. (default: ${DEFAULT-VALUE})")
+    private boolean trieLogRangesEnabled = DEFAULT_TRIE_LOG_RANGES_ENABLED;
+
+    @Option(
+        hidden = true,
+        names = {"--Xbonsai-storage-prefetch-enabled"},
+        arity = "1",
+        description =
+            "Enables reading the accounts and slots a block is known to touch in the background before executing its transactions. (default: ${DEFAULT-VALUE})")
+    private boolean storagePrefetchEnabled = DEFAULT_STORAGE_PREFETCH_ENABLED;
+
     /** Default Constructor. */
     Unstable() {}
   }
@@ -163,6 +220,22 @@ public class DiffBasedSubStorageOptions implements CLIOptions<DiffBasedSubStorag
                   trieLogPruningWindowSize,
                   maxLayersToLoad));
         }
+        if (unstableOptions.trieLogPruningRateLimit < 0) {
+          throw new CommandLine.ParameterException(
+              commandLine,
+              String.format(
+                  "--Xbonsai-trie-logs-pruning-rate-limit=%d must not be negative",
+                  unstableOptions.trieLogPruningRateLimit));
+        }
+      }
+      if (unstableOptions.archiveEnabled && !unstableOptions.fullFlatDbEnabled) {
+        throw new CommandLine.ParameterException(
+            commandLine, "--Xbonsai-archive-enabled requires --Xbonsai-full-flat-db-enabled");
+      }
+      if (unstableOptions.archiveEnabled && !unstableOptions.codeUsingCodeHashEnabled) {
+        throw new CommandLine.ParameterException(
+            commandLine,
+            "--Xbonsai-archive-enabled requires --Xbonsai-code-using-code-hash-enabled");
       }
     } else {
       if (unstableOptions.isParallelTxProcessingEnabled) {
@@ -191,6 +264,18 @@ public class DiffBasedSubStorageOptions implements CLIOptions<DiffBasedSubStorag
         domainObject.getUnstable().getCodeStoredByCodeHashEnabled();
     dataStorageOptions.unstableOptions.isParallelTxProcessingEnabled =
         domainObject.getUnstable().isParallelTxProcessingEnabled();
+    dataStorageOptions.unstableOptions.archiveEnabled =
+        domainObject.getUnstable().getArchiveEnabled();
+    dataStorageOptions.unstableOptions.trieLogPruningRateLimit =
+        domainObject.getUnstable().getTrieLogPruningRateLimit();
+    dataStorageOptions.unstableOptions.flatDbVerificationEnabled =
+        domainObject.getUnstable().getFlatDbVerificationEnabled();
+    dataStorageOptions.unstableOptions.trieLogEncoding =
+        domainObject.getUnstable().getTrieLogEncoding();
+    dataStorageOptions.unstableOptions.trieLogRangesEnabled =
+        domainObject.getUnstable().getTrieLogRangesEnabled();
+    dataStorageOptions.unstableOptions.storagePrefetchEnabled =
+        domainObject.getUnstable().getStoragePrefetchEnabled();
 
     return dataStorageOptions;
   }
@@ -206,6 +291,12 @@ public class DiffBasedSubStorageOptions implements CLIOptions<DiffBasedSubStorag
                 .fullFlatDbEnabled(unstableOptions.fullFlatDbEnabled)
                 .codeStoredByCodeHashEnabled(unstableOptions.codeUsingCodeHashEnabled)
                 .isParallelTxProcessingEnabled(unstableOptions.isParallelTxProcessingEnabled)
+                .archiveEnabled(unstableOptions.archiveEnabled)
+                .trieLogPruningRateLimit(unstableOptions.trieLogPruningRateLimit)
+                .flatDbVerificationEnabled(unstableOptions.flatDbVerificationEnabled)
+                .trieLogEncoding(unstableOptions.trieLogEncoding)
+                .trieLogRangesEnabled(unstableOptions.trieLogRangesEnabled)
+                .storagePrefetchEnabled(unstableOptions.storagePrefetchEnabled)
                 .build())
         .build();
   }
@@ -0,0 +1,86 @@
+/*
+ * Copyright contributors to Hyperledger Besu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.cli.subcommands.storage;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import org.hyperledger.besu.cli.util.VersionProvider;
+import org.hyperledger.besu.controller.BesuController;
+import org.hyperledger.besu.ethereum.storage.StorageProvider;
+import org.hyperledger.besu.ethereum.trie.diffbased.bonsai.storage.BonsaiFlatDbHealer;
+import org.hyperledger.besu.ethereum.trie.diffbased.bonsai.storage.BonsaiWorldStateKeyValueStorage;
+import org.hyperledger.besu.ethereum.worldstate.DataStorageConfiguration;
+import org.hyperledger.besu.plugin.services.storage.DataStorageFormat;
+
+import java.io.PrintWriter;
+
+import picocli.CommandLine;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.ParentCommand;
+
+/** The heal flat database subcommand. */
+@Command(
+    name = "heal-flat-db",
+    aliases = "x-heal-flat-db",
+    description =
+        "This command verifies the Bonsai flat database against the tries and repairs it.",
+    mixinStandardHelpOptions = true,
+    versionProvider = VersionProvider.class)
+public class HealFlatDbSubCommand implements Runnable {
+
+  @SuppressWarnings("unused")
+  @ParentCommand
+  private StorageSubCommand parentCommand;
+
+  @SuppressWarnings("unused")
+  @CommandLine.Spec
+  private CommandLine.Model.CommandSpec spec; // Picocli injects reference to command spec
+
+  @CommandLine.Option(
+      names = "--ranges",
+      description = "Number of account ranges checked in parallel (default: ${DEFAULT-VALUE})")
+  private int nbRanges = 8;
+
+  @CommandLine.Option(
+      names = "--verify-only",
+      description = "Only report the mismatches, without repairing them.")
+  private boolean verifyOnly = false;
+
+  /** Default Constructor. */
+  HealFlatDbSubCommand() {}
+
+  @Override
+  public void run() {
+    checkNotNull(parentCommand);
+    checkArgument(nbRanges > 0, "--ranges must be greater than 0");
+    final BesuController besuController = parentCommand.besuCommand.buildController();
+    final DataStorageConfiguration config = besuController.getDataStorageConfiguration();
+    checkArgument(
+        DataStorageFormat.BONSAI.equals(config.getDataStorageFormat()),
+        "Subcommand only works with data-storage-format=BONSAI");
+    final StorageProvider storageProvider = besuController.getStorageProvider();
+    final BonsaiWorldStateKeyValueStorage worldStateStorage =
+        (BonsaiWorldStateKeyValueStorage) storageProvider.createWorldStateStorage(config);
+
+    final BonsaiFlatDbHealer flatDbHealer = new BonsaiFlatDbHealer(worldStateStorage, nbRanges);
+    final BonsaiFlatDbHealer.Result result =
+        verifyOnly
+            ? flatDbHealer.verify()
+            : flatDbHealer.heal(storageProvider.createVariablesStorage());
+    final PrintWriter out = spec.commandLine().getOut();
+    out.printf("%s %s%n", verifyOnly ? "Verified" : "Healed", result);
+  }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright contributors to Hyperledger Besu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.cli.subcommands.storage;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import org.hyperledger.besu.cli.util.VersionProvider;
+import org.hyperledger.besu.controller.BesuController;
+import org.hyperledger.besu.datatypes.Hash;
+import org.hyperledger.besu.ethereum.trie.diffbased.bonsai.storage.BonsaiTrieRebuilder;
+import org.hyperledger.besu.ethereum.trie.diffbased.bonsai.storage.BonsaiWorldStateKeyValueStorage;
+import org.hyperledger.besu.ethereum.worldstate.DataStorageConfiguration;
+import org.hyperledger.besu.plugin.services.storage.DataStorageFormat;
+
+import java.io.PrintWriter;
+
+import picocli.CommandLine;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.ParentCommand;
+
+/** The rebuild trie subcommand. */
+@Command(
+    name = "rebuild-trie",
+    aliases = "x-rebuild-trie",
+    description =
+        "This command rebuilds the Bonsai account and storage tries from the full flat database.",
+    mixinStandardHelpOptions = true,
+    versionProvider = VersionProvider.class)
+public class RebuildTrieSubCommand implements Runnable {
+
+  @SuppressWarnings("unused")
+  @ParentCommand
+  private StorageSubCommand parentCommand;
+
+  @SuppressWarnings("unused")
+  @CommandLine.Spec
+  private CommandLine.Model.CommandSpec spec; // Picocli injects reference to command spec
+
+  @CommandLine.Option(
+      names = "--dry-run",
+      description = "Only compute the state root of the flat database, without writing the tries.")
+  private boolean dryRun = false;
+
+  /** Default Constructor. */
+  RebuildTrieSubCommand() {}
+
+  @Override
+  public void run() {
+    checkNotNull(parentCommand);
+    final BesuController besuController = parentCommand.besuCommand.buildController();
+    final DataStorageConfiguration config = besuController.getDataStorageConfiguration();
+    checkArgument(
+        DataStorageFormat.BONSAI.equals(config.getDataStorageFormat()),
+        "Subcommand only works with data-storage-format=BONSAI");
+    final BonsaiWorldStateKeyValueStorage worldStateStorage =
+        (BonsaiWorldStateKeyValueStorage)
+            besuController.getStorageProvider().createWorldStateStorage(config);
+
+    final BonsaiTrieRebuilder trieRebuilder = new BonsaiTrieRebuilder(worldStateStorage);
+    final PrintWriter out = spec.commandLine().getOut();
+    if (dryRun) {
+      final Hash stateRoot = trieRebuilder.computeStateRoot();
+      out.printf("State root of the flat database: %s%n", stateRoot);
+    } else {
+      final Hash stateRoot = trieRebuilder.rebuild();
+      out.printf("Rebuilt the tries of state root %s%n", stateRoot);
+    }
+  }
+}
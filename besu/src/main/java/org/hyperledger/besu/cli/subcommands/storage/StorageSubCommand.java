@@ -50,7 +50,9 @@ import picocli.CommandLine.Spec;
       StorageSubCommand.RevertVariablesStorage.class,
       RocksDbSubCommand.class,
       TrieLogSubCommand.class,
-      RevertMetadataSubCommand.class
+      RevertMetadataSubCommand.class,
+      RebuildTrieSubCommand.class,
+      HealFlatDbSubCommand.class
     })
 public class StorageSubCommand implements Runnable {
 
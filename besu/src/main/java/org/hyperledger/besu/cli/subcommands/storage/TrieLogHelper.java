@@ -58,6 +58,7 @@ public class TrieLogHelper {
   private static final String TRIE_LOG_FILE = "trieLogsToRetain";
   private static final long BATCH_SIZE = 20_000;
   private static final int ROCKSDB_MAX_INSERTS_PER_TRANSACTION = 1000;
+  private static final TrieLogFactoryImpl TRIE_LOG_FACTORY = new TrieLogFactoryImpl();
   private static final Logger LOG = LoggerFactory.getLogger(TrieLogHelper.class);
 
   /** Default Constructor. */
@@ -363,11 +364,19 @@ public class TrieLogHelper {
 
     final IdentityHashMap<byte[], byte[]> trieLogs =
         getTrieLogs(trieLogsKeys, rootWorldStateStorage);
+    // the RLP trie logs are written as they are, the compact ones as RLP strings
     final Bytes rlp =
         RLP.encode(
             o ->
                 o.writeList(
-                    trieLogs.entrySet(), (val, out) -> out.writeRaw(Bytes.wrap(val.getValue()))));
+                    trieLogs.entrySet(),
+                    (val, out) -> {
+                      if (TrieLogFactoryImpl.isCompact(val.getValue())) {
+                        out.writeBytes(Bytes.wrap(val.getValue()));
+                      } else {
+                        out.writeRaw(Bytes.wrap(val.getValue()));
+                      }
+                    }));
     try {
       Files.write(file.toPath(), rlp.toArrayUnsafe());
     } catch (IOException e) {
@@ -384,9 +393,9 @@ public class TrieLogHelper {
       input.enterList();
       final IdentityHashMap<byte[], byte[]> trieLogs = new IdentityHashMap<>();
       while (!input.isEndOfCurrentList()) {
-        final Bytes trieLogBytes = input.currentListAsBytes();
-        TrieLogLayer trieLogLayer =
-            TrieLogFactoryImpl.readFrom(new BytesValueRLPInput(Bytes.wrap(trieLogBytes), false));
+        final Bytes trieLogBytes =
+            input.nextIsList() ? input.currentListAsBytes() : input.readBytes();
+        TrieLogLayer trieLogLayer = TRIE_LOG_FACTORY.deserialize(trieLogBytes.toArrayUnsafe());
         trieLogs.put(trieLogLayer.getBlockHash().toArrayUnsafe(), trieLogBytes.toArrayUnsafe());
       }
       input.leaveList();
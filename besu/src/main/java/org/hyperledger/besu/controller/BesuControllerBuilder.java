@@ -90,12 +90,19 @@ import org.hyperledger.besu.ethereum.storage.keyvalue.KeyValueSegmentIdentifier;
 import org.hyperledger.besu.ethereum.transaction.TransactionSimulator;
 import org.hyperledger.besu.ethereum.trie.diffbased.bonsai.BonsaiWorldStateProvider;
 import org.hyperledger.besu.ethereum.trie.diffbased.bonsai.cache.BonsaiCachedMerkleTrieLoader;
+import org.hyperledger.besu.ethereum.trie.diffbased.bonsai.cache.BonsaiStoragePrefetcher;
+import org.hyperledger.besu.ethereum.trie.diffbased.bonsai.storage.BonsaiFlatDbHealer;
+import org.hyperledger.besu.ethereum.trie.diffbased.bonsai.storage.BonsaiSnapshotWorldStateKeyValueStorage;
 import org.hyperledger.besu.ethereum.trie.diffbased.bonsai.storage.BonsaiWorldStateKeyValueStorage;
+import org.hyperledger.besu.ethereum.trie.diffbased.bonsai.storage.flat.BonsaiArchiver;
+import org.hyperledger.besu.ethereum.trie.diffbased.bonsai.trielog.TrieLogFactoryImpl;
+import org.hyperledger.besu.ethereum.trie.diffbased.common.trielog.TrieLogCompactor;
 import org.hyperledger.besu.ethereum.trie.diffbased.common.trielog.TrieLogManager;
 import org.hyperledger.besu.ethereum.trie.diffbased.common.trielog.TrieLogPruner;
 import org.hyperledger.besu.ethereum.trie.forest.ForestWorldStateArchive;
 import org.hyperledger.besu.ethereum.worldstate.DataStorageConfiguration;
 import org.hyperledger.besu.ethereum.worldstate.DiffBasedSubStorageConfiguration;
+import org.hyperledger.besu.ethereum.worldstate.FlatDbMode;
 import org.hyperledger.besu.ethereum.worldstate.WorldStateArchive;
 import org.hyperledger.besu.ethereum.worldstate.WorldStateArchive.WorldStateHealer;
 import org.hyperledger.besu.ethereum.worldstate.WorldStateKeyValueStorage;
@@ -118,15 +125,19 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.OptionalLong;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Supplier;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /** The Besu controller builder that builds Besu Controller. */
 public abstract class BesuControllerBuilder implements MiningParameterOverrides {
   private static final Logger LOG = LoggerFactory.getLogger(BesuControllerBuilder.class);
+  private static final int FLAT_DB_VERIFICATION_RANGES = 4;
 
   /** The genesis file */
   protected GenesisConfigFile genesisConfigFile;
@@ -786,21 +797,51 @@ public abstract class BesuControllerBuilder implements MiningParameterOverrides
         createAdditionalJsonRpcMethodFactory(
             protocolContext, protocolSchedule, miningConfiguration);
 
+    final List<Closeable> closeables = new ArrayList<>();
     if (DataStorageFormat.BONSAI.equals(dataStorageConfiguration.getDataStorageFormat())) {
       final DiffBasedSubStorageConfiguration subStorageConfiguration =
           dataStorageConfiguration.getDiffBasedSubStorageConfiguration();
+      final TrieLogManager trieLogManager =
+          ((BonsaiWorldStateProvider) worldStateArchive).getTrieLogManager();
+      if (subStorageConfiguration.getUnstable().getTrieLogRangesEnabled()) {
+        final long retainedTrieLogs =
+            subStorageConfiguration.getLimitTrieLogsEnabled()
+                ? subStorageConfiguration.getMaxLayersToLoad()
+                : Long.MAX_VALUE;
+        trieLogManager.subscribe(
+            new TrieLogCompactor(
+                trieLogManager, blockchain, retainedTrieLogs, scheduler::executeServiceTask));
+      }
+      final BonsaiWorldStateKeyValueStorage worldStateKeyValueStorage =
+          worldStateStorageCoordinator.getStrategy(BonsaiWorldStateKeyValueStorage.class);
+      if (FlatDbMode.ARCHIVE.equals(worldStateKeyValueStorage.getFlatDbMode())) {
+        blockchain.observeBlockAdded(
+            new BonsaiArchiver(
+                worldStateKeyValueStorage,
+                trieLogManager,
+                blockchain,
+                scheduler::executeServiceTask));
+      }
       if (subStorageConfiguration.getLimitTrieLogsEnabled()) {
-        final TrieLogManager trieLogManager =
-            ((BonsaiWorldStateProvider) worldStateArchive).getTrieLogManager();
-        final BonsaiWorldStateKeyValueStorage worldStateKeyValueStorage =
-            worldStateStorageCoordinator.getStrategy(BonsaiWorldStateKeyValueStorage.class);
+        // a dedicated worker, so that the rate limited deletes do not hold the shared service
+        // threads, stopped before the storage is closed
+        final ExecutorService trieLogPrunerExecutor =
+            Executors.newSingleThreadExecutor(
+                new ThreadFactoryBuilder()
+                    .setNameFormat("trie-log-pruner-%d")
+                    .setDaemon(true)
+                    .build());
+        closeables.add(trieLogPrunerExecutor::shutdownNow);
         final TrieLogPruner trieLogPruner =
-            createTrieLogPruner(worldStateKeyValueStorage, blockchain, scheduler);
+            createTrieLogPruner(worldStateKeyValueStorage, blockchain, trieLogPrunerExecutor);
         trieLogManager.subscribe(trieLogPruner);
       }
+      if (subStorageConfiguration.getUnstable().getFlatDbVerificationEnabled()
+          && worldStateKeyValueStorage.getFlatDbMode().includes(FlatDbMode.FULL)) {
+        scheduler.executeServiceTask(() -> verifyFlatDatabase(worldStateKeyValueStorage));
+      }
     }
 
-    final List<Closeable> closeables = new ArrayList<>();
     closeables.add(protocolContext.getWorldStateArchive());
     closeables.add(storageProvider);
     if (privacyParameters.getPrivateStorageProvider() != null) {
@@ -857,7 +898,7 @@ public abstract class BesuControllerBuilder implements MiningParameterOverrides
   private TrieLogPruner createTrieLogPruner(
       final WorldStateKeyValueStorage worldStateStorage,
       final Blockchain blockchain,
-      final EthScheduler scheduler) {
+      final ExecutorService trieLogPrunerExecutor) {
     final boolean isProofOfStake = genesisConfigOptions.getTerminalTotalDifficulty().isPresent();
     final DiffBasedSubStorageConfiguration subStorageConfiguration =
         dataStorageConfiguration.getDiffBasedSubStorageConfiguration();
@@ -865,9 +906,10 @@ public abstract class BesuControllerBuilder implements MiningParameterOverrides
         new TrieLogPruner(
             (BonsaiWorldStateKeyValueStorage) worldStateStorage,
             blockchain,
-            scheduler::executeServiceTask,
+            trieLogPrunerExecutor::execute,
             subStorageConfiguration.getMaxLayersToLoad(),
             subStorageConfiguration.getTrieLogPruningWindowSize(),
+            subStorageConfiguration.getUnstable().getTrieLogPruningRateLimit(),
             isProofOfStake,
             metricsSystem);
     trieLogPruner.initialize();
@@ -875,6 +917,22 @@ public abstract class BesuControllerBuilder implements MiningParameterOverrides
     return trieLogPruner;
   }
 
+  private void verifyFlatDatabase(final BonsaiWorldStateKeyValueStorage worldStateStorage) {
+    // the head keeps moving, so the check reads a snapshot and only reports the mismatches
+    try (BonsaiSnapshotWorldStateKeyValueStorage snapshot =
+        new BonsaiSnapshotWorldStateKeyValueStorage(worldStateStorage)) {
+      final BonsaiFlatDbHealer.Result result =
+          new BonsaiFlatDbHealer(snapshot, FLAT_DB_VERIFICATION_RANGES).verify();
+      if (!result.isConsistent()) {
+        LOG.warn(
+            "The flat database does not match the world state tries ({}), it can be repaired with `besu storage heal-flat-db`",
+            result);
+      }
+    } catch (final Exception e) {
+      LOG.warn("Unable to verify the flat database", e);
+    }
+  }
+
   /**
    * Create synchronizer synchronizer.
    *
@@ -1154,7 +1212,13 @@ public abstract class BesuControllerBuilder implements MiningParameterOverrides
             bonsaiCachedMerkleTrieLoader,
             besuComponent.map(BesuComponent::getBesuPluginContext).orElse(null),
             evmConfiguration,
-            worldStateHealerSupplier);
+            worldStateHealerSupplier,
+            new TrieLogFactoryImpl(
+                dataStorageConfiguration
+                    .getDiffBasedSubStorageConfiguration()
+                    .getUnstable()
+                    .getTrieLogEncoding()),
+            createStoragePrefetcher());
       }
       case FOREST -> {
         final WorldStatePreimageStorage preimageStorage =
@@ -1168,6 +1232,24 @@ public abstract class BesuControllerBuilder implements MiningParameterOverrides
     };
   }
 
+  private Optional<BonsaiStoragePrefetcher> createStoragePrefetcher() {
+    if (!dataStorageConfiguration
+        .getDiffBasedSubStorageConfiguration()
+        .getUnstable()
+        .getStoragePrefetchEnabled()) {
+      return Optional.empty();
+    }
+    // shut down by the world state archive when it is closed
+    final ExecutorService storagePrefetchExecutor =
+        Executors.newFixedThreadPool(
+            Math.max(2, Runtime.getRuntime().availableProcessors() / 2),
+            new ThreadFactoryBuilder()
+                .setNameFormat("storage-prefetch-%d")
+                .setDaemon(true)
+                .build());
+    return Optional.of(new BonsaiStoragePrefetcher(storagePrefetchExecutor));
+  }
+
   private ChainDataPruner createChainPruner(final BlockchainStorage blockchainStorage) {
     return new ChainDataPruner(
         blockchainStorage,
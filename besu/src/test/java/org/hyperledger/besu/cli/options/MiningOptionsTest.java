@@ -312,6 +312,32 @@ public class MiningOptionsTest extends AbstractCLIOptionsTest<MiningConfiguratio
         "17000");
   }
 
+  @Test
+  public void posBlockCreationRepeatOnNewTransactionsOption() {
+    internalTestSuccess(
+        miningParams ->
+            assertThat(miningParams.getUnstable().isPosBlockCreationRepeatedOnNewTransactions())
+                .isTrue(),
+        "--Xpos-block-creation-repeat-on-new-transactions");
+  }
+
+  @Test
+  public void maxDaBlockSizeOption() {
+    internalTestSuccess(
+        miningParams ->
+            assertThat(miningParams.getUnstable().getMaxDaBlockSize()).isEqualTo(120_000L),
+        "--Xmax-da-block-size",
+        "120000");
+  }
+
+  @Test
+  public void negativeMaxDaTxSizeMustFail() {
+    internalTestFailure(
+        "--Xmax-da-tx-size and --Xmax-da-block-size must not be negative",
+        "--Xmax-da-tx-size",
+        "-1");
+  }
+
   @Test
   public void blockTxsSelectionMaxTimeDefaultValue() {
     internalTestSuccess(
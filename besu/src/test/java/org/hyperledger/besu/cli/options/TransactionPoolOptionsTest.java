@@ -345,6 +345,37 @@ public class TransactionPoolOptionsTest
         "acbd");
   }
 
+  @Test
+  public void offHeapPayloadMinSize() {
+    final int offHeapPayloadMinSize = 1024;
+    internalTestSuccess(
+        config ->
+            assertThat(config.getUnstable().getOffHeapPayloadMinSize())
+                .isEqualTo(offHeapPayloadMinSize),
+        "--Xtx-pool-off-heap-payload-min-size",
+        String.valueOf(offHeapPayloadMinSize));
+  }
+
+  @Test
+  public void offHeapPayloadMaxSize() {
+    final long offHeapPayloadMaxSize = 1_000_000L;
+    internalTestSuccess(
+        config ->
+            assertThat(config.getUnstable().getOffHeapPayloadMaxSize())
+                .isEqualTo(offHeapPayloadMaxSize),
+        "--Xtx-pool-off-heap-payload-max-size",
+        String.valueOf(offHeapPayloadMaxSize));
+  }
+
+  @Test
+  public void journalMaxSize() {
+    final int journalMaxSize = 64_000_000;
+    internalTestSuccess(
+        config -> assertThat(config.getUnstable().getJournalMaxSize()).isEqualTo(journalMaxSize),
+        "--Xtx-pool-journal-max-size",
+        String.valueOf(journalMaxSize));
+  }
+
   @Test
   public void eth65TrxAnnouncedBufferingPeriod() {
     final Duration eth65TrxAnnouncedBufferingPeriod = Duration.ofMillis(999);
@@ -22,6 +22,7 @@ import org.hyperledger.besu.cli.options.storage.DataStorageOptions;
 import org.hyperledger.besu.ethereum.worldstate.DataStorageConfiguration;
 import org.hyperledger.besu.ethereum.worldstate.ImmutableDataStorageConfiguration;
 import org.hyperledger.besu.ethereum.worldstate.ImmutableDiffBasedSubStorageConfiguration;
+import org.hyperledger.besu.ethereum.worldstate.TrieLogEncoding;
 import org.hyperledger.besu.plugin.services.storage.DataStorageFormat;
 
 import org.junit.jupiter.api.Test;
@@ -124,6 +125,86 @@ public class DataStorageOptionsTest
         "511");
   }
 
+  @Test
+  public void diffbasedTrieLogPruningRateLimitOption() {
+    internalTestSuccess(
+        dataStorageConfiguration ->
+            assertThat(
+                    dataStorageConfiguration
+                        .getDiffBasedSubStorageConfiguration()
+                        .getUnstable()
+                        .getTrieLogPruningRateLimit())
+                .isEqualTo(1000),
+        "--bonsai-limit-trie-logs-enabled",
+        "--Xbonsai-trie-logs-pruning-rate-limit",
+        "1000");
+  }
+
+  @Test
+  public void diffbasedTrieLogPruningRateLimitShouldNotBeNegative() {
+    internalTestFailure(
+        "--Xbonsai-trie-logs-pruning-rate-limit=-1 must not be negative",
+        "--bonsai-limit-trie-logs-enabled",
+        "--Xbonsai-trie-logs-pruning-rate-limit",
+        "-1");
+  }
+
+  @Test
+  public void diffbasedFlatDbVerificationCanBeEnabled() {
+    internalTestSuccess(
+        dataStorageConfiguration ->
+            assertThat(
+                    dataStorageConfiguration
+                        .getDiffBasedSubStorageConfiguration()
+                        .getUnstable()
+                        .getFlatDbVerificationEnabled())
+                .isEqualTo(true),
+        "--Xbonsai-flat-db-verification-enabled",
+        "true");
+  }
+
+  @Test
+  public void diffbasedTrieLogEncodingCanBeSet() {
+    internalTestSuccess(
+        dataStorageConfiguration ->
+            assertThat(
+                    dataStorageConfiguration
+                        .getDiffBasedSubStorageConfiguration()
+                        .getUnstable()
+                        .getTrieLogEncoding())
+                .isEqualTo(TrieLogEncoding.COMPACT_COMPRESSED),
+        "--Xbonsai-trie-log-encoding",
+        "COMPACT_COMPRESSED");
+  }
+
+  @Test
+  public void diffbasedTrieLogRangesCanBeEnabled() {
+    internalTestSuccess(
+        dataStorageConfiguration ->
+            assertThat(
+                    dataStorageConfiguration
+                        .getDiffBasedSubStorageConfiguration()
+                        .getUnstable()
+                        .getTrieLogRangesEnabled())
+                .isEqualTo(true),
+        "--Xbonsai-trie-log-ranges-enabled",
+        "true");
+  }
+
+  @Test
+  public void diffbasedStoragePrefetchCanBeEnabled() {
+    internalTestSuccess(
+        dataStorageConfiguration ->
+            assertThat(
+                    dataStorageConfiguration
+                        .getDiffBasedSubStorageConfiguration()
+                        .getUnstable()
+                        .getStoragePrefetchEnabled())
+                .isEqualTo(true),
+        "--Xbonsai-storage-prefetch-enabled",
+        "true");
+  }
+
   @Test
   public void diffbasedCodeUsingCodeHashEnabledCanBeEnabled() {
     internalTestSuccess(
@@ -58,6 +58,7 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
 import java.util.function.Supplier;
 
 import com.google.common.annotations.VisibleForTesting;
@@ -80,6 +81,9 @@ public class MergeCoordinator implements MergeMiningCoordinator, BadChainListene
 
   private static final long DEFAULT_TARGET_GAS_LIMIT = 30000000L;
 
+  /** The minimum wait, in milliseconds, between two repetitions of a block creation. */
+  private static final long MIN_WAIT_BEFORE_REPETITION = 100;
+
   /** The Mining parameters. */
   protected final MiningConfiguration miningConfiguration;
 
@@ -139,6 +143,10 @@ public class MergeCoordinator implements MergeMiningCoordinator, BadChainListene
 
     this.miningConfiguration = miningParams;
 
+    if (miningParams.getUnstable().isPosBlockCreationRepeatedOnNewTransactions()) {
+      transactionPool.subscribePendingTransactions(unused -> onTransactionAdded());
+    }
+
     this.mergeBlockCreatorFactory =
         (parentHeader, address) -> {
           address.ifPresent(miningParams::setCoinbase);
@@ -406,20 +414,26 @@ public class MergeCoordinator implements MergeMiningCoordinator, BadChainListene
   private Void retryBlockCreationUntilUseful(
       final PayloadIdentifier payloadIdentifier, final Supplier<BlockCreationResult> blockCreator) {
 
+    final BlockCreationTask blockCreationTask = blockCreationTasks.get(payloadIdentifier);
+    if (blockCreationTask == null) {
+      return null;
+    }
     long lastStartAt;
 
     while (!isBlockCreationCancelled(payloadIdentifier)) {
       try {
         lastStartAt = System.currentTimeMillis();
+        // only the transactions added from now on are missing from the block being created
+        blockCreationTask.transactionsAdded = false;
         recoverableBlockCreation(payloadIdentifier, blockCreator, lastStartAt);
         final long lastDuration = System.currentTimeMillis() - lastStartAt;
         final long waitBeforeRepetition =
             Math.max(
-                100,
+                MIN_WAIT_BEFORE_REPETITION,
                 miningConfiguration.getUnstable().getPosBlockCreationRepetitionMinDuration()
                     - lastDuration);
-        LOG.debug("Waiting {}ms before repeating block creation", waitBeforeRepetition);
-        Thread.sleep(waitBeforeRepetition);
+        LOG.debug("Waiting at most {}ms before repeating block creation", waitBeforeRepetition);
+        waitBeforeRepetition(blockCreationTask, waitBeforeRepetition);
       } catch (final CancellationException | InterruptedException ce) {
         LOG.atDebug()
             .setMessage("Block creation for payload id {} has been cancelled, reason {}")
@@ -438,6 +452,40 @@ public class MergeCoordinator implements MergeMiningCoordinator, BadChainListene
     return null;
   }
 
+  private void onTransactionAdded() {
+    blockCreationTasks.values().forEach(BlockCreationTask::onTransactionAdded);
+  }
+
+  /**
+   * Waits before repeating a block creation. The wait ends early if the block creation is
+   * cancelled, or after the minimum wait if a transaction was added to the pool since the last
+   * block creation started, which is only tracked when the repetition on new transactions is
+   * enabled.
+   */
+  private void waitBeforeRepetition(
+      final BlockCreationTask blockCreationTask, final long waitBeforeRepetition)
+      throws InterruptedException {
+    final long now = System.currentTimeMillis();
+    final long deadline = now + waitBeforeRepetition;
+    final long minDeadline = now + Math.min(MIN_WAIT_BEFORE_REPETITION, waitBeforeRepetition);
+    blockCreationTask.waitingThread = Thread.currentThread();
+    try {
+      while (!blockCreationTask.cancelled.get()) {
+        final long waitUntil = blockCreationTask.transactionsAdded ? minDeadline : deadline;
+        final long remaining = waitUntil - System.currentTimeMillis();
+        if (remaining <= 0) {
+          return;
+        }
+        LockSupport.parkNanos(blockCreationTask, TimeUnit.MILLISECONDS.toNanos(remaining));
+        if (Thread.interrupted()) {
+          throw new InterruptedException();
+        }
+      }
+    } finally {
+      blockCreationTask.waitingThread = null;
+    }
+  }
+
   private void recoverableBlockCreation(
       final PayloadIdentifier payloadIdentifier,
       final Supplier<BlockCreationResult> blockCreator,
@@ -883,6 +931,12 @@ public class MergeCoordinator implements MergeMiningCoordinator, BadChainListene
     /** The Cancelled. */
     final AtomicBoolean cancelled;
 
+    /** Whether transactions were added to the pool since the last block creation started. */
+    volatile boolean transactionsAdded;
+
+    /** The thread waiting before repeating the block creation, if any. */
+    volatile Thread waitingThread;
+
     /**
      * Instantiates a new Block creation task.
      *
@@ -897,6 +951,22 @@ public class MergeCoordinator implements MergeMiningCoordinator, BadChainListene
     public void cancel() {
       cancelled.set(true);
       blockCreator.cancel();
+      wakeUpWaitingThread();
+    }
+
+    /** Wakes up the thread waiting before a repetition, only once per block creation. */
+    void onTransactionAdded() {
+      if (!transactionsAdded) {
+        transactionsAdded = true;
+        wakeUpWaitingThread();
+      }
+    }
+
+    private void wakeUpWaitingThread() {
+      final Thread thread = waitingThread;
+      if (thread != null) {
+        LockSupport.unpark(thread);
+      }
     }
   }
 }
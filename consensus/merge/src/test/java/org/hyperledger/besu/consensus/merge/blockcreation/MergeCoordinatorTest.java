@@ -471,6 +471,59 @@ public class MergeCoordinatorTest implements MergeGenesisConfigHelper {
         .allSatisfy(d -> assertThat(d).isGreaterThanOrEqualTo(REPETITION_MIN_DURATION - 10));
   }
 
+  @Test
+  public void blockCreationShouldBeRepeatedWithoutWaitingWhenTransactionsAreAdded()
+      throws InterruptedException, ExecutionException {
+    final long longRepetitionMinDuration = 5000;
+    final MergeCoordinator repeatingCoordinator =
+        new MergeCoordinator(
+            protocolContext,
+            protocolSchedule,
+            ethScheduler,
+            transactionPool,
+            ImmutableMiningConfiguration.builder()
+                .mutableInitValues(MutableInitValues.builder().coinbase(coinbase).build())
+                .unstable(
+                    Unstable.builder()
+                        .posBlockCreationRepetitionMinDuration(longRepetitionMinDuration)
+                        .isPosBlockCreationRepeatedOnNewTransactions(true)
+                        .build())
+                .build(),
+            backwardSyncContext,
+            Optional.empty());
+
+    final AtomicLong retries = new AtomicLong(0);
+    doAnswer(
+            invocation -> {
+              if (retries.getAndIncrement() < 3) {
+                // a new transaction every time a block is built
+                transactions.addTransaction(
+                    createLocalTransaction(retries.get() - 1), Optional.empty());
+              } else {
+                repeatingCoordinator.finalizeProposalById(
+                    invocation.getArgument(0, PayloadWrapper.class).payloadIdentifier());
+              }
+              return null;
+            })
+        .when(mergeContext)
+        .putPayloadById(any());
+
+    final long startedAt = System.currentTimeMillis();
+    repeatingCoordinator.preparePayload(
+        genesisState.getBlock().getHeader(),
+        System.currentTimeMillis() / 1000,
+        Bytes32.ZERO,
+        suggestedFeeRecipient,
+        Optional.empty(),
+        Optional.empty());
+
+    blockCreationTask.get();
+
+    verify(mergeContext, times(retries.intValue())).putPayloadById(any());
+    // the 3 repetitions did not wait for the repetition min duration
+    assertThat(System.currentTimeMillis() - startedAt).isLessThan(longRepetitionMinDuration);
+  }
+
   @Test
   public void shouldRetryBlockCreationOnRecoverableError()
       throws InterruptedException, ExecutionException {
@@ -21,11 +21,28 @@ package org.hyperledger.besu.datatypes;
  * @param ones the number of non-zeroes after tx encoded to bytes
  * @param fastLzSize the length of the tx encoded to bytes after compression
  */
-@SuppressWarnings("UnusedVariable")
 public record RollupGasData(long zeroes, long ones, long fastLzSize) {
 
   private static final RollupGasData empty = new RollupGasData(0L, 0L, 0L);
 
+  /**
+   * Get the empty roll up data, used for transactions that do not pay an L1 data fee.
+   *
+   * @return the empty roll up data
+   */
+  public static RollupGasData empty() {
+    return empty;
+  }
+
+  /**
+   * Whether this roll up data is empty.
+   *
+   * @return true if no bytes were counted
+   */
+  public boolean isEmpty() {
+    return zeroes == 0L && ones == 0L && fastLzSize == 0L;
+  }
+
   /**
    * Get the number of zeroes.
    *
@@ -48,7 +48,11 @@ import org.apache.tuweni.bytes.Bytes;
   "revertReason",
   "type",
   "blobGasUsed",
-  "blobGasPrice"
+  "blobGasPrice",
+  "l1Fee",
+  "l1GasUsed",
+  "depositNonce",
+  "depositReceiptVersion"
 })
 public abstract class TransactionReceiptResult {
 
@@ -71,6 +75,10 @@ public abstract class TransactionReceiptResult {
 
   private final String blobGasUsed;
   private final String blobGasPrice;
+  private final String l1Fee;
+  private final String l1GasUsed;
+  private final String depositNonce;
+  private final String depositReceiptVersion;
 
   protected TransactionReceiptResult(final TransactionReceiptWithMetadata receiptWithMetadata) {
     final Transaction txn = receiptWithMetadata.getTransaction();
@@ -83,6 +91,11 @@ public abstract class TransactionReceiptResult {
     this.gasUsed = Quantity.create(receiptWithMetadata.getGasUsed());
     this.blobGasUsed = receiptWithMetadata.getBlobGasUsed().map(Quantity::create).orElse(null);
     this.blobGasPrice = receiptWithMetadata.getBlobGasPrice().map(Quantity::create).orElse(null);
+    this.l1Fee = receiptWithMetadata.getL1Fee().map(Quantity::create).orElse(null);
+    this.l1GasUsed = receiptWithMetadata.getL1GasUsed().map(Quantity::create).orElse(null);
+    this.depositNonce = receipt.getDepositNonce().map(Quantity::create).orElse(null);
+    this.depositReceiptVersion =
+        receipt.getDepositReceiptVersion().map(Quantity::create).orElse(null);
     this.effectiveGasPrice =
         Quantity.create(txn.getEffectiveGasPrice(receiptWithMetadata.getBaseFee()));
 
@@ -147,6 +160,30 @@ public abstract class TransactionReceiptResult {
     return blobGasPrice;
   }
 
+  @JsonGetter(value = "l1Fee")
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  public String getL1Fee() {
+    return l1Fee;
+  }
+
+  @JsonGetter(value = "l1GasUsed")
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  public String getL1GasUsed() {
+    return l1GasUsed;
+  }
+
+  @JsonGetter(value = "depositNonce")
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  public String getDepositNonce() {
+    return depositNonce;
+  }
+
+  @JsonGetter(value = "depositReceiptVersion")
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  public String getDepositReceiptVersion() {
+    return depositReceiptVersion;
+  }
+
   @JsonGetter(value = "effectiveGasPrice")
   public String getEffectiveGasPrice() {
     return effectiveGasPrice;
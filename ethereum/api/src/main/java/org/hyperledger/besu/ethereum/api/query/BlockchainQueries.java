@@ -20,6 +20,7 @@ import static org.hyperledger.besu.ethereum.mainnet.feemarket.ExcessBlobGasCalcu
 
 import org.hyperledger.besu.datatypes.Address;
 import org.hyperledger.besu.datatypes.Hash;
+import org.hyperledger.besu.datatypes.TransactionType;
 import org.hyperledger.besu.datatypes.Wei;
 import org.hyperledger.besu.ethereum.api.ApiConfiguration;
 import org.hyperledger.besu.ethereum.api.ImmutableApiConfiguration;
@@ -35,6 +36,8 @@ import org.hyperledger.besu.ethereum.core.MutableWorldState;
 import org.hyperledger.besu.ethereum.core.Transaction;
 import org.hyperledger.besu.ethereum.core.TransactionReceipt;
 import org.hyperledger.besu.ethereum.eth.manager.EthScheduler;
+import org.hyperledger.besu.ethereum.mainnet.L1BlockInfo;
+import org.hyperledger.besu.ethereum.mainnet.L1CostCalculator;
 import org.hyperledger.besu.ethereum.mainnet.ProtocolSchedule;
 import org.hyperledger.besu.ethereum.mainnet.ProtocolSpec;
 import org.hyperledger.besu.ethereum.mainnet.feemarket.BaseFeeMarket;
@@ -674,6 +677,13 @@ public class BlockchainQueries {
     Optional<Wei> maybeBlobGasPrice =
         getBlobGasPrice(transaction, header, protocolSchedule.getByBlockHeader(header));
 
+    Optional<L1CostCalculator.L1Cost> maybeL1Cost =
+        getL1Cost(
+            transaction,
+            header,
+            block.getBody().getTransactions(),
+            protocolSchedule.getByBlockHeader(header));
+
     return Optional.of(
         TransactionReceiptWithMetadata.create(
             transactionReceipt,
@@ -686,7 +696,38 @@ public class BlockchainQueries {
             header.getNumber(),
             maybeBlobGasUsed,
             maybeBlobGasPrice,
-            logIndexOffset));
+            logIndexOffset,
+            maybeL1Cost.map(L1CostCalculator.L1Cost::fee),
+            maybeL1Cost.map(L1CostCalculator.L1Cost::gasUsed)));
+  }
+
+  /**
+   * Calculates the L1 data fee paid by a transaction on OP Stack chains, using the L1 fee
+   * parameters carried by the L1 attributes deposit that opens the block.
+   *
+   * @param transaction the transaction to calculate the L1 data fee for
+   * @param header the block header of the block containing the transaction
+   * @param blockTransactions the transactions of the block
+   * @param protocolSpec the protocol specification of the block
+   * @return an Optional containing the L1 data fee if the chain charges one and the transaction is
+   *     not a deposit, otherwise returns an empty Optional
+   */
+  private Optional<L1CostCalculator.L1Cost> getL1Cost(
+      final Transaction transaction,
+      final BlockHeader header,
+      final List<Transaction> blockTransactions,
+      final ProtocolSpec protocolSpec) {
+    if (transaction.getType() == TransactionType.OPTIMISM_DEPOSIT || blockTransactions.isEmpty()) {
+      return Optional.empty();
+    }
+    return protocolSpec
+        .getTransactionProcessor()
+        .getL1CostCalculator()
+        .flatMap(
+            l1CostCalculator ->
+                L1BlockInfo.fromL1InfoDeposit(blockTransactions.get(0))
+                    .map(
+                        l1BlockInfo -> l1CostCalculator.l1Cost(header, l1BlockInfo, transaction)));
   }
 
   /**
@@ -945,7 +986,7 @@ public class BlockchainQueries {
         .getBlockHeader(blockHash)
         .flatMap(
             blockHeader -> {
-              try (var ws = worldStateArchive.getMutable(blockHeader, false).orElse(null)) {
+              try (var ws = worldStateArchive.getMutableForQuery(blockHeader).orElse(null)) {
                 if (ws != null) {
                   return mapper.apply(ws);
                 }
@@ -33,6 +33,8 @@ public class TransactionReceiptWithMetadata {
   private final Optional<Long> blobGasUsed;
   private final Optional<Wei> blobGasPrice;
   private final int logIndexOffset;
+  private final Optional<Wei> l1Fee;
+  private final Optional<Long> l1GasUsed;
 
   private TransactionReceiptWithMetadata(
       final TransactionReceipt receipt,
@@ -45,7 +47,9 @@ public class TransactionReceiptWithMetadata {
       final long blockNumber,
       final Optional<Long> blobGasUsed,
       final Optional<Wei> blobGasPrice,
-      final int logIndexOffset) {
+      final int logIndexOffset,
+      final Optional<Wei> l1Fee,
+      final Optional<Long> l1GasUsed) {
     this.receipt = receipt;
     this.transactionHash = transactionHash;
     this.transactionIndex = transactionIndex;
@@ -57,6 +61,8 @@ public class TransactionReceiptWithMetadata {
     this.blobGasUsed = blobGasUsed;
     this.blobGasPrice = blobGasPrice;
     this.logIndexOffset = logIndexOffset;
+    this.l1Fee = l1Fee;
+    this.l1GasUsed = l1GasUsed;
   }
 
   public static TransactionReceiptWithMetadata create(
@@ -71,6 +77,36 @@ public class TransactionReceiptWithMetadata {
       final Optional<Long> blobGasUsed,
       final Optional<Wei> blobGasPrice,
       final int logIndexOffset) {
+    return create(
+        receipt,
+        transaction,
+        transactionHash,
+        transactionIndex,
+        gasUsed,
+        baseFee,
+        blockHash,
+        blockNumber,
+        blobGasUsed,
+        blobGasPrice,
+        logIndexOffset,
+        Optional.empty(),
+        Optional.empty());
+  }
+
+  public static TransactionReceiptWithMetadata create(
+      final TransactionReceipt receipt,
+      final Transaction transaction,
+      final Hash transactionHash,
+      final int transactionIndex,
+      final long gasUsed,
+      final Optional<Wei> baseFee,
+      final Hash blockHash,
+      final long blockNumber,
+      final Optional<Long> blobGasUsed,
+      final Optional<Wei> blobGasPrice,
+      final int logIndexOffset,
+      final Optional<Wei> l1Fee,
+      final Optional<Long> l1GasUsed) {
     return new TransactionReceiptWithMetadata(
         receipt,
         transaction,
@@ -82,7 +118,9 @@ public class TransactionReceiptWithMetadata {
         blockNumber,
         blobGasUsed,
         blobGasPrice,
-        logIndexOffset);
+        logIndexOffset,
+        l1Fee,
+        l1GasUsed);
   }
 
   public TransactionReceipt getReceipt() {
@@ -130,4 +168,13 @@ public class TransactionReceiptWithMetadata {
   public int getLogIndexOffset() {
     return logIndexOffset;
   }
+
+  // The L1 data fee paid by the transaction on OP Stack chains
+  public Optional<Wei> getL1Fee() {
+    return l1Fee;
+  }
+
+  public Optional<Long> getL1GasUsed() {
+    return l1GasUsed;
+  }
 }
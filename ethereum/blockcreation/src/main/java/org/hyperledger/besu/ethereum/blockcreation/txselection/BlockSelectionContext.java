@@ -20,10 +20,13 @@ import org.hyperledger.besu.ethereum.GasLimitCalculator;
 import org.hyperledger.besu.ethereum.core.MiningConfiguration;
 import org.hyperledger.besu.ethereum.core.ProcessableBlockHeader;
 import org.hyperledger.besu.ethereum.eth.transactions.TransactionPool;
+import org.hyperledger.besu.ethereum.mainnet.L1CostCalculator;
 import org.hyperledger.besu.ethereum.mainnet.blockhash.BlockHashProcessor;
 import org.hyperledger.besu.ethereum.mainnet.feemarket.FeeMarket;
 import org.hyperledger.besu.evm.gascalculator.GasCalculator;
 
+import java.util.Optional;
+
 public record BlockSelectionContext(
     MiningConfiguration miningConfiguration,
     GasCalculator gasCalculator,
@@ -33,4 +36,5 @@ public record BlockSelectionContext(
     FeeMarket feeMarket,
     Wei blobGasPrice,
     Address miningBeneficiary,
-    TransactionPool transactionPool) {}
+    TransactionPool transactionPool,
+    Optional<L1CostCalculator> l1CostCalculator) {}
@@ -27,6 +27,7 @@ import org.hyperledger.besu.ethereum.blockcreation.txselection.selectors.Abstrac
 import org.hyperledger.besu.ethereum.blockcreation.txselection.selectors.BlobPriceTransactionSelector;
 import org.hyperledger.besu.ethereum.blockcreation.txselection.selectors.BlobSizeTransactionSelector;
 import org.hyperledger.besu.ethereum.blockcreation.txselection.selectors.BlockSizeTransactionSelector;
+import org.hyperledger.besu.ethereum.blockcreation.txselection.selectors.L1DataAvailabilityTransactionSelector;
 import org.hyperledger.besu.ethereum.blockcreation.txselection.selectors.MinPriorityFeePerGasTransactionSelector;
 import org.hyperledger.besu.ethereum.blockcreation.txselection.selectors.PriceTransactionSelector;
 import org.hyperledger.besu.ethereum.blockcreation.txselection.selectors.ProcessingResultTransactionSelector;
@@ -40,6 +41,7 @@ import org.hyperledger.besu.ethereum.eth.manager.EthScheduler;
 import org.hyperledger.besu.ethereum.eth.transactions.PendingTransaction;
 import org.hyperledger.besu.ethereum.eth.transactions.TransactionPool;
 import org.hyperledger.besu.ethereum.mainnet.AbstractBlockProcessor;
+import org.hyperledger.besu.ethereum.mainnet.L1CostCalculator;
 import org.hyperledger.besu.ethereum.mainnet.MainnetTransactionProcessor;
 import org.hyperledger.besu.ethereum.mainnet.TransactionValidationParams;
 import org.hyperledger.besu.ethereum.mainnet.blockhash.BlockHashProcessor;
@@ -140,7 +142,8 @@ public class BlockTransactionSelector {
             feeMarket,
             blobGasPrice,
             miningBeneficiary,
-            transactionPool);
+            transactionPool,
+            transactionProcessor.getL1CostCalculator());
     transactionSelectors = createTransactionSelectors(blockSelectionContext);
     this.pluginTransactionSelector = pluginTransactionSelector;
     this.operationTracer =
@@ -157,6 +160,7 @@ public class BlockTransactionSelector {
         new PriceTransactionSelector(context),
         new BlobPriceTransactionSelector(context),
         new MinPriorityFeePerGasTransactionSelector(context),
+        new L1DataAvailabilityTransactionSelector(context),
         new ProcessingResultTransactionSelector(context));
   }
 
@@ -411,6 +415,10 @@ public class BlockTransactionSelector {
         transactionSelectionResults.getCumulativeGasUsed() + gasUsedByTransaction;
     final long blobGasUsed =
         blockSelectionContext.gasCalculator().blobGasCost(transaction.getBlobCount());
+    final long daSize =
+        blockSelectionContext.l1CostCalculator().isPresent()
+            ? L1CostCalculator.estimatedDaSize(transaction.getRollupGasData())
+            : 0L;
 
     final boolean tooLate;
 
@@ -427,7 +435,7 @@ public class BlockTransactionSelector {
                 transaction.getType(), processingResult, worldState, cumulativeGasUsed);
 
         transactionSelectionResults.updateSelected(
-            transaction, receipt, gasUsedByTransaction, blobGasUsed);
+            transaction, receipt, gasUsedByTransaction, blobGasUsed, daSize);
       }
     }
 
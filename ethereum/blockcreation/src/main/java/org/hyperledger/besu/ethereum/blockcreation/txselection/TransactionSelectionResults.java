@@ -49,12 +49,14 @@ public class TransactionSelectionResults {
 
   private long cumulativeGasUsed = 0;
   private long cumulativeBlobGasUsed = 0;
+  private long cumulativeDaSize = 0;
 
   void updateSelected(
       final Transaction transaction,
       final TransactionReceipt receipt,
       final long gasUsed,
-      final long blobGasUsed) {
+      final long blobGasUsed,
+      final long daSize) {
     selectedTransactions.add(transaction);
     transactionsByType
         .computeIfAbsent(transaction.getType(), type -> new ArrayList<>())
@@ -62,6 +64,7 @@ public class TransactionSelectionResults {
     receipts.add(receipt);
     cumulativeGasUsed += gasUsed;
     cumulativeBlobGasUsed += blobGasUsed;
+    cumulativeDaSize += daSize;
     LOG.atTrace()
         .setMessage(
             "New selected transaction {}, total transactions {}, cumulative gas used {}, cumulative blob gas used {}")
@@ -97,6 +100,10 @@ public class TransactionSelectionResults {
     return cumulativeBlobGasUsed;
   }
 
+  public long getCumulativeDaSize() {
+    return cumulativeDaSize;
+  }
+
   public Map<Transaction, TransactionSelectionResult> getNotSelectedTransactions() {
     return Map.copyOf(notSelectedTransactions);
   }
@@ -136,6 +143,7 @@ public class TransactionSelectionResults {
     TransactionSelectionResults that = (TransactionSelectionResults) o;
     return cumulativeGasUsed == that.cumulativeGasUsed
         && cumulativeBlobGasUsed == that.cumulativeBlobGasUsed
+        && cumulativeDaSize == that.cumulativeDaSize
         && selectedTransactions.equals(that.selectedTransactions)
         && notSelectedTransactions.equals(that.notSelectedTransactions)
         && receipts.equals(that.receipts);
@@ -148,7 +156,8 @@ public class TransactionSelectionResults {
         notSelectedTransactions,
         receipts,
         cumulativeGasUsed,
-        cumulativeBlobGasUsed);
+        cumulativeBlobGasUsed,
+        cumulativeDaSize);
   }
 
   public String toTraceLog() {
@@ -156,6 +165,8 @@ public class TransactionSelectionResults {
         + cumulativeGasUsed
         + ", cumulativeBlobGasUsed="
         + cumulativeBlobGasUsed
+        + ", cumulativeDaSize="
+        + cumulativeDaSize
         + ", selectedTransactions="
         + selectedTransactions.stream()
             .map(Transaction::toTraceLog)
@@ -0,0 +1,173 @@
+/*
+ * Copyright contributors to Besu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.blockcreation.txselection.selectors;
+
+import org.hyperledger.besu.datatypes.TransactionType;
+import org.hyperledger.besu.datatypes.Wei;
+import org.hyperledger.besu.ethereum.blockcreation.txselection.BlockSelectionContext;
+import org.hyperledger.besu.ethereum.blockcreation.txselection.TransactionEvaluationContext;
+import org.hyperledger.besu.ethereum.blockcreation.txselection.TransactionSelectionResults;
+import org.hyperledger.besu.ethereum.core.MiningConfiguration;
+import org.hyperledger.besu.ethereum.core.Transaction;
+import org.hyperledger.besu.ethereum.mainnet.L1CostCalculator;
+import org.hyperledger.besu.ethereum.processing.TransactionProcessingResult;
+import org.hyperledger.besu.plugin.data.TransactionSelectionResult;
+
+import java.util.Optional;
+
+import org.apache.tuweni.units.bigints.UInt256;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class extends AbstractTransactionSelector and provides a specific implementation for OP
+ * Stack sequencers, that accounts for the cost of posting the transactions to L1. The estimated
+ * data availability size of a transaction is derived from its FastLz compressed size, and it is
+ * used to enforce the per transaction and per block data availability limits, and to skip
+ * transactions whose profit, L2 priority fee plus L1 data fee, per byte posted to L1 is below the
+ * configured minimum. All the checks are done before processing, so rejected transactions are never
+ * executed.
+ */
+public class L1DataAvailabilityTransactionSelector extends AbstractTransactionSelector {
+  private static final Logger LOG =
+      LoggerFactory.getLogger(L1DataAvailabilityTransactionSelector.class);
+
+  /**
+   * The transaction has not been selected since its estimated data availability size is greater
+   * than the max allowed for a single transaction.
+   */
+  public static final TransactionSelectionResult TX_DA_SIZE_ABOVE_MAX =
+      TransactionSelectionResult.invalidTransient("TX_DA_SIZE_ABOVE_MAX");
+
+  /**
+   * The transaction has not been selected since its estimated data availability size is greater
+   * than the block remaining data availability size, but the selection should continue.
+   */
+  public static final TransactionSelectionResult TX_TOO_LARGE_FOR_REMAINING_DA_SIZE =
+      TransactionSelectionResult.invalidTransient("TX_TOO_LARGE_FOR_REMAINING_DA_SIZE");
+
+  /**
+   * The transaction has not been selected since its profit per byte of data availability size is
+   * below the configured min, but the selection should continue.
+   */
+  public static final TransactionSelectionResult L1_PROFIT_PER_DA_BYTE_BELOW_MIN =
+      TransactionSelectionResult.invalidTransient("L1_PROFIT_PER_DA_BYTE_BELOW_MIN");
+
+  public L1DataAvailabilityTransactionSelector(final BlockSelectionContext context) {
+    super(context);
+  }
+
+  /**
+   * Evaluates a transaction considering other transactions in the same block. If the chain has no
+   * L1 data fee or the tx is a deposit, no check is performed and SELECTED is returned, otherwise
+   * SELECTED is returned only if the tx fits in the data availability limits and pays at least the
+   * min profit per data availability byte.
+   *
+   * @param evaluationContext The current selection session data.
+   * @param transactionSelectionResults The results of other transaction evaluations in the same
+   *     block.
+   * @return The result of the transaction selection.
+   */
+  @Override
+  public TransactionSelectionResult evaluateTransactionPreProcessing(
+      final TransactionEvaluationContext evaluationContext,
+      final TransactionSelectionResults transactionSelectionResults) {
+
+    final Optional<L1CostCalculator> maybeL1CostCalculator = context.l1CostCalculator();
+    final Transaction tx = evaluationContext.getTransaction();
+    if (maybeL1CostCalculator.isEmpty() || tx.getType() == TransactionType.OPTIMISM_DEPOSIT) {
+      return TransactionSelectionResult.SELECTED;
+    }
+
+    final MiningConfiguration.Unstable limits = context.miningConfiguration().getUnstable();
+    final long daSize = L1CostCalculator.estimatedDaSize(tx.getRollupGasData());
+
+    final long maxDaTxSize = limits.getMaxDaTxSize();
+    if (maxDaTxSize > 0 && daSize > maxDaTxSize) {
+      LOG.atTrace()
+          .setMessage(
+              "Estimated data availability size of transaction {} is above the max allowed."
+                  + " Max {} / Requested {}")
+          .addArgument(evaluationContext.getPendingTransaction()::toTraceLog)
+          .addArgument(maxDaTxSize)
+          .addArgument(daSize)
+          .log();
+      return TX_DA_SIZE_ABOVE_MAX;
+    }
+
+    final long maxDaBlockSize = limits.getMaxDaBlockSize();
+    if (maxDaBlockSize > 0) {
+      final long remainingDaSize =
+          maxDaBlockSize - transactionSelectionResults.getCumulativeDaSize();
+      if (daSize > remainingDaSize) {
+        LOG.atTrace()
+            .setMessage(
+                "There is not enough data availability size to fit the transaction {} in the block."
+                    + " Available {} / Requested {}")
+            .addArgument(evaluationContext.getPendingTransaction()::toTraceLog)
+            .addArgument(remainingDaSize)
+            .addArgument(daSize)
+            .log();
+        return TX_TOO_LARGE_FOR_REMAINING_DA_SIZE;
+      }
+    }
+
+    // priority txs are exempt from the profit check
+    final Wei minProfitPerDaByte = limits.getMinL1ProfitPerDaByte();
+    if (!minProfitPerDaByte.isZero() && !evaluationContext.getPendingTransaction().hasPriority()) {
+      final Optional<L1CostCalculator.L1Cost> maybeL1Cost =
+          maybeL1CostCalculator.get().cachedL1Cost(context.pendingBlockHeader(), tx);
+      // without the L1 attributes of the block the L1 fee is unknown, so the check is skipped
+      if (maybeL1Cost.isPresent()) {
+        final UInt256 profit = profit(tx, maybeL1Cost.get());
+        final UInt256 minProfit = minProfitPerDaByte.toUInt256().multiply(daSize);
+        if (profit.compareTo(minProfit) < 0) {
+          LOG.atTrace()
+              .setMessage(
+                  "Profit of transaction {} is below the min for its data availability size."
+                      + " Min {} / Profit {}")
+              .addArgument(evaluationContext.getPendingTransaction()::toTraceLog)
+              .addArgument(minProfit::toDecimalString)
+              .addArgument(profit::toDecimalString)
+              .log();
+          return L1_PROFIT_PER_DA_BYTE_BELOW_MIN;
+        }
+      }
+    }
+
+    return TransactionSelectionResult.SELECTED;
+  }
+
+  /**
+   * The L2 priority fee plus the L1 data fee paid by the transaction. The gas limit is used for the
+   * L2 part, since the gas used is not known before processing, so this is an upper bound that
+   * never excludes a transaction that would pay the min profit.
+   */
+  private UInt256 profit(final Transaction tx, final L1CostCalculator.L1Cost l1Cost) {
+    return tx.getEffectivePriorityFeePerGas(context.pendingBlockHeader().getBaseFee())
+        .toUInt256()
+        .multiply(tx.getGasLimit())
+        .add(l1Cost.fee().toUInt256());
+  }
+
+  @Override
+  public TransactionSelectionResult evaluateTransactionPostProcessing(
+      final TransactionEvaluationContext evaluationContext,
+      final TransactionSelectionResults blockTransactionResults,
+      final TransactionProcessingResult processingResult) {
+    // All necessary checks were done in the pre-processing method, so nothing to do here.
+    return TransactionSelectionResult.SELECTED;
+  }
+}
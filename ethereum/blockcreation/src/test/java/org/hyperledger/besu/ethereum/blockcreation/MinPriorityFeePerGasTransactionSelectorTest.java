@@ -30,6 +30,8 @@ import org.hyperledger.besu.ethereum.core.Transaction;
 import org.hyperledger.besu.ethereum.eth.transactions.PendingTransaction;
 import org.hyperledger.besu.plugin.data.TransactionSelectionResult;
 
+import java.util.Optional;
+
 import com.google.common.base.Stopwatch;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -50,7 +52,16 @@ public class MinPriorityFeePerGasTransactionSelectorTest {
         MiningConfiguration.newDefault().setMinPriorityFeePerGas(Wei.of(minPriorityFeeParameter));
     BlockSelectionContext context =
         new BlockSelectionContext(
-            miningConfiguration, null, null, null, pendingBlockHeader, null, null, null, null);
+            miningConfiguration,
+            null,
+            null,
+            null,
+            pendingBlockHeader,
+            null,
+            null,
+            null,
+            null,
+            Optional.empty());
     transactionSelector = new MinPriorityFeePerGasTransactionSelector(context);
   }
 
@@ -0,0 +1,225 @@
+/*
+ * Copyright contributors to Besu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.blockcreation.txselection.selectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import org.hyperledger.besu.datatypes.RollupGasData;
+import org.hyperledger.besu.datatypes.TransactionType;
+import org.hyperledger.besu.datatypes.Wei;
+import org.hyperledger.besu.ethereum.blockcreation.txselection.BlockSelectionContext;
+import org.hyperledger.besu.ethereum.blockcreation.txselection.TransactionEvaluationContext;
+import org.hyperledger.besu.ethereum.blockcreation.txselection.TransactionSelectionResults;
+import org.hyperledger.besu.ethereum.core.ImmutableMiningConfiguration;
+import org.hyperledger.besu.ethereum.core.MiningConfiguration;
+import org.hyperledger.besu.ethereum.core.ProcessableBlockHeader;
+import org.hyperledger.besu.ethereum.core.Transaction;
+import org.hyperledger.besu.ethereum.eth.transactions.PendingTransaction;
+import org.hyperledger.besu.ethereum.mainnet.L1CostCalculator;
+import org.hyperledger.besu.plugin.data.TransactionSelectionResult;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+
+class L1DataAvailabilityTransactionSelectorTest {
+  // fastLz size 200 is estimated to 124 bytes posted to L1
+  private static final RollupGasData ROLLUP_GAS_DATA = new RollupGasData(10L, 20L, 200L);
+  private static final long DA_SIZE = 124L;
+  private static final Wei L1_FEE = Wei.of(1_000L);
+
+  private final ProcessableBlockHeader pendingBlockHeader = mock(ProcessableBlockHeader.class);
+  private final L1CostCalculator l1CostCalculator = mock(L1CostCalculator.class);
+  private final TransactionSelectionResults selectionResults =
+      mock(TransactionSelectionResults.class);
+
+  @Test
+  void estimatedDaSizeUsesFjordRegression() {
+    assertThat(L1CostCalculator.estimatedDaSize(ROLLUP_GAS_DATA)).isEqualTo(DA_SIZE);
+    assertThat(L1CostCalculator.estimatedDaSize(new RollupGasData(0L, 1L, 10L))).isEqualTo(100L);
+    assertThat(L1CostCalculator.estimatedDaSize(RollupGasData.empty())).isZero();
+  }
+
+  @Test
+  void transactionsAreSelectedWithoutChecksWhenThereIsNoL1Fee() {
+    final var selector =
+        new L1DataAvailabilityTransactionSelector(
+            context(unstable(1L, 1L, Wei.ONE), Optional.empty()));
+
+    final var result =
+        selector.evaluateTransactionPreProcessing(
+            evaluationContext(transaction(TransactionType.EIP1559, 1), false), selectionResults);
+
+    assertThat(result).isEqualTo(TransactionSelectionResult.SELECTED);
+    verifyNoInteractions(selectionResults);
+  }
+
+  @Test
+  void depositTransactionsAreSelectedWithoutChecks() {
+    final var selector = selector(unstable(1L, 1L, Wei.ONE));
+
+    final var result =
+        selector.evaluateTransactionPreProcessing(
+            evaluationContext(transaction(TransactionType.OPTIMISM_DEPOSIT, 0), true),
+            selectionResults);
+
+    assertThat(result).isEqualTo(TransactionSelectionResult.SELECTED);
+    verifyNoInteractions(selectionResults, l1CostCalculator);
+  }
+
+  @Test
+  void transactionAboveMaxDaTxSizeIsNotSelected() {
+    final var selector = selector(unstable(DA_SIZE - 1, 0L, Wei.ZERO));
+
+    final var result =
+        selector.evaluateTransactionPreProcessing(
+            evaluationContext(transaction(TransactionType.EIP1559, 1), false), selectionResults);
+
+    assertThat(result).isEqualTo(L1DataAvailabilityTransactionSelector.TX_DA_SIZE_ABOVE_MAX);
+  }
+
+  @Test
+  void transactionFittingRemainingDaBlockSizeIsSelected() {
+    final var selector = selector(unstable(0L, 1_000L, Wei.ZERO));
+    when(selectionResults.getCumulativeDaSize()).thenReturn(1_000L - DA_SIZE);
+
+    final var result =
+        selector.evaluateTransactionPreProcessing(
+            evaluationContext(transaction(TransactionType.EIP1559, 1), false), selectionResults);
+
+    assertThat(result).isEqualTo(TransactionSelectionResult.SELECTED);
+  }
+
+  @Test
+  void transactionTooLargeForRemainingDaBlockSizeIsNotSelected() {
+    final var selector = selector(unstable(0L, 1_000L, Wei.ZERO));
+    when(selectionResults.getCumulativeDaSize()).thenReturn(1_000L - DA_SIZE + 1);
+
+    final var result =
+        selector.evaluateTransactionPreProcessing(
+            evaluationContext(transaction(TransactionType.EIP1559, 1), false), selectionResults);
+
+    assertThat(result)
+        .isEqualTo(L1DataAvailabilityTransactionSelector.TX_TOO_LARGE_FOR_REMAINING_DA_SIZE);
+  }
+
+  @Test
+  void transactionPayingMinProfitPerDaByteIsSelected() {
+    // 100 gas * 1 wei tip + 1000 wei L1 fee = 1100 wei, min 8 * 124 = 992 wei
+    final var selector = selector(unstable(0L, 0L, Wei.of(8L)));
+    final Transaction tx = transaction(TransactionType.EIP1559, 1);
+    when(l1CostCalculator.cachedL1Cost(pendingBlockHeader, tx))
+        .thenReturn(Optional.of(new L1CostCalculator.L1Cost(L1_FEE, 0L)));
+
+    final var result =
+        selector.evaluateTransactionPreProcessing(evaluationContext(tx, false), selectionResults);
+
+    assertThat(result).isEqualTo(TransactionSelectionResult.SELECTED);
+  }
+
+  @Test
+  void transactionBelowMinProfitPerDaByteIsNotSelected() {
+    // 100 gas * 1 wei tip + 1000 wei L1 fee = 1100 wei, min 9 * 124 = 1116 wei
+    final var selector = selector(unstable(0L, 0L, Wei.of(9L)));
+    final Transaction tx = transaction(TransactionType.EIP1559, 1);
+    when(l1CostCalculator.cachedL1Cost(pendingBlockHeader, tx))
+        .thenReturn(Optional.of(new L1CostCalculator.L1Cost(L1_FEE, 0L)));
+
+    final var result =
+        selector.evaluateTransactionPreProcessing(evaluationContext(tx, false), selectionResults);
+
+    assertThat(result)
+        .isEqualTo(L1DataAvailabilityTransactionSelector.L1_PROFIT_PER_DA_BYTE_BELOW_MIN);
+  }
+
+  @Test
+  void priorityTransactionIsExemptFromMinProfit() {
+    final var selector = selector(unstable(0L, 0L, Wei.of(1_000_000L)));
+
+    final var result =
+        selector.evaluateTransactionPreProcessing(
+            evaluationContext(transaction(TransactionType.EIP1559, 1), true), selectionResults);
+
+    assertThat(result).isEqualTo(TransactionSelectionResult.SELECTED);
+    verifyNoInteractions(l1CostCalculator);
+  }
+
+  @Test
+  void profitIsNotCheckedBeforeTheL1AttributesAreKnown() {
+    final var selector = selector(unstable(0L, 0L, Wei.of(1_000_000L)));
+    final Transaction tx = transaction(TransactionType.EIP1559, 1);
+    when(l1CostCalculator.cachedL1Cost(pendingBlockHeader, tx)).thenReturn(Optional.empty());
+
+    final var result =
+        selector.evaluateTransactionPreProcessing(evaluationContext(tx, false), selectionResults);
+
+    assertThat(result).isEqualTo(TransactionSelectionResult.SELECTED);
+  }
+
+  private L1DataAvailabilityTransactionSelector selector(
+      final MiningConfiguration.Unstable limits) {
+    return new L1DataAvailabilityTransactionSelector(
+        context(limits, Optional.of(l1CostCalculator)));
+  }
+
+  private BlockSelectionContext context(
+      final MiningConfiguration.Unstable limits,
+      final Optional<L1CostCalculator> maybeL1CostCalculator) {
+    final MiningConfiguration miningConfiguration =
+        ImmutableMiningConfiguration.builder().unstable(limits).build();
+    return new BlockSelectionContext(
+        miningConfiguration,
+        null,
+        null,
+        null,
+        pendingBlockHeader,
+        null,
+        null,
+        null,
+        null,
+        maybeL1CostCalculator);
+  }
+
+  private static MiningConfiguration.Unstable unstable(
+      final long maxDaTxSize, final long maxDaBlockSize, final Wei minL1ProfitPerDaByte) {
+    return ImmutableMiningConfiguration.Unstable.builder()
+        .maxDaTxSize(maxDaTxSize)
+        .maxDaBlockSize(maxDaBlockSize)
+        .minL1ProfitPerDaByte(minL1ProfitPerDaByte)
+        .build();
+  }
+
+  private TransactionEvaluationContext evaluationContext(
+      final Transaction tx, final boolean hasPriority) {
+    final PendingTransaction pendingTransaction = mock(PendingTransaction.class);
+    when(pendingTransaction.getTransaction()).thenReturn(tx);
+    when(pendingTransaction.hasPriority()).thenReturn(hasPriority);
+    return new TransactionEvaluationContext(
+        pendingBlockHeader, pendingTransaction, null, null, null);
+  }
+
+  private Transaction transaction(final TransactionType type, final long tip) {
+    final Transaction tx = mock(Transaction.class);
+    when(tx.getType()).thenReturn(type);
+    when(tx.getRollupGasData()).thenReturn(ROLLUP_GAS_DATA);
+    when(tx.getGasLimit()).thenReturn(100L);
+    when(tx.getEffectivePriorityFeePerGas(Optional.empty()))
+        .thenReturn(Wei.of(tip));
+    return tx;
+  }
+}
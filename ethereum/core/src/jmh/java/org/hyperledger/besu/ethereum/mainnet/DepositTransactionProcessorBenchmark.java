@@ -0,0 +1,121 @@
+/*
+ * Copyright contributors to Besu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.mainnet;
+
+import org.hyperledger.besu.config.JsonGenesisConfigOptions;
+import org.hyperledger.besu.config.JsonUtil;
+import org.hyperledger.besu.datatypes.Address;
+import org.hyperledger.besu.datatypes.Hash;
+import org.hyperledger.besu.datatypes.TransactionType;
+import org.hyperledger.besu.datatypes.Wei;
+import org.hyperledger.besu.ethereum.core.BlockHeader;
+import org.hyperledger.besu.ethereum.core.BlockHeaderTestFixture;
+import org.hyperledger.besu.ethereum.core.InMemoryKeyValueStorageProvider;
+import org.hyperledger.besu.ethereum.core.MutableWorldState;
+import org.hyperledger.besu.ethereum.core.OptimismTransaction;
+import org.hyperledger.besu.ethereum.processing.TransactionProcessingResult;
+import org.hyperledger.besu.evm.EVM;
+import org.hyperledger.besu.evm.MainnetEVMs;
+import org.hyperledger.besu.evm.gascalculator.CancunGasCalculator;
+import org.hyperledger.besu.evm.gascalculator.GasCalculator;
+import org.hyperledger.besu.evm.internal.EvmConfiguration;
+import org.hyperledger.besu.evm.precompile.PrecompileContractRegistry;
+import org.hyperledger.besu.evm.processor.ContractCreationProcessor;
+import org.hyperledger.besu.evm.processor.MessageCallProcessor;
+import org.hyperledger.besu.evm.tracing.OperationTracer;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Measures the processing of deposit transactions, that are executed before the user ones. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+public class DepositTransactionProcessorBenchmark {
+
+  private static final Address SENDER =
+      Address.fromHexString("0x5555555555555555555555555555555555555555");
+  private static final Address RECIPIENT =
+      Address.fromHexString("0x2222222222222222222222222222222222222222");
+
+  @Param({"0", "1000000000000000000"})
+  public long mint;
+
+  private DepositTransactionProcessor processor;
+  private MutableWorldState worldState;
+  private BlockHeader blockHeader;
+  private OptimismTransaction deposit;
+
+  @Setup
+  public void setUp() {
+    final GasCalculator gasCalculator = new CancunGasCalculator();
+    final EVM evm = MainnetEVMs.cancun(EvmConfiguration.DEFAULT);
+    processor =
+        new DepositTransactionProcessor(
+            gasCalculator,
+            new ContractCreationProcessor(evm, true, List.of(), 1),
+            new MessageCallProcessor(evm, new PrecompileContractRegistry()),
+            1024,
+            true,
+            true,
+            JsonGenesisConfigOptions.fromJsonObject(
+                JsonUtil.objectNodeFromString(
+                    "{\"optimism\":{},\"regolithtime\":0,\"canyontime\":0}")));
+    worldState = InMemoryKeyValueStorageProvider.createInMemoryWorldState();
+    blockHeader = new BlockHeaderTestFixture().timestamp(1L).buildHeader();
+    deposit =
+        OptimismTransaction.builder()
+            .type(TransactionType.OPTIMISM_DEPOSIT)
+            .sourceHash(Hash.ZERO)
+            .sender(SENDER)
+            .to(RECIPIENT)
+            .mint(Wei.of(mint))
+            .value(Wei.ZERO)
+            .gasLimit(1_000_000L)
+            .isSystemTx(false)
+            .payload(Bytes.EMPTY)
+            .build();
+  }
+
+  @Benchmark
+  public TransactionProcessingResult processDeposit() {
+    // the updater is discarded, so that every invocation starts from the same state
+    return processor.processTransaction(
+        worldState.updater(),
+        blockHeader,
+        deposit,
+        Address.ZERO,
+        OperationTracer.NO_TRACING,
+        __ -> Hash.ZERO,
+        false,
+        Wei.ZERO);
+  }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright contributors to Besu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.vm.operations;
+
+import org.hyperledger.besu.datatypes.Hash;
+import org.hyperledger.besu.evm.Code;
+import org.hyperledger.besu.evm.EVM;
+import org.hyperledger.besu.evm.MainnetEVMs;
+import org.hyperledger.besu.evm.code.CodeV0;
+import org.hyperledger.besu.evm.code.InstructionStream;
+import org.hyperledger.besu.evm.frame.MessageFrame;
+import org.hyperledger.besu.evm.internal.EvmConfiguration;
+import org.hyperledger.besu.evm.tracing.OperationTracer;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the interpreter running legacy code read from the code bytes with the same code once it
+ * has been pre-decoded by the code cache, which also precharges the static gas of its runs of fixed
+ * cost operations and fuses PUSH ADD pairs.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+public class PreDecodedCodeBenchmark {
+
+  // PUSH1 0x01 PUSH4 0x01020304 ADD PUSH20 0x00..01 AND POP
+  private static final String PUSH_SEQUENCE =
+      "6001" + "6301020304" + "01" + "73" + "00".repeat(19) + "01" + "16" + "50";
+
+  @Param({"false", "true"})
+  public boolean preDecoded;
+
+  @Param({"100", "1000"})
+  public int sequences;
+
+  private OperationBenchmarkHelper operationBenchmarkHelper;
+  private EVM evm;
+  private Code code;
+
+  @Setup
+  public void prepare() throws Exception {
+    operationBenchmarkHelper = OperationBenchmarkHelper.create();
+    evm = MainnetEVMs.cancun(EvmConfiguration.DEFAULT);
+    final Bytes codeBytes = Bytes.fromHexString(PUSH_SEQUENCE.repeat(sequences) + "00");
+    if (preDecoded) {
+      final CodeV0 cached = (CodeV0) evm.getCode(Hash.hash(codeBytes), codeBytes);
+      // count executions until the code is hot enough to be pre-decoded
+      InstructionStream instructionStream = null;
+      while (instructionStream == null) {
+        instructionStream =
+            cached.getInstructionStream(
+                InstructionStream.fixedGas(evm.getOperationsUnsafe(), evm.getGasCalculator()));
+      }
+      code = cached;
+    } else {
+      code = evm.getCodeUncached(codeBytes);
+    }
+  }
+
+  @TearDown
+  public void cleanUp() throws Exception {
+    operationBenchmarkHelper.cleanUp();
+  }
+
+  @Benchmark
+  public MessageFrame runToHalt() {
+    final MessageFrame frame =
+        operationBenchmarkHelper
+            .createMessageFrameBuilder()
+            .code(code)
+            .initialGas(Long.MAX_VALUE)
+            .build();
+    evm.runToHalt(frame, OperationTracer.NO_TRACING);
+    return frame;
+  }
+}
@@ -30,7 +30,8 @@ public interface VariablesStorage {
     FINALIZED_BLOCK_HASH("finalizedBlockHash"),
     SAFE_BLOCK_HASH("safeBlockHash"),
     SEQ_NO_STORE("local-enr-seqno"),
-    GENESIS_STATE_HASH("genesisStateHash");
+    GENESIS_STATE_HASH("genesisStateHash"),
+    FLAT_DB_HEALING_PROGRESS("flatDbHealingProgress");
 
     private final String key;
     private final byte[] byteArray;
@@ -68,6 +69,8 @@ public interface VariablesStorage {
 
   Optional<Hash> getGenesisStateHash();
 
+  Optional<Bytes> getFlatDbHealingProgress();
+
   Updater updater();
 
   interface Updater {
@@ -84,6 +87,10 @@ public interface VariablesStorage {
 
     void setGenesisStateHash(Hash genesisStateHash);
 
+    void setFlatDbHealingProgress(Bytes progress);
+
+    void removeFlatDbHealingProgress();
+
     void removeAll();
 
     void commit();
@@ -336,6 +336,10 @@ public abstract class MiningConfiguration {
     int DEFAULT_MAX_OMMERS_DEPTH = 8;
     long DEFAULT_POS_BLOCK_CREATION_MAX_TIME = Duration.ofSeconds(12).toMillis();
     long DEFAULT_POS_BLOCK_CREATION_REPETITION_MIN_DURATION = Duration.ofMillis(500).toMillis();
+    boolean DEFAULT_POS_BLOCK_CREATION_REPEAT_ON_NEW_TRANSACTIONS = false;
+    long DEFAULT_MAX_DA_TX_SIZE = 0L;
+    long DEFAULT_MAX_DA_BLOCK_SIZE = 0L;
+    Wei DEFAULT_MIN_L1_PROFIT_PER_DA_BYTE = Wei.ZERO;
 
     MiningConfiguration.Unstable DEFAULT = ImmutableMiningConfiguration.Unstable.builder().build();
 
@@ -369,9 +373,46 @@ public abstract class MiningConfiguration {
       return DEFAULT_POS_BLOCK_CREATION_REPETITION_MIN_DURATION;
     }
 
+    /**
+     * Whether a PoS block creation is repeated as soon as a transaction is added to the pool,
+     * instead of waiting for the repetition min duration, so the best block of the payload always
+     * includes the late transactions.
+     */
+    @Value.Default
+    default boolean isPosBlockCreationRepeatedOnNewTransactions() {
+      return DEFAULT_POS_BLOCK_CREATION_REPEAT_ON_NEW_TRANSACTIONS;
+    }
+
     @Value.Default
     default String getStratumExtranonce() {
       return "080c";
     }
+
+    /**
+     * Max estimated data availability size, in bytes, of a transaction selected by an OP Stack
+     * sequencer, zero means no limit.
+     */
+    @Value.Default
+    default long getMaxDaTxSize() {
+      return DEFAULT_MAX_DA_TX_SIZE;
+    }
+
+    /**
+     * Max estimated data availability size, in bytes, of all the transactions of a block built by
+     * an OP Stack sequencer, zero means no limit.
+     */
+    @Value.Default
+    default long getMaxDaBlockSize() {
+      return DEFAULT_MAX_DA_BLOCK_SIZE;
+    }
+
+    /**
+     * Min profit, L2 priority fee plus L1 data fee, per byte of estimated data availability size
+     * that a transaction must pay to be selected by an OP Stack sequencer.
+     */
+    @Value.Default
+    default Wei getMinL1ProfitPerDaByte() {
+      return DEFAULT_MIN_L1_PROFIT_PER_DA_BYTE;
+    }
   }
 }
@@ -32,6 +32,7 @@ import org.hyperledger.besu.datatypes.CodeDelegation;
 import org.hyperledger.besu.datatypes.Hash;
 import org.hyperledger.besu.datatypes.KZGCommitment;
 import org.hyperledger.besu.datatypes.KZGProof;
+import org.hyperledger.besu.datatypes.RollupGasData;
 import org.hyperledger.besu.datatypes.Sha256Hash;
 import org.hyperledger.besu.datatypes.TransactionType;
 import org.hyperledger.besu.datatypes.VersionedHash;
@@ -46,8 +47,10 @@ import org.hyperledger.besu.ethereum.rlp.BytesValueRLPOutput;
 import org.hyperledger.besu.ethereum.rlp.RLP;
 import org.hyperledger.besu.ethereum.rlp.RLPInput;
 import org.hyperledger.besu.ethereum.rlp.RLPOutput;
+import org.hyperledger.besu.util.flz.FastLz;
 
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
 import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
@@ -118,6 +121,10 @@ public class Transaction
   protected volatile Hash hash;
   // Caches the size in bytes of the encoded transaction.
   protected volatile int size = -1;
+  // Caches the byte counts of the encoded transaction used to compute the OP Stack L1 data fee.
+  protected volatile RollupGasData rollupGasData;
+  // Whether the payload is stored outside the Java heap.
+  private boolean payloadOffHeap = false;
   private final TransactionType transactionType;
 
   private final SignatureAlgorithm signatureAlgorithm = SignatureAlgorithmFactory.getInstance();
@@ -567,6 +574,35 @@ public class Transaction
     size = bytes.size();
   }
 
+  /**
+   * Returns the zero/non-zero byte counts and the FastLz compressed size of the encoded
+   * transaction, used to compute the L1 data fee on OP Stack chains. The value is computed once
+   * and memoized, so validation, pool admission, block building and replay share the same result.
+   *
+   * @return the roll up gas data of the encoded transaction
+   */
+  public RollupGasData getRollupGasData() {
+    if (rollupGasData == null) {
+      rollupGasData = computeRollupGasData();
+    }
+    return rollupGasData;
+  }
+
+  private RollupGasData computeRollupGasData() {
+    if (transactionType == TransactionType.OPTIMISM_DEPOSIT) {
+      return RollupGasData.empty();
+    }
+    final byte[] bytes =
+        TransactionEncoder.encodeOpaqueBytes(this, EncodingContext.BLOCK_BODY).toArrayUnsafe();
+    long zeroes = 0;
+    for (final byte b : bytes) {
+      if (b == 0) {
+        zeroes++;
+      }
+    }
+    return new RollupGasData(zeroes, bytes.length - zeroes, FastLz.flzCompressLength(bytes));
+  }
+
   /**
    * Returns whether the transaction is a contract creation
    *
@@ -1081,6 +1117,40 @@ public class Transaction
    * @return a copy of the transaction
    */
   public Transaction detachedCopy() {
+    // an off-heap payload is never shared
+    return detachedCopy(payloadOffHeap ? payload : payload.copy(), payloadOffHeap);
+  }
+
+  /**
+   * Creates a copy of this transaction, like {@link #detachedCopy()}, but with its payload stored
+   * outside the Java heap, in the given direct buffer.
+   *
+   * <p>This is useful for the transactions that stay in the txpool for some time, so the large
+   * payloads do not count in the heap and do not have to be moved around by the garbage collector.
+   * The caller allocates the buffer, so it can account for the direct memory in use.
+   *
+   * @param offHeapPayload a direct buffer with exactly the size of the payload
+   * @return a copy of the transaction with an off-heap payload
+   */
+  public Transaction detachedOffHeapPayloadCopy(final ByteBuffer offHeapPayload) {
+    checkArgument(
+        offHeapPayload.isDirect() && offHeapPayload.remaining() == payload.size(),
+        "The off heap payload must be a direct buffer of the size of the payload");
+    payload.appendTo(offHeapPayload);
+    offHeapPayload.flip();
+    return detachedCopy(Bytes.wrapByteBuffer(offHeapPayload), true);
+  }
+
+  /**
+   * Returns whether the payload of this transaction is stored outside the Java heap.
+   *
+   * @return true if the payload is stored outside the Java heap
+   */
+  public boolean isPayloadOffHeap() {
+    return payloadOffHeap;
+  }
+
+  private Transaction detachedCopy(final Bytes detachedPayload, final boolean offHeap) {
     final Optional<Address> detachedTo = to.map(address -> Address.wrap(address.copy()));
     final Optional<List<AccessListEntry>> detachedAccessList =
         maybeAccessList.map(
@@ -1107,7 +1177,7 @@ public class Transaction
             detachedTo,
             value,
             signature,
-            payload.copy(),
+            detachedPayload,
             detachedAccessList,
             sender,
             chainId,
@@ -1120,6 +1190,8 @@ public class Transaction
     copiedTx.hash = this.hash;
     copiedTx.hashNoSignature = this.hashNoSignature;
     copiedTx.size = this.size;
+    copiedTx.rollupGasData = this.rollupGasData;
+    copiedTx.payloadOffHeap = offHeap;
 
     return copiedTx;
   }
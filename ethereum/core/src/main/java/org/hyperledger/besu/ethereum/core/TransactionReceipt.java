@@ -25,6 +25,7 @@ import org.hyperledger.besu.ethereum.rlp.RLPOutput;
 import org.hyperledger.besu.evm.log.Log;
 import org.hyperledger.besu.evm.log.LogsBloomFilter;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
@@ -57,6 +58,8 @@ public class TransactionReceipt implements org.hyperledger.besu.plugin.data.Tran
   private final int status;
   private final TransactionReceiptType transactionReceiptType;
   private final Optional<Bytes> revertReason;
+  private final Optional<Long> depositNonce;
+  private final Optional<Long> depositReceiptVersion;
 
   /**
    * Creates an instance of a state root-encoded transaction receipt.
@@ -78,7 +81,9 @@ public class TransactionReceipt implements org.hyperledger.besu.plugin.data.Tran
         cumulativeGasUsed,
         logs,
         LogsBloomFilter.builder().insertLogs(logs).build(),
-        revertReason);
+        revertReason,
+        Optional.empty(),
+        Optional.empty());
   }
 
   private TransactionReceipt(
@@ -95,7 +100,9 @@ public class TransactionReceipt implements org.hyperledger.besu.plugin.data.Tran
         cumulativeGasUsed,
         logs,
         bloomFilter,
-        revertReason);
+        revertReason,
+        Optional.empty(),
+        Optional.empty());
   }
 
   /**
@@ -118,7 +125,9 @@ public class TransactionReceipt implements org.hyperledger.besu.plugin.data.Tran
         cumulativeGasUsed,
         logs,
         LogsBloomFilter.builder().insertLogs(logs).build(),
-        revertReason);
+        revertReason,
+        Optional.empty(),
+        Optional.empty());
   }
 
   public TransactionReceipt(
@@ -128,7 +137,16 @@ public class TransactionReceipt implements org.hyperledger.besu.plugin.data.Tran
       final List<Log> logs,
       final LogsBloomFilter bloomFilter,
       final Optional<Bytes> revertReason) {
-    this(transactionType, null, status, cumulativeGasUsed, logs, bloomFilter, revertReason);
+    this(
+        transactionType,
+        null,
+        status,
+        cumulativeGasUsed,
+        logs,
+        bloomFilter,
+        revertReason,
+        Optional.empty(),
+        Optional.empty());
   }
 
   public TransactionReceipt(
@@ -146,6 +164,38 @@ public class TransactionReceipt implements org.hyperledger.besu.plugin.data.Tran
         maybeRevertReason);
   }
 
+  /**
+   * Creates an instance of a status-encoded transaction receipt of an OP Stack deposit
+   * transaction.
+   *
+   * @param transactionType the type of the transaction
+   * @param status the status code for the transaction (1 for success and 0 for failure)
+   * @param cumulativeGasUsed the total amount of gas consumed in the block after this transaction
+   * @param logs the logs generated within the transaction
+   * @param maybeRevertReason the revert reason for a failed transaction (if applicable)
+   * @param depositNonce the nonce of the deposit sender before the deposit, since Regolith
+   * @param depositReceiptVersion the version of the deposit receipt, since Canyon
+   */
+  public TransactionReceipt(
+      final TransactionType transactionType,
+      final int status,
+      final long cumulativeGasUsed,
+      final List<Log> logs,
+      final Optional<Bytes> maybeRevertReason,
+      final Optional<Long> depositNonce,
+      final Optional<Long> depositReceiptVersion) {
+    this(
+        transactionType,
+        null,
+        status,
+        cumulativeGasUsed,
+        logs,
+        LogsBloomFilter.builder().insertLogs(logs).build(),
+        maybeRevertReason,
+        depositNonce,
+        depositReceiptVersion);
+  }
+
   private TransactionReceipt(
       final TransactionType transactionType,
       final Hash stateRoot,
@@ -153,7 +203,9 @@ public class TransactionReceipt implements org.hyperledger.besu.plugin.data.Tran
       final long cumulativeGasUsed,
       final List<Log> logs,
       final LogsBloomFilter bloomFilter,
-      final Optional<Bytes> revertReason) {
+      final Optional<Bytes> revertReason,
+      final Optional<Long> depositNonce,
+      final Optional<Long> depositReceiptVersion) {
     this.transactionType = transactionType;
     this.stateRoot = stateRoot;
     this.cumulativeGasUsed = cumulativeGasUsed;
@@ -163,6 +215,8 @@ public class TransactionReceipt implements org.hyperledger.besu.plugin.data.Tran
     this.transactionReceiptType =
         stateRoot == null ? TransactionReceiptType.STATUS : TransactionReceiptType.ROOT;
     this.revertReason = revertReason;
+    this.depositNonce = depositNonce;
+    this.depositReceiptVersion = depositReceiptVersion;
   }
 
   /**
@@ -208,12 +262,29 @@ public class TransactionReceipt implements org.hyperledger.besu.plugin.data.Tran
       rlpOutput.writeBytes(bloomFilter);
     }
     rlpOutput.writeList(logs, (log, logOutput) -> log.writeTo(logOutput, compacted));
-    if (withRevertReason && revertReason.isPresent()) {
+    final boolean writeRevertReason = withRevertReason && revertReason.isPresent();
+    if (transactionType == TransactionType.OPTIMISM_DEPOSIT) {
+      // the deposit fields are part of the consensus encoding, when followed by another field
+      // the missing ones are written as empty lists, so that decoding is not ambiguous
+      writeDepositField(
+          rlpOutput, depositNonce, writeRevertReason || depositReceiptVersion.isPresent());
+      writeDepositField(rlpOutput, depositReceiptVersion, writeRevertReason);
+    }
+    if (writeRevertReason) {
       rlpOutput.writeBytes(revertReason.get());
     }
     rlpOutput.endList();
   }
 
+  private static void writeDepositField(
+      final RLPOutput rlpOutput, final Optional<Long> field, final boolean writeIfMissing) {
+    if (field.isPresent()) {
+      rlpOutput.writeLongScalar(field.get());
+    } else if (writeIfMissing) {
+      rlpOutput.writeEmptyList();
+    }
+  }
+
   /**
    * Creates a transaction receipt for the given RLP
    *
@@ -261,6 +332,33 @@ public class TransactionReceipt implements org.hyperledger.besu.plugin.data.Tran
       bloomFilter = LogsBloomFilter.builder().insertLogs(logs).build();
     }
 
+    if (transactionType == TransactionType.OPTIMISM_DEPOSIT) {
+      final List<RLPInput> trailingFields = new ArrayList<>(3);
+      while (!input.isEndOfCurrentList()) {
+        trailingFields.add(input.readAsRlp());
+      }
+      // three trailing fields means that the revert reason follows the deposit fields
+      if (trailingFields.size() > 3 || (trailingFields.size() == 3 && !revertReasonAllowed)) {
+        throw new RLPException("Unexpected value at end of TransactionReceipt");
+      }
+      final Optional<Bytes> revertReason =
+          trailingFields.size() == 3
+              ? Optional.of(trailingFields.get(2).readBytes())
+              : Optional.empty();
+      final int status = firstElement.readIntScalar();
+      input.leaveList();
+      return new TransactionReceipt(
+          transactionType,
+          null,
+          status,
+          cumulativeGas,
+          logs,
+          bloomFilter,
+          revertReason,
+          readDepositField(trailingFields, 0),
+          readDepositField(trailingFields, 1));
+    }
+
     final Optional<Bytes> revertReason;
     if (input.isEndOfCurrentList()) {
       revertReason = Optional.empty();
@@ -286,6 +384,14 @@ public class TransactionReceipt implements org.hyperledger.besu.plugin.data.Tran
     }
   }
 
+  private static Optional<Long> readDepositField(
+      final List<RLPInput> trailingFields, final int index) {
+    if (index >= trailingFields.size() || trailingFields.get(index).nextIsList()) {
+      return Optional.empty();
+    }
+    return Optional.of(trailingFields.get(index).readLongScalar());
+  }
+
   /**
    * Returns the state root for a state root-encoded transaction receipt
    *
@@ -353,6 +459,24 @@ public class TransactionReceipt implements org.hyperledger.besu.plugin.data.Tran
     return revertReason;
   }
 
+  /**
+   * Returns the nonce of the sender of an OP Stack deposit transaction before the deposit.
+   *
+   * @return the deposit nonce, present only for deposit receipts since Regolith
+   */
+  public Optional<Long> getDepositNonce() {
+    return depositNonce;
+  }
+
+  /**
+   * Returns the version of the receipt of an OP Stack deposit transaction.
+   *
+   * @return the deposit receipt version, present only for deposit receipts since Canyon
+   */
+  public Optional<Long> getDepositReceiptVersion() {
+    return depositReceiptVersion;
+  }
+
   @Override
   public boolean equals(final Object obj) {
     if (obj == this) {
@@ -365,12 +489,14 @@ public class TransactionReceipt implements org.hyperledger.besu.plugin.data.Tran
     return logs.equals(other.getLogsList())
         && Objects.equals(stateRoot, other.stateRoot)
         && cumulativeGasUsed == other.getCumulativeGasUsed()
-        && status == other.status;
+        && status == other.status
+        && depositNonce.equals(other.depositNonce)
+        && depositReceiptVersion.equals(other.depositReceiptVersion);
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(logs, stateRoot, cumulativeGasUsed);
+    return Objects.hash(logs, stateRoot, cumulativeGasUsed, depositNonce, depositReceiptVersion);
   }
 
   @Override
@@ -382,6 +508,8 @@ public class TransactionReceipt implements org.hyperledger.besu.plugin.data.Tran
         .add("bloomFilter", bloomFilter)
         .add("status", status)
         .add("transactionReceiptType", transactionReceiptType)
+        .add("depositNonce", depositNonce)
+        .add("depositReceiptVersion", depositReceiptVersion)
         .toString();
   }
 }
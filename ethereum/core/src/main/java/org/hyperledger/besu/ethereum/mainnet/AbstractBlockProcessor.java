@@ -34,6 +34,7 @@ import org.hyperledger.besu.ethereum.mainnet.requests.RequestProcessorCoordinato
 import org.hyperledger.besu.ethereum.privacy.storage.PrivateMetadataUpdater;
 import org.hyperledger.besu.ethereum.processing.TransactionProcessingResult;
 import org.hyperledger.besu.ethereum.trie.MerkleTrieException;
+import org.hyperledger.besu.ethereum.trie.diffbased.bonsai.cache.BonsaiStoragePrefetcher;
 import org.hyperledger.besu.ethereum.trie.diffbased.bonsai.worldview.BonsaiWorldState;
 import org.hyperledger.besu.ethereum.trie.diffbased.bonsai.worldview.BonsaiWorldStateUpdateAccumulator;
 import org.hyperledger.besu.ethereum.vm.CachingBlockHashLookup;
@@ -125,6 +126,18 @@ public abstract class AbstractBlockProcessor implements BlockProcessor {
                             calculateExcessBlobGasForParent(protocolSpec, parentHeader)))
             .orElse(Wei.ZERO);
 
+    // the reads of the keys known before execution are started in the background, so that the
+    // transactions find them warm, when the world state archive has a prefetcher
+    final Optional<BonsaiStoragePrefetcher> storagePrefetcher =
+        worldState instanceof BonsaiWorldState bonsaiWorldState
+            ? bonsaiWorldState.getStoragePrefetcher()
+            : Optional.empty();
+    final Optional<BonsaiStoragePrefetcher.Prefetch> storagePrefetch =
+        storagePrefetcher.map(
+            prefetcher ->
+                prefetcher.prefetch(
+                    (BonsaiWorldState) worldState, transactions, miningBeneficiary));
+
     final Optional<PreprocessingContext> preProcessingContext =
         runBlockPreProcessing(
             worldState,
@@ -164,6 +177,7 @@ public abstract class AbstractBlockProcessor implements BlockProcessor {
                 blockHeader.getHash().toHexString(),
                 transaction.getHash().toHexString());
         LOG.info(errorMessage);
+        storagePrefetch.ifPresent(BonsaiStoragePrefetcher.Prefetch::cancel);
         if (worldState instanceof BonsaiWorldState) {
           ((BonsaiWorldStateUpdateAccumulator) blockUpdater).reset();
         }
@@ -191,6 +205,11 @@ public abstract class AbstractBlockProcessor implements BlockProcessor {
         nbParallelTx++;
       }
     }
+    storagePrefetch.ifPresent(BonsaiStoragePrefetcher.Prefetch::cancel);
+    storagePrefetcher.ifPresent(
+        prefetcher ->
+            prefetcher.recordAccessedSlots(
+                (BonsaiWorldStateUpdateAccumulator) worldState.updater()));
     if (blockHeader.getBlobGasUsed().isPresent()
         && currentBlobGasUsed != blockHeader.getBlobGasUsed().get()) {
       String errorMessage =
@@ -0,0 +1,452 @@
+/*
+ * Copyright contributors to Besu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.mainnet;
+
+import static org.hyperledger.besu.ethereum.mainnet.PrivateStateUtils.KEY_IS_PERSISTING_PRIVATE_STATE;
+import static org.hyperledger.besu.ethereum.mainnet.PrivateStateUtils.KEY_TRANSACTION;
+import static org.hyperledger.besu.ethereum.mainnet.PrivateStateUtils.KEY_TRANSACTION_HASH;
+
+import org.hyperledger.besu.collections.trie.BytesTrieSet;
+import org.hyperledger.besu.config.OptimismGenesisConfigOptions;
+import org.hyperledger.besu.datatypes.Address;
+import org.hyperledger.besu.datatypes.Wei;
+import org.hyperledger.besu.ethereum.core.ProcessableBlockHeader;
+import org.hyperledger.besu.ethereum.core.Transaction;
+import org.hyperledger.besu.ethereum.processing.TransactionProcessingResult;
+import org.hyperledger.besu.ethereum.transaction.TransactionInvalidReason;
+import org.hyperledger.besu.ethereum.trie.MerkleTrieException;
+import org.hyperledger.besu.evm.Code;
+import org.hyperledger.besu.evm.account.Account;
+import org.hyperledger.besu.evm.account.MutableAccount;
+import org.hyperledger.besu.evm.code.CodeV0;
+import org.hyperledger.besu.evm.frame.ExceptionalHaltReason;
+import org.hyperledger.besu.evm.frame.MessageFrame;
+import org.hyperledger.besu.evm.gascalculator.GasCalculator;
+import org.hyperledger.besu.evm.operation.BlockHashOperation.BlockHashLookup;
+import org.hyperledger.besu.evm.processor.AbstractMessageProcessor;
+import org.hyperledger.besu.evm.tracing.OperationTracer;
+import org.hyperledger.besu.evm.worldstate.EVMWorldUpdater;
+import org.hyperledger.besu.evm.worldstate.WorldUpdater;
+
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import com.google.common.collect.ImmutableMap;
+import org.apache.tuweni.bytes.Bytes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Processes OP Stack deposit transactions. Deposits are derived from L1 and are always included at
+ * the start of the block, before the user transactions, so they skip all the checks and the fee
+ * handling of {@link MainnetTransactionProcessor}: the sender is explicit, so there is no signature
+ * recovery, there are no nonce, balance or fee market checks, the gas is not bought and it is not
+ * refunded, and nothing is paid to the coinbase or to the L1 fee vault.
+ *
+ * <p>The minted value is credited to the sender before the execution, and it is kept even when the
+ * deposit fails. A deposit that can not be executed, because it is a system transaction after
+ * Regolith, its intrinsic gas exceeds its gas limit, or its value exceeds the sender balance, is
+ * still included in the block as a failed deposit: all its state changes except the mint are
+ * discarded, the sender nonce is incremented and all its gas limit is used.
+ */
+public class DepositTransactionProcessor {
+
+  private static final Logger LOG = LoggerFactory.getLogger(DepositTransactionProcessor.class);
+
+  /** The version of the deposit receipts since Canyon */
+  static final long CANYON_DEPOSIT_RECEIPT_VERSION = 1L;
+
+  private final GasCalculator gasCalculator;
+  private final AbstractMessageProcessor contractCreationProcessor;
+  private final AbstractMessageProcessor messageCallProcessor;
+  private final int maxStackSize;
+  private final boolean clearEmptyAccounts;
+  private final boolean warmCoinbase;
+  private final OptimismGenesisConfigOptions genesisOptions;
+
+  public DepositTransactionProcessor(
+      final GasCalculator gasCalculator,
+      final AbstractMessageProcessor contractCreationProcessor,
+      final AbstractMessageProcessor messageCallProcessor,
+      final int maxStackSize,
+      final boolean clearEmptyAccounts,
+      final boolean warmCoinbase,
+      final OptimismGenesisConfigOptions genesisOptions) {
+    this.gasCalculator = gasCalculator;
+    this.contractCreationProcessor = contractCreationProcessor;
+    this.messageCallProcessor = messageCallProcessor;
+    this.maxStackSize = maxStackSize;
+    this.clearEmptyAccounts = clearEmptyAccounts;
+    this.warmCoinbase = warmCoinbase;
+    this.genesisOptions = genesisOptions;
+  }
+
+  /**
+   * Applies a deposit transaction to the current system state.
+   *
+   * @param worldState The current world state
+   * @param blockHeader The current block header
+   * @param transaction The deposit transaction to process
+   * @param miningBeneficiary The address of the coinbase, only visible to the executed code
+   * @param operationTracer The tracer to record results of each EVM operation
+   * @param blockHashLookup The {@link BlockHashLookup} to use for BLOCKHASH operations
+   * @param isPersistingPrivateState Whether the resulting private state will be persisted
+   * @param blobGasPrice The blob gas price of the block
+   * @return the transaction result, with the deposit receipt fields set
+   */
+  public TransactionProcessingResult processTransaction(
+      final WorldUpdater worldState,
+      final ProcessableBlockHeader blockHeader,
+      final Transaction transaction,
+      final Address miningBeneficiary,
+      final OperationTracer operationTracer,
+      final BlockHashLookup blockHashLookup,
+      final Boolean isPersistingPrivateState,
+      final Wei blobGasPrice) {
+    final long timestamp = blockHeader.getTimestamp();
+    final boolean isRegolith = genesisOptions.isRegolith(timestamp);
+    final boolean isSystemTx = isSystemTx(transaction);
+    final Address senderAddress = transaction.getSender();
+
+    // the mint is credited outside the deposit updater, since it is kept even if the deposit fails
+    final Wei mint = mint(transaction);
+    if (!mint.isZero()) {
+      worldState.getOrCreate(senderAddress).incrementBalance(mint);
+      LOG.trace("Minted {} to deposit sender {}", mint, senderAddress);
+    }
+
+    final WorldUpdater depositUpdater = worldState.updater();
+    final EVMWorldUpdater evmWorldUpdater = new EVMWorldUpdater(depositUpdater, gasCalculator);
+    try {
+      final MutableAccount sender = evmWorldUpdater.getOrCreateSenderAccount(senderAddress);
+      final long depositNonce = sender.getNonce();
+
+      final long intrinsicGas =
+          gasCalculator.transactionIntrinsicGasCost(
+              transaction.getPayload(), transaction.isContractCreation());
+      final ValidationResult<TransactionInvalidReason> validationResult =
+          validate(transaction, timestamp, sender, intrinsicGas);
+      if (!validationResult.isValid()) {
+        LOG.debug("Failed deposit: {}", validationResult.getErrorMessage());
+        return failedDeposit(
+            worldState,
+            transaction,
+            operationTracer,
+            validationResult,
+            depositNonce,
+            timestamp,
+            isRegolith,
+            isSystemTx);
+      }
+
+      operationTracer.tracePrepareTransaction(evmWorldUpdater, transaction);
+
+      sender.incrementNonce();
+
+      final long gasAvailable = transaction.getGasLimit() - intrinsicGas;
+      final WorldUpdater worldUpdater = evmWorldUpdater.updater();
+
+      operationTracer.traceStartTransaction(worldUpdater, transaction);
+
+      final MessageFrame initialFrame =
+          initialFrame(
+              transaction,
+              blockHeader,
+              miningBeneficiary,
+              blockHashLookup,
+              isPersistingPrivateState,
+              blobGasPrice,
+              sender,
+              gasAvailable,
+              worldUpdater,
+              evmWorldUpdater);
+
+      if (initialFrame.getCode().isValid()) {
+        final Deque<MessageFrame> messageFrameStack = initialFrame.getMessageFrameStack();
+        while (!messageFrameStack.isEmpty()) {
+          final MessageFrame frame = messageFrameStack.peekFirst();
+          getMessageProcessor(frame.getType()).process(frame, operationTracer);
+        }
+      } else {
+        initialFrame.setState(MessageFrame.State.EXCEPTIONAL_HALT);
+        initialFrame.setExceptionalHaltReason(Optional.of(ExceptionalHaltReason.INVALID_CODE));
+      }
+
+      final boolean success = initialFrame.getState() == MessageFrame.State.COMPLETED_SUCCESS;
+      if (success) {
+        worldUpdater.commit();
+      }
+
+      final long gasUsedByTransaction = gasUsed(transaction, initialFrame, isRegolith, isSystemTx);
+
+      // deposits pay nothing to the coinbase, the gas price is always zero
+      operationTracer.traceBeforeRewardTransaction(worldUpdater, transaction, Wei.ZERO);
+      operationTracer.traceEndTransaction(
+          evmWorldUpdater.updater(),
+          transaction,
+          success,
+          initialFrame.getOutputData(),
+          initialFrame.getLogs(),
+          gasUsedByTransaction,
+          initialFrame.getSelfDestructs(),
+          0L);
+
+      initialFrame.getSelfDestructs().forEach(evmWorldUpdater::deleteAccount);
+
+      if (clearEmptyAccounts) {
+        evmWorldUpdater.clearAccountsThatAreEmpty();
+      }
+      depositUpdater.commit();
+
+      final long gasRemaining = transaction.getGasLimit() - gasUsedByTransaction;
+      final TransactionProcessingResult result;
+      if (success) {
+        result =
+            TransactionProcessingResult.successful(
+                initialFrame.getLogs(),
+                gasUsedByTransaction,
+                gasRemaining,
+                initialFrame.getOutputData(),
+                ValidationResult.valid());
+      } else {
+        if (initialFrame.getExceptionalHaltReason().isPresent()) {
+          LOG.debug(
+              "Deposit {} processing halted: {}",
+              transaction.getHash(),
+              initialFrame.getExceptionalHaltReason().get());
+        }
+        result =
+            TransactionProcessingResult.failed(
+                gasUsedByTransaction,
+                gasRemaining,
+                initialFrame
+                    .getExceptionalHaltReason()
+                    .<ValidationResult<TransactionInvalidReason>>map(
+                        reason ->
+                            ValidationResult.invalid(
+                                TransactionInvalidReason.EXECUTION_HALTED, reason.toString()))
+                    .orElseGet(ValidationResult::valid),
+                initialFrame.getRevertReason());
+      }
+      setDepositReceiptFields(result, depositNonce, timestamp, isRegolith);
+      return result;
+    } catch (final MerkleTrieException re) {
+      operationTracer.traceEndTransaction(
+          evmWorldUpdater.updater(), transaction, false, Bytes.EMPTY, List.of(), 0, Set.of(), 0L);
+
+      // need to throw to trigger the heal
+      throw re;
+    } catch (final RuntimeException re) {
+      operationTracer.traceEndTransaction(
+          evmWorldUpdater.updater(), transaction, false, Bytes.EMPTY, List.of(), 0, Set.of(), 0L);
+
+      LOG.error("Critical Exception Processing Deposit", re);
+      return TransactionProcessingResult.invalid(
+          ValidationResult.invalid(
+              TransactionInvalidReason.INTERNAL_ERROR, "Internal Error in Besu - " + re));
+    }
+  }
+
+  private ValidationResult<TransactionInvalidReason> validate(
+      final Transaction transaction,
+      final long timestamp,
+      final Account sender,
+      final long intrinsicGas) {
+    final ValidationResult<TransactionInvalidReason> validationResult =
+        OptimismTransactionValidator.validateDeposit(genesisOptions, transaction, timestamp);
+    if (!validationResult.isValid()) {
+      return validationResult;
+    }
+    if (intrinsicGas > transaction.getGasLimit()) {
+      return ValidationResult.invalid(
+          TransactionInvalidReason.INTRINSIC_GAS_EXCEEDS_GAS_LIMIT,
+          String.format(
+              "intrinsic gas cost %s exceeds gas limit %s",
+              intrinsicGas, transaction.getGasLimit()));
+    }
+    final int maxInitcodeSize = contractCreationProcessor.getMaxInitcodeSize();
+    if (transaction.isContractCreation() && transaction.getPayload().size() > maxInitcodeSize) {
+      return ValidationResult.invalid(
+          TransactionInvalidReason.INITCODE_TOO_LARGE,
+          String.format(
+              "Initcode size of %d exceeds maximum size of %s",
+              transaction.getPayload().size(), maxInitcodeSize));
+    }
+    if (transaction.getValue().compareTo(sender.getBalance()) > 0) {
+      return ValidationResult.invalid(
+          TransactionInvalidReason.UPFRONT_COST_EXCEEDS_BALANCE,
+          String.format(
+              "deposit value %s exceeds sender account balance %s",
+              transaction.getValue().toQuantityHexString(),
+              sender.getBalance().toQuantityHexString()));
+    }
+    return ValidationResult.valid();
+  }
+
+  private TransactionProcessingResult failedDeposit(
+      final WorldUpdater worldState,
+      final Transaction transaction,
+      final OperationTracer operationTracer,
+      final ValidationResult<TransactionInvalidReason> validationResult,
+      final long depositNonce,
+      final long timestamp,
+      final boolean isRegolith,
+      final boolean isSystemTx) {
+    // the deposit updater is discarded, only the mint and the nonce increment are kept
+    worldState.getOrCreate(transaction.getSender()).incrementNonce();
+
+    final long gasUsed = !isRegolith && isSystemTx ? 0L : transaction.getGasLimit();
+    operationTracer.traceEndTransaction(
+        worldState, transaction, false, Bytes.EMPTY, List.of(), gasUsed, Set.of(), 0L);
+
+    final TransactionProcessingResult result =
+        TransactionProcessingResult.failed(
+            gasUsed, transaction.getGasLimit() - gasUsed, validationResult, Optional.empty());
+    setDepositReceiptFields(result, depositNonce, timestamp, isRegolith);
+    return result;
+  }
+
+  /**
+   * Before Regolith the deposits use all their gas limit, except system transactions that use no
+   * gas at all, since Regolith they use the actual gas, with the refund counter still applied.
+   */
+  private long gasUsed(
+      final Transaction transaction,
+      final MessageFrame initialFrame,
+      final boolean isRegolith,
+      final boolean isSystemTx) {
+    if (!isRegolith) {
+      return isSystemTx ? 0L : transaction.getGasLimit();
+    }
+    final long gasUsedBeforeRefund = transaction.getGasLimit() - initialFrame.getRemainingGas();
+    final long gasRefund =
+        initialFrame.getGasRefund()
+            + gasCalculator.getSelfDestructRefundAmount() * initialFrame.getSelfDestructs().size();
+    // Integer truncation takes care of the floor calculation needed after the divide.
+    final long maxRefundAllowance = gasUsedBeforeRefund / gasCalculator.getMaxRefundQuotient();
+    return gasUsedBeforeRefund - Math.min(maxRefundAllowance, gasRefund);
+  }
+
+  private MessageFrame initialFrame(
+      final Transaction transaction,
+      final ProcessableBlockHeader blockHeader,
+      final Address miningBeneficiary,
+      final BlockHashLookup blockHashLookup,
+      final Boolean isPersistingPrivateState,
+      final Wei blobGasPrice,
+      final MutableAccount sender,
+      final long gasAvailable,
+      final WorldUpdater worldUpdater,
+      final EVMWorldUpdater evmWorldUpdater) {
+    final Address senderAddress = sender.getAddress();
+    // deposits have no access list, only the coinbase is warm since Shanghai
+    final Set<Address> warmAddressList = new BytesTrieSet<>(Address.SIZE);
+    if (warmCoinbase) {
+      warmAddressList.add(miningBeneficiary);
+    }
+    final MessageFrame.Builder commonMessageFrameBuilder =
+        MessageFrame.builder()
+            .maxStackSize(maxStackSize)
+            .wordStack(messageCallProcessor.isWordStackEnabled())
+            .worldUpdater(worldUpdater.updater())
+            .initialGas(gasAvailable)
+            .originator(senderAddress)
+            .gasPrice(Wei.ZERO)
+            .blobGasPrice(blobGasPrice)
+            .sender(senderAddress)
+            .value(transaction.getValue())
+            .apparentValue(transaction.getValue())
+            .blockValues(blockHeader)
+            .completer(__ -> {})
+            .miningBeneficiary(miningBeneficiary)
+            .blockHashLookup(blockHashLookup)
+            .contextVariables(
+                ImmutableMap.<String, Object>of(
+                    KEY_IS_PERSISTING_PRIVATE_STATE,
+                    isPersistingPrivateState,
+                    KEY_TRANSACTION,
+                    transaction,
+                    KEY_TRANSACTION_HASH,
+                    transaction.getHash()))
+            .versionedHashes(Optional.empty());
+
+    if (transaction.isContractCreation()) {
+      final Address contractAddress =
+          Address.contractAddress(senderAddress, sender.getNonce() - 1L);
+      final Bytes initCodeBytes = transaction.getPayload();
+      final Code code = contractCreationProcessor.getCodeFromEVMForCreation(initCodeBytes);
+      return commonMessageFrameBuilder
+          .type(MessageFrame.Type.CONTRACT_CREATION)
+          .address(contractAddress)
+          .contract(contractAddress)
+          .inputData(initCodeBytes.slice(code.getSize()))
+          .code(code)
+          .accessListWarmAddresses(warmAddressList)
+          .build();
+    }
+
+    @SuppressWarnings("OptionalGetWithoutIsPresent") // isContractCreation tests isPresent
+    final Address to = transaction.getTo().get();
+    final Optional<Account> maybeContract = Optional.ofNullable(evmWorldUpdater.get(to));
+
+    if (maybeContract.isPresent() && maybeContract.get().hasDelegatedCode()) {
+      warmAddressList.add(maybeContract.get().delegatedCodeAddress().get());
+    }
+
+    return commonMessageFrameBuilder
+        .type(MessageFrame.Type.MESSAGE_CALL)
+        .address(to)
+        .contract(to)
+        .inputData(transaction.getPayload())
+        .code(
+            maybeContract
+                .map(c -> messageCallProcessor.getCodeFromEVM(c.getCodeHash(), c.getCode()))
+                .orElse(CodeV0.EMPTY_CODE))
+        .accessListWarmAddresses(warmAddressList)
+        .build();
+  }
+
+  private AbstractMessageProcessor getMessageProcessor(final MessageFrame.Type type) {
+    return switch (type) {
+      case MESSAGE_CALL -> messageCallProcessor;
+      case CONTRACT_CREATION -> contractCreationProcessor;
+    };
+  }
+
+  private void setDepositReceiptFields(
+      final TransactionProcessingResult result,
+      final long depositNonce,
+      final long timestamp,
+      final boolean isRegolith) {
+    result.setDepositReceiptFields(
+        isRegolith ? Optional.of(depositNonce) : Optional.empty(),
+        genesisOptions.isCanyon(timestamp)
+            ? Optional.of(CANYON_DEPOSIT_RECEIPT_VERSION)
+            : Optional.empty());
+  }
+
+  private static Wei mint(final Transaction transaction) {
+    return transaction instanceof org.hyperledger.besu.datatypes.OptimismTransaction opTransaction
+        ? opTransaction.getMint().orElse(Wei.ZERO)
+        : Wei.ZERO;
+  }
+
+  private static boolean isSystemTx(final Transaction transaction) {
+    return transaction instanceof org.hyperledger.besu.datatypes.OptimismTransaction opTransaction
+        && opTransaction.getIsSystemTx().orElse(false);
+  }
+}
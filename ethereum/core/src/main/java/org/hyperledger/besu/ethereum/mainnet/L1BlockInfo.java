@@ -0,0 +1,141 @@
+/*
+ * Copyright contributors to Besu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.mainnet;
+
+import org.hyperledger.besu.datatypes.Address;
+import org.hyperledger.besu.datatypes.TransactionType;
+import org.hyperledger.besu.datatypes.Wei;
+import org.hyperledger.besu.ethereum.core.Transaction;
+import org.hyperledger.besu.evm.account.Account;
+import org.hyperledger.besu.evm.worldstate.WorldView;
+
+import java.util.Optional;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.units.bigints.UInt256;
+
+/**
+ * The L1 fee parameters published by the L1 attributes deposit of an OP Stack block, either read
+ * from the L1Block predeploy storage or decoded from the deposit calldata.
+ *
+ * @param l1BaseFee the L1 base fee
+ * @param overhead the pre-Ecotone fixed L1 gas overhead
+ * @param scalar the pre-Ecotone fee scalar
+ * @param blobBaseFee the L1 blob base fee
+ * @param baseFeeScalar the Ecotone base fee scalar
+ * @param blobBaseFeeScalar the Ecotone blob base fee scalar
+ */
+public record L1BlockInfo(
+    Wei l1BaseFee,
+    UInt256 overhead,
+    UInt256 scalar,
+    Wei blobBaseFee,
+    long baseFeeScalar,
+    long blobBaseFeeScalar) {
+
+  /** The L1Block predeploy that stores the L1 attributes. */
+  public static final Address L1_BLOCK_ADDRESS =
+      Address.fromHexString("0x4200000000000000000000000000000000000015");
+
+  /** The depositor account that submits the L1 attributes deposit. */
+  public static final Address L1_INFO_DEPOSITOR_ADDRESS =
+      Address.fromHexString("0xdeaddeaddeaddeaddeaddeaddeaddeaddead0001");
+
+  private static final UInt256 L1_BASE_FEE_SLOT = UInt256.valueOf(1);
+  private static final UInt256 L1_FEE_SCALARS_SLOT = UInt256.valueOf(3);
+  private static final UInt256 OVERHEAD_SLOT = UInt256.valueOf(5);
+  private static final UInt256 SCALAR_SLOT = UInt256.valueOf(6);
+  private static final UInt256 L1_BLOB_BASE_FEE_SLOT = UInt256.valueOf(7);
+
+  // the scalars are packed in their slot after the 8 bytes of the sequence number, so counting
+  // from the start of the big-endian slot value the base fee scalar is at bytes 16 to 19 and the
+  // blob base fee scalar at bytes 20 to 23
+  private static final int BASE_FEE_SCALAR_SLOT_OFFSET = 16;
+  private static final int BLOB_BASE_FEE_SCALAR_SLOT_OFFSET = 20;
+
+  private static final Bytes BEDROCK_L1_INFO_SELECTOR = Bytes.fromHexString("0x015d8eb9");
+  private static final int BEDROCK_L1_INFO_LENGTH = 4 + 32 * 8;
+  private static final Bytes ECOTONE_L1_INFO_SELECTOR = Bytes.fromHexString("0x440a5e20");
+  private static final int ECOTONE_L1_INFO_LENGTH = 164;
+
+  /**
+   * Whether the Ecotone scalars are unset, which is the case in the Ecotone activation block
+   * before the L1Block predeploy is upgraded.
+   *
+   * @return true if both Ecotone scalars are zero
+   */
+  public boolean hasEmptyEcotoneScalars() {
+    return baseFeeScalar == 0L && blobBaseFeeScalar == 0L;
+  }
+
+  /**
+   * Reads the L1 fee parameters from the L1Block predeploy storage.
+   *
+   * @param worldView the world state after the L1 attributes deposit has been applied
+   * @return the L1 fee parameters, all zero if the predeploy does not exist
+   */
+  public static L1BlockInfo fromWorldState(final WorldView worldView) {
+    final Account l1Block = worldView.get(L1_BLOCK_ADDRESS);
+    if (l1Block == null) {
+      return new L1BlockInfo(Wei.ZERO, UInt256.ZERO, UInt256.ZERO, Wei.ZERO, 0L, 0L);
+    }
+    final Bytes scalars = l1Block.getStorageValue(L1_FEE_SCALARS_SLOT);
+    return new L1BlockInfo(
+        Wei.of(l1Block.getStorageValue(L1_BASE_FEE_SLOT)),
+        l1Block.getStorageValue(OVERHEAD_SLOT),
+        l1Block.getStorageValue(SCALAR_SLOT),
+        Wei.of(l1Block.getStorageValue(L1_BLOB_BASE_FEE_SLOT)),
+        scalars.getInt(BASE_FEE_SCALAR_SLOT_OFFSET) & 0xFFFFFFFFL,
+        scalars.getInt(BLOB_BASE_FEE_SCALAR_SLOT_OFFSET) & 0xFFFFFFFFL);
+  }
+
+  /**
+   * Decodes the L1 fee parameters from the calldata of an L1 attributes deposit transaction.
+   *
+   * @param transaction the candidate L1 attributes deposit
+   * @return the L1 fee parameters, or empty if the transaction is not an L1 attributes deposit
+   */
+  public static Optional<L1BlockInfo> fromL1InfoDeposit(final Transaction transaction) {
+    if (transaction.getType() != TransactionType.OPTIMISM_DEPOSIT
+        || !transaction.getTo().map(L1_BLOCK_ADDRESS::equals).orElse(false)
+        || !L1_INFO_DEPOSITOR_ADDRESS.equals(transaction.getSender())) {
+      return Optional.empty();
+    }
+    final Bytes payload = transaction.getPayload();
+    if (payload.size() >= ECOTONE_L1_INFO_LENGTH
+        && payload.slice(0, 4).equals(ECOTONE_L1_INFO_SELECTOR)) {
+      return Optional.of(
+          new L1BlockInfo(
+              Wei.of(UInt256.fromBytes(payload.slice(36, 32))),
+              UInt256.ZERO,
+              UInt256.ZERO,
+              Wei.of(UInt256.fromBytes(payload.slice(68, 32))),
+              payload.getInt(4) & 0xFFFFFFFFL,
+              payload.getInt(8) & 0xFFFFFFFFL));
+    }
+    if (payload.size() >= BEDROCK_L1_INFO_LENGTH
+        && payload.slice(0, 4).equals(BEDROCK_L1_INFO_SELECTOR)) {
+      return Optional.of(
+          new L1BlockInfo(
+              Wei.of(UInt256.fromBytes(payload.slice(4 + 32 * 2, 32))),
+              UInt256.fromBytes(payload.slice(4 + 32 * 6, 32)),
+              UInt256.fromBytes(payload.slice(4 + 32 * 7, 32)),
+              Wei.ZERO,
+              0L,
+              0L));
+    }
+    return Optional.empty();
+  }
+}
@@ -0,0 +1,255 @@
+/*
+ * Copyright contributors to Besu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.mainnet;
+
+import org.hyperledger.besu.config.OptimismGenesisConfigOptions;
+import org.hyperledger.besu.datatypes.Address;
+import org.hyperledger.besu.datatypes.RollupGasData;
+import org.hyperledger.besu.datatypes.TransactionType;
+import org.hyperledger.besu.datatypes.Wei;
+import org.hyperledger.besu.ethereum.core.ProcessableBlockHeader;
+import org.hyperledger.besu.ethereum.core.Transaction;
+import org.hyperledger.besu.evm.worldstate.WorldView;
+
+import java.util.Optional;
+
+import org.apache.tuweni.units.bigints.UInt256;
+
+/**
+ * Computes the L1 data fee charged to OP Stack transactions for the Bedrock, Ecotone and Fjord
+ * cost functions.
+ *
+ * <p>The per-block cost function is derived from the L1 attributes once per block and reused for
+ * every transaction of that block, while the per-transaction byte counts are memoized on the
+ * {@link Transaction} itself.
+ */
+public class L1CostCalculator {
+
+  /** The vault that collects the L1 data fee. */
+  public static final Address L1_FEE_VAULT_ADDRESS =
+      Address.fromHexString("0x420000000000000000000000000000000000001a");
+
+  private static final long TX_DATA_ZERO_GAS = 4L;
+  private static final long TX_DATA_NON_ZERO_GAS = 16L;
+  // pre-Regolith the L1 cost also accounted for the signature bytes
+  private static final long PRE_REGOLITH_SIGNATURE_GAS = 68L * TX_DATA_NON_ZERO_GAS;
+
+  private static final long BEDROCK_SCALAR_DIVISOR = 1_000_000L;
+  private static final long ECOTONE_DIVISOR = 16_000_000L;
+  private static final long FJORD_DIVISOR = 1_000_000_000_000L;
+  private static final long FJORD_INTERCEPT = -42_585_600L;
+  private static final long FJORD_FASTLZ_COEFFICIENT = 836_500L;
+  private static final long FJORD_MIN_TRANSACTION_SIZE_SCALED = 100L * 1_000_000L;
+
+  /**
+   * The L1 data fee and the L1 gas it accounts for.
+   *
+   * @param fee the L1 data fee in wei
+   * @param gasUsed the L1 gas used
+   */
+  public record L1Cost(Wei fee, long gasUsed) {
+    /** No L1 data fee. */
+    public static final L1Cost ZERO = new L1Cost(Wei.ZERO, 0L);
+  }
+
+  @FunctionalInterface
+  private interface CostFunction {
+    L1Cost apply(RollupGasData rollupGasData);
+  }
+
+  private record BlockCostFunction(ProcessableBlockHeader header, CostFunction costFunction) {}
+
+  private final OptimismGenesisConfigOptions genesisOptions;
+
+  private volatile BlockCostFunction currentBlock;
+
+  public L1CostCalculator(final OptimismGenesisConfigOptions genesisOptions) {
+    this.genesisOptions = genesisOptions;
+  }
+
+  OptimismGenesisConfigOptions getGenesisOptions() {
+    return genesisOptions;
+  }
+
+  /**
+   * Memoizes the cost function of the block from its L1 attributes deposit, so that the following
+   * transactions of the block do not need to read the L1Block predeploy. Other transactions are
+   * ignored.
+   *
+   * @param blockHeader the header of the block being processed
+   * @param transaction the transaction being processed
+   */
+  public void onDepositTransaction(
+      final ProcessableBlockHeader blockHeader, final Transaction transaction) {
+    L1BlockInfo.fromL1InfoDeposit(transaction)
+        .ifPresent(
+            l1BlockInfo ->
+                currentBlock =
+                    new BlockCostFunction(blockHeader, costFunction(blockHeader, l1BlockInfo)));
+  }
+
+  /**
+   * Computes the L1 data fee of a transaction.
+   *
+   * <p>If the L1 attributes deposit of the block has been processed, its parameters are reused,
+   * otherwise they are read from the L1Block predeploy in the given world state.
+   *
+   * @param blockHeader the header of the block the transaction is executed in
+   * @param transaction the transaction
+   * @param worldView the world state after the L1 attributes deposit
+   * @return the L1 data fee, zero for deposit transactions
+   */
+  public L1Cost l1Cost(
+      final ProcessableBlockHeader blockHeader,
+      final Transaction transaction,
+      final WorldView worldView) {
+    if (transaction.getType() == TransactionType.OPTIMISM_DEPOSIT) {
+      return L1Cost.ZERO;
+    }
+    final BlockCostFunction block = currentBlock;
+    final CostFunction costFunction =
+        block != null && block.header() == blockHeader
+            ? block.costFunction()
+            : costFunction(blockHeader, L1BlockInfo.fromWorldState(worldView));
+    return costFunction.apply(transaction.getRollupGasData());
+  }
+
+  /**
+   * Computes the L1 data fee of a transaction using the parameters of the L1 attributes deposit of
+   * the block, without reading the world state.
+   *
+   * @param blockHeader the header of the block the transaction is executed in
+   * @param transaction the transaction
+   * @return the L1 data fee, or empty if the L1 attributes deposit of the block has not been
+   *     processed yet
+   */
+  public Optional<L1Cost> cachedL1Cost(
+      final ProcessableBlockHeader blockHeader, final Transaction transaction) {
+    if (transaction.getType() == TransactionType.OPTIMISM_DEPOSIT) {
+      return Optional.of(L1Cost.ZERO);
+    }
+    final BlockCostFunction block = currentBlock;
+    if (block == null || block.header() != blockHeader) {
+      return Optional.empty();
+    }
+    return Optional.of(block.costFunction().apply(transaction.getRollupGasData()));
+  }
+
+  /**
+   * Estimates the number of bytes a transaction adds to the compressed batch posted to L1, using
+   * the FastLz based linear regression of the Fjord cost function.
+   *
+   * @param rollupGasData the rollup gas data of the transaction
+   * @return the estimated data availability size in bytes, zero for deposit transactions
+   */
+  public static long estimatedDaSize(final RollupGasData rollupGasData) {
+    if (rollupGasData.isEmpty()) {
+      return 0L;
+    }
+    return estimatedSizeScaled(rollupGasData) / BEDROCK_SCALAR_DIVISOR;
+  }
+
+  /**
+   * Computes the L1 data fee of a transaction for known L1 fee parameters.
+   *
+   * @param blockHeader the header of the block the transaction is executed in
+   * @param l1BlockInfo the L1 fee parameters of the block
+   * @param transaction the transaction
+   * @return the L1 data fee, zero for deposit transactions
+   */
+  public L1Cost l1Cost(
+      final ProcessableBlockHeader blockHeader,
+      final L1BlockInfo l1BlockInfo,
+      final Transaction transaction) {
+    if (transaction.getType() == TransactionType.OPTIMISM_DEPOSIT) {
+      return L1Cost.ZERO;
+    }
+    return costFunction(blockHeader, l1BlockInfo).apply(transaction.getRollupGasData());
+  }
+
+  private CostFunction costFunction(
+      final ProcessableBlockHeader blockHeader, final L1BlockInfo l1BlockInfo) {
+    final long timestamp = blockHeader.getTimestamp();
+    // the Ecotone activation block still runs the Bedrock L1Block contract, detected by unset
+    // Ecotone scalars, and must be priced with the Bedrock function
+    if (!genesisOptions.isEcotone(timestamp) || l1BlockInfo.hasEmptyEcotoneScalars()) {
+      return bedrockCostFunction(l1BlockInfo, genesisOptions.isRegolith(timestamp));
+    }
+    final UInt256 l1FeeScaled =
+        l1BlockInfo
+            .l1BaseFee()
+            .toUInt256()
+            .multiply(TX_DATA_NON_ZERO_GAS)
+            .multiply(l1BlockInfo.baseFeeScalar())
+            .add(l1BlockInfo.blobBaseFee().toUInt256().multiply(l1BlockInfo.blobBaseFeeScalar()));
+    if (genesisOptions.isFjord(timestamp)) {
+      return fjordCostFunction(l1FeeScaled);
+    }
+    return ecotoneCostFunction(l1FeeScaled);
+  }
+
+  private static CostFunction bedrockCostFunction(
+      final L1BlockInfo l1BlockInfo, final boolean isRegolith) {
+    final UInt256 overhead =
+        isRegolith
+            ? l1BlockInfo.overhead()
+            : l1BlockInfo.overhead().add(PRE_REGOLITH_SIGNATURE_GAS);
+    final UInt256 feePerGasScaled =
+        l1BlockInfo.l1BaseFee().toUInt256().multiply(l1BlockInfo.scalar());
+    return rollupGasData -> {
+      if (rollupGasData.isEmpty()) {
+        return L1Cost.ZERO;
+      }
+      final UInt256 gasUsed = overhead.add(calldataGas(rollupGasData));
+      return new L1Cost(
+          Wei.of(gasUsed.multiply(feePerGasScaled).divide(BEDROCK_SCALAR_DIVISOR)),
+          gasUsed.bitLength() < Long.SIZE ? gasUsed.toLong() : Long.MAX_VALUE);
+    };
+  }
+
+  private static CostFunction ecotoneCostFunction(final UInt256 l1FeeScaled) {
+    return rollupGasData -> {
+      if (rollupGasData.isEmpty()) {
+        return L1Cost.ZERO;
+      }
+      final long gasUsed = calldataGas(rollupGasData);
+      return new L1Cost(
+          Wei.of(l1FeeScaled.multiply(gasUsed).divide(ECOTONE_DIVISOR)), gasUsed);
+    };
+  }
+
+  private static CostFunction fjordCostFunction(final UInt256 l1FeeScaled) {
+    return rollupGasData -> {
+      if (rollupGasData.isEmpty()) {
+        return L1Cost.ZERO;
+      }
+      final long estimatedSizeScaled = estimatedSizeScaled(rollupGasData);
+      return new L1Cost(
+          Wei.of(l1FeeScaled.multiply(estimatedSizeScaled).divide(FJORD_DIVISOR)),
+          estimatedSizeScaled * TX_DATA_NON_ZERO_GAS / BEDROCK_SCALAR_DIVISOR);
+    };
+  }
+
+  private static long estimatedSizeScaled(final RollupGasData rollupGasData) {
+    return Math.max(
+        FJORD_MIN_TRANSACTION_SIZE_SCALED,
+        FJORD_INTERCEPT + FJORD_FASTLZ_COEFFICIENT * rollupGasData.fastLzSize());
+  }
+
+  private static long calldataGas(final RollupGasData rollupGasData) {
+    return rollupGasData.zeroes() * TX_DATA_ZERO_GAS
+        + rollupGasData.ones() * TX_DATA_NON_ZERO_GAS;
+  }
+}
@@ -17,6 +17,7 @@ package org.hyperledger.besu.ethereum.mainnet;
 import static org.hyperledger.besu.ethereum.mainnet.requests.MainnetRequestsProcessor.pragueRequestsProcessors;
 
 import org.hyperledger.besu.config.GenesisConfigOptions;
+import org.hyperledger.besu.config.OptimismGenesisConfigOptions;
 import org.hyperledger.besu.config.PowAlgorithm;
 import org.hyperledger.besu.crypto.SignatureAlgorithm;
 import org.hyperledger.besu.crypto.SignatureAlgorithmFactory;
@@ -510,7 +511,9 @@ public abstract class MainnetProtocolSpecs {
                     false,
                     evmConfiguration.evmStackSize(),
                     feeMarket,
-                    CoinbaseFeePriceCalculator.eip1559()))
+                    CoinbaseFeePriceCalculator.eip1559(),
+                    null,
+                    l1CostCalculator(genesisConfigOptions)))
         .contractCreationProcessorBuilder(
             evm ->
                 new ContractCreationProcessor(
@@ -642,7 +645,9 @@ public abstract class MainnetProtocolSpecs {
                     true,
                     evmConfiguration.evmStackSize(),
                     feeMarket,
-                    CoinbaseFeePriceCalculator.eip1559()))
+                    CoinbaseFeePriceCalculator.eip1559(),
+                    null,
+                    l1CostCalculator(genesisConfigOptions)))
         // Contract creation rules for EIP-3860 Limit and meter intitcode
         .transactionValidatorFactoryBuilder(
             (evm, gasLimitCalculator, feeMarket) ->
@@ -722,7 +727,8 @@ public abstract class MainnetProtocolSpecs {
                     feeMarket,
                     CoinbaseFeePriceCalculator.eip1559(),
                     new CodeDelegationProcessor(
-                        chainId, SIGNATURE_ALGORITHM.get().getHalfCurveOrder())))
+                        chainId, SIGNATURE_ALGORITHM.get().getHalfCurveOrder()),
+                    l1CostCalculator(genesisConfigOptions)))
         // change to check for max blob gas per block for EIP-4844
         .transactionValidatorFactoryBuilder(
             (evm, gasLimitCalculator, feeMarket) ->
@@ -844,6 +850,15 @@ public abstract class MainnetProtocolSpecs {
     return addEOF(chainId, evmConfiguration, protocolSpecBuilder).name("Osaka");
   }
 
+  private static L1CostCalculator l1CostCalculator(
+      final GenesisConfigOptions genesisConfigOptions) {
+    // OP Stack chains charge the L1 data fee and process the deposit transactions
+    return genesisConfigOptions instanceof OptimismGenesisConfigOptions optimismConfigOptions
+            && optimismConfigOptions.isOptimism()
+        ? new L1CostCalculator(optimismConfigOptions)
+        : null;
+  }
+
   private static ProtocolSpecBuilder addEOF(
       final Optional<BigInteger> chainId,
       final EvmConfiguration evmConfiguration,
@@ -968,7 +983,9 @@ public abstract class MainnetProtocolSpecs {
         transactionProcessingResult.isSuccessful() ? 1 : 0,
         gasUsed,
         transactionProcessingResult.getLogs(),
-        Optional.empty());
+        Optional.empty(),
+        transactionProcessingResult.getDepositNonce(),
+        transactionProcessingResult.getDepositReceiptVersion());
   }
 
   static TransactionReceipt berlinTransactionReceiptFactoryWithReasonEnabled(
@@ -981,7 +998,9 @@ public abstract class MainnetProtocolSpecs {
         transactionProcessingResult.isSuccessful() ? 1 : 0,
         gasUsed,
         transactionProcessingResult.getLogs(),
-        transactionProcessingResult.getRevertReason());
+        transactionProcessingResult.getRevertReason(),
+        transactionProcessingResult.getDepositNonce(),
+        transactionProcessingResult.getDepositReceiptVersion());
   }
 
   private record DaoBlockProcessor(BlockProcessor wrapped) implements BlockProcessor {
@@ -23,6 +23,7 @@ import static org.hyperledger.besu.evm.operation.BlockHashOperation.BlockHashLoo
 import org.hyperledger.besu.collections.trie.BytesTrieSet;
 import org.hyperledger.besu.datatypes.AccessListEntry;
 import org.hyperledger.besu.datatypes.Address;
+import org.hyperledger.besu.datatypes.TransactionType;
 import org.hyperledger.besu.datatypes.Wei;
 import org.hyperledger.besu.ethereum.core.ProcessableBlockHeader;
 import org.hyperledger.besu.ethereum.core.Transaction;
@@ -83,6 +84,10 @@ public class MainnetTransactionProcessor {
 
   private final Optional<CodeDelegationProcessor> maybeCodeDelegationProcessor;
 
+  private final Optional<L1CostCalculator> maybeL1CostCalculator;
+
+  private final Optional<DepositTransactionProcessor> maybeDepositTransactionProcessor;
+
   public MainnetTransactionProcessor(
       final GasCalculator gasCalculator,
       final TransactionValidatorFactory transactionValidatorFactory,
@@ -117,6 +122,32 @@ public class MainnetTransactionProcessor {
       final FeeMarket feeMarket,
       final CoinbaseFeePriceCalculator coinbaseFeePriceCalculator,
       final CodeDelegationProcessor maybeCodeDelegationProcessor) {
+    this(
+        gasCalculator,
+        transactionValidatorFactory,
+        contractCreationProcessor,
+        messageCallProcessor,
+        clearEmptyAccounts,
+        warmCoinbase,
+        maxStackSize,
+        feeMarket,
+        coinbaseFeePriceCalculator,
+        maybeCodeDelegationProcessor,
+        null);
+  }
+
+  public MainnetTransactionProcessor(
+      final GasCalculator gasCalculator,
+      final TransactionValidatorFactory transactionValidatorFactory,
+      final AbstractMessageProcessor contractCreationProcessor,
+      final AbstractMessageProcessor messageCallProcessor,
+      final boolean clearEmptyAccounts,
+      final boolean warmCoinbase,
+      final int maxStackSize,
+      final FeeMarket feeMarket,
+      final CoinbaseFeePriceCalculator coinbaseFeePriceCalculator,
+      final CodeDelegationProcessor maybeCodeDelegationProcessor,
+      final L1CostCalculator maybeL1CostCalculator) {
     this.gasCalculator = gasCalculator;
     this.transactionValidatorFactory = transactionValidatorFactory;
     this.contractCreationProcessor = contractCreationProcessor;
@@ -127,6 +158,27 @@ public class MainnetTransactionProcessor {
     this.feeMarket = feeMarket;
     this.coinbaseFeePriceCalculator = coinbaseFeePriceCalculator;
     this.maybeCodeDelegationProcessor = Optional.ofNullable(maybeCodeDelegationProcessor);
+    this.maybeL1CostCalculator = Optional.ofNullable(maybeL1CostCalculator);
+    this.maybeDepositTransactionProcessor =
+        this.maybeL1CostCalculator.map(
+            l1CostCalculator ->
+                new DepositTransactionProcessor(
+                    gasCalculator,
+                    contractCreationProcessor,
+                    messageCallProcessor,
+                    maxStackSize,
+                    clearEmptyAccounts,
+                    warmCoinbase,
+                    l1CostCalculator.getGenesisOptions()));
+  }
+
+  /**
+   * Returns the calculator of the OP Stack L1 data fee, present only on OP Stack chains.
+   *
+   * @return the optional L1 cost calculator
+   */
+  public Optional<L1CostCalculator> getL1CostCalculator() {
+    return maybeL1CostCalculator;
   }
 
   /**
@@ -286,6 +338,22 @@ public class MainnetTransactionProcessor {
       final TransactionValidationParams transactionValidationParams,
       final PrivateMetadataUpdater privateMetadataUpdater,
       final Wei blobGasPrice) {
+    if (transaction.getType() == TransactionType.OPTIMISM_DEPOSIT
+        && maybeDepositTransactionProcessor.isPresent()) {
+      maybeL1CostCalculator.get().onDepositTransaction(blockHeader, transaction);
+      return maybeDepositTransactionProcessor
+          .get()
+          .processTransaction(
+              worldState,
+              blockHeader,
+              transaction,
+              miningBeneficiary,
+              operationTracer,
+              blockHashLookup,
+              isPersistingPrivateState,
+              blobGasPrice);
+    }
+
     final EVMWorldUpdater evmWorldUpdater = new EVMWorldUpdater(worldState, gasCalculator);
     try {
       final var transactionValidator = transactionValidatorFactory.get();
@@ -314,6 +382,28 @@ public class MainnetTransactionProcessor {
         return TransactionProcessingResult.invalid(validationResult);
       }
 
+      final Wei l1CostFee =
+          l1CostFee(blockHeader, transaction, evmWorldUpdater, transactionValidationParams);
+      if (!l1CostFee.isZero()) {
+        final Wei upfrontCostWithL1Fee =
+            transaction
+                .getUpfrontCost(gasCalculator.blobGasCost(transaction.getBlobCount()))
+                .addExact(l1CostFee);
+        if (upfrontCostWithL1Fee.compareTo(sender.getBalance()) > 0) {
+          validationResult =
+              ValidationResult.invalid(
+                  TransactionInvalidReason.UPFRONT_COST_EXCEEDS_BALANCE,
+                  String.format(
+                      "transaction up-front cost %s including L1 data fee %s exceeds transaction"
+                          + " sender account balance %s",
+                      upfrontCostWithL1Fee.toQuantityHexString(),
+                      l1CostFee.toQuantityHexString(),
+                      sender.getBalance().toQuantityHexString()));
+          LOG.debug("Invalid transaction: {}", validationResult.getErrorMessage());
+          return TransactionProcessingResult.invalid(validationResult);
+        }
+      }
+
       operationTracer.tracePrepareTransaction(evmWorldUpdater, transaction);
 
       final Set<Address> warmAddressList = new BytesTrieSet<>(Address.SIZE);
@@ -339,6 +429,10 @@ public class MainnetTransactionProcessor {
           upfrontGasCost,
           previousBalance,
           sender.getBalance());
+      if (!l1CostFee.isZero()) {
+        sender.decrementBalance(l1CostFee);
+        LOG.trace("Deducted sender {} L1 data fee {}", senderAddress, l1CostFee);
+      }
 
       long codeDelegationRefund = 0L;
       if (transaction.getCodeDelegationList().isPresent()) {
@@ -404,6 +498,7 @@ public class MainnetTransactionProcessor {
       final MessageFrame.Builder commonMessageFrameBuilder =
           MessageFrame.builder()
               .maxStackSize(maxStackSize)
+              .wordStack(messageCallProcessor.isWordStackEnabled())
               .worldUpdater(worldUpdater.updater())
               .initialGas(gasAvailable)
               .originator(senderAddress)
@@ -544,6 +639,11 @@ public class MainnetTransactionProcessor {
         final var coinbase = evmWorldUpdater.getOrCreate(miningBeneficiary);
         coinbase.incrementBalance(coinbaseWeiDelta);
       }
+      if (!l1CostFee.isZero()) {
+        evmWorldUpdater
+            .getOrCreate(L1CostCalculator.L1_FEE_VAULT_ADDRESS)
+            .incrementBalance(l1CostFee);
+      }
 
       operationTracer.traceEndTransaction(
           evmWorldUpdater.updater(),
@@ -622,6 +722,21 @@ public class MainnetTransactionProcessor {
     }
   }
 
+  private Wei l1CostFee(
+      final ProcessableBlockHeader blockHeader,
+      final Transaction transaction,
+      final WorldUpdater worldUpdater,
+      final TransactionValidationParams transactionValidationParams) {
+    if (maybeL1CostCalculator.isEmpty()) {
+      return Wei.ZERO;
+    }
+    // simulations that allow exceeding the balance are not charged the L1 data fee
+    if (transactionValidationParams.isAllowExceedingBalance()) {
+      return Wei.ZERO;
+    }
+    return maybeL1CostCalculator.get().l1Cost(blockHeader, transaction, worldUpdater).fee();
+  }
+
   public void process(final MessageFrame frame, final OperationTracer operationTracer) {
     final AbstractMessageProcessor executor = getMessageProcessor(frame.getType());
 
@@ -62,22 +62,38 @@ public class OptimismTransactionValidator extends MainnetTransactionValidator {
       final TransactionValidationParams transactionValidationParams) {
 
     if (transaction.getType().equals(TransactionType.OPTIMISM_DEPOSIT)) {
-      var opTransaction = (org.hyperledger.besu.datatypes.OptimismTransaction) transaction;
-      if (opTransaction.getIsSystemTx().orElse(false)) {
-        if (this.genesisOptions.isRegolith(blockTimestamp)) {
-          // todo define optimism invalide reason enum
-          return ValidationResult.invalid(
-              // not support system tx when regolith hardfork is activation
-              TransactionInvalidReason.PRIVATE_TRANSACTION_INVALID,
-              String.format(
-                  "system tx not supported: address = %s", transaction.getSender().toHexString()));
-        }
-      }
-      return ValidationResult.valid();
+      return validateDeposit(genesisOptions, transaction, blockTimestamp);
     }
     return super.validate(transaction, baseFee, blobFee, transactionValidationParams);
   }
 
+  /**
+   * Validates a deposit transaction. Deposits are derived from L1, so they carry no signature, and
+   * they are not subject to the nonce, balance and fee market checks, the only invalid deposits are
+   * system transactions after Regolith.
+   *
+   * @param genesisOptions the Optimism genesis options
+   * @param transaction the deposit transaction
+   * @param blockTimestamp the timestamp of the block including the deposit
+   * @return the result of the validation
+   */
+  public static ValidationResult<TransactionInvalidReason> validateDeposit(
+      final OptimismGenesisConfigOptions genesisOptions,
+      final Transaction transaction,
+      final long blockTimestamp) {
+    if (transaction instanceof org.hyperledger.besu.datatypes.OptimismTransaction opTransaction
+        && opTransaction.getIsSystemTx().orElse(false)
+        && genesisOptions.isRegolith(blockTimestamp)) {
+      // todo define optimism invalide reason enum
+      return ValidationResult.invalid(
+          // not support system tx when regolith hardfork is activation
+          TransactionInvalidReason.PRIVATE_TRANSACTION_INVALID,
+          String.format(
+              "system tx not supported: address = %s", transaction.getSender().toHexString()));
+    }
+    return ValidationResult.valid();
+  }
+
   @Override
   public ValidationResult<TransactionInvalidReason> validateForSender(
       final Transaction transaction,
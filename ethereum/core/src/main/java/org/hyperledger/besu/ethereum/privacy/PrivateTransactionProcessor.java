@@ -113,6 +113,7 @@ public class PrivateTransactionProcessor {
       final MessageFrame.Builder commonMessageFrameBuilder =
           MessageFrame.builder()
               .maxStackSize(maxStackSize)
+              .wordStack(messageCallProcessor.isWordStackEnabled())
               .worldUpdater(mutablePrivateWorldStateUpdater)
               .initialGas(Long.MAX_VALUE)
               .originator(senderAddress)
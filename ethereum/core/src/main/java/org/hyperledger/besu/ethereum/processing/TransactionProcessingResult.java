@@ -51,6 +51,10 @@ public class TransactionProcessingResult
 
   private Optional<Boolean> isProcessedInParallel = Optional.empty();
 
+  private Optional<Long> depositNonce = Optional.empty();
+
+  private Optional<Long> depositReceiptVersion = Optional.empty();
+
   private final ValidationResult<TransactionInvalidReason> validationResult;
   private final Optional<Bytes> revertReason;
 
@@ -215,6 +219,36 @@ public class TransactionProcessingResult
     return isProcessedInParallel;
   }
 
+  /**
+   * Set the deposit fields of the receipt of an OP Stack deposit transaction
+   *
+   * @param depositNonce the nonce of the deposit sender before the deposit, since Regolith
+   * @param depositReceiptVersion the version of the deposit receipt, since Canyon
+   */
+  public void setDepositReceiptFields(
+      final Optional<Long> depositNonce, final Optional<Long> depositReceiptVersion) {
+    this.depositNonce = depositNonce;
+    this.depositReceiptVersion = depositReceiptVersion;
+  }
+
+  /**
+   * Returns the nonce of the sender of an OP Stack deposit transaction before the deposit
+   *
+   * @return Optional of Long, present only for deposit transactions since Regolith
+   */
+  public Optional<Long> getDepositNonce() {
+    return depositNonce;
+  }
+
+  /**
+   * Returns the version of the receipt of an OP Stack deposit transaction
+   *
+   * @return Optional of Long, present only for deposit transactions since Canyon
+   */
+  public Optional<Long> getDepositReceiptVersion() {
+    return depositReceiptVersion;
+  }
+
   /**
    * Returns the reason why a transaction was reverted (if applicable).
    *
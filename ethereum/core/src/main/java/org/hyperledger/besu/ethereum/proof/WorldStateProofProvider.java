@@ -21,6 +21,7 @@ import org.hyperledger.besu.ethereum.trie.InnerNodeDiscoveryManager;
 import org.hyperledger.besu.ethereum.trie.InnerNodeDiscoveryManager.InnerNode;
 import org.hyperledger.besu.ethereum.trie.MerkleTrie;
 import org.hyperledger.besu.ethereum.trie.MerkleTrieException;
+import org.hyperledger.besu.ethereum.trie.NodeLoader;
 import org.hyperledger.besu.ethereum.trie.Proof;
 import org.hyperledger.besu.ethereum.trie.common.PmtStateTrieAccountValue;
 import org.hyperledger.besu.ethereum.trie.patricia.RemoveVisitor;
@@ -52,10 +53,35 @@ import org.slf4j.LoggerFactory;
 public class WorldStateProofProvider {
 
   private final WorldStateStorageCoordinator worldStateStorageCoordinator;
+  private final NodeLoader accountNodeLoader;
+  private final Function<Hash, NodeLoader> storageNodeLoader;
   private static final Logger LOG = LoggerFactory.getLogger(WorldStateProofProvider.class);
 
   public WorldStateProofProvider(final WorldStateStorageCoordinator worldStateStorageCoordinator) {
+    this(
+        worldStateStorageCoordinator,
+        worldStateStorageCoordinator::getAccountStateTrieNode,
+        accountHash ->
+            (location, hash) ->
+                worldStateStorageCoordinator.getAccountStorageTrieNode(
+                    accountHash, location, hash));
+  }
+
+  /**
+   * Creates a proof provider that reads the trie nodes with the given loaders, for instance to
+   * share a node cache with the block import.
+   *
+   * @param worldStateStorageCoordinator the storage of the world state
+   * @param accountNodeLoader the loader of the account trie nodes
+   * @param storageNodeLoader the loader of the storage trie nodes of an account hash
+   */
+  public WorldStateProofProvider(
+      final WorldStateStorageCoordinator worldStateStorageCoordinator,
+      final NodeLoader accountNodeLoader,
+      final Function<Hash, NodeLoader> storageNodeLoader) {
     this.worldStateStorageCoordinator = worldStateStorageCoordinator;
+    this.accountNodeLoader = accountNodeLoader;
+    this.storageNodeLoader = storageNodeLoader;
   }
 
   public Optional<WorldStateProof> getAccountProof(
@@ -126,18 +152,13 @@ public class WorldStateProofProvider {
   }
 
   private MerkleTrie<Bytes, Bytes> newAccountStateTrie(final Bytes32 rootHash) {
-    return new StoredMerklePatriciaTrie<>(
-        worldStateStorageCoordinator::getAccountStateTrieNode, rootHash, b -> b, b -> b);
+    return new StoredMerklePatriciaTrie<>(accountNodeLoader, rootHash, b -> b, b -> b);
   }
 
   private MerkleTrie<Bytes32, Bytes> newAccountStorageTrie(
       final Hash accountHash, final Bytes32 rootHash) {
     return new StoredMerklePatriciaTrie<>(
-        (location, hash) ->
-            worldStateStorageCoordinator.getAccountStorageTrieNode(accountHash, location, hash),
-        rootHash,
-        b -> b,
-        b -> b);
+        storageNodeLoader.apply(accountHash), rootHash, b -> b, b -> b);
   }
 
   /**
@@ -46,7 +46,9 @@ public enum KeyValueSegmentIdentifier implements SegmentIdentifier {
   BACKWARD_SYNC_CHAIN(new byte[] {15}),
   SNAPSYNC_MISSING_ACCOUNT_RANGE(new byte[] {16}),
   SNAPSYNC_ACCOUNT_TO_FIX(new byte[] {17}),
-  CHAIN_PRUNER_STATE(new byte[] {18});
+  CHAIN_PRUNER_STATE(new byte[] {18}),
+  ACCOUNT_INFO_STATE_ARCHIVE(new byte[] {19}, EnumSet.of(BONSAI), false, true, false),
+  ACCOUNT_STORAGE_ARCHIVE(new byte[] {20}, EnumSet.of(BONSAI), false, true, false);
 
   private final byte[] id;
   private final EnumSet<DataStorageFormat> formats;
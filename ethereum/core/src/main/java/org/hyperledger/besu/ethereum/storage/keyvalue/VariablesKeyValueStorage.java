@@ -72,6 +72,11 @@ public class VariablesKeyValueStorage implements VariablesStorage {
     return getVariable(Keys.GENESIS_STATE_HASH).map(this::bytesToHash);
   }
 
+  @Override
+  public Optional<Bytes> getFlatDbHealingProgress() {
+    return getVariable(Keys.FLAT_DB_HEALING_PROGRESS);
+  }
+
   @Override
   public Updater updater() {
     return new Updater(variables.startTransaction());
@@ -125,6 +130,16 @@ public class VariablesKeyValueStorage implements VariablesStorage {
       setVariable(Keys.GENESIS_STATE_HASH, genesisStateHash);
     }
 
+    @Override
+    public void setFlatDbHealingProgress(final Bytes progress) {
+      setVariable(Keys.FLAT_DB_HEALING_PROGRESS, progress);
+    }
+
+    @Override
+    public void removeFlatDbHealingProgress() {
+      removeVariable(Keys.FLAT_DB_HEALING_PROGRESS);
+    }
+
     @Override
     public void removeAll() {
       removeVariable(CHAIN_HEAD_HASH);
@@ -14,22 +14,42 @@
  */
 package org.hyperledger.besu.ethereum.trie.diffbased.bonsai;
 
+import static org.hyperledger.besu.ethereum.storage.keyvalue.KeyValueSegmentIdentifier.TRIE_BRANCH_STORAGE;
+import static org.hyperledger.besu.ethereum.trie.diffbased.bonsai.storage.flat.BonsaiArchiveFlatDbStrategy.ARCHIVE_BLOCK_HASH_KEY;
+import static org.hyperledger.besu.ethereum.trie.diffbased.bonsai.storage.flat.BonsaiArchiveFlatDbStrategy.ARCHIVE_START_KEY;
+import static org.hyperledger.besu.ethereum.trie.diffbased.common.storage.DiffBasedWorldStateKeyValueStorage.WORLD_BLOCK_HASH_KEY;
+
 import org.hyperledger.besu.datatypes.Address;
 import org.hyperledger.besu.datatypes.Hash;
 import org.hyperledger.besu.ethereum.chain.Blockchain;
+import org.hyperledger.besu.ethereum.core.BlockHeader;
+import org.hyperledger.besu.ethereum.core.MutableWorldState;
+import org.hyperledger.besu.ethereum.proof.WorldStateProofProvider;
 import org.hyperledger.besu.ethereum.rlp.RLP;
 import org.hyperledger.besu.ethereum.trie.common.PmtStateTrieAccountValue;
 import org.hyperledger.besu.ethereum.trie.diffbased.bonsai.cache.BonsaiCachedMerkleTrieLoader;
 import org.hyperledger.besu.ethereum.trie.diffbased.bonsai.cache.BonsaiCachedWorldStorageManager;
+import org.hyperledger.besu.ethereum.trie.diffbased.bonsai.cache.BonsaiStoragePrefetcher;
+import org.hyperledger.besu.ethereum.trie.diffbased.bonsai.storage.BonsaiArchiveKeyValueStorage;
+import org.hyperledger.besu.ethereum.trie.diffbased.bonsai.storage.BonsaiArchiveWorldStateKeyValueStorage;
 import org.hyperledger.besu.ethereum.trie.diffbased.bonsai.storage.BonsaiWorldStateKeyValueStorage;
+import org.hyperledger.besu.ethereum.trie.diffbased.bonsai.storage.flat.BonsaiArchiveFlatDbStrategy;
+import org.hyperledger.besu.ethereum.trie.diffbased.bonsai.trielog.TrieLogFactoryImpl;
 import org.hyperledger.besu.ethereum.trie.diffbased.bonsai.worldview.BonsaiWorldState;
 import org.hyperledger.besu.ethereum.trie.diffbased.common.DiffBasedWorldStateProvider;
 import org.hyperledger.besu.ethereum.trie.diffbased.common.trielog.TrieLogManager;
+import org.hyperledger.besu.ethereum.trie.diffbased.common.worldview.DiffBasedWorldState;
 import org.hyperledger.besu.ethereum.trie.diffbased.common.worldview.DiffBasedWorldStateConfig;
 import org.hyperledger.besu.ethereum.trie.patricia.StoredMerklePatriciaTrie;
+import org.hyperledger.besu.ethereum.worldstate.WorldStateStorageCoordinator;
 import org.hyperledger.besu.evm.internal.EvmConfiguration;
 import org.hyperledger.besu.plugin.ServiceManager;
+import org.hyperledger.besu.plugin.services.storage.SegmentedKeyValueStorage;
+import org.hyperledger.besu.plugin.services.storage.SnappableKeyValueStorage;
+import org.hyperledger.besu.plugin.services.storage.SnappedKeyValueStorage;
+import org.hyperledger.besu.plugin.services.trielogs.TrieLogFactory;
 
+import java.io.IOException;
 import java.util.HashSet;
 import java.util.Optional;
 import java.util.Set;
@@ -38,6 +58,7 @@ import java.util.function.Supplier;
 
 import com.google.common.annotations.VisibleForTesting;
 import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -46,6 +67,8 @@ public class BonsaiWorldStateProvider extends DiffBasedWorldStateProvider {
   private static final Logger LOG = LoggerFactory.getLogger(BonsaiWorldStateProvider.class);
   private final BonsaiCachedMerkleTrieLoader bonsaiCachedMerkleTrieLoader;
   private final Supplier<WorldStateHealer> worldStateHealerSupplier;
+  private final EvmConfiguration evmConfiguration;
+  private final Optional<BonsaiStoragePrefetcher> storagePrefetcher;
 
   public BonsaiWorldStateProvider(
       final BonsaiWorldStateKeyValueStorage worldStateKeyValueStorage,
@@ -55,9 +78,38 @@ public class BonsaiWorldStateProvider extends DiffBasedWorldStateProvider {
       final ServiceManager pluginContext,
       final EvmConfiguration evmConfiguration,
       final Supplier<WorldStateHealer> worldStateHealerSupplier) {
-    super(worldStateKeyValueStorage, blockchain, maxLayersToLoad, pluginContext);
+    this(
+        worldStateKeyValueStorage,
+        blockchain,
+        maxLayersToLoad,
+        bonsaiCachedMerkleTrieLoader,
+        pluginContext,
+        evmConfiguration,
+        worldStateHealerSupplier,
+        new TrieLogFactoryImpl(),
+        Optional.empty());
+  }
+
+  public BonsaiWorldStateProvider(
+      final BonsaiWorldStateKeyValueStorage worldStateKeyValueStorage,
+      final Blockchain blockchain,
+      final Optional<Long> maxLayersToLoad,
+      final BonsaiCachedMerkleTrieLoader bonsaiCachedMerkleTrieLoader,
+      final ServiceManager pluginContext,
+      final EvmConfiguration evmConfiguration,
+      final Supplier<WorldStateHealer> worldStateHealerSupplier,
+      final TrieLogFactory defaultTrieLogFactory,
+      final Optional<BonsaiStoragePrefetcher> storagePrefetcher) {
+    super(
+        worldStateKeyValueStorage,
+        blockchain,
+        maxLayersToLoad,
+        pluginContext,
+        defaultTrieLogFactory);
     this.bonsaiCachedMerkleTrieLoader = bonsaiCachedMerkleTrieLoader;
     this.worldStateHealerSupplier = worldStateHealerSupplier;
+    this.evmConfiguration = evmConfiguration;
+    this.storagePrefetcher = storagePrefetcher;
     provideCachedWorldStorageManager(
         new BonsaiCachedWorldStorageManager(
             this, worldStateKeyValueStorage, this::cloneBonsaiWorldStateConfig));
@@ -78,6 +130,8 @@ public class BonsaiWorldStateProvider extends DiffBasedWorldStateProvider {
     super(worldStateKeyValueStorage, blockchain, trieLogManager);
     this.bonsaiCachedMerkleTrieLoader = bonsaiCachedMerkleTrieLoader;
     this.worldStateHealerSupplier = worldStateHealerSupplier;
+    this.evmConfiguration = evmConfiguration;
+    this.storagePrefetcher = Optional.empty();
     provideCachedWorldStorageManager(bonsaiCachedWorldStorageManager);
     loadPersistedState(
         new BonsaiWorldState(
@@ -88,6 +142,83 @@ public class BonsaiWorldStateProvider extends DiffBasedWorldStateProvider {
     return bonsaiCachedMerkleTrieLoader;
   }
 
+  public Optional<BonsaiStoragePrefetcher> getStoragePrefetcher() {
+    return storagePrefetcher;
+  }
+
+  @Override
+  protected WorldStateProofProvider createProofProvider(final DiffBasedWorldState worldState) {
+    // proofs read the nodes through the cache of the block import
+    final BonsaiWorldStateKeyValueStorage storage =
+        (BonsaiWorldStateKeyValueStorage) worldState.getWorldStateStorage();
+    return new WorldStateProofProvider(
+        new WorldStateStorageCoordinator(storage),
+        (location, hash) ->
+            bonsaiCachedMerkleTrieLoader.getAccountStateTrieNode(storage, location, hash),
+        accountHash ->
+            (location, hash) ->
+                bonsaiCachedMerkleTrieLoader.getAccountStorageTrieNode(
+                    storage, accountHash, location, hash));
+  }
+
+  @Override
+  protected Optional<MutableWorldState> getArchivedWorldState(final BlockHeader blockHeader) {
+    final BonsaiWorldStateKeyValueStorage storage = getBonsaiWorldStateKeyValueStorage();
+    if (!(storage.getFlatDbStrategy() instanceof BonsaiArchiveFlatDbStrategy archiveFlatDbStrategy)
+        || !(storage.getComposedWorldStateStorage()
+            instanceof SnappableKeyValueStorage snappableStorage)
+        || !blockchain.blockIsOnCanonicalChain(blockHeader.getHash())) {
+      return Optional.empty();
+    }
+    final SnappedKeyValueStorage snapshot = snappableStorage.takeSnapshot();
+    if (!isArchived(snapshot, blockHeader)) {
+      try {
+        snapshot.close();
+      } catch (final IOException e) {
+        LOG.debug("Unable to close the snapshot of the archive", e);
+      }
+      return Optional.empty();
+    }
+    final BonsaiWorldState archivedWorldState =
+        new BonsaiWorldState(
+            this,
+            new BonsaiArchiveWorldStateKeyValueStorage(
+                storage,
+                new BonsaiArchiveKeyValueStorage(snapshot, archiveFlatDbStrategy, blockHeader)),
+            evmConfiguration,
+            cloneBonsaiWorldStateConfig());
+    return Optional.of(archivedWorldState.freeze());
+  }
+
+  private boolean isArchived(
+      final SegmentedKeyValueStorage snapshot, final BlockHeader blockHeader) {
+    final Optional<Hash> maybeArchiveHead =
+        snapshot
+            .get(TRIE_BRANCH_STORAGE, ARCHIVE_BLOCK_HASH_KEY)
+            .map(Bytes32::wrap)
+            .map(Hash::wrap);
+    final Optional<Long> maybeArchiveStart =
+        snapshot.get(TRIE_BRANCH_STORAGE, ARCHIVE_START_KEY).map(Bytes::wrap).map(Bytes::toLong);
+    if (maybeArchiveHead.isEmpty() || maybeArchiveStart.isEmpty()) {
+      return false;
+    }
+    // the keys that did not change since the archive start are read from the head of the flat
+    // database, which must then be at the last archived block
+    final boolean isFlatDatabaseAtArchiveHead =
+        snapshot
+            .get(TRIE_BRANCH_STORAGE, WORLD_BLOCK_HASH_KEY)
+            .map(Bytes32::wrap)
+            .map(Hash::wrap)
+            .equals(maybeArchiveHead);
+    return isFlatDatabaseAtArchiveHead
+        && blockHeader.getNumber() >= maybeArchiveStart.get()
+        && blockchain.blockIsOnCanonicalChain(maybeArchiveHead.get())
+        && blockchain
+            .getBlockHeader(maybeArchiveHead.get())
+            .filter(archiveHead -> archiveHead.getNumber() >= blockHeader.getNumber())
+            .isPresent();
+  }
+
   private BonsaiWorldStateKeyValueStorage getBonsaiWorldStateKeyValueStorage() {
     return (BonsaiWorldStateKeyValueStorage) worldStateKeyValueStorage;
   }
@@ -162,4 +293,11 @@ public class BonsaiWorldStateProvider extends DiffBasedWorldStateProvider {
   public void heal(final Optional<Address> maybeAccountToRepair, final Bytes location) {
     worldStateHealerSupplier.get().heal(maybeAccountToRepair, location);
   }
+
+  @Override
+  public void close() {
+    // the prefetch batches are stopped before the storage they read is closed
+    storagePrefetcher.ifPresent(BonsaiStoragePrefetcher::close);
+    super.close();
+  }
 }
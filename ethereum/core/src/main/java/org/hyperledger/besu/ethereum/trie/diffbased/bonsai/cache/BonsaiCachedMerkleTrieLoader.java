@@ -19,13 +19,23 @@ import static org.hyperledger.besu.metrics.BesuMetricCategory.BLOCKCHAIN;
 import org.hyperledger.besu.datatypes.Address;
 import org.hyperledger.besu.datatypes.Hash;
 import org.hyperledger.besu.datatypes.StorageSlotKey;
+import org.hyperledger.besu.ethereum.trie.CompactEncoding;
 import org.hyperledger.besu.ethereum.trie.MerkleTrie;
 import org.hyperledger.besu.ethereum.trie.MerkleTrieException;
+import org.hyperledger.besu.ethereum.trie.Node;
+import org.hyperledger.besu.ethereum.trie.StoredNode;
 import org.hyperledger.besu.ethereum.trie.diffbased.bonsai.storage.BonsaiWorldStateKeyValueStorage;
 import org.hyperledger.besu.ethereum.trie.diffbased.common.StorageSubscriber;
+import org.hyperledger.besu.ethereum.trie.patricia.BranchNode;
+import org.hyperledger.besu.ethereum.trie.patricia.ExtensionNode;
 import org.hyperledger.besu.ethereum.trie.patricia.StoredMerklePatriciaTrie;
+import org.hyperledger.besu.ethereum.trie.patricia.TrieNodeDecoder;
 import org.hyperledger.besu.metrics.ObservableMetricsSystem;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
@@ -36,20 +46,46 @@ import com.google.common.cache.CacheBuilder;
 import org.apache.tuweni.bytes.Bytes;
 import org.apache.tuweni.bytes.Bytes32;
 
+/**
+ * Loads the trie nodes of the Bonsai world states through the account and storage node caches
+ * shared by the block import, the prefetching of the accounts and slots of a block, and the proofs
+ * served over RPC.
+ *
+ * <p>The caches are keyed by node hash rather than by location: a node is the content of its hash,
+ * so an entry can never be stale and the commits of new blocks do not need to invalidate it, and a
+ * node found at several locations, such as in the storage of identical contracts, is kept once.
+ * The nodes are kept as plain byte arrays and the caches are bounded by their size in bytes, a
+ * third of it for the account nodes and the rest for the storage nodes.
+ */
 public class BonsaiCachedMerkleTrieLoader implements StorageSubscriber {
 
-  private static final int ACCOUNT_CACHE_SIZE = 100_000;
-  private static final int STORAGE_CACHE_SIZE = 200_000;
-  private final Cache<Bytes, Bytes> accountNodes =
-      CacheBuilder.newBuilder().recordStats().maximumSize(ACCOUNT_CACHE_SIZE).build();
-  private final Cache<Bytes, Bytes> storageNodes =
-      CacheBuilder.newBuilder().recordStats().maximumSize(STORAGE_CACHE_SIZE).build();
+  private static final long DEFAULT_CACHE_SIZE_BYTES = 256L * 1024 * 1024;
+  // the memory used by an entry besides the node bytes: the cache entry, the key and the arrays
+  private static final int ENTRY_OVERHEAD_BYTES = 160;
+  private final Cache<Bytes32, byte[]> accountNodes;
+  private final Cache<Bytes32, byte[]> storageNodes;
 
   public BonsaiCachedMerkleTrieLoader(final ObservableMetricsSystem metricsSystem) {
+    this(metricsSystem, DEFAULT_CACHE_SIZE_BYTES);
+  }
+
+  public BonsaiCachedMerkleTrieLoader(
+      final ObservableMetricsSystem metricsSystem, final long maxCacheSizeBytes) {
+    final long accountCacheSizeBytes = maxCacheSizeBytes / 3;
+    accountNodes = createNodeCache(accountCacheSizeBytes);
+    storageNodes = createNodeCache(maxCacheSizeBytes - accountCacheSizeBytes);
     metricsSystem.createGuavaCacheCollector(BLOCKCHAIN, "accountsNodes", accountNodes);
     metricsSystem.createGuavaCacheCollector(BLOCKCHAIN, "storageNodes", storageNodes);
   }
 
+  private static Cache<Bytes32, byte[]> createNodeCache(final long maxCacheSizeBytes) {
+    return CacheBuilder.newBuilder()
+        .recordStats()
+        .maximumWeight(maxCacheSizeBytes)
+        .weigher((Bytes32 hash, byte[] node) -> ENTRY_OVERHEAD_BYTES + node.length)
+        .build();
+  }
+
   public void preLoadAccount(
       final BonsaiWorldStateKeyValueStorage worldStateKeyValueStorage,
       final Hash worldStateRootHash,
@@ -67,12 +103,8 @@ public class BonsaiCachedMerkleTrieLoader implements StorageSubscriber {
     try {
       final StoredMerklePatriciaTrie<Bytes, Bytes> accountTrie =
           new StoredMerklePatriciaTrie<>(
-              (location, hash) -> {
-                Optional<Bytes> node =
-                    getAccountStateTrieNode(worldStateKeyValueStorage, location, hash);
-                node.ifPresent(bytes -> accountNodes.put(Hash.hash(bytes), bytes));
-                return node;
-              },
+              (location, hash) ->
+                  getAccountStateTrieNode(worldStateKeyValueStorage, location, hash),
               worldStateRootHash,
               Function.identity(),
               Function.identity());
@@ -84,6 +116,68 @@ public class BonsaiCachedMerkleTrieLoader implements StorageSubscriber {
     }
   }
 
+  /**
+   * Caches the account trie nodes on the paths of several accounts. The paths are walked together
+   * one level at a time, so that the nodes of a level that are not cached yet are read with a
+   * single batch read instead of one read per node.
+   *
+   * @param worldStateKeyValueStorage the storage to read the nodes from
+   * @param worldStateRootHash the root hash of the account trie
+   * @param accounts the accounts
+   */
+  public void cacheAccountNodes(
+      final BonsaiWorldStateKeyValueStorage worldStateKeyValueStorage,
+      final Hash worldStateRootHash,
+      final List<Address> accounts) {
+    if (worldStateRootHash.equals(MerkleTrie.EMPTY_TRIE_NODE_HASH)) {
+      return;
+    }
+    final long storageSubscriberId = worldStateKeyValueStorage.subscribe(this);
+    try {
+      List<AccountPath> paths =
+          accounts.stream()
+              .map(
+                  account ->
+                      new AccountPath(
+                          CompactEncoding.bytesToPath(account.addressHash()),
+                          Bytes.EMPTY,
+                          worldStateRootHash))
+              .toList();
+      while (!paths.isEmpty()) {
+        final List<Bytes> locations =
+            paths.stream()
+                .filter(path -> accountNodes.getIfPresent(path.nodeHash()) == null)
+                .map(AccountPath::location)
+                .distinct()
+                .toList();
+        final Map<Bytes, Bytes> nodesByLocation = new HashMap<>();
+        final List<Optional<Bytes>> nodes = worldStateKeyValueStorage.getTrieNodesUnsafe(locations);
+        for (int i = 0; i < locations.size(); i++) {
+          final Bytes location = locations.get(i);
+          nodes.get(i).ifPresent(node -> nodesByLocation.put(location, node));
+        }
+        final List<AccountPath> nextPaths = new ArrayList<>(paths.size());
+        for (final AccountPath path : paths) {
+          Bytes node = getCachedNode(accountNodes, path.nodeHash()).orElse(null);
+          if (node == null) {
+            node = nodesByLocation.get(path.location());
+            if (node == null || !Hash.hash(node).equals(path.nodeHash())) {
+              // the node was removed or replaced since the root hash was computed
+              continue;
+            }
+            cacheNode(accountNodes, path.nodeHash(), node);
+          }
+          path.next(node).ifPresent(nextPaths::add);
+        }
+        paths = nextPaths;
+      }
+    } catch (MerkleTrieException e) {
+      // ignore exception for the cache
+    } finally {
+      worldStateKeyValueStorage.unSubscribe(storageSubscriberId);
+    }
+  }
+
   public void preLoadStorageSlot(
       final BonsaiWorldStateKeyValueStorage worldStateKeyValueStorage,
       final Address account,
@@ -107,13 +201,9 @@ public class BonsaiCachedMerkleTrieLoader implements StorageSubscriber {
                 try {
                   final StoredMerklePatriciaTrie<Bytes, Bytes> storageTrie =
                       new StoredMerklePatriciaTrie<>(
-                          (location, hash) -> {
-                            Optional<Bytes> node =
-                                getAccountStorageTrieNode(
-                                    worldStateKeyValueStorage, accountHash, location, hash);
-                            node.ifPresent(bytes -> storageNodes.put(Hash.hash(bytes), bytes));
-                            return node;
-                          },
+                          (location, hash) ->
+                              getAccountStorageTrieNode(
+                                  worldStateKeyValueStorage, accountHash, location, hash),
                           Hash.hash(storageRoot),
                           Function.identity(),
                           Function.identity());
@@ -134,8 +224,14 @@ public class BonsaiCachedMerkleTrieLoader implements StorageSubscriber {
     if (nodeHash.equals(MerkleTrie.EMPTY_TRIE_NODE_HASH)) {
       return Optional.of(MerkleTrie.EMPTY_TRIE_NODE);
     } else {
-      return Optional.ofNullable(accountNodes.getIfPresent(nodeHash))
-          .or(() -> worldStateKeyValueStorage.getAccountStateTrieNode(location, nodeHash));
+      return getCachedNode(accountNodes, nodeHash)
+          .or(
+              () -> {
+                final Optional<Bytes> node =
+                    worldStateKeyValueStorage.getAccountStateTrieNode(location, nodeHash);
+                node.ifPresent(bytes -> cacheNode(accountNodes, nodeHash, bytes));
+                return node;
+              });
     }
   }
 
@@ -147,11 +243,53 @@ public class BonsaiCachedMerkleTrieLoader implements StorageSubscriber {
     if (nodeHash.equals(MerkleTrie.EMPTY_TRIE_NODE_HASH)) {
       return Optional.of(MerkleTrie.EMPTY_TRIE_NODE);
     } else {
-      return Optional.ofNullable(storageNodes.getIfPresent(nodeHash))
+      return getCachedNode(storageNodes, nodeHash)
           .or(
-              () ->
-                  worldStateKeyValueStorage.getAccountStorageTrieNode(
-                      accountHash, location, nodeHash));
+              () -> {
+                final Optional<Bytes> node =
+                    worldStateKeyValueStorage.getAccountStorageTrieNode(
+                        accountHash, location, nodeHash);
+                node.ifPresent(bytes -> cacheNode(storageNodes, nodeHash, bytes));
+                return node;
+              });
+    }
+  }
+
+  private static Optional<Bytes> getCachedNode(
+      final Cache<Bytes32, byte[]> nodes, final Bytes32 nodeHash) {
+    return Optional.ofNullable(nodes.getIfPresent(nodeHash)).map(Bytes::wrap);
+  }
+
+  private static void cacheNode(
+      final Cache<Bytes32, byte[]> nodes, final Bytes32 nodeHash, final Bytes node) {
+    nodes.put(nodeHash, node.toArrayUnsafe());
+  }
+
+  private record AccountPath(Bytes path, Bytes location, Bytes32 nodeHash) {
+
+    private Optional<AccountPath> next(final Bytes node) {
+      final Node<Bytes> decoded = TrieNodeDecoder.decode(location, node);
+      final Node<Bytes> child;
+      final Bytes childLocation;
+      if (decoded instanceof BranchNode<Bytes> branch && location.size() < path.size()) {
+        final byte index = path.get(location.size());
+        child = branch.child(index);
+        childLocation = Bytes.concatenate(location, Bytes.of(index));
+      } else if (decoded instanceof ExtensionNode<Bytes> extension) {
+        child = extension.getChild();
+        childLocation = Bytes.concatenate(location, extension.getPath());
+        if (childLocation.size() > path.size()
+            || !path.slice(0, childLocation.size()).equals(childLocation)) {
+          return Optional.empty();
+        }
+      } else {
+        return Optional.empty();
+      }
+      // inlined children are part of their parent node, so there is nothing more to read
+      if (!(child instanceof StoredNode<?>)) {
+        return Optional.empty();
+      }
+      return Optional.of(new AccountPath(path, childLocation, child.getHash()));
     }
   }
 }
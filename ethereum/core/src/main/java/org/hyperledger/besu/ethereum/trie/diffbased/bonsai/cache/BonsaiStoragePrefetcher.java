@@ -0,0 +1,236 @@
+/*
+ * Copyright contributors to Besu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.trie.diffbased.bonsai.cache;
+
+import org.hyperledger.besu.datatypes.AccessListEntry;
+import org.hyperledger.besu.datatypes.Address;
+import org.hyperledger.besu.datatypes.Hash;
+import org.hyperledger.besu.datatypes.StorageSlotKey;
+import org.hyperledger.besu.ethereum.core.Transaction;
+import org.hyperledger.besu.ethereum.rlp.RLP;
+import org.hyperledger.besu.ethereum.trie.common.PmtStateTrieAccountValue;
+import org.hyperledger.besu.ethereum.trie.diffbased.bonsai.storage.BonsaiWorldStateKeyValueStorage;
+import org.hyperledger.besu.ethereum.trie.diffbased.bonsai.worldview.BonsaiWorldState;
+import org.hyperledger.besu.ethereum.trie.diffbased.bonsai.worldview.BonsaiWorldStateUpdateAccumulator;
+import org.hyperledger.besu.ethereum.trie.diffbased.common.StorageSubscriber;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.units.bigints.UInt256;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Warms the storage of a Bonsai world state before the transactions of a block are executed. The
+ * accounts and slots that the block is known to touch are read in parallel batches, each with a
+ * single batch read of the flat database, so that the execution finds them in the database caches
+ * instead of reading them from disk one transaction at a time, and their trie nodes are loaded in
+ * the {@link BonsaiCachedMerkleTrieLoader} for the root hash calculation.
+ *
+ * <p>The keys are the senders, recipients and access lists of the transactions and the mining
+ * beneficiary, plus the slots that previous blocks accessed in the contracts called by the block.
+ *
+ * <p>The batches run on the executor given by the owner, which is shut down when the prefetcher is
+ * closed.
+ */
+public class BonsaiStoragePrefetcher implements AutoCloseable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(BonsaiStoragePrefetcher.class);
+
+  private static final int BATCH_SIZE = 32;
+  private static final int ACCESSED_CONTRACTS_CACHE_SIZE = 10_000;
+  private static final int MAX_ACCESSED_SLOTS_PER_CONTRACT = 128;
+
+  private final ExecutorService executor;
+  private final Cache<Address, Set<StorageSlotKey>> accessedSlots =
+      CacheBuilder.newBuilder().maximumSize(ACCESSED_CONTRACTS_CACHE_SIZE).build();
+
+  /**
+   * Creates a prefetcher reading the keys on the given executor.
+   *
+   * @param executor the executor of the prefetch batches
+   */
+  public BonsaiStoragePrefetcher(final ExecutorService executor) {
+    this.executor = executor;
+  }
+
+  /**
+   * Starts reading the accounts and slots of a block in the background.
+   *
+   * @param worldState the world state the block is executed on
+   * @param transactions the transactions of the block
+   * @param miningBeneficiary the mining beneficiary of the block
+   * @return the prefetch, to cancel once the block is executed
+   */
+  public Prefetch prefetch(
+      final BonsaiWorldState worldState,
+      final List<Transaction> transactions,
+      final Address miningBeneficiary) {
+    final Map<Address, Set<StorageSlotKey>> keys = collectKeys(transactions, miningBeneficiary);
+    final Prefetch prefetch = new Prefetch(worldState, worldState.getWorldStateRootHash());
+    final List<Map.Entry<Address, Set<StorageSlotKey>>> batch = new ArrayList<>(BATCH_SIZE);
+    for (final Map.Entry<Address, Set<StorageSlotKey>> entry : keys.entrySet()) {
+      batch.add(entry);
+      if (batch.size() == BATCH_SIZE) {
+        submit(List.copyOf(batch), prefetch);
+        batch.clear();
+      }
+    }
+    if (!batch.isEmpty()) {
+      submit(List.copyOf(batch), prefetch);
+    }
+    return prefetch;
+  }
+
+  /**
+   * Records the slots accessed by the executed transactions of a block, to prefetch them the next
+   * time the same contracts are called.
+   *
+   * @param accumulator the accumulator of the block, before it is persisted
+   */
+  public void recordAccessedSlots(final BonsaiWorldStateUpdateAccumulator accumulator) {
+    accumulator
+        .getStorageToUpdate()
+        .forEach(
+            (address, slots) -> {
+              if (!slots.isEmpty()) {
+                accessedSlots.put(
+                    address,
+                    Set.copyOf(
+                        slots.keySet().stream().limit(MAX_ACCESSED_SLOTS_PER_CONTRACT).toList()));
+              }
+            });
+  }
+
+  @VisibleForTesting
+  Map<Address, Set<StorageSlotKey>> collectKeys(
+      final List<Transaction> transactions, final Address miningBeneficiary) {
+    final Map<Address, Set<StorageSlotKey>> keys = new LinkedHashMap<>();
+    keys.put(miningBeneficiary, new LinkedHashSet<>());
+    for (final Transaction transaction : transactions) {
+      keys.computeIfAbsent(transaction.getSender(), __ -> new LinkedHashSet<>());
+      transaction
+          .getTo()
+          .ifPresent(
+              to -> {
+                final Set<StorageSlotKey> slots =
+                    keys.computeIfAbsent(to, __ -> new LinkedHashSet<>());
+                final Set<StorageSlotKey> previouslyAccessed = accessedSlots.getIfPresent(to);
+                if (previouslyAccessed != null) {
+                  slots.addAll(previouslyAccessed);
+                }
+              });
+      for (final AccessListEntry entry : transaction.getAccessList().orElse(List.of())) {
+        final Set<StorageSlotKey> slots =
+            keys.computeIfAbsent(entry.address(), __ -> new LinkedHashSet<>());
+        entry.storageKeys().forEach(key -> slots.add(new StorageSlotKey(UInt256.fromBytes(key))));
+      }
+    }
+    return keys;
+  }
+
+  private void submit(
+      final List<Map.Entry<Address, Set<StorageSlotKey>>> batch, final Prefetch prefetch) {
+    try {
+      executor.execute(() -> prefetchBatch(batch, prefetch));
+    } catch (final RejectedExecutionException e) {
+      // the prefetcher is closed, the execution reads the keys itself
+      LOG.trace("Storage prefetch rejected", e);
+    }
+  }
+
+  private void prefetchBatch(
+      final List<Map.Entry<Address, Set<StorageSlotKey>>> batch, final Prefetch prefetch) {
+    if (prefetch.isCancelled()) {
+      return;
+    }
+    final BonsaiWorldStateKeyValueStorage storage = prefetch.worldState.getWorldStateStorage();
+    final BonsaiCachedMerkleTrieLoader trieLoader =
+        prefetch.worldState.getCachedMerkleTrieLoader();
+    // keeps the storage open while it is read
+    final long subscriberId = storage.subscribe(new StorageSubscriber() {});
+    try {
+      final List<Address> addresses = batch.stream().map(Map.Entry::getKey).toList();
+      final List<Optional<Bytes>> accounts =
+          storage.getAccounts(addresses.stream().map(Address::addressHash).toList());
+      trieLoader.cacheAccountNodes(storage, prefetch.worldStateRootHash, addresses);
+      for (int i = 0; i < batch.size(); i++) {
+        if (prefetch.isCancelled()) {
+          return;
+        }
+        final Address address = addresses.get(i);
+        final Hash accountHash = address.addressHash();
+        accounts
+            .get(i)
+            .ifPresent(
+                account ->
+                    storage.getCode(
+                        PmtStateTrieAccountValue.readFrom(RLP.input(account)).getCodeHash(),
+                        accountHash));
+        final List<StorageSlotKey> slots = List.copyOf(batch.get(i).getValue());
+        if (!slots.isEmpty()) {
+          storage.getStorageValuesByStorageSlotKeys(accountHash, slots);
+          // already on a prefetch thread, so the nodes are loaded here
+          slots.forEach(slot -> trieLoader.cacheStorageNodes(storage, address, slot));
+        }
+      }
+    } catch (final RuntimeException e) {
+      // prefetching is best effort, the execution reads the same keys again
+      LOG.trace("Storage prefetch failed", e);
+    } finally {
+      storage.unSubscribe(subscriberId);
+    }
+  }
+
+  /** Stops the prefetch batches that are running and drops the queued ones. */
+  @Override
+  public void close() {
+    executor.shutdownNow();
+  }
+
+  /** The prefetch of a block. */
+  public static class Prefetch {
+    private final BonsaiWorldState worldState;
+    private final Hash worldStateRootHash;
+    private final AtomicBoolean cancelled = new AtomicBoolean();
+
+    private Prefetch(final BonsaiWorldState worldState, final Hash worldStateRootHash) {
+      this.worldState = worldState;
+      this.worldStateRootHash = worldStateRootHash;
+    }
+
+    /** Stops reading the keys that were not read yet. */
+    public void cancel() {
+      cancelled.set(true);
+    }
+
+    boolean isCancelled() {
+      return cancelled.get();
+    }
+  }
+}
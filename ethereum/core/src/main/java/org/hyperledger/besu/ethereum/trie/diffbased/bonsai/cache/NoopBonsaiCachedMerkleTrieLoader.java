@@ -23,7 +23,7 @@ import org.hyperledger.besu.metrics.noop.NoOpMetricsSystem;
 public class NoopBonsaiCachedMerkleTrieLoader extends BonsaiCachedMerkleTrieLoader {
 
   public NoopBonsaiCachedMerkleTrieLoader() {
-    super(new NoOpMetricsSystem());
+    super(new NoOpMetricsSystem(), 0);
   }
 
   @Override
@@ -0,0 +1,166 @@
+/*
+ * Copyright contributors to Hyperledger Besu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.trie.diffbased.bonsai.storage;
+
+import static org.hyperledger.besu.ethereum.storage.keyvalue.KeyValueSegmentIdentifier.ACCOUNT_INFO_STATE;
+import static org.hyperledger.besu.ethereum.storage.keyvalue.KeyValueSegmentIdentifier.ACCOUNT_STORAGE_STORAGE;
+import static org.hyperledger.besu.ethereum.storage.keyvalue.KeyValueSegmentIdentifier.TRIE_BRANCH_STORAGE;
+import static org.hyperledger.besu.ethereum.trie.diffbased.common.storage.DiffBasedWorldStateKeyValueStorage.WORLD_BLOCK_HASH_KEY;
+import static org.hyperledger.besu.ethereum.trie.diffbased.common.storage.DiffBasedWorldStateKeyValueStorage.WORLD_ROOT_HASH_KEY;
+
+import org.hyperledger.besu.datatypes.Hash;
+import org.hyperledger.besu.ethereum.core.BlockHeader;
+import org.hyperledger.besu.ethereum.trie.diffbased.bonsai.storage.flat.BonsaiArchiveFlatDbStrategy;
+import org.hyperledger.besu.plugin.services.exception.StorageException;
+import org.hyperledger.besu.plugin.services.storage.SegmentIdentifier;
+import org.hyperledger.besu.plugin.services.storage.SegmentedKeyValueStorage;
+import org.hyperledger.besu.plugin.services.storage.SegmentedKeyValueStorageTransaction;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+
+/**
+ * Read-only view of the flat database at a past block, backed by a snapshot of the head storage
+ * that holds the archive. Accounts and storage slots are read from the archived versions, and fall
+ * back to the head values for the keys that did not change since the archive start. The snapshot
+ * must be taken while the head flat database is at the last archived block.
+ *
+ * <p>Only the point reads are historical: the trie nodes and the streams return the head values.
+ */
+public class BonsaiArchiveKeyValueStorage implements SegmentedKeyValueStorage {
+
+  private final SegmentedKeyValueStorage headSnapshot;
+  private final BonsaiArchiveFlatDbStrategy archiveFlatDbStrategy;
+  private final BlockHeader blockHeader;
+
+  public BonsaiArchiveKeyValueStorage(
+      final SegmentedKeyValueStorage headSnapshot,
+      final BonsaiArchiveFlatDbStrategy archiveFlatDbStrategy,
+      final BlockHeader blockHeader) {
+    this.headSnapshot = headSnapshot;
+    this.archiveFlatDbStrategy = archiveFlatDbStrategy;
+    this.blockHeader = blockHeader;
+  }
+
+  @Override
+  public Optional<byte[]> get(final SegmentIdentifier segment, final byte[] key)
+      throws StorageException {
+    if (segment == ACCOUNT_INFO_STATE) {
+      return archiveFlatDbStrategy
+          .getArchivedAccount(headSnapshot, Hash.wrap(Bytes32.wrap(key)), blockHeader.getNumber())
+          .map(BonsaiArchiveKeyValueStorage::toValue)
+          .orElseGet(() -> headSnapshot.get(segment, key));
+    } else if (segment == ACCOUNT_STORAGE_STORAGE) {
+      return archiveFlatDbStrategy
+          .getArchivedStorageValue(
+              headSnapshot,
+              Hash.wrap(Bytes32.wrap(key, 0)),
+              Hash.wrap(Bytes32.wrap(key, Bytes32.SIZE)),
+              blockHeader.getNumber())
+          .map(BonsaiArchiveKeyValueStorage::toValue)
+          .orElseGet(() -> headSnapshot.get(segment, key));
+    } else if (segment == TRIE_BRANCH_STORAGE && Arrays.equals(key, WORLD_ROOT_HASH_KEY)) {
+      return Optional.of(blockHeader.getStateRoot().toArrayUnsafe());
+    } else if (segment == TRIE_BRANCH_STORAGE && Arrays.equals(key, WORLD_BLOCK_HASH_KEY)) {
+      return Optional.of(blockHeader.getBlockHash().toArrayUnsafe());
+    }
+    return headSnapshot.get(segment, key);
+  }
+
+  private static Optional<byte[]> toValue(final Bytes archivedValue) {
+    // an empty version marks a key that did not exist at this block
+    return archivedValue.isEmpty() ? Optional.empty() : Optional.of(archivedValue.toArrayUnsafe());
+  }
+
+  @Override
+  public Optional<NearestKeyValue> getNearestBefore(
+      final SegmentIdentifier segmentIdentifier, final Bytes key) throws StorageException {
+    return headSnapshot.getNearestBefore(segmentIdentifier, key);
+  }
+
+  @Override
+  public Optional<NearestKeyValue> getNearestAfter(
+      final SegmentIdentifier segmentIdentifier, final Bytes key) throws StorageException {
+    return headSnapshot.getNearestAfter(segmentIdentifier, key);
+  }
+
+  @Override
+  public SegmentedKeyValueStorageTransaction startTransaction() throws StorageException {
+    throw new StorageException("Archive storage is read-only");
+  }
+
+  @Override
+  public Stream<Pair<byte[], byte[]>> stream(final SegmentIdentifier segmentIdentifier) {
+    return headSnapshot.stream(segmentIdentifier);
+  }
+
+  @Override
+  public Stream<Pair<byte[], byte[]>> streamFromKey(
+      final SegmentIdentifier segmentIdentifier, final byte[] startKey) {
+    return headSnapshot.streamFromKey(segmentIdentifier, startKey);
+  }
+
+  @Override
+  public Stream<Pair<byte[], byte[]>> streamFromKey(
+      final SegmentIdentifier segmentIdentifier, final byte[] startKey, final byte[] endKey) {
+    return headSnapshot.streamFromKey(segmentIdentifier, startKey, endKey);
+  }
+
+  @Override
+  public Stream<byte[]> streamKeys(final SegmentIdentifier segmentIdentifier) {
+    return headSnapshot.streamKeys(segmentIdentifier);
+  }
+
+  @Override
+  public boolean tryDelete(final SegmentIdentifier segmentIdentifier, final byte[] key)
+      throws StorageException {
+    throw new StorageException("Archive storage is read-only");
+  }
+
+  @Override
+  public Set<byte[]> getAllKeysThat(
+      final SegmentIdentifier segmentIdentifier, final Predicate<byte[]> returnCondition) {
+    return headSnapshot.getAllKeysThat(segmentIdentifier, returnCondition);
+  }
+
+  @Override
+  public Set<byte[]> getAllValuesFromKeysThat(
+      final SegmentIdentifier segmentIdentifier, final Predicate<byte[]> returnCondition) {
+    return headSnapshot.getAllValuesFromKeysThat(segmentIdentifier, returnCondition);
+  }
+
+  @Override
+  public void clear(final SegmentIdentifier segmentIdentifier) {
+    throw new StorageException("Archive storage is read-only");
+  }
+
+  @Override
+  public boolean isClosed() {
+    return headSnapshot.isClosed();
+  }
+
+  @Override
+  public void close() throws IOException {
+    headSnapshot.close();
+  }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright contributors to Hyperledger Besu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.trie.diffbased.bonsai.storage;
+
+import org.hyperledger.besu.services.kvstore.LayeredKeyValueStorage;
+
+/** World state storage of a past block, read from the archive of the flat database. */
+public class BonsaiArchiveWorldStateKeyValueStorage extends BonsaiWorldStateLayerStorage {
+
+  private final BonsaiArchiveKeyValueStorage archiveKeyValueStorage;
+
+  public BonsaiArchiveWorldStateKeyValueStorage(
+      final BonsaiWorldStateKeyValueStorage parent,
+      final BonsaiArchiveKeyValueStorage archiveKeyValueStorage) {
+    super(new LayeredKeyValueStorage(archiveKeyValueStorage), parent.getTrieLogStorage(), parent);
+    this.archiveKeyValueStorage = archiveKeyValueStorage;
+  }
+
+  @Override
+  protected synchronized void doClose() throws Exception {
+    super.doClose();
+    // the layer does not own its parent, release the snapshot of the archive here
+    archiveKeyValueStorage.close();
+  }
+}
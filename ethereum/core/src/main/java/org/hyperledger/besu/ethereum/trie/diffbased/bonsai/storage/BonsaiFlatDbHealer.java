@@ -0,0 +1,408 @@
+/*
+ * Copyright contributors to Hyperledger Besu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.trie.diffbased.bonsai.storage;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+
+import org.hyperledger.besu.datatypes.Hash;
+import org.hyperledger.besu.ethereum.chain.VariablesStorage;
+import org.hyperledger.besu.ethereum.rlp.RLP;
+import org.hyperledger.besu.ethereum.rlp.RLPInput;
+import org.hyperledger.besu.ethereum.trie.MerkleTrie;
+import org.hyperledger.besu.ethereum.trie.RangeManager;
+import org.hyperledger.besu.ethereum.trie.common.PmtStateTrieAccountValue;
+import org.hyperledger.besu.ethereum.trie.patricia.StoredMerklePatriciaTrie;
+import org.hyperledger.besu.ethereum.worldstate.FlatDbMode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+import org.apache.tuweni.units.bigints.UInt256;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Verifies the flat database of a Bonsai world state against its tries and, when healing,
+ * rewrites the flat entries that do not match them.
+ *
+ * <p>The account keyspace is split into ranges that are walked in parallel. In each range, the
+ * trie and the flat database are read side by side in key order, by pages, and the storage of
+ * every account is compared the same way. When healing, the repairs are committed in batches and
+ * the progress of each range is saved in the variables storage after every page of accounts, so
+ * that an interrupted healing resumes where it stopped as long as the state root did not change.
+ * Healing is idempotent, a page repaired again after a restart is left untouched.
+ */
+public class BonsaiFlatDbHealer {
+
+  private static final Logger LOG = LoggerFactory.getLogger(BonsaiFlatDbHealer.class);
+  private static final int PAGE_SIZE = 10_000;
+  private static final int WRITES_PER_COMMIT = 10_000;
+
+  private final BonsaiWorldStateKeyValueStorage worldStateStorage;
+  private final int nbRanges;
+
+  public BonsaiFlatDbHealer(
+      final BonsaiWorldStateKeyValueStorage worldStateStorage, final int nbRanges) {
+    checkArgument(nbRanges > 0, "The number of ranges must be positive");
+    this.worldStateStorage = worldStateStorage;
+    this.nbRanges = nbRanges;
+  }
+
+  /**
+   * Compares the flat database with the tries without writing anything.
+   *
+   * @return the number of entries checked and of mismatches found
+   */
+  public Result verify() {
+    return run(Optional.empty());
+  }
+
+  /**
+   * Rewrites the flat entries that do not match the tries, resuming the previous healing of the
+   * same state root if it was interrupted.
+   *
+   * @param variablesStorage the storage where the progress is saved
+   * @return the number of entries checked and of mismatches repaired
+   */
+  public Result heal(final VariablesStorage variablesStorage) {
+    return run(Optional.of(variablesStorage));
+  }
+
+  private Result run(final Optional<VariablesStorage> maybeVariablesStorage) {
+    checkState(
+        worldStateStorage.getFlatDbMode().includes(FlatDbMode.FULL),
+        "Only a full flat database can be verified");
+    final Hash stateRoot =
+        worldStateStorage
+            .getWorldStateRootHash()
+            .map(Hash::wrap)
+            .orElseThrow(() -> new IllegalStateException("No persisted world state root"));
+
+    final List<Map.Entry<Bytes32, Bytes32>> ranges =
+        new ArrayList<>(RangeManager.generateAllRanges(nbRanges).entrySet());
+    final Progress progress = new Progress(stateRoot, ranges, maybeVariablesStorage);
+    final Result result = new Result();
+
+    final ExecutorService executor =
+        Executors.newFixedThreadPool(
+            ranges.size(),
+            new ThreadFactoryBuilder().setNameFormat("flat-db-healer-%d").setDaemon(true).build());
+    try {
+      final List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < ranges.size(); i++) {
+        final int rangeIndex = i;
+        progress
+            .getCursor(rangeIndex)
+            .ifPresent(
+                start ->
+                    futures.add(
+                        executor.submit(
+                            () ->
+                                new RangeHealer(rangeIndex, stateRoot, progress, result)
+                                    .heal(start, ranges.get(rangeIndex).getValue()))));
+      }
+      for (final Future<?> future : futures) {
+        future.get();
+      }
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Flat database healing was interrupted", e);
+    } catch (final ExecutionException e) {
+      throw new IllegalStateException("Flat database healing failed", e.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+    progress.clear();
+    LOG.info("Finished checking the flat database of state root {}: {}", stateRoot, result);
+    return result;
+  }
+
+  private static Bytes32 nextKey(final Bytes32 key) {
+    return UInt256.fromBytes(key).add(1).toBytes();
+  }
+
+  /**
+   * Walks the keys of a range in the trie and in the flat database side by side, by pages of trie
+   * entries, and calls the visitor for each key with its trie and flat values.
+   */
+  private static void walk(
+      final Bytes32 start,
+      final Bytes32 end,
+      final Function<Bytes32, Map<Bytes32, Bytes>> trieLoader,
+      final BiFunction<Bytes32, Bytes32, NavigableMap<Bytes32, Bytes>> flatLoader,
+      final EntryVisitor visitor,
+      final Consumer<Optional<Bytes32>> onPageDone) {
+    Bytes32 cursor = start;
+    while (true) {
+      final Map<Bytes32, Bytes> triePage = trieLoader.apply(cursor);
+      final NavigableMap<Bytes32, Bytes> trieEntries = new TreeMap<>(triePage);
+      // the page ends with the last trie entry, unless the range has no more entries
+      final Bytes32 pageEnd =
+          triePage.size() < PAGE_SIZE || trieEntries.lastKey().compareTo(end) >= 0
+              ? end
+              : trieEntries.lastKey();
+      final NavigableMap<Bytes32, Bytes> flatEntries = flatLoader.apply(cursor, pageEnd);
+      trieEntries
+          .headMap(pageEnd, true)
+          .forEach(
+              (key, trieValue) ->
+                  visitor.visit(
+                      key, Optional.of(trieValue), Optional.ofNullable(flatEntries.remove(key))));
+      flatEntries.forEach(
+          (key, flatValue) -> visitor.visit(key, Optional.empty(), Optional.of(flatValue)));
+      if (pageEnd.equals(end)) {
+        onPageDone.accept(Optional.empty());
+        return;
+      }
+      cursor = nextKey(pageEnd);
+      onPageDone.accept(Optional.of(cursor));
+    }
+  }
+
+  @FunctionalInterface
+  private interface EntryVisitor {
+    void visit(Bytes32 key, Optional<Bytes> trieValue, Optional<Bytes> flatValue);
+  }
+
+  private class RangeHealer {
+    private final int rangeIndex;
+    private final MerkleTrie<Bytes, Bytes> accountTrie;
+    private final Progress progress;
+    private final Result result;
+    private BonsaiWorldStateKeyValueStorage.Updater updater;
+    private long pendingWrites = 0;
+
+    private RangeHealer(
+        final int rangeIndex, final Hash stateRoot, final Progress progress, final Result result) {
+      this.rangeIndex = rangeIndex;
+      // each range reads its own trie, as the loaded nodes are cached in the trie
+      this.accountTrie =
+          new StoredMerklePatriciaTrie<>(
+              worldStateStorage::getAccountStateTrieNode,
+              stateRoot,
+              Function.identity(),
+              Function.identity());
+      this.progress = progress;
+      this.result = result;
+      this.updater = progress.isHealing() ? worldStateStorage.updater() : null;
+    }
+
+    private void heal(final Bytes32 start, final Bytes32 end) {
+      walk(
+          start,
+          end,
+          cursor -> accountTrie.entriesFrom(cursor, PAGE_SIZE),
+          (from, to) -> worldStateStorage.streamFlatAccounts(from, to, Long.MAX_VALUE),
+          this::healAccount,
+          nextCursor -> {
+            commit();
+            progress.setCursor(rangeIndex, nextCursor);
+          });
+    }
+
+    private void healAccount(
+        final Bytes32 accountHash,
+        final Optional<Bytes> trieValue,
+        final Optional<Bytes> flatValue) {
+      result.accounts.incrementAndGet();
+      if (!trieValue.equals(flatValue)) {
+        result.accountMismatches.incrementAndGet();
+        if (updater != null) {
+          trieValue.ifPresentOrElse(
+              value -> updater.putAccountInfoState(Hash.wrap(accountHash), value),
+              () -> updater.removeAccountInfoState(Hash.wrap(accountHash)));
+          written();
+        }
+      }
+      // the storage of an account missing from the trie must be removed
+      final Hash storageRoot =
+          trieValue
+              .map(value -> PmtStateTrieAccountValue.readFrom(RLP.input(value)).getStorageRoot())
+              .orElse(Hash.EMPTY_TRIE_HASH);
+      healStorage(Hash.wrap(accountHash), storageRoot);
+    }
+
+    private void healStorage(final Hash accountHash, final Hash storageRoot) {
+      final MerkleTrie<Bytes, Bytes> storageTrie =
+          new StoredMerklePatriciaTrie<>(
+              (location, hash) ->
+                  worldStateStorage.getAccountStorageTrieNode(accountHash, location, hash),
+              storageRoot,
+              Function.identity(),
+              Function.identity());
+      walk(
+          RangeManager.MIN_RANGE,
+          RangeManager.MAX_RANGE,
+          cursor -> storageTrie.entriesFrom(cursor, PAGE_SIZE),
+          (from, to) -> worldStateStorage.streamFlatStorages(accountHash, from, to, Long.MAX_VALUE),
+          (slotHash, trieValue, flatValue) -> {
+            result.slots.incrementAndGet();
+            // the values of both sides are RLP encoded without leading zeros
+            if (!trieValue.equals(flatValue)) {
+              result.slotMismatches.incrementAndGet();
+              if (updater != null) {
+                trieValue.ifPresentOrElse(
+                    // stored left padded, as written by the block import and the sync
+                    value ->
+                        updater.putStorageValueBySlotHash(
+                            accountHash,
+                            Hash.wrap(slotHash),
+                            Bytes32.leftPad(RLP.decodeValue(value))),
+                    () -> updater.removeStorageValueBySlotHash(accountHash, Hash.wrap(slotHash)));
+                written();
+              }
+            }
+          },
+          nextCursor -> {});
+    }
+
+    private void written() {
+      if (++pendingWrites >= WRITES_PER_COMMIT) {
+        commit();
+      }
+    }
+
+    private void commit() {
+      if (updater != null && pendingWrites > 0) {
+        updater.commit();
+        updater = worldStateStorage.updater();
+        pendingWrites = 0;
+      }
+    }
+  }
+
+  /** The next key to check in each range, saved in the variables storage when healing. */
+  private static class Progress {
+    private final Hash stateRoot;
+    private final Optional<VariablesStorage> maybeVariablesStorage;
+    private final List<Optional<Bytes32>> cursors = new ArrayList<>();
+
+    private Progress(
+        final Hash stateRoot,
+        final List<Map.Entry<Bytes32, Bytes32>> ranges,
+        final Optional<VariablesStorage> maybeVariablesStorage) {
+      this.stateRoot = stateRoot;
+      this.maybeVariablesStorage = maybeVariablesStorage;
+      ranges.forEach(range -> cursors.add(Optional.of(range.getKey())));
+      maybeVariablesStorage
+          .flatMap(VariablesStorage::getFlatDbHealingProgress)
+          .ifPresent(this::resume);
+    }
+
+    private void resume(final Bytes savedProgress) {
+      final RLPInput input = RLP.input(savedProgress);
+      input.enterList();
+      final Bytes32 savedStateRoot = input.readBytes32();
+      final List<Bytes> savedCursors = input.readList(RLPInput::readBytes);
+      input.leaveList();
+      if (savedStateRoot.equals(stateRoot) && savedCursors.size() == cursors.size()) {
+        for (int i = 0; i < cursors.size(); i++) {
+          final Bytes cursor = savedCursors.get(i);
+          cursors.set(i, cursor.isEmpty() ? Optional.empty() : Optional.of(Bytes32.wrap(cursor)));
+        }
+        LOG.info("Resuming the flat database healing of state root {}", stateRoot);
+      }
+    }
+
+    private boolean isHealing() {
+      return maybeVariablesStorage.isPresent();
+    }
+
+    private synchronized Optional<Bytes32> getCursor(final int rangeIndex) {
+      return cursors.get(rangeIndex);
+    }
+
+    private synchronized void setCursor(final int rangeIndex, final Optional<Bytes32> cursor) {
+      cursors.set(rangeIndex, cursor);
+      maybeVariablesStorage.ifPresent(
+          variablesStorage -> {
+            final VariablesStorage.Updater updater = variablesStorage.updater();
+            updater.setFlatDbHealingProgress(
+                RLP.encode(
+                    out -> {
+                      out.startList();
+                      out.writeBytes(stateRoot);
+                      // an empty cursor marks a range that was fully checked
+                      out.writeList(
+                          cursors,
+                          (next, listOut) ->
+                              listOut.writeBytes(next.isPresent() ? next.get() : Bytes.EMPTY));
+                      out.endList();
+                    }));
+            updater.commit();
+          });
+    }
+
+    private void clear() {
+      maybeVariablesStorage.ifPresent(
+          variablesStorage -> {
+            final VariablesStorage.Updater updater = variablesStorage.updater();
+            updater.removeFlatDbHealingProgress();
+            updater.commit();
+          });
+    }
+  }
+
+  /** The number of entries checked and of mismatches found. */
+  public static class Result {
+    private final AtomicLong accounts = new AtomicLong();
+    private final AtomicLong slots = new AtomicLong();
+    private final AtomicLong accountMismatches = new AtomicLong();
+    private final AtomicLong slotMismatches = new AtomicLong();
+
+    public long getAccounts() {
+      return accounts.get();
+    }
+
+    public long getSlots() {
+      return slots.get();
+    }
+
+    public long getAccountMismatches() {
+      return accountMismatches.get();
+    }
+
+    public long getSlotMismatches() {
+      return slotMismatches.get();
+    }
+
+    public boolean isConsistent() {
+      return getAccountMismatches() == 0 && getSlotMismatches() == 0;
+    }
+
+    @Override
+    public String toString() {
+      return String.format(
+          "%d accounts (%d mismatches), %d slots (%d mismatches)",
+          getAccounts(), getAccountMismatches(), getSlots(), getSlotMismatches());
+    }
+  }
+}
@@ -23,6 +23,8 @@ import org.hyperledger.besu.plugin.services.storage.KeyValueStorage;
 import org.hyperledger.besu.plugin.services.storage.SnappableKeyValueStorage;
 import org.hyperledger.besu.plugin.services.storage.SnappedKeyValueStorage;
 
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 import java.util.function.Supplier;
 
@@ -79,6 +81,13 @@ public class BonsaiSnapshotWorldStateKeyValueStorage extends BonsaiWorldStateKey
     return isClosedGet() ? Optional.empty() : super.getAccount(accountHash);
   }
 
+  @Override
+  public List<Optional<Bytes>> getAccounts(final List<Hash> accountHashes) {
+    return isClosedGet()
+        ? Collections.nCopies(accountHashes.size(), Optional.empty())
+        : super.getAccounts(accountHashes);
+  }
+
   @Override
   public Optional<Bytes> getCode(final Hash codeHash, final Hash accountHash) {
     return isClosedGet() ? Optional.empty() : super.getCode(codeHash, accountHash);
@@ -94,6 +103,13 @@ public class BonsaiSnapshotWorldStateKeyValueStorage extends BonsaiWorldStateKey
     return isClosedGet() ? Optional.empty() : super.getTrieNodeUnsafe(key);
   }
 
+  @Override
+  public List<Optional<Bytes>> getTrieNodesUnsafe(final List<Bytes> keys) {
+    return isClosedGet()
+        ? Collections.nCopies(keys.size(), Optional.empty())
+        : super.getTrieNodesUnsafe(keys);
+  }
+
   @Override
   public Optional<Bytes> getAccountStorageTrieNode(
       final Hash accountHash, final Bytes location, final Bytes32 nodeHash) {
@@ -140,6 +156,14 @@ public class BonsaiSnapshotWorldStateKeyValueStorage extends BonsaiWorldStateKey
         : super.getStorageValueByStorageSlotKey(storageRootSupplier, accountHash, storageSlotKey);
   }
 
+  @Override
+  public List<Optional<Bytes>> getStorageValuesByStorageSlotKeys(
+      final Hash accountHash, final List<StorageSlotKey> storageSlotKeys) {
+    return isClosedGet()
+        ? Collections.nCopies(storageSlotKeys.size(), Optional.empty())
+        : super.getStorageValuesByStorageSlotKeys(accountHash, storageSlotKeys);
+  }
+
   @Override
   public boolean isWorldStateAvailable(final Bytes32 rootHash, final Hash blockHash) {
     return !isClosedGet() && super.isWorldStateAvailable(rootHash, blockHash);
@@ -0,0 +1,188 @@
+/*
+ * Copyright contributors to Hyperledger Besu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.trie.diffbased.bonsai.storage;
+
+import static com.google.common.base.Preconditions.checkState;
+
+import org.hyperledger.besu.datatypes.Hash;
+import org.hyperledger.besu.ethereum.rlp.RLP;
+import org.hyperledger.besu.ethereum.trie.NodeUpdater;
+import org.hyperledger.besu.ethereum.trie.RangeManager;
+import org.hyperledger.besu.ethereum.trie.common.PmtStateTrieAccountValue;
+import org.hyperledger.besu.ethereum.trie.patricia.StreamingStackTrie;
+import org.hyperledger.besu.ethereum.worldstate.FlatDbMode;
+
+import java.util.NavigableMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+import org.apache.tuweni.units.bigints.UInt256;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Rebuilds the account and storage tries of a Bonsai world state from its full flat database. The
+ * flat database is read in key order, so each trie is built with a {@link StreamingStackTrie} that
+ * only keeps its rightmost path in memory, and the nodes are written in batches.
+ */
+public class BonsaiTrieRebuilder {
+
+  private static final Logger LOG = LoggerFactory.getLogger(BonsaiTrieRebuilder.class);
+  private static final int PAGE_SIZE = 10_000;
+  private static final int NODES_PER_COMMIT = 100_000;
+  private static final int LOG_INTERVAL = 1_000_000;
+
+  private final BonsaiWorldStateKeyValueStorage worldStateStorage;
+
+  public BonsaiTrieRebuilder(final BonsaiWorldStateKeyValueStorage worldStateStorage) {
+    checkState(
+        worldStateStorage.getFlatDbMode().includes(FlatDbMode.FULL),
+        "The tries can only be rebuilt from a full flat database");
+    this.worldStateStorage = worldStateStorage;
+  }
+
+  /**
+   * Computes the state root of the flat database without writing any trie node.
+   *
+   * @return the state root
+   */
+  public Hash computeStateRoot() {
+    return buildAccountTrie(new NodeWriter(null));
+  }
+
+  /**
+   * Writes the nodes of the account and storage tries over the existing ones, if the flat database
+   * matches the persisted state root.
+   *
+   * @return the rebuilt state root
+   */
+  public Hash rebuild() {
+    final Hash expectedStateRoot =
+        worldStateStorage
+            .getWorldStateRootHash()
+            .map(Hash::wrap)
+            .orElseThrow(() -> new IllegalStateException("No persisted world state root"));
+    LOG.info("Computing the state root of the flat database...");
+    final Hash stateRoot = computeStateRoot();
+    checkState(
+        stateRoot.equals(expectedStateRoot),
+        "The flat database state root %s does not match the persisted state root %s",
+        stateRoot,
+        expectedStateRoot);
+
+    LOG.info("Writing the tries of state root {}...", stateRoot);
+    final NodeWriter nodeWriter = new NodeWriter(worldStateStorage.updater());
+    buildAccountTrie(nodeWriter);
+    nodeWriter.commit();
+    return stateRoot;
+  }
+
+  private Hash buildAccountTrie(final NodeWriter nodeWriter) {
+    final StreamingStackTrie<Bytes> accountTrie =
+        new StreamingStackTrie<>(nodeWriter.forAccountTrie(), Function.identity());
+    final long accounts =
+        forEachPage(
+            (start, end) -> worldStateStorage.streamFlatAccounts(start, end, PAGE_SIZE),
+            (accountHash, value) -> {
+              final PmtStateTrieAccountValue account =
+                  PmtStateTrieAccountValue.readFrom(RLP.input(value));
+              final Hash storageRoot = buildStorageTrie(Hash.wrap(accountHash), nodeWriter);
+              final PmtStateTrieAccountValue rebuiltAccount =
+                  new PmtStateTrieAccountValue(
+                      account.getNonce(), account.getBalance(), storageRoot, account.getCodeHash());
+              accountTrie.put(accountHash, RLP.encode(rebuiltAccount::writeTo));
+            });
+    final Hash stateRoot = Hash.wrap(accountTrie.commit());
+    LOG.info("Built the account trie of {} accounts, state root {}", accounts, stateRoot);
+    return stateRoot;
+  }
+
+  private Hash buildStorageTrie(final Hash accountHash, final NodeWriter nodeWriter) {
+    final StreamingStackTrie<Bytes> storageTrie =
+        new StreamingStackTrie<>(nodeWriter.forStorageTrie(accountHash), Function.identity());
+    forEachPage(
+        (start, end) -> worldStateStorage.streamFlatStorages(accountHash, start, end, PAGE_SIZE),
+        // the streamed slot values are already encoded as the trie values
+        storageTrie::put);
+    return Hash.wrap(storageTrie.commit());
+  }
+
+  private static long forEachPage(
+      final PageLoader pageLoader, final BiConsumer<Bytes32, Bytes> consumer) {
+    long count = 0;
+    Bytes32 start = RangeManager.MIN_RANGE;
+    while (true) {
+      final NavigableMap<Bytes32, Bytes> page = pageLoader.load(start, RangeManager.MAX_RANGE);
+      page.forEach(consumer);
+      count += page.size();
+      if (page.size() < PAGE_SIZE || page.lastKey().equals(RangeManager.MAX_RANGE)) {
+        return count;
+      }
+      start = UInt256.fromBytes(page.lastKey()).add(1).toBytes();
+    }
+  }
+
+  @FunctionalInterface
+  private interface PageLoader {
+    NavigableMap<Bytes32, Bytes> load(Bytes32 start, Bytes32 end);
+  }
+
+  /** Writes the trie nodes with an updater committed every {@link #NODES_PER_COMMIT} nodes. */
+  private class NodeWriter {
+    private BonsaiWorldStateKeyValueStorage.Updater updater;
+    private long nodes = 0;
+
+    private NodeWriter(final BonsaiWorldStateKeyValueStorage.Updater updater) {
+      this.updater = updater;
+    }
+
+    private NodeUpdater forAccountTrie() {
+      return (location, hash, value) -> {
+        if (updater != null) {
+          updater.putAccountStateTrieNode(location, hash, value);
+        }
+        written();
+      };
+    }
+
+    private NodeUpdater forStorageTrie(final Hash accountHash) {
+      return (location, hash, value) -> {
+        if (updater != null) {
+          updater.putAccountStorageTrieNode(accountHash, location, hash, value);
+        }
+        written();
+      };
+    }
+
+    private void written() {
+      nodes++;
+      if (updater != null && nodes % NODES_PER_COMMIT == 0) {
+        commit();
+        updater = worldStateStorage.updater();
+      }
+      if (nodes % LOG_INTERVAL == 0) {
+        LOG.info("Processed {} trie nodes", nodes);
+      }
+    }
+
+    private void commit() {
+      if (updater != null) {
+        updater.commit();
+      }
+    }
+  }
+}
@@ -15,6 +15,8 @@
 package org.hyperledger.besu.ethereum.trie.diffbased.bonsai.storage;
 
 import static org.hyperledger.besu.ethereum.storage.keyvalue.KeyValueSegmentIdentifier.ACCOUNT_INFO_STATE;
+import static org.hyperledger.besu.ethereum.storage.keyvalue.KeyValueSegmentIdentifier.ACCOUNT_INFO_STATE_ARCHIVE;
+import static org.hyperledger.besu.ethereum.storage.keyvalue.KeyValueSegmentIdentifier.ACCOUNT_STORAGE_ARCHIVE;
 import static org.hyperledger.besu.ethereum.storage.keyvalue.KeyValueSegmentIdentifier.ACCOUNT_STORAGE_STORAGE;
 import static org.hyperledger.besu.ethereum.storage.keyvalue.KeyValueSegmentIdentifier.CODE_STORAGE;
 import static org.hyperledger.besu.ethereum.storage.keyvalue.KeyValueSegmentIdentifier.TRIE_BRANCH_STORAGE;
@@ -40,11 +42,13 @@ import org.hyperledger.besu.plugin.services.storage.KeyValueStorageTransaction;
 import org.hyperledger.besu.plugin.services.storage.SegmentedKeyValueStorage;
 import org.hyperledger.besu.plugin.services.storage.SegmentedKeyValueStorageTransaction;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.NavigableMap;
 import java.util.Optional;
 import java.util.function.Supplier;
 
+import com.google.common.base.Suppliers;
 import org.apache.tuweni.bytes.Bytes;
 import org.apache.tuweni.bytes.Bytes32;
 
@@ -59,7 +63,12 @@ public class BonsaiWorldStateKeyValueStorage extends DiffBasedWorldStateKeyValue
     super(
         provider.getStorageBySegmentIdentifiers(
             List.of(
-                ACCOUNT_INFO_STATE, CODE_STORAGE, ACCOUNT_STORAGE_STORAGE, TRIE_BRANCH_STORAGE)),
+                ACCOUNT_INFO_STATE,
+                CODE_STORAGE,
+                ACCOUNT_STORAGE_STORAGE,
+                TRIE_BRANCH_STORAGE,
+                ACCOUNT_INFO_STATE_ARCHIVE,
+                ACCOUNT_STORAGE_ARCHIVE)),
         provider.getStorageBySegmentIdentifier(KeyValueSegmentIdentifier.TRIE_LOG_STORAGE));
     this.flatDbStrategyProvider =
         new BonsaiFlatDbStrategyProvider(metricsSystem, dataStorageConfiguration);
@@ -101,6 +110,15 @@ public class BonsaiWorldStateKeyValueStorage extends DiffBasedWorldStateKeyValue
             composedWorldStateStorage);
   }
 
+  public List<Optional<Bytes>> getAccounts(final List<Hash> accountHashes) {
+    return getFlatDbStrategy()
+        .getFlatAccounts(
+            this::getWorldStateRootHash,
+            this::getAccountStateTrieNode,
+            accountHashes,
+            composedWorldStateStorage);
+  }
+
   public Optional<Bytes> getAccountStateTrieNode(final Bytes location, final Bytes32 nodeHash) {
     if (nodeHash.equals(MerkleTrie.EMPTY_TRIE_NODE_HASH)) {
       return Optional.of(MerkleTrie.EMPTY_TRIE_NODE);
@@ -128,6 +146,16 @@ public class BonsaiWorldStateKeyValueStorage extends DiffBasedWorldStateKeyValue
     return composedWorldStateStorage.get(TRIE_BRANCH_STORAGE, key.toArrayUnsafe()).map(Bytes::wrap);
   }
 
+  public List<Optional<Bytes>> getTrieNodesUnsafe(final List<Bytes> keys) {
+    return composedWorldStateStorage
+        .multiGet(
+            Collections.nCopies(keys.size(), TRIE_BRANCH_STORAGE),
+            keys.stream().map(Bytes::toArrayUnsafe).toList())
+        .stream()
+        .map(value -> value.map(Bytes::wrap))
+        .toList();
+  }
+
   public Optional<Bytes> getStorageValueByStorageSlotKey(
       final Hash accountHash, final StorageSlotKey storageSlotKey) {
     return getStorageValueByStorageSlotKey(
@@ -156,6 +184,26 @@ public class BonsaiWorldStateKeyValueStorage extends DiffBasedWorldStateKeyValue
             composedWorldStateStorage);
   }
 
+  public List<Optional<Bytes>> getStorageValuesByStorageSlotKeys(
+      final Hash accountHash, final List<StorageSlotKey> storageSlotKeys) {
+    return getFlatDbStrategy()
+        .getFlatStorageValuesByStorageSlotKeys(
+            this::getWorldStateRootHash,
+            // read once for all the slots missing from the flat database
+            Suppliers.memoize(
+                () ->
+                    getAccount(accountHash)
+                        .map(
+                            b ->
+                                PmtStateTrieAccountValue.readFrom(
+                                        org.hyperledger.besu.ethereum.rlp.RLP.input(b))
+                                    .getStorageRoot())),
+            (location, hash) -> getAccountStorageTrieNode(accountHash, location, hash),
+            accountHash,
+            storageSlotKeys,
+            composedWorldStateStorage);
+  }
+
   public NavigableMap<Bytes32, AccountStorageEntry> storageEntriesFrom(
       final Hash addressHash, final Bytes32 startKeyHash, final int limit) {
     throw new RuntimeException("Bonsai Tries does not currently support enumerating storage");
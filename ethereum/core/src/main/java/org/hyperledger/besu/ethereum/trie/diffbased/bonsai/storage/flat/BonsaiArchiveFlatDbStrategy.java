@@ -0,0 +1,259 @@
+/*
+ * Copyright contributors to Hyperledger Besu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.trie.diffbased.bonsai.storage.flat;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hyperledger.besu.ethereum.storage.keyvalue.KeyValueSegmentIdentifier.ACCOUNT_INFO_STATE_ARCHIVE;
+import static org.hyperledger.besu.ethereum.storage.keyvalue.KeyValueSegmentIdentifier.ACCOUNT_STORAGE_ARCHIVE;
+import static org.hyperledger.besu.ethereum.storage.keyvalue.KeyValueSegmentIdentifier.TRIE_BRANCH_STORAGE;
+
+import org.hyperledger.besu.datatypes.AccountValue;
+import org.hyperledger.besu.datatypes.Hash;
+import org.hyperledger.besu.datatypes.StorageSlotKey;
+import org.hyperledger.besu.ethereum.rlp.RLP;
+import org.hyperledger.besu.ethereum.trie.diffbased.common.storage.flat.CodeStorageStrategy;
+import org.hyperledger.besu.plugin.services.MetricsSystem;
+import org.hyperledger.besu.plugin.services.storage.SegmentIdentifier;
+import org.hyperledger.besu.plugin.services.storage.SegmentedKeyValueStorage;
+import org.hyperledger.besu.plugin.services.storage.SegmentedKeyValueStorageTransaction;
+import org.hyperledger.besu.plugin.services.trielogs.TrieLog;
+
+import java.util.Optional;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.units.bigints.UInt256;
+
+/**
+ * Full flat database strategy that additionally keeps every version of the accounts and storage
+ * slots, keyed by the block number that produced them, so that the state of a past block can be
+ * read with a single seek instead of rolling back the world state.
+ *
+ * <p>For a key changed by block {@code n}, the value before the block is stored under {@code
+ * key||n-1} and the value after the block under {@code key||n}. The value of a key at block {@code
+ * N} is then the nearest version at or before {@code N}, or the prior value of the first version
+ * after {@code N}. An empty value marks a key that did not exist.
+ */
+public class BonsaiArchiveFlatDbStrategy extends BonsaiFullFlatDbStrategy {
+
+  public static final byte[] ARCHIVE_BLOCK_HASH_KEY = "archiveBlockHash".getBytes(UTF_8);
+
+  public static final byte[] ARCHIVE_START_KEY = "archiveStart".getBytes(UTF_8);
+
+  public BonsaiArchiveFlatDbStrategy(
+      final MetricsSystem metricsSystem, final CodeStorageStrategy codeStorageStrategy) {
+    super(metricsSystem, codeStorageStrategy);
+  }
+
+  /**
+   * Returns the value of an account at the given block.
+   *
+   * @param storage the storage holding the archive
+   * @param accountHash the hash of the account address
+   * @param blockNumber the block to read the account at
+   * @return empty if the account never changed since the archive start, {@link Bytes#EMPTY} if the
+   *     account did not exist at this block, otherwise the RLP of the account
+   */
+  public Optional<Bytes> getArchivedAccount(
+      final SegmentedKeyValueStorage storage, final Hash accountHash, final long blockNumber) {
+    return getArchivedValue(storage, ACCOUNT_INFO_STATE_ARCHIVE, accountHash, blockNumber);
+  }
+
+  /**
+   * Returns the value of a storage slot at the given block.
+   *
+   * @param storage the storage holding the archive
+   * @param accountHash the hash of the account address
+   * @param slotHash the hash of the slot key
+   * @param blockNumber the block to read the slot at
+   * @return empty if the slot never changed since the archive start, {@link Bytes#EMPTY} if the
+   *     slot was empty at this block, otherwise the slot value
+   */
+  public Optional<Bytes> getArchivedStorageValue(
+      final SegmentedKeyValueStorage storage,
+      final Hash accountHash,
+      final Hash slotHash,
+      final long blockNumber) {
+    return getArchivedValue(
+        storage, ACCOUNT_STORAGE_ARCHIVE, Bytes.concatenate(accountHash, slotHash), blockNumber);
+  }
+
+  private Optional<Bytes> getArchivedValue(
+      final SegmentedKeyValueStorage storage,
+      final SegmentIdentifier segment,
+      final Bytes key,
+      final long blockNumber) {
+    final Bytes archiveKey = archiveKey(key, blockNumber);
+    return storage
+        .getNearestBefore(segment, archiveKey)
+        .filter(nearest -> isVersionOf(nearest.key(), key))
+        .or(
+            () ->
+                storage
+                    .getNearestAfter(segment, archiveKey)
+                    .filter(nearest -> isVersionOf(nearest.key(), key)))
+        .map(nearest -> nearest.wrapBytes().orElse(Bytes.EMPTY));
+  }
+
+  /**
+   * Writes the versions produced by a block.
+   *
+   * @param transaction the transaction to write the versions to
+   * @param blockNumber the number of the block
+   * @param trieLog the changes made by the block
+   */
+  public void archiveBlock(
+      final SegmentedKeyValueStorageTransaction transaction,
+      final long blockNumber,
+      final TrieLog trieLog) {
+    trieLog
+        .getAccountChanges()
+        .forEach(
+            (address, change) -> {
+              final Bytes key = address.addressHash();
+              putVersion(
+                  transaction,
+                  ACCOUNT_INFO_STATE_ARCHIVE,
+                  archiveKey(key, blockNumber - 1),
+                  encodeAccount(change.getPrior()));
+              putVersion(
+                  transaction,
+                  ACCOUNT_INFO_STATE_ARCHIVE,
+                  archiveKey(key, blockNumber),
+                  encodeAccount(change.getUpdated()));
+            });
+    trieLog
+        .getStorageChanges()
+        .forEach(
+            (address, slots) ->
+                slots.forEach(
+                    (slotKey, change) -> {
+                      final Bytes key = storageKey(address.addressHash(), slotKey);
+                      putVersion(
+                          transaction,
+                          ACCOUNT_STORAGE_ARCHIVE,
+                          archiveKey(key, blockNumber - 1),
+                          encodeSlot(change.getPrior()));
+                      putVersion(
+                          transaction,
+                          ACCOUNT_STORAGE_ARCHIVE,
+                          archiveKey(key, blockNumber),
+                          encodeSlot(change.getUpdated()));
+                    }));
+  }
+
+  /**
+   * Removes the versions written for a block that left the canonical chain.
+   *
+   * @param transaction the transaction to remove the versions with
+   * @param blockNumber the number of the block
+   * @param trieLog the changes made by the block
+   * @param removePrior whether the prior versions of the block must be removed too, which is the
+   *     case when the parent block is unwound as well
+   */
+  public void unarchiveBlock(
+      final SegmentedKeyValueStorageTransaction transaction,
+      final long blockNumber,
+      final TrieLog trieLog,
+      final boolean removePrior) {
+    trieLog
+        .getAccountChanges()
+        .keySet()
+        .forEach(
+            address ->
+                removeVersions(
+                    transaction,
+                    ACCOUNT_INFO_STATE_ARCHIVE,
+                    address.addressHash(),
+                    blockNumber,
+                    removePrior));
+    trieLog
+        .getStorageChanges()
+        .forEach(
+            (address, slots) ->
+                slots
+                    .keySet()
+                    .forEach(
+                        slotKey ->
+                            removeVersions(
+                                transaction,
+                                ACCOUNT_STORAGE_ARCHIVE,
+                                storageKey(address.addressHash(), slotKey),
+                                blockNumber,
+                                removePrior)));
+  }
+
+  private static void removeVersions(
+      final SegmentedKeyValueStorageTransaction transaction,
+      final SegmentIdentifier segment,
+      final Bytes key,
+      final long blockNumber,
+      final boolean removePrior) {
+    transaction.remove(segment, archiveKey(key, blockNumber).toArrayUnsafe());
+    if (removePrior) {
+      transaction.remove(segment, archiveKey(key, blockNumber - 1).toArrayUnsafe());
+    }
+  }
+
+  @Override
+  public void clearAll(final SegmentedKeyValueStorage storage) {
+    super.clearAll(storage);
+    clearArchive(storage);
+  }
+
+  @Override
+  public void resetOnResync(final SegmentedKeyValueStorage storage) {
+    super.resetOnResync(storage);
+    clearArchive(storage);
+  }
+
+  private static void clearArchive(final SegmentedKeyValueStorage storage) {
+    storage.clear(ACCOUNT_INFO_STATE_ARCHIVE);
+    storage.clear(ACCOUNT_STORAGE_ARCHIVE);
+    final SegmentedKeyValueStorageTransaction transaction = storage.startTransaction();
+    transaction.remove(TRIE_BRANCH_STORAGE, ARCHIVE_BLOCK_HASH_KEY);
+    transaction.remove(TRIE_BRANCH_STORAGE, ARCHIVE_START_KEY);
+    transaction.commit();
+  }
+
+  private static void putVersion(
+      final SegmentedKeyValueStorageTransaction transaction,
+      final SegmentIdentifier segment,
+      final Bytes archiveKey,
+      final Bytes value) {
+    transaction.put(segment, archiveKey.toArrayUnsafe(), value.toArrayUnsafe());
+  }
+
+  private static Bytes encodeAccount(final AccountValue account) {
+    return account == null ? Bytes.EMPTY : RLP.encode(account::writeTo);
+  }
+
+  private static Bytes encodeSlot(final UInt256 value) {
+    // the flat database does not keep empty slots
+    return value == null || value.isZero() ? Bytes.EMPTY : value;
+  }
+
+  private static Bytes storageKey(final Hash accountHash, final StorageSlotKey slotKey) {
+    return Bytes.concatenate(accountHash, slotKey.getSlotHash());
+  }
+
+  private static boolean isVersionOf(final Bytes archiveKey, final Bytes key) {
+    return archiveKey.size() == key.size() + Long.BYTES
+        && archiveKey.slice(0, key.size()).equals(key);
+  }
+
+  static Bytes archiveKey(final Bytes key, final long blockNumber) {
+    return Bytes.concatenate(key, Bytes.ofUnsignedLong(blockNumber));
+  }
+}
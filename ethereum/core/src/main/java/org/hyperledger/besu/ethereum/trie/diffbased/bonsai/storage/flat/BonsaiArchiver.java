@@ -0,0 +1,184 @@
+/*
+ * Copyright contributors to Hyperledger Besu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.trie.diffbased.bonsai.storage.flat;
+
+import static org.hyperledger.besu.ethereum.storage.keyvalue.KeyValueSegmentIdentifier.TRIE_BRANCH_STORAGE;
+import static org.hyperledger.besu.ethereum.trie.diffbased.bonsai.storage.flat.BonsaiArchiveFlatDbStrategy.ARCHIVE_BLOCK_HASH_KEY;
+import static org.hyperledger.besu.ethereum.trie.diffbased.bonsai.storage.flat.BonsaiArchiveFlatDbStrategy.ARCHIVE_START_KEY;
+
+import org.hyperledger.besu.datatypes.Hash;
+import org.hyperledger.besu.ethereum.chain.BlockAddedEvent;
+import org.hyperledger.besu.ethereum.chain.BlockAddedObserver;
+import org.hyperledger.besu.ethereum.chain.Blockchain;
+import org.hyperledger.besu.ethereum.core.BlockHeader;
+import org.hyperledger.besu.ethereum.trie.diffbased.bonsai.storage.BonsaiWorldStateKeyValueStorage;
+import org.hyperledger.besu.ethereum.trie.diffbased.common.trielog.TrieLogManager;
+import org.hyperledger.besu.plugin.services.storage.SegmentedKeyValueStorage;
+import org.hyperledger.besu.plugin.services.storage.SegmentedKeyValueStorageTransaction;
+import org.hyperledger.besu.plugin.services.trielogs.TrieLog;
+
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps the archive of the flat database in line with the canonical chain, see {@link
+ * BonsaiArchiveFlatDbStrategy}. The versions of each new canonical block are written from its trie
+ * log, and the versions of the blocks that left the canonical chain are removed the same way, so
+ * that the archive follows reorgs without reading the world state.
+ */
+public class BonsaiArchiver implements BlockAddedObserver {
+
+  private static final Logger LOG = LoggerFactory.getLogger(BonsaiArchiver.class);
+
+  private final BonsaiWorldStateKeyValueStorage worldStateKeyValueStorage;
+  private final TrieLogManager trieLogManager;
+  private final Blockchain blockchain;
+  private final Consumer<Runnable> executeAsync;
+  private volatile boolean stopped = false;
+
+  public BonsaiArchiver(
+      final BonsaiWorldStateKeyValueStorage worldStateKeyValueStorage,
+      final TrieLogManager trieLogManager,
+      final Blockchain blockchain,
+      final Consumer<Runnable> executeAsync) {
+    this.worldStateKeyValueStorage = worldStateKeyValueStorage;
+    this.trieLogManager = trieLogManager;
+    this.blockchain = blockchain;
+    this.executeAsync = executeAsync;
+  }
+
+  @Override
+  public void onBlockAdded(final BlockAddedEvent event) {
+    if (event.isNewCanonicalHead() && !stopped) {
+      executeAsync.accept(this::archiveToChainHead);
+    }
+  }
+
+  synchronized void archiveToChainHead() {
+    // the flat database is downgraded to partial when the world state is healed
+    if (stopped
+        || !(worldStateKeyValueStorage.getFlatDbStrategy()
+            instanceof BonsaiArchiveFlatDbStrategy archiveFlatDbStrategy)) {
+      return;
+    }
+    try {
+      final SegmentedKeyValueStorage storage =
+          worldStateKeyValueStorage.getComposedWorldStateStorage();
+      final BlockHeader chainHead = blockchain.getChainHeadHeader();
+      final Optional<BlockHeader> maybeArchiveHead =
+          storage
+              .get(TRIE_BRANCH_STORAGE, ARCHIVE_BLOCK_HASH_KEY)
+              .map(Bytes32::wrap)
+              .map(Hash::wrap)
+              .flatMap(blockchain::getBlockHeader);
+      if (maybeArchiveHead.isEmpty()) {
+        startArchive(archiveFlatDbStrategy, storage, chainHead);
+        return;
+      }
+      final long archiveStart =
+          storage
+              .get(TRIE_BRANCH_STORAGE, ARCHIVE_START_KEY)
+              .map(Bytes::wrap)
+              .map(Bytes::toLong)
+              .orElse(0L);
+
+      // remove the blocks that left the canonical chain, down to the common ancestor
+      BlockHeader archiveHead = maybeArchiveHead.get();
+      while (!blockchain.blockIsOnCanonicalChain(archiveHead.getHash())) {
+        if (archiveHead.getNumber() <= archiveStart) {
+          stop("the archive start left the canonical chain");
+          return;
+        }
+        final Optional<BlockHeader> maybeParent =
+            blockchain.getBlockHeader(archiveHead.getParentHash());
+        final Optional<TrieLog> maybeTrieLog =
+            trieLogManager.getTrieLogLayer(archiveHead.getHash());
+        if (maybeParent.isEmpty() || maybeTrieLog.isEmpty()) {
+          stop("missing trie log of block " + archiveHead.toLogString());
+          return;
+        }
+        final BlockHeader parent = maybeParent.get();
+        final SegmentedKeyValueStorageTransaction transaction = storage.startTransaction();
+        archiveFlatDbStrategy.unarchiveBlock(
+            transaction,
+            archiveHead.getNumber(),
+            maybeTrieLog.get(),
+            !blockchain.blockIsOnCanonicalChain(parent.getHash()));
+        transaction.put(
+            TRIE_BRANCH_STORAGE, ARCHIVE_BLOCK_HASH_KEY, parent.getHash().toArrayUnsafe());
+        transaction.commit();
+        archiveHead = parent;
+      }
+
+      // then add the new canonical blocks in order
+      for (long blockNumber = archiveHead.getNumber() + 1;
+          blockNumber <= chainHead.getNumber();
+          blockNumber++) {
+        final Optional<BlockHeader> maybeHeader = blockchain.getBlockHeader(blockNumber);
+        final Optional<TrieLog> maybeTrieLog =
+            maybeHeader.flatMap(header -> trieLogManager.getTrieLogLayer(header.getHash()));
+        if (maybeTrieLog.isEmpty()) {
+          stop("missing trie log of block " + blockNumber);
+          return;
+        }
+        final SegmentedKeyValueStorageTransaction transaction = storage.startTransaction();
+        archiveBlock(archiveFlatDbStrategy, transaction, maybeHeader.get(), maybeTrieLog.get());
+        transaction.commit();
+      }
+    } catch (final RuntimeException e) {
+      LOG.warn("Unable to archive the flat database up to the chain head", e);
+    }
+  }
+
+  private void startArchive(
+      final BonsaiArchiveFlatDbStrategy archiveFlatDbStrategy,
+      final SegmentedKeyValueStorage storage,
+      final BlockHeader chainHead) {
+    // the first blocks imported after a sync may not have a trie log yet, retry on the next one
+    final Optional<TrieLog> maybeTrieLog = trieLogManager.getTrieLogLayer(chainHead.getHash());
+    if (chainHead.getNumber() > 0 && maybeTrieLog.isPresent()) {
+      final SegmentedKeyValueStorageTransaction transaction = storage.startTransaction();
+      transaction.put(
+          TRIE_BRANCH_STORAGE,
+          ARCHIVE_START_KEY,
+          Bytes.ofUnsignedLong(chainHead.getNumber() - 1).toArrayUnsafe());
+      archiveBlock(archiveFlatDbStrategy, transaction, chainHead, maybeTrieLog.get());
+      transaction.commit();
+      LOG.info("Started the archive of the flat database at block {}", chainHead.toLogString());
+    }
+  }
+
+  private void archiveBlock(
+      final BonsaiArchiveFlatDbStrategy archiveFlatDbStrategy,
+      final SegmentedKeyValueStorageTransaction transaction,
+      final BlockHeader header,
+      final TrieLog trieLog) {
+    archiveFlatDbStrategy.archiveBlock(transaction, header.getNumber(), trieLog);
+    transaction.put(TRIE_BRANCH_STORAGE, ARCHIVE_BLOCK_HASH_KEY, header.getHash().toArrayUnsafe());
+  }
+
+  private void stop(final String reason) {
+    stopped = true;
+    LOG.warn(
+        "Stopped the archive of the flat database, {}. Historical state is read by rolling back"
+            + " the world state.",
+        reason);
+  }
+}
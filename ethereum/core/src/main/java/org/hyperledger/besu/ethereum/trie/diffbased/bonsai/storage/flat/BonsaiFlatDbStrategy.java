@@ -27,6 +27,9 @@ import org.hyperledger.besu.plugin.services.MetricsSystem;
 import org.hyperledger.besu.plugin.services.storage.SegmentedKeyValueStorage;
 import org.hyperledger.besu.plugin.services.storage.SegmentedKeyValueStorageTransaction;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 import java.util.function.Function;
 import java.util.function.Supplier;
@@ -69,6 +72,116 @@ public abstract class BonsaiFlatDbStrategy extends FlatDbStrategy {
       StorageSlotKey storageSlotKey,
       SegmentedKeyValueStorage storageStorage);
 
+  /**
+   * Retrieves the account data for a batch of account hashes, reading the flat database in a single
+   * batch.
+   *
+   * @param worldStateRootHashSupplier the world state root hash supplier
+   * @param nodeLoader the node loader
+   * @param accountHashes the account hashes
+   * @param storage the storage to read from
+   * @return the account data, in the order of the account hashes
+   */
+  public List<Optional<Bytes>> getFlatAccounts(
+      final Supplier<Optional<Bytes>> worldStateRootHashSupplier,
+      final NodeLoader nodeLoader,
+      final List<Hash> accountHashes,
+      final SegmentedKeyValueStorage storage) {
+    final List<Optional<byte[]>> values =
+        storage.multiGet(
+            Collections.nCopies(accountHashes.size(), ACCOUNT_INFO_STATE),
+            accountHashes.stream().map(Hash::toArrayUnsafe).toList());
+    final List<Optional<Bytes>> accounts = new ArrayList<>(accountHashes.size());
+    for (int i = 0; i < accountHashes.size(); i++) {
+      getAccountCounter.inc();
+      final Optional<Bytes> accountFound = values.get(i).map(Bytes::wrap);
+      if (accountFound.isPresent()) {
+        getAccountFoundInFlatDatabaseCounter.inc();
+        accounts.add(accountFound);
+      } else {
+        accounts.add(
+            getAccountMissingFromFlatDatabase(
+                worldStateRootHashSupplier, nodeLoader, accountHashes.get(i)));
+      }
+    }
+    return accounts;
+  }
+
+  /**
+   * Retrieves the storage values for a batch of storage slot keys of an account, reading the flat
+   * database in a single batch.
+   *
+   * @param worldStateRootHashSupplier the world state root hash supplier
+   * @param storageRootSupplier the storage root supplier of the account
+   * @param nodeLoader the node loader
+   * @param accountHash the account hash
+   * @param storageSlotKeys the storage slot keys
+   * @param storage the storage to read from
+   * @return the storage values, in the order of the storage slot keys
+   */
+  public List<Optional<Bytes>> getFlatStorageValuesByStorageSlotKeys(
+      final Supplier<Optional<Bytes>> worldStateRootHashSupplier,
+      final Supplier<Optional<Hash>> storageRootSupplier,
+      final NodeLoader nodeLoader,
+      final Hash accountHash,
+      final List<StorageSlotKey> storageSlotKeys,
+      final SegmentedKeyValueStorage storage) {
+    final List<Optional<byte[]>> values =
+        storage.multiGet(
+            Collections.nCopies(storageSlotKeys.size(), ACCOUNT_STORAGE_STORAGE),
+            storageSlotKeys.stream()
+                .map(
+                    storageSlotKey ->
+                        Bytes.concatenate(accountHash, storageSlotKey.getSlotHash())
+                            .toArrayUnsafe())
+                .toList());
+    final List<Optional<Bytes>> storageValues = new ArrayList<>(storageSlotKeys.size());
+    for (int i = 0; i < storageSlotKeys.size(); i++) {
+      getStorageValueCounter.inc();
+      final Optional<Bytes> storageFound = values.get(i).map(Bytes::wrap);
+      if (storageFound.isPresent()) {
+        getStorageValueFlatDatabaseCounter.inc();
+        storageValues.add(storageFound);
+      } else {
+        storageValues.add(
+            getStorageValueMissingFromFlatDatabase(
+                worldStateRootHashSupplier,
+                storageRootSupplier,
+                nodeLoader,
+                storageSlotKeys.get(i)));
+      }
+    }
+    return storageValues;
+  }
+
+  /**
+   * Retrieves the account data of an account hash that is not in the flat database.
+   *
+   * @param worldStateRootHashSupplier the world state root hash supplier
+   * @param nodeLoader the node loader
+   * @param accountHash the account hash
+   * @return the account data, or empty if the account does not exist
+   */
+  protected abstract Optional<Bytes> getAccountMissingFromFlatDatabase(
+      Supplier<Optional<Bytes>> worldStateRootHashSupplier,
+      NodeLoader nodeLoader,
+      Hash accountHash);
+
+  /**
+   * Retrieves the storage value of a storage slot key that is not in the flat database.
+   *
+   * @param worldStateRootHashSupplier the world state root hash supplier
+   * @param storageRootSupplier the storage root supplier of the account
+   * @param nodeLoader the node loader
+   * @param storageSlotKey the storage slot key
+   * @return the storage value, or empty if the slot is not set
+   */
+  protected abstract Optional<Bytes> getStorageValueMissingFromFlatDatabase(
+      Supplier<Optional<Bytes>> worldStateRootHashSupplier,
+      Supplier<Optional<Hash>> storageRootSupplier,
+      NodeLoader nodeLoader,
+      StorageSlotKey storageSlotKey);
+
   @Override
   public void putFlatAccount(
       final SegmentedKeyValueStorageTransaction transaction,
@@ -20,6 +20,7 @@ import org.hyperledger.besu.ethereum.trie.diffbased.common.storage.flat.CodeStor
 import org.hyperledger.besu.ethereum.trie.diffbased.common.storage.flat.FlatDbStrategy;
 import org.hyperledger.besu.ethereum.trie.diffbased.common.storage.flat.FlatDbStrategyProvider;
 import org.hyperledger.besu.ethereum.worldstate.DataStorageConfiguration;
+import org.hyperledger.besu.ethereum.worldstate.DiffBasedSubStorageConfiguration;
 import org.hyperledger.besu.ethereum.worldstate.FlatDbMode;
 import org.hyperledger.besu.plugin.services.MetricsSystem;
 import org.hyperledger.besu.plugin.services.storage.SegmentedKeyValueStorage;
@@ -40,12 +41,12 @@ public class BonsaiFlatDbStrategyProvider extends FlatDbStrategyProvider {
   @Override
   protected FlatDbMode getRequestedFlatDbMode(
       final DataStorageConfiguration dataStorageConfiguration) {
-    return dataStorageConfiguration
-            .getDiffBasedSubStorageConfiguration()
-            .getUnstable()
-            .getFullFlatDbEnabled()
-        ? FlatDbMode.FULL
-        : FlatDbMode.PARTIAL;
+    final DiffBasedSubStorageConfiguration.DiffBasedUnstable unstable =
+        dataStorageConfiguration.getDiffBasedSubStorageConfiguration().getUnstable();
+    if (!unstable.getFullFlatDbEnabled()) {
+      return FlatDbMode.PARTIAL;
+    }
+    return unstable.getArchiveEnabled() ? FlatDbMode.ARCHIVE : FlatDbMode.FULL;
   }
 
   @Override
@@ -79,7 +80,9 @@ public class BonsaiFlatDbStrategyProvider extends FlatDbStrategyProvider {
       final FlatDbMode flatDbMode,
       final MetricsSystem metricsSystem,
       final CodeStorageStrategy codeStorageStrategy) {
-    if (flatDbMode == FlatDbMode.FULL) {
+    if (flatDbMode == FlatDbMode.ARCHIVE) {
+      return new BonsaiArchiveFlatDbStrategy(metricsSystem, codeStorageStrategy);
+    } else if (flatDbMode == FlatDbMode.FULL) {
       return new BonsaiFullFlatDbStrategy(metricsSystem, codeStorageStrategy);
     } else {
       return new BonsaiPartialFlatDbStrategy(metricsSystem, codeStorageStrategy);
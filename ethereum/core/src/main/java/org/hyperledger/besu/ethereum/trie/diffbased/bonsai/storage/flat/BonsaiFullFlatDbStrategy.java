@@ -65,10 +65,9 @@ public class BonsaiFullFlatDbStrategy extends BonsaiFlatDbStrategy {
         storage.get(ACCOUNT_INFO_STATE, accountHash.toArrayUnsafe()).map(Bytes::wrap);
     if (accountFound.isPresent()) {
       getAccountFoundInFlatDatabaseCounter.inc();
-    } else {
-      getAccountNotFoundInFlatDatabaseCounter.inc();
+      return accountFound;
     }
-    return accountFound;
+    return getAccountMissingFromFlatDatabase(worldStateRootHashSupplier, nodeLoader, accountHash);
   }
 
   @Override
@@ -88,11 +87,30 @@ public class BonsaiFullFlatDbStrategy extends BonsaiFlatDbStrategy {
             .map(Bytes::wrap);
     if (storageFound.isPresent()) {
       getStorageValueFlatDatabaseCounter.inc();
-    } else {
-      getStorageValueNotFoundInFlatDatabaseCounter.inc();
+      return storageFound;
     }
+    return getStorageValueMissingFromFlatDatabase(
+        worldStateRootHashSupplier, storageRootSupplier, nodeLoader, storageSlotKey);
+  }
+
+  @Override
+  protected Optional<Bytes> getAccountMissingFromFlatDatabase(
+      final Supplier<Optional<Bytes>> worldStateRootHashSupplier,
+      final NodeLoader nodeLoader,
+      final Hash accountHash) {
+    // the flat database holds every account in full mode
+    getAccountNotFoundInFlatDatabaseCounter.inc();
+    return Optional.empty();
+  }
 
-    return storageFound;
+  @Override
+  protected Optional<Bytes> getStorageValueMissingFromFlatDatabase(
+      final Supplier<Optional<Bytes>> worldStateRootHashSupplier,
+      final Supplier<Optional<Hash>> storageRootSupplier,
+      final NodeLoader nodeLoader,
+      final StorageSlotKey storageSlotKey) {
+    getStorageValueNotFoundInFlatDatabaseCounter.inc();
+    return Optional.empty();
   }
 
   @Override
@@ -90,20 +90,8 @@ public class BonsaiPartialFlatDbStrategy extends BonsaiFlatDbStrategy {
     Optional<Bytes> response =
         storage.get(ACCOUNT_INFO_STATE, accountHash.toArrayUnsafe()).map(Bytes::wrap);
     if (response.isEmpty()) {
-      // after a snapsync/fastsync we only have the trie branches.
-      final Optional<Bytes> worldStateRootHash = worldStateRootHashSupplier.get();
-      if (worldStateRootHash.isPresent()) {
-        response =
-            new StoredMerklePatriciaTrie<>(
-                    new StoredNodeFactory<>(nodeLoader, Function.identity(), Function.identity()),
-                    Bytes32.wrap(worldStateRootHash.get()))
-                .get(accountHash);
-        if (response.isEmpty()) {
-          getAccountMissingMerkleTrieCounter.inc();
-        } else {
-          getAccountMerkleTrieCounter.inc();
-        }
-      }
+      response =
+          getAccountMissingFromFlatDatabase(worldStateRootHashSupplier, nodeLoader, accountHash);
     } else {
       getAccountFoundInFlatDatabaseCounter.inc();
     }
@@ -111,6 +99,29 @@ public class BonsaiPartialFlatDbStrategy extends BonsaiFlatDbStrategy {
     return response;
   }
 
+  @Override
+  protected Optional<Bytes> getAccountMissingFromFlatDatabase(
+      final Supplier<Optional<Bytes>> worldStateRootHashSupplier,
+      final NodeLoader nodeLoader,
+      final Hash accountHash) {
+    Optional<Bytes> response = Optional.empty();
+    // after a snapsync/fastsync we only have the trie branches.
+    final Optional<Bytes> worldStateRootHash = worldStateRootHashSupplier.get();
+    if (worldStateRootHash.isPresent()) {
+      response =
+          new StoredMerklePatriciaTrie<>(
+                  new StoredNodeFactory<>(nodeLoader, Function.identity(), Function.identity()),
+                  Bytes32.wrap(worldStateRootHash.get()))
+              .get(accountHash);
+      if (response.isEmpty()) {
+        getAccountMissingMerkleTrieCounter.inc();
+      } else {
+        getAccountMerkleTrieCounter.inc();
+      }
+    }
+    return response;
+  }
+
   @Override
   public Optional<Bytes> getFlatStorageValueByStorageSlotKey(
       final Supplier<Optional<Bytes>> worldStateRootHashSupplier,
@@ -127,21 +138,34 @@ public class BonsaiPartialFlatDbStrategy extends BonsaiFlatDbStrategy {
                 Bytes.concatenate(accountHash, storageSlotKey.getSlotHash()).toArrayUnsafe())
             .map(Bytes::wrap);
     if (response.isEmpty()) {
-      final Optional<Hash> storageRoot = storageRootSupplier.get();
-      final Optional<Bytes> worldStateRootHash = worldStateRootHashSupplier.get();
-      if (storageRoot.isPresent() && worldStateRootHash.isPresent()) {
-        response =
-            new StoredMerklePatriciaTrie<>(
-                    new StoredNodeFactory<>(nodeLoader, Function.identity(), Function.identity()),
-                    storageRoot.get())
-                .get(storageSlotKey.getSlotHash())
-                .map(bytes -> Bytes32.leftPad(RLP.decodeValue(bytes)));
-        if (response.isEmpty()) getStorageValueMissingMerkleTrieCounter.inc();
-        else getStorageValueMerkleTrieCounter.inc();
-      }
+      response =
+          getStorageValueMissingFromFlatDatabase(
+              worldStateRootHashSupplier, storageRootSupplier, nodeLoader, storageSlotKey);
     } else {
       getStorageValueFlatDatabaseCounter.inc();
     }
     return response;
   }
+
+  @Override
+  protected Optional<Bytes> getStorageValueMissingFromFlatDatabase(
+      final Supplier<Optional<Bytes>> worldStateRootHashSupplier,
+      final Supplier<Optional<Hash>> storageRootSupplier,
+      final NodeLoader nodeLoader,
+      final StorageSlotKey storageSlotKey) {
+    Optional<Bytes> response = Optional.empty();
+    final Optional<Hash> storageRoot = storageRootSupplier.get();
+    final Optional<Bytes> worldStateRootHash = worldStateRootHashSupplier.get();
+    if (storageRoot.isPresent() && worldStateRootHash.isPresent()) {
+      response =
+          new StoredMerklePatriciaTrie<>(
+                  new StoredNodeFactory<>(nodeLoader, Function.identity(), Function.identity()),
+                  storageRoot.get())
+              .get(storageSlotKey.getSlotHash())
+              .map(bytes -> Bytes32.leftPad(RLP.decodeValue(bytes)));
+      if (response.isEmpty()) getStorageValueMissingMerkleTrieCounter.inc();
+      else getStorageValueMerkleTrieCounter.inc();
+    }
+    return response;
+  }
 }
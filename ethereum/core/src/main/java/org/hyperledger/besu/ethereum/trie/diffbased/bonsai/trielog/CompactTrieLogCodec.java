@@ -0,0 +1,377 @@
+/*
+ * Copyright contributors to Hyperledger Besu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.trie.diffbased.bonsai.trielog;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import org.hyperledger.besu.datatypes.AccountValue;
+import org.hyperledger.besu.datatypes.Address;
+import org.hyperledger.besu.datatypes.Hash;
+import org.hyperledger.besu.datatypes.StorageSlotKey;
+import org.hyperledger.besu.datatypes.Wei;
+import org.hyperledger.besu.ethereum.trie.common.PmtStateTrieAccountValue;
+import org.hyperledger.besu.ethereum.trie.diffbased.common.DiffBasedValue;
+import org.hyperledger.besu.ethereum.trie.diffbased.common.trielog.TrieLogLayer;
+import org.hyperledger.besu.plugin.services.trielogs.TrieLog;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+import org.apache.tuweni.units.bigints.UInt256;
+
+/**
+ * Writes and reads the trie logs in the compact binary format. A compact trie log starts with its
+ * version byte, which is always lower than the first byte of an RLP list, so that both formats are
+ * told apart when reading.
+ *
+ * <p>The version {@link #COMPACT_VERSION} is followed by the block hash and the number of changed
+ * addresses as a variable length integer, then for each address, in increasing order: the address,
+ * a byte telling which of the account, code and storage changes follow, and these changes. A change
+ * starts with a byte telling whether the prior and updated values are present and whether the last
+ * step cleared the value. The numbers are written as variable length integers, the balances and
+ * storage values as their bytes without the leading zeros, prefixed by their length. The storage
+ * root and code hash of an account are replaced by a tag when they are the empty ones or when the
+ * updated value keeps the prior one.
+ *
+ * <p>The version {@link #COMPACT_DEFLATED_VERSION} is followed by the length of the compact trie
+ * log without its version byte, then by this trie log deflated with {@link #DEFLATE_DICTIONARY}.
+ * The dictionary belongs to the version and must never change.
+ */
+final class CompactTrieLogCodec {
+
+  static final byte COMPACT_VERSION = 0x01;
+  static final byte COMPACT_DEFLATED_VERSION = 0x02;
+
+  // the values that come back in most of the trie logs, the most frequent last
+  private static final byte[] DEFLATE_DICTIONARY =
+      Bytes.concatenate(
+              Bytes.fromHexString("0x7c0100000000000000000000000000000000000000000000000000000000"),
+              Bytes.fromHexString("0x63ffffffff16806306fdde03146100"),
+              Bytes.fromHexString("0x600080fd5b6000806000"),
+              Bytes.fromHexString("0x60806040526004361061"),
+              Bytes.fromHexString("0x6080604052348015600f57600080fd5b50"),
+              Hash.EMPTY,
+              Hash.EMPTY_TRIE_HASH)
+          .toArrayUnsafe();
+
+  private static final int ACCOUNT_CHANGE = 0x01;
+  private static final int CODE_CHANGE = 0x02;
+  private static final int STORAGE_CHANGES = 0x04;
+
+  private static final int PRIOR = 0x01;
+  private static final int UPDATED = 0x02;
+  private static final int CLEARED = 0x04;
+
+  private static final int EMPTY_HASH = 0;
+  private static final int PRIOR_HASH = 1;
+  private static final int EXPLICIT_HASH = 2;
+
+  private CompactTrieLogCodec() {}
+
+  static boolean isCompact(final byte[] bytes) {
+    return bytes.length > 0
+        && (bytes[0] == COMPACT_VERSION || bytes[0] == COMPACT_DEFLATED_VERSION);
+  }
+
+  static byte[] encode(final TrieLog layer, final boolean deflate) {
+    layer.freeze();
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    out.write(COMPACT_VERSION);
+    writeLayer(layer, out);
+    final byte[] compact = out.toByteArray();
+    if (deflate) {
+      final byte[] deflated = deflate(compact);
+      // the small trie logs are mostly random hashes, they are kept as they are
+      if (deflated.length < compact.length) {
+        return deflated;
+      }
+    }
+    return compact;
+  }
+
+  static TrieLogLayer decode(final byte[] bytes) {
+    checkArgument(isCompact(bytes), "Not a compact trie log");
+    try {
+      final ByteBuffer in =
+          bytes[0] == COMPACT_DEFLATED_VERSION
+              ? ByteBuffer.wrap(inflate(bytes))
+              : ByteBuffer.wrap(bytes, 1, bytes.length - 1);
+      final TrieLogLayer layer = readLayer(in);
+      checkArgument(!in.hasRemaining(), "Unexpected bytes after the compact trie log");
+      return layer;
+    } catch (final BufferUnderflowException e) {
+      throw new IllegalArgumentException("Truncated compact trie log", e);
+    }
+  }
+
+  private static void writeLayer(final TrieLog layer, final ByteArrayOutputStream out) {
+    final Set<Address> addresses = new TreeSet<>();
+    addresses.addAll(layer.getAccountChanges().keySet());
+    addresses.addAll(layer.getCodeChanges().keySet());
+    addresses.addAll(layer.getStorageChanges().keySet());
+
+    out.writeBytes(layer.getBlockHash().toArrayUnsafe());
+    writeVarLong(addresses.size(), out);
+    for (final Address address : addresses) {
+      final TrieLog.LogTuple<AccountValue> accountChange = layer.getAccountChanges().get(address);
+      final TrieLog.LogTuple<Bytes> codeChange = layer.getCodeChanges().get(address);
+      final Map<StorageSlotKey, TrieLog.LogTuple<UInt256>> storageChanges =
+          layer.getStorageChanges().get(address);
+      final boolean hasAccountChange = accountChange != null && !accountChange.isUnchanged();
+      final boolean hasCodeChange = codeChange != null && !codeChange.isUnchanged();
+
+      out.writeBytes(address.toArrayUnsafe());
+      out.write(
+          (hasAccountChange ? ACCOUNT_CHANGE : 0)
+              | (hasCodeChange ? CODE_CHANGE : 0)
+              | (storageChanges != null ? STORAGE_CHANGES : 0));
+      if (hasAccountChange) {
+        writeTuple(accountChange, out, (o, account) -> writeAccount(account, null, o));
+        if (accountChange.getUpdated() != null) {
+          writeAccount(accountChange.getUpdated(), accountChange.getPrior(), out);
+        }
+      }
+      if (hasCodeChange) {
+        writeTuple(codeChange, out, CompactTrieLogCodec::writeBytes);
+        if (codeChange.getUpdated() != null) {
+          writeBytes(out, codeChange.getUpdated());
+        }
+      }
+      if (storageChanges != null) {
+        writeVarLong(storageChanges.size(), out);
+        for (final Map.Entry<StorageSlotKey, TrieLog.LogTuple<UInt256>> storageChange :
+            storageChanges.entrySet()) {
+          // the slot key is not written, as in the RLP trie logs
+          out.writeBytes(storageChange.getKey().getSlotHash().toArrayUnsafe());
+          final TrieLog.LogTuple<UInt256> value = storageChange.getValue();
+          writeTuple(value, out, (o, slotValue) -> writeBytes(o, slotValue.trimLeadingZeros()));
+          if (value.getUpdated() != null) {
+            writeBytes(out, value.getUpdated().trimLeadingZeros());
+          }
+        }
+      }
+    }
+  }
+
+  /** Writes the flags of the tuple and its prior value, the updated value is left to the caller. */
+  private static <T> void writeTuple(
+      final TrieLog.LogTuple<T> tuple,
+      final ByteArrayOutputStream out,
+      final BiConsumer<ByteArrayOutputStream, T> priorWriter) {
+    out.write(
+        (tuple.getPrior() != null ? PRIOR : 0)
+            | (tuple.getUpdated() != null ? UPDATED : 0)
+            | (tuple.isLastStepCleared() ? CLEARED : 0));
+    if (tuple.getPrior() != null) {
+      priorWriter.accept(out, tuple.getPrior());
+    }
+  }
+
+  private static void writeAccount(
+      final AccountValue account, final AccountValue prior, final ByteArrayOutputStream out) {
+    writeVarLong(account.getNonce(), out);
+    writeBytes(out, account.getBalance().trimLeadingZeros());
+    writeHash(
+        account.getStorageRoot(),
+        prior == null ? null : prior.getStorageRoot(),
+        Hash.EMPTY_TRIE_HASH,
+        out);
+    writeHash(account.getCodeHash(), prior == null ? null : prior.getCodeHash(), Hash.EMPTY, out);
+  }
+
+  private static void writeHash(
+      final Hash hash, final Hash prior, final Hash empty, final ByteArrayOutputStream out) {
+    if (hash.equals(empty)) {
+      out.write(EMPTY_HASH);
+    } else if (hash.equals(prior)) {
+      out.write(PRIOR_HASH);
+    } else {
+      out.write(EXPLICIT_HASH);
+      out.writeBytes(hash.toArrayUnsafe());
+    }
+  }
+
+  private static void writeBytes(final ByteArrayOutputStream out, final Bytes bytes) {
+    writeVarLong(bytes.size(), out);
+    out.writeBytes(bytes.toArrayUnsafe());
+  }
+
+  private static void writeVarLong(final long value, final ByteArrayOutputStream out) {
+    long remaining = value;
+    while ((remaining & ~0x7FL) != 0) {
+      out.write((int) ((remaining & 0x7F) | 0x80));
+      remaining >>>= 7;
+    }
+    out.write((int) remaining);
+  }
+
+  private static TrieLogLayer readLayer(final ByteBuffer in) {
+    final TrieLogLayer newLayer = new TrieLogLayer();
+    newLayer.setBlockHash(Hash.wrap(readBytes32(in)));
+
+    final long addressCount = readVarLong(in);
+    for (long i = 0; i < addressCount; i++) {
+      final Address address = Address.wrap(readFixedBytes(in, Address.SIZE));
+      final int changes = in.get();
+
+      if ((changes & ACCOUNT_CHANGE) != 0) {
+        final int flags = in.get();
+        final PmtStateTrieAccountValue prior = (flags & PRIOR) != 0 ? readAccount(in, null) : null;
+        final PmtStateTrieAccountValue updated =
+            (flags & UPDATED) != 0 ? readAccount(in, prior) : null;
+        newLayer
+            .getAccountChanges()
+            .put(address, new DiffBasedValue<>(prior, updated, (flags & CLEARED) != 0));
+      }
+
+      if ((changes & CODE_CHANGE) != 0) {
+        newLayer.getCodeChanges().put(address, readTuple(in, CompactTrieLogCodec::readBytes));
+      }
+
+      if ((changes & STORAGE_CHANGES) != 0) {
+        final Map<StorageSlotKey, DiffBasedValue<UInt256>> storageChanges = new TreeMap<>();
+        final long slotCount = readVarLong(in);
+        for (long j = 0; j < slotCount; j++) {
+          final Hash slotHash = Hash.wrap(readBytes32(in));
+          storageChanges.put(
+              new StorageSlotKey(slotHash, Optional.empty()),
+              readTuple(in, input -> UInt256.fromBytes(readBytes(input))));
+        }
+        newLayer.getStorageChanges().put(address, storageChanges);
+      }
+    }
+    newLayer.freeze();
+    return newLayer;
+  }
+
+  private static <T> DiffBasedValue<T> readTuple(
+      final ByteBuffer in, final Function<ByteBuffer, T> reader) {
+    final int flags = in.get();
+    final T prior = (flags & PRIOR) != 0 ? reader.apply(in) : null;
+    final T updated = (flags & UPDATED) != 0 ? reader.apply(in) : null;
+    return new DiffBasedValue<>(prior, updated, (flags & CLEARED) != 0);
+  }
+
+  private static PmtStateTrieAccountValue readAccount(
+      final ByteBuffer in, final PmtStateTrieAccountValue prior) {
+    final long nonce = readVarLong(in);
+    final Wei balance = Wei.of(UInt256.fromBytes(readBytes(in)));
+    final Hash storageRoot =
+        readHash(in, prior == null ? null : prior.getStorageRoot(), Hash.EMPTY_TRIE_HASH);
+    final Hash codeHash = readHash(in, prior == null ? null : prior.getCodeHash(), Hash.EMPTY);
+    return new PmtStateTrieAccountValue(nonce, balance, storageRoot, codeHash);
+  }
+
+  private static Hash readHash(final ByteBuffer in, final Hash prior, final Hash empty) {
+    final int tag = in.get();
+    return switch (tag) {
+      case EMPTY_HASH -> empty;
+      case PRIOR_HASH -> {
+        checkArgument(prior != null, "Compact trie log refers to a missing prior hash");
+        yield prior;
+      }
+      case EXPLICIT_HASH -> Hash.wrap(readBytes32(in));
+      default -> throw new IllegalArgumentException("Unknown compact trie log hash tag " + tag);
+    };
+  }
+
+  private static Bytes readBytes(final ByteBuffer in) {
+    final long length = readVarLong(in);
+    checkArgument(length <= in.remaining(), "Truncated compact trie log");
+    return readFixedBytes(in, (int) length);
+  }
+
+  private static Bytes32 readBytes32(final ByteBuffer in) {
+    return Bytes32.wrap(readFixedBytes(in, 32));
+  }
+
+  private static Bytes readFixedBytes(final ByteBuffer in, final int length) {
+    final byte[] bytes = new byte[length];
+    in.get(bytes);
+    return Bytes.wrap(bytes);
+  }
+
+  private static long readVarLong(final ByteBuffer in) {
+    long value = 0;
+    for (int shift = 0; shift < Long.SIZE; shift += 7) {
+      final byte b = in.get();
+      value |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IllegalArgumentException("Malformed variable length integer in compact trie log");
+  }
+
+  private static byte[] deflate(final byte[] compact) {
+    final Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION, true);
+    try {
+      deflater.setDictionary(DEFLATE_DICTIONARY);
+      // the version byte is replaced by the deflated one
+      deflater.setInput(compact, 1, compact.length - 1);
+      deflater.finish();
+      final ByteArrayOutputStream out = new ByteArrayOutputStream(compact.length);
+      out.write(COMPACT_DEFLATED_VERSION);
+      writeVarLong(compact.length - 1, out);
+      final byte[] buffer = new byte[4096];
+      while (!deflater.finished()) {
+        out.write(buffer, 0, deflater.deflate(buffer));
+      }
+      return out.toByteArray();
+    } finally {
+      deflater.end();
+    }
+  }
+
+  private static byte[] inflate(final byte[] bytes) {
+    final ByteBuffer in = ByteBuffer.wrap(bytes, 1, bytes.length - 1);
+    final long length = readVarLong(in);
+    checkArgument(length <= Integer.MAX_VALUE, "Compact trie log too large");
+    final Inflater inflater = new Inflater(true);
+    try {
+      inflater.setDictionary(DEFLATE_DICTIONARY);
+      inflater.setInput(bytes, in.position(), in.remaining());
+      final byte[] inflated = new byte[(int) length];
+      int inflatedLength = 0;
+      while (inflatedLength < inflated.length && !inflater.finished()) {
+        final int count =
+            inflater.inflate(inflated, inflatedLength, inflated.length - inflatedLength);
+        if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+          break;
+        }
+        inflatedLength += count;
+      }
+      checkArgument(inflatedLength == inflated.length, "Truncated deflated trie log");
+      return inflated;
+    } catch (final DataFormatException e) {
+      throw new IllegalArgumentException("Malformed deflated trie log", e);
+    } finally {
+      inflater.end();
+    }
+  }
+}
@@ -25,6 +25,7 @@ import org.hyperledger.besu.ethereum.rlp.RLPOutput;
 import org.hyperledger.besu.ethereum.trie.common.PmtStateTrieAccountValue;
 import org.hyperledger.besu.ethereum.trie.diffbased.common.DiffBasedValue;
 import org.hyperledger.besu.ethereum.trie.diffbased.common.trielog.TrieLogLayer;
+import org.hyperledger.besu.ethereum.worldstate.TrieLogEncoding;
 import org.hyperledger.besu.plugin.data.BlockHeader;
 import org.hyperledger.besu.plugin.services.trielogs.TrieLog;
 import org.hyperledger.besu.plugin.services.trielogs.TrieLogAccumulator;
@@ -43,6 +44,22 @@ import org.apache.tuweni.units.bigints.UInt256;
 
 public class TrieLogFactoryImpl implements TrieLogFactory {
 
+  private final TrieLogEncoding encoding;
+
+  public TrieLogFactoryImpl() {
+    this(TrieLogEncoding.RLP);
+  }
+
+  /**
+   * Creates a factory writing the trie logs with the given encoding. The trie logs of all the
+   * encodings are read.
+   *
+   * @param encoding the encoding of the serialized trie logs
+   */
+  public TrieLogFactoryImpl(final TrieLogEncoding encoding) {
+    this.encoding = encoding;
+  }
+
   @Override
   public TrieLogLayer create(final TrieLogAccumulator accumulator, final BlockHeader blockHeader) {
     TrieLogLayer layer = new TrieLogLayer();
@@ -85,6 +102,14 @@ public class TrieLogFactoryImpl implements TrieLogFactory {
 
   @Override
   public byte[] serialize(final TrieLog layer) {
+    return switch (encoding) {
+      case RLP -> serializeRlp(layer);
+      case COMPACT -> CompactTrieLogCodec.encode(layer, false);
+      case COMPACT_COMPRESSED -> CompactTrieLogCodec.encode(layer, true);
+    };
+  }
+
+  private static byte[] serializeRlp(final TrieLog layer) {
     final BytesValueRLPOutput rlpLog = new BytesValueRLPOutput();
     writeTo(layer, rlpLog);
     return rlpLog.encoded().toArrayUnsafe();
@@ -143,9 +168,23 @@ public class TrieLogFactoryImpl implements TrieLogFactory {
 
   @Override
   public TrieLogLayer deserialize(final byte[] bytes) {
+    // the compact trie logs start with a version byte, never with an RLP list
+    if (isCompact(bytes)) {
+      return CompactTrieLogCodec.decode(bytes);
+    }
     return readFrom(new BytesValueRLPInput(Bytes.wrap(bytes), false));
   }
 
+  /**
+   * Whether the serialized trie log is in the compact format rather than an RLP list.
+   *
+   * @param bytes the serialized trie log
+   * @return true if the trie log is in the compact format
+   */
+  public static boolean isCompact(final byte[] bytes) {
+    return CompactTrieLogCodec.isCompact(bytes);
+  }
+
   public static TrieLogLayer readFrom(final RLPInput input) {
     final TrieLogLayer newLayer = new TrieLogLayer();
 
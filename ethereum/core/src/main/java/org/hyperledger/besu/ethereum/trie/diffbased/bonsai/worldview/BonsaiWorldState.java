@@ -28,6 +28,7 @@ import org.hyperledger.besu.ethereum.trie.NodeLoader;
 import org.hyperledger.besu.ethereum.trie.diffbased.bonsai.BonsaiAccount;
 import org.hyperledger.besu.ethereum.trie.diffbased.bonsai.BonsaiWorldStateProvider;
 import org.hyperledger.besu.ethereum.trie.diffbased.bonsai.cache.BonsaiCachedMerkleTrieLoader;
+import org.hyperledger.besu.ethereum.trie.diffbased.bonsai.cache.BonsaiStoragePrefetcher;
 import org.hyperledger.besu.ethereum.trie.diffbased.bonsai.storage.BonsaiWorldStateKeyValueStorage;
 import org.hyperledger.besu.ethereum.trie.diffbased.bonsai.storage.BonsaiWorldStateLayerStorage;
 import org.hyperledger.besu.ethereum.trie.diffbased.common.DiffBasedValue;
@@ -38,15 +39,19 @@ import org.hyperledger.besu.ethereum.trie.diffbased.common.worldview.DiffBasedWo
 import org.hyperledger.besu.ethereum.trie.diffbased.common.worldview.DiffBasedWorldStateConfig;
 import org.hyperledger.besu.ethereum.trie.diffbased.common.worldview.accumulator.DiffBasedWorldStateUpdateAccumulator;
 import org.hyperledger.besu.ethereum.trie.diffbased.common.worldview.accumulator.preload.StorageConsumingMap;
+import org.hyperledger.besu.ethereum.trie.patricia.ParallelStoredMerklePatriciaTrie;
 import org.hyperledger.besu.ethereum.trie.patricia.StoredMerklePatriciaTrie;
 import org.hyperledger.besu.evm.account.Account;
 import org.hyperledger.besu.evm.internal.EvmConfiguration;
 import org.hyperledger.besu.plugin.services.storage.SegmentIdentifier;
 import org.hyperledger.besu.plugin.services.storage.SegmentedKeyValueStorageTransaction;
 
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Stream;
@@ -61,6 +66,7 @@ import org.apache.tuweni.units.bigints.UInt256;
 public class BonsaiWorldState extends DiffBasedWorldState {
 
   protected final BonsaiCachedMerkleTrieLoader bonsaiCachedMerkleTrieLoader;
+  private final Optional<BonsaiStoragePrefetcher> storagePrefetcher;
 
   public BonsaiWorldState(
       final BonsaiWorldStateProvider archive,
@@ -73,7 +79,8 @@ public class BonsaiWorldState extends DiffBasedWorldState {
         archive.getCachedWorldStorageManager(),
         archive.getTrieLogManager(),
         evmConfiguration,
-        diffBasedWorldStateConfig);
+        diffBasedWorldStateConfig,
+        archive.getStoragePrefetcher());
   }
 
   public BonsaiWorldState(
@@ -95,12 +102,31 @@ public class BonsaiWorldState extends DiffBasedWorldState {
       final TrieLogManager trieLogManager,
       final EvmConfiguration evmConfiguration,
       final DiffBasedWorldStateConfig diffBasedWorldStateConfig) {
+    this(
+        worldStateKeyValueStorage,
+        bonsaiCachedMerkleTrieLoader,
+        cachedWorldStorageManager,
+        trieLogManager,
+        evmConfiguration,
+        diffBasedWorldStateConfig,
+        Optional.empty());
+  }
+
+  private BonsaiWorldState(
+      final BonsaiWorldStateKeyValueStorage worldStateKeyValueStorage,
+      final BonsaiCachedMerkleTrieLoader bonsaiCachedMerkleTrieLoader,
+      final DiffBasedCachedWorldStorageManager cachedWorldStorageManager,
+      final TrieLogManager trieLogManager,
+      final EvmConfiguration evmConfiguration,
+      final DiffBasedWorldStateConfig diffBasedWorldStateConfig,
+      final Optional<BonsaiStoragePrefetcher> storagePrefetcher) {
     super(
         worldStateKeyValueStorage,
         cachedWorldStorageManager,
         trieLogManager,
         diffBasedWorldStateConfig);
     this.bonsaiCachedMerkleTrieLoader = bonsaiCachedMerkleTrieLoader;
+    this.storagePrefetcher = storagePrefetcher;
     this.worldStateKeyValueStorage = worldStateKeyValueStorage;
     this.setAccumulator(
         new BonsaiWorldStateUpdateAccumulator(
@@ -124,6 +150,14 @@ public class BonsaiWorldState extends DiffBasedWorldState {
     return (BonsaiWorldStateKeyValueStorage) worldStateKeyValueStorage;
   }
 
+  public BonsaiCachedMerkleTrieLoader getCachedMerkleTrieLoader() {
+    return bonsaiCachedMerkleTrieLoader;
+  }
+
+  public Optional<BonsaiStoragePrefetcher> getStoragePrefetcher() {
+    return storagePrefetcher;
+  }
+
   @Override
   protected Hash calculateRootHash(
       final Optional<DiffBasedWorldStateKeyValueStorage.Updater> maybeStateUpdater,
@@ -157,7 +191,7 @@ public class BonsaiWorldState extends DiffBasedWorldState {
 
     // next walk the account trie
     final MerkleTrie<Bytes, Bytes> accountTrie =
-        createTrie(
+        createAccountTrie(
             (location, hash) ->
                 bonsaiCachedMerkleTrieLoader.getAccountStateTrieNode(
                     getWorldStateStorage(), location, hash),
@@ -185,31 +219,53 @@ public class BonsaiWorldState extends DiffBasedWorldState {
       final Optional<BonsaiWorldStateKeyValueStorage.Updater> maybeStateUpdater,
       final BonsaiWorldStateUpdateAccumulator worldStateUpdater,
       final MerkleTrie<Bytes, Bytes> accountTrie) {
+    final Map<Bytes, Optional<Bytes>> trieUpdates = new LinkedHashMap<>();
+    final Map<Bytes, Address> addressByHash = new HashMap<>();
     for (final Map.Entry<Address, DiffBasedValue<BonsaiAccount>> accountUpdate :
         worldStateUpdater.getAccountsToUpdate().entrySet()) {
       final Bytes accountKey = accountUpdate.getKey();
       final DiffBasedValue<BonsaiAccount> bonsaiValue = accountUpdate.getValue();
       final BonsaiAccount updatedAccount = bonsaiValue.getUpdated();
-      try {
-        if (updatedAccount == null) {
-          final Hash addressHash = hashAndSavePreImage(accountKey);
-          accountTrie.remove(addressHash);
-          maybeStateUpdater.ifPresent(
-              bonsaiUpdater -> bonsaiUpdater.removeAccountInfoState(addressHash));
-        } else {
-          final Hash addressHash = updatedAccount.getAddressHash();
-          final Bytes accountValue = updatedAccount.serializeAccount();
-          maybeStateUpdater.ifPresent(
-              bonsaiUpdater ->
-                  bonsaiUpdater.putAccountInfoState(hashAndSavePreImage(accountKey), accountValue));
-          accountTrie.put(addressHash, accountValue);
-        }
-      } catch (MerkleTrieException e) {
-        // need to throw to trigger the heal
-        throw new MerkleTrieException(
-            e.getMessage(), Optional.of(Address.wrap(accountKey)), e.getHash(), e.getLocation());
+      if (updatedAccount == null) {
+        final Hash addressHash = hashAndSavePreImage(accountKey);
+        trieUpdates.put(addressHash, Optional.empty());
+        addressByHash.put(addressHash, accountUpdate.getKey());
+        maybeStateUpdater.ifPresent(
+            bonsaiUpdater -> bonsaiUpdater.removeAccountInfoState(addressHash));
+      } else {
+        final Hash addressHash = updatedAccount.getAddressHash();
+        final Bytes accountValue = updatedAccount.serializeAccount();
+        maybeStateUpdater.ifPresent(
+            bonsaiUpdater ->
+                bonsaiUpdater.putAccountInfoState(hashAndSavePreImage(accountKey), accountValue));
+        trieUpdates.put(addressHash, Optional.of(accountValue));
+        addressByHash.put(addressHash, accountUpdate.getKey());
       }
     }
+
+    // the sub tries of the root are updated in parallel, see ParallelStoredMerklePatriciaTrie
+    final BiFunction<Bytes, MerkleTrieException, MerkleTrieException> onFailure =
+        (addressHash, e) ->
+            // need to throw to trigger the heal
+            new MerkleTrieException(
+                e.getMessage(),
+                Optional.of(addressByHash.get(addressHash)),
+                e.getHash(),
+                e.getLocation());
+    if (accountTrie instanceof ParallelStoredMerklePatriciaTrie<Bytes, Bytes> parallelTrie) {
+      parallelTrie.updateAll(trieUpdates, onFailure);
+    } else {
+      trieUpdates.forEach(
+          (addressHash, accountValue) -> {
+            try {
+              accountValue.ifPresentOrElse(
+                  value -> accountTrie.put(addressHash, value),
+                  () -> accountTrie.remove(addressHash));
+            } catch (MerkleTrieException e) {
+              throw onFailure.apply(addressHash, e);
+            }
+          });
+    }
   }
 
   @VisibleForTesting
@@ -463,6 +519,16 @@ public class BonsaiWorldState extends DiffBasedWorldState {
     }
   }
 
+  private MerkleTrie<Bytes, Bytes> createAccountTrie(
+      final NodeLoader nodeLoader, final Bytes32 rootHash) {
+    if (worldStateConfig.isTrieDisabled()) {
+      return new NoOpMerkleTrie<>();
+    } else {
+      return new ParallelStoredMerklePatriciaTrie<>(
+          nodeLoader, rootHash, Function.identity(), Function.identity());
+    }
+  }
+
   protected Hash hashAndSavePreImage(final Bytes value) {
     // by default do not save has preImages
     return Hash.hash(value);
@@ -22,6 +22,7 @@ import org.hyperledger.besu.ethereum.core.MutableWorldState;
 import org.hyperledger.besu.ethereum.proof.WorldStateProof;
 import org.hyperledger.besu.ethereum.proof.WorldStateProofProvider;
 import org.hyperledger.besu.ethereum.trie.MerkleTrieException;
+import org.hyperledger.besu.ethereum.trie.diffbased.bonsai.trielog.TrieLogFactoryImpl;
 import org.hyperledger.besu.ethereum.trie.diffbased.common.cache.DiffBasedCachedWorldStorageManager;
 import org.hyperledger.besu.ethereum.trie.diffbased.common.storage.DiffBasedWorldStateKeyValueStorage;
 import org.hyperledger.besu.ethereum.trie.diffbased.common.trielog.TrieLogManager;
@@ -33,6 +34,7 @@ import org.hyperledger.besu.ethereum.worldstate.WorldStateStorageCoordinator;
 import org.hyperledger.besu.evm.worldstate.WorldState;
 import org.hyperledger.besu.plugin.ServiceManager;
 import org.hyperledger.besu.plugin.services.trielogs.TrieLog;
+import org.hyperledger.besu.plugin.services.trielogs.TrieLogFactory;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -62,6 +64,20 @@ public abstract class DiffBasedWorldStateProvider implements WorldStateArchive {
       final Blockchain blockchain,
       final Optional<Long> maxLayersToLoad,
       final ServiceManager pluginContext) {
+    this(
+        worldStateKeyValueStorage,
+        blockchain,
+        maxLayersToLoad,
+        pluginContext,
+        new TrieLogFactoryImpl());
+  }
+
+  public DiffBasedWorldStateProvider(
+      final DiffBasedWorldStateKeyValueStorage worldStateKeyValueStorage,
+      final Blockchain blockchain,
+      final Optional<Long> maxLayersToLoad,
+      final ServiceManager pluginContext,
+      final TrieLogFactory defaultTrieLogFactory) {
 
     this.worldStateKeyValueStorage = worldStateKeyValueStorage;
     // TODO: de-dup constructors
@@ -70,7 +86,8 @@ public abstract class DiffBasedWorldStateProvider implements WorldStateArchive {
             blockchain,
             worldStateKeyValueStorage,
             maxLayersToLoad.orElse(DiffBasedCachedWorldStorageManager.RETAINED_LAYERS),
-            pluginContext);
+            pluginContext,
+            defaultTrieLogFactory);
     this.blockchain = blockchain;
     this.defaultWorldStateConfig = new DiffBasedWorldStateConfig();
   }
@@ -147,6 +164,24 @@ public abstract class DiffBasedWorldStateProvider implements WorldStateArchive {
     }
   }
 
+  @Override
+  public Optional<MutableWorldState> getMutableForQuery(final BlockHeader blockHeader) {
+    // the archive only keeps the accounts and storage of the past blocks, not their trie nodes
+    return getArchivedWorldState(blockHeader).or(() -> getMutable(blockHeader, false));
+  }
+
+  /**
+   * Returns the world state of a past block without rolling back the persisted state, when the
+   * storage keeps an archive of the flat database. Its state root is the one of the head, so it is
+   * only used to serve queries. Not supported by default.
+   *
+   * @param blockHeader the header of the block
+   * @return the frozen world state of the block, or empty if it is not archived
+   */
+  protected Optional<MutableWorldState> getArchivedWorldState(final BlockHeader blockHeader) {
+    return Optional.empty();
+  }
+
   @Override
   public synchronized Optional<MutableWorldState> getMutable(
       final Hash rootHash, final Hash blockHash) {
@@ -173,17 +208,36 @@ public abstract class DiffBasedWorldStateProvider implements WorldStateArchive {
           // roll back from persisted to even with target
           Hash persistedBlockHash = persistedHeader.getBlockHash();
           while (persistedHeader.getNumber() > targetHeader.getNumber()) {
-            LOG.debug("Rollback {}", persistedBlockHash);
-            rollBacks.add(trieLogManager.getTrieLogLayer(persistedBlockHash).get());
-            persistedHeader = blockchain.getBlockHeader(persistedHeader.getParentHash()).get();
+            // a range rolls back several canonical blocks at once
+            final Optional<TrieLogManager.TrieLogRange> range =
+                trieLogManager.getTrieLogRange(persistedHeader, targetHeader.getNumber());
+            if (range.isPresent()) {
+              LOG.debug("Rollback {} blocks from {}", range.get().size(), persistedBlockHash);
+              rollBacks.add(range.get().trieLog());
+              persistedHeader =
+                  blockchain.getBlockHeader(persistedHeader.getNumber() - range.get().size()).get();
+            } else {
+              LOG.debug("Rollback {}", persistedBlockHash);
+              rollBacks.add(trieLogManager.getTrieLogLayer(persistedBlockHash).get());
+              persistedHeader = blockchain.getBlockHeader(persistedHeader.getParentHash()).get();
+            }
             persistedBlockHash = persistedHeader.getBlockHash();
           }
           // roll forward to target
           Hash targetBlockHash = targetHeader.getBlockHash();
           while (persistedHeader.getNumber() < targetHeader.getNumber()) {
-            LOG.debug("Rollforward {}", targetBlockHash);
-            rollForwards.add(trieLogManager.getTrieLogLayer(targetBlockHash).get());
-            targetHeader = blockchain.getBlockHeader(targetHeader.getParentHash()).get();
+            final Optional<TrieLogManager.TrieLogRange> range =
+                trieLogManager.getTrieLogRange(targetHeader, persistedHeader.getNumber());
+            if (range.isPresent()) {
+              LOG.debug("Rollforward {} blocks to {}", range.get().size(), targetBlockHash);
+              rollForwards.add(range.get().trieLog());
+              targetHeader =
+                  blockchain.getBlockHeader(targetHeader.getNumber() - range.get().size()).get();
+            } else {
+              LOG.debug("Rollforward {}", targetBlockHash);
+              rollForwards.add(trieLogManager.getTrieLogLayer(targetBlockHash).get());
+              targetHeader = blockchain.getBlockHeader(targetHeader.getParentHash()).get();
+            }
             targetBlockHash = targetHeader.getBlockHash();
           }
 
@@ -294,9 +348,7 @@ public abstract class DiffBasedWorldStateProvider implements WorldStateArchive {
     try (DiffBasedWorldState ws =
         (DiffBasedWorldState) getMutable(blockHeader, false).orElse(null)) {
       if (ws != null) {
-        final WorldStateProofProvider worldStateProofProvider =
-            new WorldStateProofProvider(
-                new WorldStateStorageCoordinator(ws.getWorldStateStorage()));
+        final WorldStateProofProvider worldStateProofProvider = createProofProvider(ws);
         return mapper.apply(
             worldStateProofProvider.getAccountProof(
                 ws.getWorldStateRootHash(), accountAddress, accountStorageKeys));
@@ -307,6 +359,17 @@ public abstract class DiffBasedWorldStateProvider implements WorldStateArchive {
     return Optional.empty();
   }
 
+  /**
+   * Creates the provider of the proofs of a world state.
+   *
+   * @param worldState the world state to prove
+   * @return the proof provider
+   */
+  protected WorldStateProofProvider createProofProvider(final DiffBasedWorldState worldState) {
+    return new WorldStateProofProvider(
+        new WorldStateStorageCoordinator(worldState.getWorldStateStorage()));
+  }
+
   @Override
   public Optional<Bytes> getNodeData(final Hash hash) {
     return Optional.empty();
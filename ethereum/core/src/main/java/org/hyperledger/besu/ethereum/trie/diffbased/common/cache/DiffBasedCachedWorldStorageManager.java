@@ -33,6 +33,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
@@ -42,8 +43,18 @@ import org.apache.tuweni.bytes.Bytes32;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Caches the world states of the recent blocks for the RPC reads and the block building. The world
+ * states of the persisted blocks are backed by a snapshot of the database, and the one of the head
+ * is published after each block commit so that the readers of the latest state share its snapshot
+ * without taking the cache lock. Each reader holds a layer subscribed to the snapshot, which is
+ * only released once the last layer is closed.
+ */
 public abstract class DiffBasedCachedWorldStorageManager implements StorageSubscriber {
   public static final long RETAINED_LAYERS = 512; // at least 256 + typical rollbacks
+  // each snapshot pins the database files of its block, older blocks are rolled back from a newer
+  // snapshot instead
+  public static final long RETAINED_SNAPSHOTS = 64;
   private static final Logger LOG =
       LoggerFactory.getLogger(DiffBasedCachedWorldStorageManager.class);
   private final DiffBasedWorldStateProvider archive;
@@ -57,6 +68,7 @@ public abstract class DiffBasedCachedWorldStorageManager implements StorageSubsc
 
   private final DiffBasedWorldStateKeyValueStorage rootWorldStateStorage;
   private final Map<Bytes32, DiffBasedCachedWorldView> cachedWorldStatesByHash;
+  private final AtomicReference<DiffBasedCachedWorldView> headWorldView = new AtomicReference<>();
 
   private DiffBasedCachedWorldStorageManager(
       final DiffBasedWorldStateProvider archive,
@@ -104,6 +116,7 @@ public abstract class DiffBasedCachedWorldStorageManager implements StorageSubsc
             .get()
             .updateWorldStateStorage(
                 createSnapshotKeyValueStorage(forWorldState.getWorldStateStorage()));
+        headWorldView.set(cachedDiffBasedWorldView.get());
       }
     } else {
       LOG.atDebug()
@@ -112,10 +125,12 @@ public abstract class DiffBasedCachedWorldStorageManager implements StorageSubsc
           .addArgument(worldStateRootHash::toShortHexString)
           .log();
       if (forWorldState.isPersisted()) {
-        cachedWorldStatesByHash.put(
-            blockHeader.getHash(),
+        final DiffBasedCachedWorldView persistedWorldView =
             new DiffBasedCachedWorldView(
-                blockHeader, createSnapshotKeyValueStorage(forWorldState.getWorldStateStorage())));
+                blockHeader, createSnapshotKeyValueStorage(forWorldState.getWorldStateStorage()));
+        cachedWorldStatesByHash.put(blockHeader.getHash(), persistedWorldView);
+        // publish the new head, the readers of the previous one keep their snapshot until closed
+        headWorldView.set(persistedWorldView);
       } else {
         // otherwise, add the layer to the cache
         cachedWorldStatesByHash.put(
@@ -132,29 +147,32 @@ public abstract class DiffBasedCachedWorldStorageManager implements StorageSubsc
   }
 
   private synchronized void scrubCachedLayers(final long newMaxHeight) {
-    if (cachedWorldStatesByHash.size() > RETAINED_LAYERS) {
-      final long waterline = newMaxHeight - RETAINED_LAYERS;
-      cachedWorldStatesByHash.values().stream()
-          .filter(layer -> layer.getBlockNumber() < waterline)
-          .toList()
-          .forEach(
-              layer -> {
-                cachedWorldStatesByHash.remove(layer.getBlockHash());
-                layer.close();
-              });
-    }
+    final long waterline = newMaxHeight - RETAINED_LAYERS;
+    final long snapshotWaterline = newMaxHeight - RETAINED_SNAPSHOTS;
+    cachedWorldStatesByHash.values().stream()
+        .filter(
+            layer ->
+                layer.getBlockNumber() < waterline
+                    || (layer.getBlockNumber() < snapshotWaterline
+                        && !(layer.getWorldStateStorage()
+                            instanceof DiffBasedLayeredWorldStateKeyValueStorage)))
+        .toList()
+        .forEach(
+            layer -> {
+              cachedWorldStatesByHash.remove(layer.getBlockHash());
+              layer.close();
+            });
   }
 
   public Optional<DiffBasedWorldState> getWorldState(final Hash blockHash) {
-    if (cachedWorldStatesByHash.containsKey(blockHash)) {
+    final DiffBasedCachedWorldView head = headWorldView.get();
+    final DiffBasedCachedWorldView cached =
+        head != null && head.getBlockHash().equals(blockHash)
+            ? head
+            : cachedWorldStatesByHash.get(blockHash);
+    if (cached != null) {
       // return a new worldstate using worldstate storage and an isolated copy of the updater
-      return Optional.ofNullable(cachedWorldStatesByHash.get(blockHash))
-          .map(
-              cached ->
-                  createWorldState(
-                      archive,
-                      createLayeredKeyValueStorage(cached.getWorldStateStorage()),
-                      evmConfiguration));
+      return createLayeredWorldState(cached);
     }
     LOG.atDebug()
         .setMessage("did not find worldstate in cache for {}")
@@ -172,7 +190,7 @@ public abstract class DiffBasedCachedWorldStorageManager implements StorageSubsc
 
     return Optional.ofNullable(
             cachedWorldStatesByHash.get(blockHeader.getParentHash())) // search parent block
-        .map(DiffBasedCachedWorldView::getWorldStateStorage)
+        .flatMap(this::createLayeredWorldState)
         .or(
             () -> {
               // or else search the nearest state in the cache
@@ -187,13 +205,18 @@ public abstract class DiffBasedCachedWorldStorageManager implements StorageSubsc
                   .sorted(
                       Comparator.comparingLong(
                           view -> Math.abs(blockHeader.getNumber() - view.getBlockNumber())))
-                  .map(DiffBasedCachedWorldView::getWorldStateStorage)
+                  .map(this::createLayeredWorldState)
+                  .flatMap(Optional::stream)
                   .findFirst();
-            })
-        .map(
-            storage ->
-                createWorldState( // wrap the state in a layered worldstate
-                    archive, createLayeredKeyValueStorage(storage), evmConfiguration));
+            });
+  }
+
+  private Optional<DiffBasedWorldState> createLayeredWorldState(
+      final DiffBasedCachedWorldView cached) {
+    // empty if the view was evicted since it was read from the cache
+    return cached
+        .createLayer(this::createLayeredKeyValueStorage)
+        .map(storage -> createWorldState(archive, storage, evmConfiguration));
   }
 
   public Optional<DiffBasedWorldState> getHeadWorldState(
@@ -201,8 +224,16 @@ public abstract class DiffBasedCachedWorldStorageManager implements StorageSubsc
 
     LOG.atDebug().setMessage("getting head worldstate").log();
 
-    return rootWorldStateStorage
-        .getWorldStateBlockHash()
+    final Optional<Hash> headBlockHash = rootWorldStateStorage.getWorldStateBlockHash();
+    final DiffBasedCachedWorldView head = headWorldView.get();
+    if (head != null && headBlockHash.equals(Optional.of(head.getBlockHash()))) {
+      final Optional<DiffBasedWorldState> headWorldState = createLayeredWorldState(head);
+      if (headWorldState.isPresent()) {
+        return headWorldState;
+      }
+    }
+
+    return headBlockHash
         .flatMap(hashBlockHeaderFunction)
         .flatMap(
             blockHeader -> {
@@ -220,7 +251,7 @@ public abstract class DiffBasedCachedWorldStorageManager implements StorageSubsc
   }
 
   public void reset() {
-    this.cachedWorldStatesByHash.clear();
+    clearCachedLayers();
   }
 
   public void primeRootToBlockHashCache(final Blockchain blockchain, final int numEntries) {
@@ -261,26 +292,31 @@ public abstract class DiffBasedCachedWorldStorageManager implements StorageSubsc
 
   @Override
   public void onClearStorage() {
-    this.cachedWorldStatesByHash.clear();
+    clearCachedLayers();
   }
 
   @Override
   public void onClearFlatDatabaseStorage() {
-    this.cachedWorldStatesByHash.clear();
+    clearCachedLayers();
   }
 
   @Override
   public void onClearTrieLog() {
-    this.cachedWorldStatesByHash.clear();
+    clearCachedLayers();
   }
 
   @Override
   public void onClearTrie() {
-    this.cachedWorldStatesByHash.clear();
+    clearCachedLayers();
   }
 
   @Override
   public void onCloseStorage() {
+    clearCachedLayers();
+  }
+
+  private void clearCachedLayers() {
+    headWorldView.set(null);
     this.cachedWorldStatesByHash.clear();
   }
 
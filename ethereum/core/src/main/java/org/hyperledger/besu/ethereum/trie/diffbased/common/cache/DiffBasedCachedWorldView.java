@@ -19,6 +19,9 @@ import org.hyperledger.besu.ethereum.core.BlockHeader;
 import org.hyperledger.besu.ethereum.trie.diffbased.common.StorageSubscriber;
 import org.hyperledger.besu.ethereum.trie.diffbased.common.storage.DiffBasedWorldStateKeyValueStorage;
 
+import java.util.Optional;
+import java.util.function.Function;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -26,6 +29,7 @@ public class DiffBasedCachedWorldView implements StorageSubscriber {
   private DiffBasedWorldStateKeyValueStorage worldStateKeyValueStorage;
   private final BlockHeader blockHeader;
   private long worldViewSubscriberId;
+  private boolean closed = false;
   private static final Logger LOG = LoggerFactory.getLogger(DiffBasedCachedWorldView.class);
 
   public DiffBasedCachedWorldView(
@@ -47,7 +51,24 @@ public class DiffBasedCachedWorldView implements StorageSubscriber {
     return blockHeader.getHash();
   }
 
+  /**
+   * Creates a layer on top of the cached storage. The layer subscribes to the storage, which then
+   * stays open until the layer is closed, even if this view is closed or updated meanwhile.
+   *
+   * @param layerFactory creates the layer from the cached storage
+   * @return the layer, or empty if this view was already closed
+   */
+  public synchronized Optional<DiffBasedWorldStateKeyValueStorage> createLayer(
+      final Function<DiffBasedWorldStateKeyValueStorage, DiffBasedWorldStateKeyValueStorage>
+          layerFactory) {
+    if (closed) {
+      return Optional.empty();
+    }
+    return Optional.of(layerFactory.apply(worldStateKeyValueStorage));
+  }
+
   public synchronized void close() {
+    closed = true;
     worldStateKeyValueStorage.unSubscribe(this.worldViewSubscriberId);
     try {
       worldStateKeyValueStorage.close();
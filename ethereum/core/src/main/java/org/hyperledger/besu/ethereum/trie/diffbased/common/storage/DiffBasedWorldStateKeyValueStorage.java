@@ -24,6 +24,7 @@ import org.hyperledger.besu.ethereum.storage.StorageProvider;
 import org.hyperledger.besu.ethereum.storage.keyvalue.KeyValueSegmentIdentifier;
 import org.hyperledger.besu.ethereum.trie.diffbased.common.StorageSubscriber;
 import org.hyperledger.besu.ethereum.trie.diffbased.common.storage.flat.FlatDbStrategy;
+import org.hyperledger.besu.ethereum.trie.diffbased.common.trielog.TrieLogManager;
 import org.hyperledger.besu.ethereum.worldstate.FlatDbMode;
 import org.hyperledger.besu.ethereum.worldstate.WorldStateKeyValueStorage;
 import org.hyperledger.besu.plugin.services.storage.DataStorageFormat;
@@ -101,8 +102,34 @@ public abstract class DiffBasedWorldStateKeyValueStorage
     return trieLogStorage.get(blockHash.toArrayUnsafe());
   }
 
+  /**
+   * Returns the trie log range of the given size that ends at a block, see {@link
+   * TrieLogManager#getTrieLogRange}.
+   *
+   * @param endBlockHash the hash of the last block of the range
+   * @param size the number of blocks of the range
+   * @return the serialized range
+   */
+  public Optional<byte[]> getTrieLogRange(final Hash endBlockHash, final int size) {
+    return trieLogStorage.get(trieLogRangeKey(endBlockHash, size));
+  }
+
+  /**
+   * Returns the key of a trie log range. The ranges are kept with the trie logs, under the hash of
+   * their last block followed by their size, so their keys are longer than the block hashes of the
+   * trie logs.
+   *
+   * @param endBlockHash the hash of the last block of the range
+   * @param size the number of blocks of the range
+   * @return the key
+   */
+  public static byte[] trieLogRangeKey(final Hash endBlockHash, final int size) {
+    return Bytes.concatenate(endBlockHash, Bytes.ofUnsignedInt(size)).toArrayUnsafe();
+  }
+
   public Stream<byte[]> streamTrieLogKeys(final long limit) {
-    return trieLogStorage.streamKeys().limit(limit);
+    // skip the keys of the trie log ranges
+    return trieLogStorage.streamKeys().filter(key -> key.length == Bytes32.SIZE).limit(limit);
   }
 
   public Optional<Bytes> getStateTrieNode(final Bytes location) {
@@ -185,6 +212,10 @@ public abstract class DiffBasedWorldStateKeyValueStorage
 
   public boolean pruneTrieLog(final Hash blockHash) {
     try {
+      // the ranges ending at the block cannot be used past its trie log
+      for (final int size : TrieLogManager.TRIE_LOG_RANGE_SIZES) {
+        trieLogStorage.tryDelete(trieLogRangeKey(blockHash, size));
+      }
       return trieLogStorage.tryDelete(blockHash.toArrayUnsafe());
     } catch (Exception e) {
       LOG.error("Error pruning trie log for block hash {}", blockHash, e);
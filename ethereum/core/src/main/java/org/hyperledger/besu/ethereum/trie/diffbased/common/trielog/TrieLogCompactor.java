@@ -0,0 +1,100 @@
+/*
+ * Copyright contributors to Hyperledger Besu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.trie.diffbased.common.trielog;
+
+import org.hyperledger.besu.ethereum.chain.Blockchain;
+import org.hyperledger.besu.plugin.services.trielogs.TrieLogEvent;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compacts the trie logs of the canonical chain into ranges as new trie logs are added, see {@link
+ * TrieLogManager#compactTrieLogRange}. A range is compacted once it is {@link #COMPACTION_DELAY}
+ * blocks behind the added trie log, so that it is unlikely to be reorged, and the longer ranges
+ * are merged from the shorter ones. Only the ranges that fit, with the compaction delay, in the
+ * window of the retained trie logs are compacted, since the trie logs of a longer one are pruned
+ * before it could be compacted.
+ */
+public class TrieLogCompactor implements TrieLogEvent.TrieLogObserver {
+
+  private static final Logger LOG = LoggerFactory.getLogger(TrieLogCompactor.class);
+  static final long COMPACTION_DELAY = 64;
+
+  private final TrieLogManager trieLogManager;
+  private final Blockchain blockchain;
+  private final Consumer<Runnable> executeAsync;
+  private final List<Integer> rangeSizes;
+
+  /**
+   * Creates a compactor of the trie log ranges.
+   *
+   * @param trieLogManager the trie log manager that compacts the ranges
+   * @param blockchain the blockchain
+   * @param retainedTrieLogs the number of trie logs of the latest blocks that are not pruned
+   * @param executeAsync executes the compactions
+   */
+  public TrieLogCompactor(
+      final TrieLogManager trieLogManager,
+      final Blockchain blockchain,
+      final long retainedTrieLogs,
+      final Consumer<Runnable> executeAsync) {
+    this.trieLogManager = trieLogManager;
+    this.blockchain = blockchain;
+    this.executeAsync = executeAsync;
+    this.rangeSizes =
+        TrieLogManager.TRIE_LOG_RANGE_SIZES.stream()
+            .filter(size -> size + COMPACTION_DELAY <= retainedTrieLogs)
+            .toList();
+  }
+
+  @Override
+  public void onTrieLogAdded(final TrieLogEvent event) {
+    if (TrieLogEvent.Type.ADDED.equals(event.getType()) && !rangeSizes.isEmpty()) {
+      event
+          .layer()
+          .getBlockNumber()
+          .map(blockNumber -> blockNumber - COMPACTION_DELAY)
+          .filter(endBlockNumber -> endBlockNumber > 0)
+          .ifPresent(endBlockNumber -> executeAsync.accept(() -> compact(endBlockNumber)));
+    }
+  }
+
+  private void compact(final long endBlockNumber) {
+    // from the shortest range, that the longer ones are merged from
+    for (final int size : rangeSizes.reversed()) {
+      if (endBlockNumber % size != 0) {
+        return;
+      }
+      try {
+        final boolean compacted =
+            blockchain
+                .getBlockHeader(endBlockNumber)
+                .map(endHeader -> trieLogManager.compactTrieLogRange(endHeader, size))
+                .orElse(false);
+        if (!compacted) {
+          LOG.debug("Missing trie logs to compact {} blocks up to {}", size, endBlockNumber);
+          return;
+        }
+      } catch (final RuntimeException e) {
+        LOG.warn("Unable to compact the trie logs up to block {}", endBlockNumber, e);
+        return;
+      }
+    }
+  }
+}
@@ -24,6 +24,7 @@ import org.hyperledger.besu.ethereum.trie.diffbased.common.DiffBasedValue;
 import org.hyperledger.besu.plugin.services.trielogs.TrieLog;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
@@ -125,6 +126,56 @@ public class TrieLogLayer implements TrieLog {
     return this;
   }
 
+  /**
+   * Merges the trie logs of consecutive blocks in a single layer, that rolls a world state from
+   * before the first block to after the last one. The changes that are undone by a later block are
+   * dropped.
+   *
+   * @param trieLogs the trie logs, oldest first
+   * @return the merged layer, without block hash and number
+   */
+  public static TrieLogLayer merge(final List<? extends TrieLog> trieLogs) {
+    final TrieLogLayer merged = new TrieLogLayer();
+    for (final TrieLog trieLog : trieLogs) {
+      trieLog
+          .getAccountChanges()
+          .forEach((address, change) -> mergeChange(merged.accounts, address, change));
+      trieLog
+          .getCodeChanges()
+          .forEach((address, change) -> mergeChange(merged.code, address, change));
+      trieLog
+          .getStorageChanges()
+          .forEach(
+              (address, slots) -> {
+                final Map<StorageSlotKey, DiffBasedValue<UInt256>> mergedSlots =
+                    merged.storage.computeIfAbsent(address, a -> new TreeMap<>());
+                slots.forEach((slot, change) -> mergeChange(mergedSlots, slot, change));
+              });
+    }
+    merged.accounts.values().removeIf(DiffBasedValue::isUnchanged);
+    merged.code.values().removeIf(DiffBasedValue::isUnchanged);
+    merged.storage.values().forEach(slots -> slots.values().removeIf(DiffBasedValue::isUnchanged));
+    merged.storage.values().removeIf(Map::isEmpty);
+    return merged;
+  }
+
+  private static <K, T> void mergeChange(
+      final Map<K, DiffBasedValue<T>> changes, final K key, final LogTuple<T> change) {
+    changes.merge(
+        key,
+        new DiffBasedValue<>(
+            change.getPrior(),
+            change.getUpdated(),
+            change.isLastStepCleared(),
+            change.isClearedAtLeastOnce()),
+        (earlier, later) ->
+            new DiffBasedValue<>(
+                earlier.getPrior(),
+                later.getUpdated(),
+                later.isLastStepCleared(),
+                earlier.isClearedAtLeastOnce() || later.isClearedAtLeastOnce()));
+  }
+
   @Override
   public Map<Address, DiffBasedValue<AccountValue>> getAccountChanges() {
     return accounts;
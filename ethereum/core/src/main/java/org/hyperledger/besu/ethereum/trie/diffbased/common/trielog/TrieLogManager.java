@@ -29,6 +29,7 @@ import org.hyperledger.besu.plugin.services.trielogs.TrieLogFactory;
 import org.hyperledger.besu.plugin.services.trielogs.TrieLogProvider;
 import org.hyperledger.besu.util.Subscribers;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.LongStream;
@@ -41,6 +42,8 @@ import org.slf4j.LoggerFactory;
 public class TrieLogManager {
   private static final Logger LOG = LoggerFactory.getLogger(TrieLogManager.class);
   public static final long LOG_RANGE_LIMIT = 1000; // restrict trielog range queries to 1k logs
+  // sizes of the trie log ranges, from the longest, each one a multiple of the next
+  public static final List<Integer> TRIE_LOG_RANGE_SIZES = List.of(1024, 64);
   protected final Blockchain blockchain;
   protected final DiffBasedWorldStateKeyValueStorage rootWorldStateStorage;
 
@@ -54,10 +57,24 @@ public class TrieLogManager {
       final DiffBasedWorldStateKeyValueStorage worldStateKeyValueStorage,
       final long maxLayersToLoad,
       final ServiceManager pluginContext) {
+    this(
+        blockchain,
+        worldStateKeyValueStorage,
+        maxLayersToLoad,
+        pluginContext,
+        new TrieLogFactoryImpl());
+  }
+
+  public TrieLogManager(
+      final Blockchain blockchain,
+      final DiffBasedWorldStateKeyValueStorage worldStateKeyValueStorage,
+      final long maxLayersToLoad,
+      final ServiceManager pluginContext,
+      final TrieLogFactory defaultTrieLogFactory) {
     this.blockchain = blockchain;
     this.rootWorldStateStorage = worldStateKeyValueStorage;
     this.maxLayersToLoad = maxLayersToLoad;
-    this.trieLogFactory = setupTrieLogFactory(pluginContext);
+    this.trieLogFactory = setupTrieLogFactory(pluginContext, defaultTrieLogFactory);
   }
 
   public synchronized void saveTrieLog(
@@ -125,6 +142,110 @@ public class TrieLogManager {
     return rootWorldStateStorage.getTrieLog(blockHash).map(trieLogFactory::deserialize);
   }
 
+  /**
+   * Returns the longest saved trie log range ending at a block of the canonical chain. A range of n
+   * blocks ending at block b merges the trie logs of the blocks b-n+1 to b, so that a world state
+   * is rolled between b-n and b with a single layer instead of n.
+   *
+   * @param endHeader the last block of the range
+   * @param startBlockNumber the lowest block number the range may roll back to
+   * @return the range and its size
+   */
+  public Optional<TrieLogRange> getTrieLogRange(
+      final BlockHeader endHeader, final long startBlockNumber) {
+    final long endBlockNumber = endHeader.getNumber();
+    for (final int size : TRIE_LOG_RANGE_SIZES) {
+      if (endBlockNumber % size == 0
+          && endBlockNumber - size >= startBlockNumber
+          && isCanonical(endHeader)) {
+        final Optional<TrieLogRange> range =
+            rootWorldStateStorage
+                .getTrieLogRange(endHeader.getHash(), size)
+                .map(trieLogFactory::deserialize)
+                .map(trieLog -> new TrieLogRange(size, trieLog));
+        if (range.isPresent()) {
+          return range;
+        }
+      }
+    }
+    return Optional.empty();
+  }
+
+  /**
+   * Merges the trie logs of the blocks of a range in a single layer and saves it, unless it is
+   * already saved. A range is merged from the ranges of the next smaller size when they are all
+   * saved, otherwise from the trie logs of its blocks.
+   *
+   * @param endHeader the last block of the range, in the canonical chain
+   * @param size the number of blocks of the range, one of {@link #TRIE_LOG_RANGE_SIZES}
+   * @return true if the range is saved, false if a trie log of the range is missing
+   */
+  public boolean compactTrieLogRange(final BlockHeader endHeader, final int size) {
+    if (rootWorldStateStorage.getTrieLogRange(endHeader.getHash(), size).isPresent()) {
+      return true;
+    }
+    final int sizeIndex = TRIE_LOG_RANGE_SIZES.indexOf(size);
+    final Optional<Integer> smallerSize =
+        sizeIndex + 1 < TRIE_LOG_RANGE_SIZES.size()
+            ? Optional.of(TRIE_LOG_RANGE_SIZES.get(sizeIndex + 1))
+            : Optional.empty();
+    final Optional<List<TrieLog>> trieLogs =
+        smallerSize
+            .flatMap(smaller -> loadTrieLogs(endHeader, size, smaller))
+            .or(() -> loadTrieLogs(endHeader, size, 1));
+    if (trieLogs.isEmpty()) {
+      return false;
+    }
+    final TrieLogLayer range = TrieLogLayer.merge(trieLogs.get());
+    range.setBlockHash(endHeader.getHash());
+    range.setBlockNumber(endHeader.getNumber());
+    range.freeze();
+    final DiffBasedWorldStateKeyValueStorage.Updater updater = rootWorldStateStorage.updater();
+    updater
+        .getTrieLogStorageTransaction()
+        .put(
+            DiffBasedWorldStateKeyValueStorage.trieLogRangeKey(endHeader.getHash(), size),
+            trieLogFactory.serialize(range));
+    updater.commit();
+    LOG.atDebug()
+        .setMessage("Compacted the trie logs of {} blocks up to {}")
+        .addArgument(size)
+        .addArgument(endHeader::toLogString)
+        .log();
+    return true;
+  }
+
+  // the trie logs of a range, oldest first, each one covering step blocks
+  private Optional<List<TrieLog>> loadTrieLogs(
+      final BlockHeader endHeader, final int size, final int step) {
+    final List<TrieLog> trieLogs = new ArrayList<>(size / step);
+    for (long number = endHeader.getNumber(); number > endHeader.getNumber() - size; ) {
+      final Optional<Hash> blockHash = blockchain.getBlockHashByNumber(number);
+      if (blockHash.isEmpty()) {
+        return Optional.empty();
+      }
+      final Optional<TrieLog> trieLog =
+          step == 1
+              ? getTrieLogLayer(blockHash.get())
+              : rootWorldStateStorage
+                  .getTrieLogRange(blockHash.get(), step)
+                  .map(trieLogFactory::deserialize);
+      if (trieLog.isEmpty()) {
+        return Optional.empty();
+      }
+      trieLogs.add(trieLog.get());
+      number -= step;
+    }
+    return Optional.of(trieLogs.reversed());
+  }
+
+  private boolean isCanonical(final BlockHeader header) {
+    return blockchain
+        .getBlockHashByNumber(header.getNumber())
+        .map(header.getHash()::equals)
+        .orElse(false);
+  }
+
   public synchronized long subscribe(final TrieLogEvent.TrieLogObserver sub) {
     return trieLogObservers.subscribe(sub);
   }
@@ -133,7 +254,8 @@ public class TrieLogManager {
     trieLogObservers.unsubscribe(id);
   }
 
-  private TrieLogFactory setupTrieLogFactory(final ServiceManager pluginContext) {
+  private TrieLogFactory setupTrieLogFactory(
+      final ServiceManager pluginContext, final TrieLogFactory defaultTrieLogFactory) {
     // if we have a TrieLogService from pluginContext, use it.
     var trieLogServicez =
         Optional.ofNullable(pluginContext)
@@ -152,8 +274,8 @@ public class TrieLogManager {
         return trieLogService.getTrieLogFactory().get();
       }
     }
-    // Otherwise default to TrieLogFactoryImpl
-    return new TrieLogFactoryImpl();
+    // Otherwise default to the given factory
+    return defaultTrieLogFactory;
   }
 
   private TrieLogProvider getTrieLogProvider() {
@@ -232,4 +354,12 @@ public class TrieLogManager {
       }
     };
   }
+
+  /**
+   * A trie log merging the trie logs of several consecutive blocks.
+   *
+   * @param size the number of blocks
+   * @param trieLog the merged trie log
+   */
+  public record TrieLogRange(int size, TrieLog trieLog) {}
 }
@@ -32,6 +32,7 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 import java.util.stream.Stream;
@@ -40,10 +41,17 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.TreeMultimap;
+import com.google.common.util.concurrent.RateLimiter;
 import org.apache.tuweni.bytes.Bytes32;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Prunes the trie logs of the blocks below the retention window. Pruning runs on the given
+ * executor, one pass at a time, so that the block import only enqueues the new trie log. The
+ * deletes are made outside the queue lock and can be throttled to a number of deletes per second,
+ * to spread the compaction work of large prune windows.
+ */
 public class TrieLogPruner implements TrieLogEvent.TrieLogObserver {
 
   private static final Logger LOG = LoggerFactory.getLogger(TrieLogPruner.class);
@@ -59,8 +67,11 @@ public class TrieLogPruner implements TrieLogEvent.TrieLogObserver {
   private final Counter addedToPruneQueueCounter;
   private final Counter prunedFromQueueCounter;
   private final Counter prunedOrphanCounter;
+  private final Optional<RateLimiter> deleteRateLimiter;
+  private final AtomicBoolean pruneScheduled = new AtomicBoolean(false);
+  private volatile long lastRetainAboveThisBlock = 0;
 
-  private final Multimap<Long, Hash> trieLogBlocksAndForksByDescendingBlockNumber =
+  private final TreeMultimap<Long, Hash> trieLogBlocksAndForksByDescendingBlockNumber =
       TreeMultimap.create(Comparator.reverseOrder(), Comparator.naturalOrder());
 
   public TrieLogPruner(
@@ -71,6 +82,26 @@ public class TrieLogPruner implements TrieLogEvent.TrieLogObserver {
       final int pruningLimit,
       final boolean requireFinalizedBlock,
       final MetricsSystem metricsSystem) {
+    this(
+        rootWorldStateStorage,
+        blockchain,
+        executeAsync,
+        numBlocksToRetain,
+        pruningLimit,
+        0,
+        requireFinalizedBlock,
+        metricsSystem);
+  }
+
+  public TrieLogPruner(
+      final DiffBasedWorldStateKeyValueStorage rootWorldStateStorage,
+      final Blockchain blockchain,
+      final Consumer<Runnable> executeAsync,
+      final long numBlocksToRetain,
+      final int pruningLimit,
+      final int deletesPerSecond,
+      final boolean requireFinalizedBlock,
+      final MetricsSystem metricsSystem) {
     this.rootWorldStateStorage = rootWorldStateStorage;
     this.blockchain = blockchain;
     this.executeAsync = executeAsync;
@@ -78,6 +109,8 @@ public class TrieLogPruner implements TrieLogEvent.TrieLogObserver {
     this.pruningLimit = pruningLimit;
     this.loadingLimit = pruningLimit; // same as pruningLimit for now
     this.requireFinalizedBlock = requireFinalizedBlock;
+    this.deleteRateLimiter =
+        deletesPerSecond > 0 ? Optional.of(RateLimiter.create(deletesPerSecond)) : Optional.empty();
     this.addedToPruneQueueCounter =
         metricsSystem.createCounter(
             BesuMetricCategory.PRUNER,
@@ -89,6 +122,16 @@ public class TrieLogPruner implements TrieLogEvent.TrieLogObserver {
     this.prunedOrphanCounter =
         metricsSystem.createCounter(
             BesuMetricCategory.PRUNER, "trie_log_pruned_orphan", "trie log pruned orphan");
+    metricsSystem.createIntegerGauge(
+        BesuMetricCategory.PRUNER,
+        "trie_log_prune_queue_size",
+        "trie logs waiting in the prune queue",
+        this::getPruneQueueSize);
+    metricsSystem.createLongGauge(
+        BesuMetricCategory.PRUNER,
+        "trie_log_prune_lag",
+        "blocks between the oldest queued trie log and the last pruning threshold",
+        this::getPruneLag);
   }
 
   public void initialize() {
@@ -183,7 +226,7 @@ public class TrieLogPruner implements TrieLogEvent.TrieLogObserver {
     addedToPruneQueueCounter.inc();
   }
 
-  public synchronized int pruneFromQueue() {
+  public int pruneFromQueue() {
     final long retainAboveThisBlock = blockchain.getChainHeadBlockNumber() - numBlocksToRetain;
     final Optional<Hash> finalized = blockchain.getFinalized();
     if (requireFinalizedBlock && finalized.isEmpty()) {
@@ -197,6 +240,7 @@ public class TrieLogPruner implements TrieLogEvent.TrieLogObserver {
             .map(ProcessableBlockHeader::getNumber)
             .map(finalizedBlock -> Math.min(finalizedBlock, retainAboveThisBlock))
             .orElse(retainAboveThisBlock);
+    lastRetainAboveThisBlock = retainAboveThisBlockOrFinalized;
 
     LOG.atTrace()
         .setMessage(
@@ -213,23 +257,28 @@ public class TrieLogPruner implements TrieLogEvent.TrieLogObserver {
         .addArgument(retainAboveThisBlockOrFinalized)
         .log();
 
-    final var pruneWindowEntries =
-        trieLogBlocksAndForksByDescendingBlockNumber.asMap().entrySet().stream()
-            .dropWhile((e) -> e.getKey() > retainAboveThisBlockOrFinalized)
-            .limit(pruningLimit);
+    // copy the prune window so that new trie logs can be queued while the deletes are running
+    final Multimap<Long, Hash> pruneWindowEntries = ArrayListMultimap.create();
+    synchronized (this) {
+      trieLogBlocksAndForksByDescendingBlockNumber.asMap().entrySet().stream()
+          .dropWhile((e) -> e.getKey() > retainAboveThisBlockOrFinalized)
+          .limit(pruningLimit)
+          .forEach(e -> pruneWindowEntries.putAll(e.getKey(), e.getValue()));
+    }
 
     final Multimap<Long, Hash> wasPruned = ArrayListMultimap.create();
 
     pruneWindowEntries.forEach(
-        (e) -> {
-          for (Hash blockHash : e.getValue()) {
-            if (rootWorldStateStorage.pruneTrieLog(blockHash)) {
-              wasPruned.put(e.getKey(), blockHash);
-            }
+        (blockNumber, blockHash) -> {
+          deleteRateLimiter.ifPresent(RateLimiter::acquire);
+          if (rootWorldStateStorage.pruneTrieLog(blockHash)) {
+            wasPruned.put(blockNumber, blockHash);
           }
         });
 
-    wasPruned.keySet().forEach(trieLogBlocksAndForksByDescendingBlockNumber::removeAll);
+    synchronized (this) {
+      wasPruned.forEach(trieLogBlocksAndForksByDescendingBlockNumber::remove);
+    }
     prunedFromQueueCounter.inc(wasPruned.size());
 
     LOG.atTrace()
@@ -246,18 +295,39 @@ public class TrieLogPruner implements TrieLogEvent.TrieLogObserver {
     return wasPruned.size();
   }
 
+  private synchronized int getPruneQueueSize() {
+    return trieLogBlocksAndForksByDescendingBlockNumber.size();
+  }
+
+  private synchronized long getPruneLag() {
+    if (trieLogBlocksAndForksByDescendingBlockNumber.isEmpty()) {
+      return 0;
+    }
+    final long oldestBlock = trieLogBlocksAndForksByDescendingBlockNumber.keySet().last();
+    return Math.max(0, lastRetainAboveThisBlock - oldestBlock);
+  }
+
   @Override
   public void onTrieLogAdded(final TrieLogEvent event) {
     if (TrieLogEvent.Type.ADDED.equals(event.getType())) {
       final Hash blockHash = event.layer().getBlockHash();
       final Optional<Long> blockNumber = event.layer().getBlockNumber();
       blockNumber.ifPresent(
-          blockNum ->
-              executeAsync.accept(
-                  () -> {
-                    addToPruneQueue(blockNum, blockHash);
-                    pruneFromQueue();
-                  }));
+          blockNum -> {
+            addToPruneQueue(blockNum, blockHash);
+            schedulePruning();
+          });
+    }
+  }
+
+  private void schedulePruning() {
+    // a single pass at a time, a pass started later also prunes the trie logs queued meanwhile
+    if (pruneScheduled.compareAndSet(false, true)) {
+      executeAsync.accept(
+          () -> {
+            pruneScheduled.set(false);
+            pruneFromQueue();
+          });
     }
   }
 }
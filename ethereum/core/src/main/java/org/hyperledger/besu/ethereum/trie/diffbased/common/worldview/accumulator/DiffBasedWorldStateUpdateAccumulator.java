@@ -38,8 +38,6 @@ import org.hyperledger.besu.plugin.services.trielogs.TrieLog;
 import org.hyperledger.besu.plugin.services.trielogs.TrieLogAccumulator;
 
 import java.util.Collection;
-import java.util.Collections;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Objects;
@@ -65,7 +63,7 @@ public abstract class DiffBasedWorldStateUpdateAccumulator<ACCOUNT extends DiffB
 
   private final AccountConsumingMap<DiffBasedValue<ACCOUNT>> accountsToUpdate;
   private final Map<Address, DiffBasedValue<Bytes>> codeToUpdate = new ConcurrentHashMap<>();
-  private final Set<Address> storageToClear = Collections.synchronizedSet(new HashSet<>());
+  private final Set<Address> storageToClear = ConcurrentHashMap.newKeySet();
   protected final EvmConfiguration evmConfiguration;
 
   // storage sub mapped by _hashed_ key.  This is because in self_destruct calls we need to
@@ -74,7 +72,8 @@ public abstract class DiffBasedWorldStateUpdateAccumulator<ACCOUNT extends DiffB
   private final Map<Address, StorageConsumingMap<StorageSlotKey, DiffBasedValue<UInt256>>>
       storageToUpdate = new ConcurrentHashMap<>();
 
-  private final Map<UInt256, Hash> storageKeyHashLookup = new ConcurrentHashMap<>();
+  // slot keys by raw slot, so that the storage reads and writes of a block hash each slot once
+  private final Map<UInt256, StorageSlotKey> storageSlotKeys = new ConcurrentHashMap<>();
   protected boolean isAccumulatorStateChanged;
 
   public DiffBasedWorldStateUpdateAccumulator(
@@ -108,6 +107,9 @@ public abstract class DiffBasedWorldStateUpdateAccumulator<ACCOUNT extends DiffB
    * the modification from the source will be taken. This approach ensures that the source's state
    * changes are prioritized and overrides any conflicting changes in the current state.
    *
+   * <p>The code and storage values of the source are taken over rather than copied, so the source
+   * must be discarded once its changes are imported.
+   *
    * @param source The source accumulator
    */
   public void importStateChangesFromSource(
@@ -126,31 +128,15 @@ public abstract class DiffBasedWorldStateUpdateAccumulator<ACCOUNT extends DiffB
                       : null;
               accountsToUpdate.put(address, new DiffBasedValue<>(copyPrior, copyUpdated));
             });
-    source
-        .getCodeToUpdate()
-        .forEach(
-            (address, diffBasedValue) -> {
-              codeToUpdate.put(
-                  address,
-                  new DiffBasedValue<>(diffBasedValue.getPrior(), diffBasedValue.getUpdated()));
-            });
+    codeToUpdate.putAll(source.getCodeToUpdate());
     source
         .getStorageToUpdate()
         .forEach(
             (address, slots) -> {
-              StorageConsumingMap<StorageSlotKey, DiffBasedValue<UInt256>> storageConsumingMap =
+              final StorageConsumingMap<StorageSlotKey, DiffBasedValue<UInt256>> storageMap =
                   storageToUpdate.computeIfAbsent(
-                      address,
-                      k ->
-                          new StorageConsumingMap<>(
-                              address, new ConcurrentHashMap<>(), storagePreloader));
-              slots.forEach(
-                  (storageSlotKey, uInt256DiffBasedValue) -> {
-                    storageConsumingMap.put(
-                        storageSlotKey,
-                        new DiffBasedValue<>(
-                            uInt256DiffBasedValue.getPrior(), uInt256DiffBasedValue.getUpdated()));
-                  });
+                      address, k -> createStorageMap(address, slots.size()));
+              slots.forEach(storageMap::put);
             });
     storageToClear.addAll(source.storageToClear);
 
@@ -197,18 +183,17 @@ public abstract class DiffBasedWorldStateUpdateAccumulator<ACCOUNT extends DiffB
         .getStorageToUpdate()
         .forEach(
             (address, slots) -> {
-              StorageConsumingMap<StorageSlotKey, DiffBasedValue<UInt256>> storageConsumingMap =
+              final StorageConsumingMap<StorageSlotKey, DiffBasedValue<UInt256>> storageMap =
                   storageToUpdate.computeIfAbsent(
-                      address,
-                      k ->
-                          new StorageConsumingMap<>(
-                              address, new ConcurrentHashMap<>(), storagePreloader));
+                      address, k -> createStorageMap(address, slots.size()));
               slots.forEach(
                   (storageSlotKey, uInt256DiffBasedValue) -> {
-                    storageConsumingMap.putIfAbsent(
-                        storageSlotKey,
-                        new DiffBasedValue<>(
-                            uInt256DiffBasedValue.getPrior(), uInt256DiffBasedValue.getPrior()));
+                    if (!storageMap.containsKey(storageSlotKey)) {
+                      storageMap.put(
+                          storageSlotKey,
+                          new DiffBasedValue<>(
+                              uInt256DiffBasedValue.getPrior(), uInt256DiffBasedValue.getPrior()));
+                    }
                   });
             });
     this.isAccumulatorStateChanged = true;
@@ -372,11 +357,7 @@ public abstract class DiffBasedWorldStateUpdateAccumulator<ACCOUNT extends DiffB
 
       // mark all updated storage as to be cleared
       final Map<StorageSlotKey, DiffBasedValue<UInt256>> deletedStorageUpdates =
-          storageToUpdate.computeIfAbsent(
-              deletedAddress,
-              k ->
-                  new StorageConsumingMap<>(
-                      deletedAddress, new ConcurrentHashMap<>(), storagePreloader));
+          storageToUpdate.computeIfAbsent(deletedAddress, k -> createStorageMap(deletedAddress));
       final Iterator<Map.Entry<StorageSlotKey, DiffBasedValue<UInt256>>> iter =
           deletedStorageUpdates.entrySet().iterator();
       while (iter.hasNext()) {
@@ -420,10 +401,7 @@ public abstract class DiffBasedWorldStateUpdateAccumulator<ACCOUNT extends DiffB
                   accountsToUpdate.get(updatedAddress);
               final Map<StorageSlotKey, DiffBasedValue<UInt256>> pendingStorageUpdates =
                   storageToUpdate.computeIfAbsent(
-                      updatedAddress,
-                      k ->
-                          new StorageConsumingMap<>(
-                              updatedAddress, new ConcurrentHashMap<>(), storagePreloader));
+                      updatedAddress, k -> createStorageMap(updatedAddress));
 
               if (tracked.getWrappedAccount() == null) {
                 updatedAccount = createAccount(this, tracked);
@@ -478,9 +456,7 @@ public abstract class DiffBasedWorldStateUpdateAccumulator<ACCOUNT extends DiffB
                   .forEach(
                       storageUpdate -> {
                         final UInt256 keyUInt = storageUpdate.getKey();
-                        final StorageSlotKey slotKey =
-                            new StorageSlotKey(
-                                hashAndSaveSlotPreImage(keyUInt), Optional.of(keyUInt));
+                        final StorageSlotKey slotKey = getStorageSlotKey(keyUInt);
                         final UInt256 value = storageUpdate.getValue();
                         final DiffBasedValue<UInt256> pendingValue =
                             pendingStorageUpdates.get(slotKey);
@@ -525,9 +501,8 @@ public abstract class DiffBasedWorldStateUpdateAccumulator<ACCOUNT extends DiffB
 
   @Override
   public UInt256 getStorageValue(final Address address, final UInt256 slotKey) {
-    StorageSlotKey storageSlotKey =
-        new StorageSlotKey(hashAndSaveSlotPreImage(slotKey), Optional.of(slotKey));
-    return getStorageValueByStorageSlotKey(address, storageSlotKey).orElse(UInt256.ZERO);
+    return getStorageValueByStorageSlotKey(address, getStorageSlotKey(slotKey))
+        .orElse(UInt256.ZERO);
   }
 
   @Override
@@ -547,10 +522,7 @@ public abstract class DiffBasedWorldStateUpdateAccumulator<ACCOUNT extends DiffB
               ? worldState.getStorageValueByStorageSlotKey(address, storageSlotKey)
               : wrappedWorldView().getStorageValueByStorageSlotKey(address, storageSlotKey);
       storageToUpdate
-          .computeIfAbsent(
-              address,
-              key ->
-                  new StorageConsumingMap<>(address, new ConcurrentHashMap<>(), storagePreloader))
+          .computeIfAbsent(address, key -> createStorageMap(address))
           .put(
               storageSlotKey, new DiffBasedValue<>(valueUInt.orElse(null), valueUInt.orElse(null)));
       return valueUInt;
@@ -564,8 +536,7 @@ public abstract class DiffBasedWorldStateUpdateAccumulator<ACCOUNT extends DiffB
   @Override
   public UInt256 getPriorStorageValue(final Address address, final UInt256 storageKey) {
     // TODO maybe log the read into the trie layer?
-    StorageSlotKey storageSlotKey =
-        new StorageSlotKey(hashAndSaveSlotPreImage(storageKey), Optional.of(storageKey));
+    final StorageSlotKey storageSlotKey = getStorageSlotKey(storageKey);
     final Map<StorageSlotKey, DiffBasedValue<UInt256>> localAccountStorage =
         storageToUpdate.get(address);
     if (localAccountStorage != null) {
@@ -770,11 +741,21 @@ public abstract class DiffBasedWorldStateUpdateAccumulator<ACCOUNT extends DiffB
     }
   }
 
+  private StorageConsumingMap<StorageSlotKey, DiffBasedValue<UInt256>> createStorageMap(
+      final Address address) {
+    return createStorageMap(address, 0);
+  }
+
+  private StorageConsumingMap<StorageSlotKey, DiffBasedValue<UInt256>> createStorageMap(
+      final Address address, final int expectedSize) {
+    return new StorageConsumingMap<>(address, new StorageSlotMap<>(expectedSize), storagePreloader);
+  }
+
   private Map<StorageSlotKey, DiffBasedValue<UInt256>> maybeCreateStorageMap(
       final Map<StorageSlotKey, DiffBasedValue<UInt256>> storageMap, final Address address) {
     if (storageMap == null) {
       final StorageConsumingMap<StorageSlotKey, DiffBasedValue<UInt256>> newMap =
-          new StorageConsumingMap<>(address, new ConcurrentHashMap<>(), storagePreloader);
+          createStorageMap(address);
       storageToUpdate.put(address, newMap);
       return newMap;
     } else {
@@ -803,10 +784,7 @@ public abstract class DiffBasedWorldStateUpdateAccumulator<ACCOUNT extends DiffB
       if (storageValue.isPresent()) {
         slotValue = new DiffBasedValue<>(storageValue.get(), storageValue.get());
         storageToUpdate
-            .computeIfAbsent(
-                address,
-                k ->
-                    new StorageConsumingMap<>(address, new ConcurrentHashMap<>(), storagePreloader))
+            .computeIfAbsent(address, k -> createStorageMap(address))
             .put(storageSlotKey, slotValue);
       }
     }
@@ -876,7 +854,7 @@ public abstract class DiffBasedWorldStateUpdateAccumulator<ACCOUNT extends DiffB
     resetAccumulatorStateChanged();
     updatedAccounts.clear();
     deletedAccounts.clear();
-    storageKeyHashLookup.clear();
+    storageSlotKeys.clear();
   }
 
   protected Hash hashAndSaveAccountPreImage(final Address address) {
@@ -884,13 +862,18 @@ public abstract class DiffBasedWorldStateUpdateAccumulator<ACCOUNT extends DiffB
     return Hash.hash(address);
   }
 
-  protected Hash hashAndSaveSlotPreImage(final UInt256 slotKey) {
-    Hash hash = storageKeyHashLookup.get(slotKey);
-    if (hash == null) {
-      hash = Hash.hash(slotKey);
-      storageKeyHashLookup.put(slotKey, hash);
+  protected StorageSlotKey getStorageSlotKey(final UInt256 slotKey) {
+    StorageSlotKey storageSlotKey = storageSlotKeys.get(slotKey);
+    if (storageSlotKey == null) {
+      storageSlotKey = new StorageSlotKey(hashAndSaveSlotPreImage(slotKey), Optional.of(slotKey));
+      storageSlotKeys.put(slotKey, storageSlotKey);
     }
-    return hash;
+    return storageSlotKey;
+  }
+
+  protected Hash hashAndSaveSlotPreImage(final UInt256 slotKey) {
+    // only called the first time a slot is seen, see getStorageSlotKey
+    return Hash.hash(slotKey);
   }
 
   public abstract DiffBasedWorldStateUpdateAccumulator<ACCOUNT> copy();
@@ -0,0 +1,439 @@
+/*
+ * Copyright contributors to Hyperledger Besu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.trie.diffbased.common.worldview.accumulator;
+
+import org.hyperledger.besu.datatypes.StorageSlotKey;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.BiConsumer;
+
+/**
+ * Open-addressing map of the storage slots of one account in the accumulator.
+ *
+ * <p>The slots are probed linearly by the first eight bytes of their hash, which are already
+ * uniformly distributed, and kept in flat arrays instead of one node per slot. A removed slot
+ * keeps its key as a tombstone until the next resize, so entries never move while the table is
+ * iterated. Reads are optimistic and take no lock unless they race with a write, which only
+ * happens while the parallel block processor reads an account that another thread commits.
+ *
+ * @param <V> the type of the slot values
+ */
+public class StorageSlotMap<V> extends AbstractMap<StorageSlotKey, V>
+    implements ConcurrentMap<StorageSlotKey, V> {
+
+  private static final int DEFAULT_CAPACITY = 16;
+
+  private final StampedLock lock = new StampedLock();
+  private Table table;
+  // live entries, and live entries plus tombstones
+  private int size;
+  private int used;
+  private Set<Entry<StorageSlotKey, V>> entrySet;
+
+  public StorageSlotMap() {
+    this(0);
+  }
+
+  public StorageSlotMap(final int expectedSize) {
+    this.table = new Table(capacityFor(expectedSize));
+  }
+
+  @Override
+  public V get(final Object key) {
+    if (!(key instanceof StorageSlotKey slotKey)) {
+      return null;
+    }
+    final long hash = slotHash(slotKey);
+    long stamp = lock.tryOptimisticRead();
+    V value = lookup(table, slotKey, hash);
+    if (!lock.validate(stamp)) {
+      stamp = lock.readLock();
+      try {
+        value = lookup(table, slotKey, hash);
+      } finally {
+        lock.unlockRead(stamp);
+      }
+    }
+    return value;
+  }
+
+  @Override
+  public boolean containsKey(final Object key) {
+    return get(key) != null;
+  }
+
+  @Override
+  public int size() {
+    long stamp = lock.tryOptimisticRead();
+    int currentSize = size;
+    if (!lock.validate(stamp)) {
+      stamp = lock.readLock();
+      try {
+        currentSize = size;
+      } finally {
+        lock.unlockRead(stamp);
+      }
+    }
+    return currentSize;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  @Override
+  public V put(final StorageSlotKey key, final V value) {
+    return put(key, value, false);
+  }
+
+  @Override
+  public V putIfAbsent(final StorageSlotKey key, final V value) {
+    return put(key, value, true);
+  }
+
+  @Override
+  public V remove(final Object key) {
+    if (!(key instanceof StorageSlotKey slotKey)) {
+      return null;
+    }
+    final long stamp = lock.writeLock();
+    try {
+      final int index = indexOf(table, slotKey, slotHash(slotKey));
+      return index < 0 ? null : removeAt(index);
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  @Override
+  public boolean remove(final Object key, final Object value) {
+    if (!(key instanceof StorageSlotKey slotKey) || value == null) {
+      return false;
+    }
+    final long stamp = lock.writeLock();
+    try {
+      final int index = indexOf(table, slotKey, slotHash(slotKey));
+      if (index < 0 || !value.equals(table.values[index])) {
+        return false;
+      }
+      removeAt(index);
+      return true;
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  @Override
+  public boolean replace(final StorageSlotKey key, final V oldValue, final V newValue) {
+    Objects.requireNonNull(oldValue);
+    Objects.requireNonNull(newValue);
+    final long stamp = lock.writeLock();
+    try {
+      final int index = indexOf(table, key, slotHash(key));
+      if (index < 0 || !oldValue.equals(table.values[index])) {
+        return false;
+      }
+      table.values[index] = newValue;
+      return true;
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public V replace(final StorageSlotKey key, final V value) {
+    Objects.requireNonNull(value);
+    final long stamp = lock.writeLock();
+    try {
+      final int index = indexOf(table, key, slotHash(key));
+      if (index < 0 || table.values[index] == null) {
+        return null;
+      }
+      final V previous = (V) table.values[index];
+      table.values[index] = value;
+      return previous;
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  @Override
+  public void clear() {
+    final long stamp = lock.writeLock();
+    try {
+      table = new Table(DEFAULT_CAPACITY);
+      size = 0;
+      used = 0;
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  @Override
+  public void forEach(final BiConsumer<? super StorageSlotKey, ? super V> action) {
+    final EntryIterator iterator = new EntryIterator();
+    while (iterator.hasNext()) {
+      iterator.advance();
+      action.accept(iterator.currentKey, iterator.currentValue);
+    }
+  }
+
+  @Override
+  public Set<Entry<StorageSlotKey, V>> entrySet() {
+    if (entrySet == null) {
+      entrySet = new EntrySet();
+    }
+    return entrySet;
+  }
+
+  @SuppressWarnings("unchecked")
+  private V put(final StorageSlotKey key, final V value, final boolean onlyIfAbsent) {
+    Objects.requireNonNull(value);
+    final long hash = slotHash(key);
+    final long stamp = lock.writeLock();
+    try {
+      Table current = table;
+      final int index = indexOf(current, key, hash);
+      if (index >= 0) {
+        final V previous = (V) current.values[index];
+        if (previous == null) {
+          size++;
+        } else if (onlyIfAbsent) {
+          return previous;
+        }
+        current.values[index] = value;
+        return previous;
+      }
+      if (used + 1 > maxUsed(current.keys.length)) {
+        current = rehash(capacityFor(size + 1));
+      }
+      insert(current, key, hash, value);
+      size++;
+      used++;
+      return null;
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  private V removeAt(final int index) {
+    @SuppressWarnings("unchecked")
+    final V previous = (V) table.values[index];
+    if (previous != null) {
+      table.values[index] = null;
+      size--;
+    }
+    return previous;
+  }
+
+  private Table rehash(final int capacity) {
+    final Table current = table;
+    final Table resized = new Table(capacity);
+    for (int i = 0; i < current.keys.length; i++) {
+      if (current.keys[i] != null && current.values[i] != null) {
+        insert(resized, current.keys[i], current.hashes[i], current.values[i]);
+      }
+    }
+    table = resized;
+    used = size;
+    return resized;
+  }
+
+  private static void insert(
+      final Table table, final StorageSlotKey key, final long hash, final Object value) {
+    final int mask = table.keys.length - 1;
+    int index = (int) hash & mask;
+    while (table.keys[index] != null) {
+      index = (index + 1) & mask;
+    }
+    table.hashes[index] = hash;
+    table.values[index] = value;
+    table.keys[index] = key;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <V> V lookup(final Table table, final StorageSlotKey key, final long hash) {
+    final int index = indexOf(table, key, hash);
+    return index < 0 ? null : (V) table.values[index];
+  }
+
+  private static int indexOf(final Table table, final StorageSlotKey key, final long hash) {
+    final int mask = table.keys.length - 1;
+    int index = (int) hash & mask;
+    // bounded because an optimistic read can observe a table that is being written
+    for (int probes = 0; probes <= mask; probes++) {
+      final StorageSlotKey candidate = table.keys[index];
+      if (candidate == null) {
+        return -1;
+      }
+      if (table.hashes[index] == hash && candidate.equals(key)) {
+        return index;
+      }
+      index = (index + 1) & mask;
+    }
+    return -1;
+  }
+
+  private static long slotHash(final StorageSlotKey key) {
+    return key.getSlotHash().getLong(0);
+  }
+
+  private static int maxUsed(final int capacity) {
+    return capacity - (capacity >>> 2);
+  }
+
+  private static int capacityFor(final int expectedSize) {
+    int capacity = DEFAULT_CAPACITY;
+    while (maxUsed(capacity) < expectedSize) {
+      capacity <<= 1;
+    }
+    return capacity;
+  }
+
+  private static final class Table {
+    private final long[] hashes;
+    private final StorageSlotKey[] keys;
+    private final Object[] values;
+
+    private Table(final int capacity) {
+      this.hashes = new long[capacity];
+      this.keys = new StorageSlotKey[capacity];
+      this.values = new Object[capacity];
+    }
+  }
+
+  private final class EntrySet extends AbstractSet<Entry<StorageSlotKey, V>> {
+
+    @Override
+    public Iterator<Entry<StorageSlotKey, V>> iterator() {
+      final EntryIterator iterator = new EntryIterator();
+      return new Iterator<>() {
+        @Override
+        public boolean hasNext() {
+          return iterator.hasNext();
+        }
+
+        @Override
+        public Entry<StorageSlotKey, V> next() {
+          iterator.advance();
+          return new SlotEntry(iterator.currentKey, iterator.currentValue);
+        }
+
+        @Override
+        public void remove() {
+          if (iterator.currentKey == null) {
+            throw new IllegalStateException();
+          }
+          StorageSlotMap.this.remove(iterator.currentKey);
+          iterator.currentKey = null;
+        }
+      };
+    }
+
+    @Override
+    public int size() {
+      return StorageSlotMap.this.size();
+    }
+
+    @Override
+    public void clear() {
+      StorageSlotMap.this.clear();
+    }
+  }
+
+  /**
+   * Walks the table that was current when the iteration started. Like the iterators of {@link
+   * java.util.concurrent.ConcurrentHashMap}, it is weakly consistent: it never fails on concurrent
+   * writes, and the entries added after a resize are not returned.
+   */
+  private final class EntryIterator {
+    private final Table snapshot;
+    private int nextIndex = -1;
+    private StorageSlotKey nextKey;
+    private V nextValue;
+    private StorageSlotKey currentKey;
+    private V currentValue;
+
+    private EntryIterator() {
+      final long stamp = lock.readLock();
+      try {
+        snapshot = table;
+      } finally {
+        lock.unlockRead(stamp);
+      }
+      findNext();
+    }
+
+    private boolean hasNext() {
+      return nextKey != null;
+    }
+
+    private void advance() {
+      if (nextKey == null) {
+        throw new NoSuchElementException();
+      }
+      currentKey = nextKey;
+      currentValue = nextValue;
+      findNext();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void findNext() {
+      while (++nextIndex < snapshot.keys.length) {
+        long stamp = lock.tryOptimisticRead();
+        StorageSlotKey key = snapshot.keys[nextIndex];
+        Object value = snapshot.values[nextIndex];
+        if (!lock.validate(stamp)) {
+          stamp = lock.readLock();
+          try {
+            key = snapshot.keys[nextIndex];
+            value = snapshot.values[nextIndex];
+          } finally {
+            lock.unlockRead(stamp);
+          }
+        }
+        if (key != null && value != null) {
+          nextKey = key;
+          nextValue = (V) value;
+          return;
+        }
+      }
+      nextKey = null;
+      nextValue = null;
+    }
+  }
+
+  private final class SlotEntry extends SimpleEntry<StorageSlotKey, V> {
+
+    private SlotEntry(final StorageSlotKey key, final V value) {
+      super(key, value);
+    }
+
+    @Override
+    public V setValue(final V value) {
+      super.setValue(value);
+      return put(getKey(), value);
+    }
+  }
+}
@@ -18,6 +18,7 @@ import org.hyperledger.besu.datatypes.Address;
 
 import java.util.Map;
 import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiConsumer;
 import javax.annotation.Nonnull;
 
 import com.google.common.collect.ForwardingMap;
@@ -42,6 +43,11 @@ public class StorageConsumingMap<K, T> extends ForwardingMap<K, T> {
     return storages.put(slotKey, value);
   }
 
+  @Override
+  public void forEach(final BiConsumer<? super K, ? super T> action) {
+    storages.forEach(action);
+  }
+
   public Consumer<K> getConsumer() {
     return consumer;
   }
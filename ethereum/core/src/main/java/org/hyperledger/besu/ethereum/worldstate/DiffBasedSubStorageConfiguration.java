@@ -76,6 +76,12 @@ public interface DiffBasedSubStorageConfiguration {
     boolean DEFAULT_CODE_USING_CODE_HASH_ENABLED = true;
 
     boolean DEFAULT_PARALLEL_TRX_ENABLED = false;
+    boolean DEFAULT_ARCHIVE_ENABLED = false;
+    int DEFAULT_TRIE_LOG_PRUNING_RATE_LIMIT = 0;
+    boolean DEFAULT_FLAT_DB_VERIFICATION_ENABLED = false;
+    boolean DEFAULT_TRIE_LOG_RANGES_ENABLED = false;
+    boolean DEFAULT_STORAGE_PREFETCH_ENABLED = false;
+    TrieLogEncoding DEFAULT_TRIE_LOG_ENCODING = TrieLogEncoding.RLP;
 
     @Value.Default
     default boolean getFullFlatDbEnabled() {
@@ -91,5 +97,35 @@ public interface DiffBasedSubStorageConfiguration {
     default boolean isParallelTxProcessingEnabled() {
       return DEFAULT_PARALLEL_TRX_ENABLED;
     }
+
+    @Value.Default
+    default boolean getArchiveEnabled() {
+      return DEFAULT_ARCHIVE_ENABLED;
+    }
+
+    @Value.Default
+    default int getTrieLogPruningRateLimit() {
+      return DEFAULT_TRIE_LOG_PRUNING_RATE_LIMIT;
+    }
+
+    @Value.Default
+    default boolean getFlatDbVerificationEnabled() {
+      return DEFAULT_FLAT_DB_VERIFICATION_ENABLED;
+    }
+
+    @Value.Default
+    default boolean getTrieLogRangesEnabled() {
+      return DEFAULT_TRIE_LOG_RANGES_ENABLED;
+    }
+
+    @Value.Default
+    default boolean getStoragePrefetchEnabled() {
+      return DEFAULT_STORAGE_PREFETCH_ENABLED;
+    }
+
+    @Value.Default
+    default TrieLogEncoding getTrieLogEncoding() {
+      return DEFAULT_TRIE_LOG_ENCODING;
+    }
   }
 }
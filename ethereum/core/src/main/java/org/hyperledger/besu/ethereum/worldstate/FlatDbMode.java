@@ -19,8 +19,8 @@ import java.util.stream.Stream;
 import org.apache.tuweni.bytes.Bytes;
 
 /**
- * The FlatDbMode enum represents the different modes of the flat database. It has two modes:
- * PARTIAL and FULL.
+ * The FlatDbMode enum represents the different modes of the flat database. It has three modes:
+ * PARTIAL, FULL and ARCHIVE.
  *
  * <p>- PARTIAL: Not all the leaves are present inside the flat database. The trie serves as a
  * fallback to retrieve missing data. The PARTIAL mode is primarily used for backward compatibility
@@ -30,11 +30,16 @@ import org.apache.tuweni.bytes.Bytes;
  * <p>- FULL: The flat database contains the complete representation of the world state, and there
  * is no need for a fallback mechanism. The FULL mode represents a fully synchronized state where
  * the flat database encompasses all the necessary data.
+ *
+ * <p>- ARCHIVE: The flat database is FULL, and also keeps the values of the accounts and storage
+ * slots at each block, so that the state of past blocks is read without rolling back the world
+ * state.
  */
 public enum FlatDbMode {
   NO_FLATTENED(Bytes.EMPTY),
   PARTIAL(Bytes.of(0x00)),
-  FULL(Bytes.of(0x01));
+  FULL(Bytes.of(0x01)),
+  ARCHIVE(Bytes.of(0x02));
 
   final Bytes version;
 
@@ -46,6 +51,17 @@ public enum FlatDbMode {
     return version;
   }
 
+  /**
+   * Whether the flat database of this mode holds all the data of the given mode. The archive keeps
+   * a full flat database of the head.
+   *
+   * @param flatDbMode the mode to compare with
+   * @return true if this mode is the given mode or holds its data
+   */
+  public boolean includes(final FlatDbMode flatDbMode) {
+    return this == flatDbMode || (this == ARCHIVE && flatDbMode == FULL);
+  }
+
   public static FlatDbMode fromVersion(final Bytes version) {
     return Stream.of(FlatDbMode.values())
         .filter(mode -> mode.getVersion().equals(version))
@@ -0,0 +1,34 @@
+/*
+ * Copyright contributors to Hyperledger Besu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.worldstate;
+
+/**
+ * The TrieLogEncoding enum represents the formats the trie logs are written with. The trie logs of
+ * all the formats are read whatever the configured one, so that it can be changed on an existing
+ * database.
+ *
+ * <p>- RLP: The historical format, also read by the plugins and the older versions.
+ *
+ * <p>- COMPACT: A versioned binary format with variable length integers and without the RLP
+ * headers, which also does not repeat the storage root and code hash of an account when they are
+ * not updated.
+ *
+ * <p>- COMPACT_COMPRESSED: The COMPACT format, deflated with a preset dictionary when it is smaller.
+ */
+public enum TrieLogEncoding {
+  RLP,
+  COMPACT,
+  COMPACT_COMPRESSED
+}
@@ -36,6 +36,18 @@ public interface WorldStateArchive extends Closeable {
 
   Optional<MutableWorldState> getMutable(BlockHeader blockHeader, boolean isPersistingState);
 
+  /**
+   * Gets the world state of a block to serve read-only state queries. It can be backed by a storage
+   * that only supports point reads of the accounts and storage slots, so it must not be used to
+   * process, build or validate blocks.
+   *
+   * @param blockHeader the header of the block
+   * @return the world state of the block, or empty if it is not available
+   */
+  default Optional<MutableWorldState> getMutableForQuery(final BlockHeader blockHeader) {
+    return getMutable(blockHeader, false);
+  }
+
   Optional<MutableWorldState> getMutable(Hash rootHash, Hash blockHash);
 
   MutableWorldState getMutable();
@@ -77,7 +77,7 @@ public class WorldStateStorageCoordinator {
     if (getDataStorageFormat().equals(DataStorageFormat.BONSAI)) {
       final BonsaiWorldStateKeyValueStorage bonsaiWorldStateStorageStrategy =
           (BonsaiWorldStateKeyValueStorage) worldStateKeyValueStorage();
-      return bonsaiWorldStateStorageStrategy.getFlatDbMode().equals(flatDbMode);
+      return bonsaiWorldStateStorageStrategy.getFlatDbMode().includes(flatDbMode);
     }
     return false;
   }
@@ -89,7 +89,7 @@ public class WorldStateStorageCoordinator {
         worldStateKeyValueStorage -> {
           final BonsaiWorldStateKeyValueStorage bonsaiWorldStateStorageStrategy =
               (BonsaiWorldStateKeyValueStorage) worldStateKeyValueStorage();
-          if (bonsaiWorldStateStorageStrategy.getFlatDbMode().equals(flatDbMode)) {
+          if (bonsaiWorldStateStorageStrategy.getFlatDbMode().includes(flatDbMode)) {
             onStrategy.accept(bonsaiWorldStateStorageStrategy);
           }
         });
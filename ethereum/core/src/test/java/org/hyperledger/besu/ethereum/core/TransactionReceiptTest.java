@@ -16,8 +16,11 @@ package org.hyperledger.besu.ethereum.core;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import org.hyperledger.besu.datatypes.TransactionType;
 import org.hyperledger.besu.ethereum.rlp.RLP;
 
+import java.util.Optional;
+
 import org.apache.tuweni.bytes.Bytes;
 import org.junit.jupiter.api.Test;
 
@@ -73,4 +76,57 @@ public class TransactionReceiptTest {
     assertThat(TransactionReceipt.readFrom(RLP.input(compactedReceipt))).isEqualTo(receipt);
     assertThat(TransactionReceipt.readFrom(RLP.input(unCompactedReceipt))).isEqualTo(receipt);
   }
+
+  @Test
+  public void depositReceiptToFromRlp() {
+    final TransactionReceipt receipt = depositReceipt(Optional.of(7L), Optional.of(1L));
+    final TransactionReceipt copy =
+        TransactionReceipt.readFrom(RLP.input(RLP.encode(receipt::writeToForNetwork)), false);
+    assertThat(copy).isEqualTo(receipt);
+    assertThat(copy.getDepositNonce()).contains(7L);
+    assertThat(copy.getDepositReceiptVersion()).contains(1L);
+  }
+
+  @Test
+  public void preCanyonDepositReceiptToFromRlp() {
+    final TransactionReceipt receipt = depositReceipt(Optional.of(7L), Optional.empty());
+    final TransactionReceipt copy =
+        TransactionReceipt.readFrom(RLP.input(RLP.encode(receipt::writeToForNetwork)), false);
+    assertThat(copy).isEqualTo(receipt);
+    assertThat(copy.getDepositReceiptVersion()).isEmpty();
+  }
+
+  @Test
+  public void preRegolithDepositReceiptToFromRlpCompactedWithReason() {
+    final TransactionReceipt receipt = depositReceipt(Optional.empty(), Optional.empty());
+    final TransactionReceipt copy =
+        TransactionReceipt.readFrom(
+            RLP.input(RLP.encode(rlpOut -> receipt.writeToForStorage(rlpOut, true))));
+    assertThat(copy).isEqualTo(receipt);
+    assertThat(copy.getDepositNonce()).isEmpty();
+    assertThat(copy.getRevertReason()).isEqualTo(receipt.getRevertReason());
+  }
+
+  @Test
+  public void depositReceiptToFromRlpWithReason() {
+    final TransactionReceipt receipt = depositReceipt(Optional.of(7L), Optional.of(1L));
+    final TransactionReceipt copy =
+        TransactionReceipt.readFrom(
+            RLP.input(RLP.encode(rlpOut -> receipt.writeToForStorage(rlpOut, false))));
+    assertThat(copy).isEqualTo(receipt);
+    assertThat(copy.getRevertReason()).isEqualTo(receipt.getRevertReason());
+  }
+
+  private static TransactionReceipt depositReceipt(
+      final Optional<Long> depositNonce, final Optional<Long> depositReceiptVersion) {
+    final BlockDataGenerator gen = new BlockDataGenerator();
+    return new TransactionReceipt(
+        TransactionType.OPTIMISM_DEPOSIT,
+        0,
+        21_000L,
+        gen.receipt().getLogsList(),
+        Optional.of(Bytes.fromHexString("0x1122334455667788")),
+        depositNonce,
+        depositReceiptVersion);
+  }
 }
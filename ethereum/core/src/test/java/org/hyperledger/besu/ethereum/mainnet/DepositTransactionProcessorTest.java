@@ -0,0 +1,248 @@
+/*
+ * Copyright contributors to Besu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.mainnet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.hyperledger.besu.config.OptimismGenesisConfigOptions;
+import org.hyperledger.besu.datatypes.Address;
+import org.hyperledger.besu.datatypes.Hash;
+import org.hyperledger.besu.datatypes.TransactionType;
+import org.hyperledger.besu.datatypes.Wei;
+import org.hyperledger.besu.ethereum.core.InMemoryKeyValueStorageProvider;
+import org.hyperledger.besu.ethereum.core.MutableWorldState;
+import org.hyperledger.besu.ethereum.core.OptimismTransaction;
+import org.hyperledger.besu.ethereum.core.ProcessableBlockHeader;
+import org.hyperledger.besu.ethereum.processing.TransactionProcessingResult;
+import org.hyperledger.besu.ethereum.transaction.TransactionInvalidReason;
+import org.hyperledger.besu.evm.frame.MessageFrame;
+import org.hyperledger.besu.evm.gascalculator.LondonGasCalculator;
+import org.hyperledger.besu.evm.operation.BlockHashOperation.BlockHashLookup;
+import org.hyperledger.besu.evm.processor.AbstractMessageProcessor;
+import org.hyperledger.besu.evm.processor.ContractCreationProcessor;
+import org.hyperledger.besu.evm.processor.MessageCallProcessor;
+import org.hyperledger.besu.evm.tracing.OperationTracer;
+import org.hyperledger.besu.evm.worldstate.WorldUpdater;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class DepositTransactionProcessorTest {
+  private static final long TIMESTAMP = 1_000L;
+  private static final long GAS_LIMIT = 100_000L;
+  private static final long EXECUTION_GAS = 5_000L;
+  private static final Address SENDER =
+      Address.fromHexString("0x5555555555555555555555555555555555555555");
+  private static final Address RECIPIENT =
+      Address.fromHexString("0x2222222222222222222222222222222222222222");
+  private static final Address COINBASE =
+      Address.fromHexString("0x4200000000000000000000000000000000000011");
+  private static final int MAX_INITCODE_SIZE = 0xc000;
+
+  private final OptimismGenesisConfigOptions genesisOptions =
+      mock(OptimismGenesisConfigOptions.class);
+  private final AbstractMessageProcessor contractCreationProcessor =
+      mock(ContractCreationProcessor.class);
+  private final AbstractMessageProcessor messageCallProcessor = mock(MessageCallProcessor.class);
+  private final ProcessableBlockHeader blockHeader = mock(ProcessableBlockHeader.class);
+  private MutableWorldState worldState;
+  private DepositTransactionProcessor processor;
+
+  @BeforeEach
+  void setUp() {
+    when(blockHeader.getTimestamp()).thenReturn(TIMESTAMP);
+    when(contractCreationProcessor.getMaxInitcodeSize()).thenReturn(MAX_INITCODE_SIZE);
+    worldState = InMemoryKeyValueStorageProvider.createInMemoryWorldState();
+    processor =
+        new DepositTransactionProcessor(
+            new LondonGasCalculator(),
+            contractCreationProcessor,
+            messageCallProcessor,
+            1024,
+            true,
+            true,
+            genesisOptions);
+  }
+
+  @Test
+  void regolithDepositUsesActualGasAndMintsToSender() {
+    activeForks(true, true);
+    executionSucceeds();
+
+    final TransactionProcessingResult result = process(deposit(Wei.of(1_000L), Wei.ZERO, false));
+
+    assertThat(result.isSuccessful()).isTrue();
+    assertThat(GAS_LIMIT - result.getGasRemaining()).isEqualTo(21_000L + EXECUTION_GAS);
+    assertThat(result.getDepositNonce()).contains(0L);
+    assertThat(result.getDepositReceiptVersion())
+        .contains(DepositTransactionProcessor.CANYON_DEPOSIT_RECEIPT_VERSION);
+    assertThat(worldState.get(SENDER).getBalance()).isEqualTo(Wei.of(1_000L));
+    assertThat(worldState.get(SENDER).getNonce()).isEqualTo(1L);
+  }
+
+  @Test
+  void preRegolithDepositUsesAllItsGas() {
+    activeForks(false, false);
+    executionSucceeds();
+
+    final TransactionProcessingResult result = process(deposit(Wei.ZERO, Wei.ZERO, false));
+
+    assertThat(result.isSuccessful()).isTrue();
+    assertThat(result.getGasRemaining()).isZero();
+    assertThat(result.getDepositNonce()).isEmpty();
+    assertThat(result.getDepositReceiptVersion()).isEmpty();
+  }
+
+  @Test
+  void preRegolithSystemDepositUsesNoGas() {
+    activeForks(false, false);
+    executionSucceeds();
+
+    final TransactionProcessingResult result = process(deposit(Wei.ZERO, Wei.ZERO, true));
+
+    assertThat(result.isSuccessful()).isTrue();
+    assertThat(result.getGasRemaining()).isEqualTo(GAS_LIMIT);
+  }
+
+  @Test
+  void depositWithValueAboveBalanceFailsKeepingTheMint() {
+    activeForks(true, false);
+
+    final TransactionProcessingResult result =
+        process(deposit(Wei.of(1_000L), Wei.of(1_001L), false));
+
+    assertThat(result.isFailed()).isTrue();
+    assertThat(result.getGasRemaining()).isZero();
+    assertThat(result.getDepositNonce()).contains(0L);
+    assertThat(result.getDepositReceiptVersion()).isEmpty();
+    assertThat(worldState.get(SENDER).getBalance()).isEqualTo(Wei.of(1_000L));
+    assertThat(worldState.get(SENDER).getNonce()).isEqualTo(1L);
+    verify(messageCallProcessor, never()).process(any(), any());
+  }
+
+  @Test
+  void systemDepositAfterRegolithFails() {
+    activeForks(true, true);
+
+    final TransactionProcessingResult result = process(deposit(Wei.ZERO, Wei.ZERO, true));
+
+    assertThat(result.isFailed()).isTrue();
+    assertThat(result.getGasRemaining()).isZero();
+    assertThat(worldState.get(SENDER).getNonce()).isEqualTo(1L);
+    verify(messageCallProcessor, never()).process(any(), any());
+  }
+
+  @Test
+  void depositCallingTheCoinbaseFindsItWarm() {
+    activeForks(true, true);
+    final AtomicBoolean isCoinbaseWarm = new AtomicBoolean();
+    doAnswer(
+            invocation -> {
+              final MessageFrame messageFrame = invocation.getArgument(0);
+              isCoinbaseWarm.set(messageFrame.isAddressWarm(COINBASE));
+              messageFrame.getMessageFrameStack().pop();
+              messageFrame.setState(MessageFrame.State.COMPLETED_SUCCESS);
+              return null;
+            })
+        .when(messageCallProcessor)
+        .process(any(), any());
+    final OptimismTransaction deposit = deposit(Wei.ZERO, Wei.ZERO, false);
+    when(deposit.getTo()).thenReturn(Optional.of(COINBASE));
+
+    final TransactionProcessingResult result = process(deposit);
+
+    assertThat(result.isSuccessful()).isTrue();
+    assertThat(isCoinbaseWarm).isTrue();
+  }
+
+  @Test
+  void contractCreationDepositWithTooLargeInitcodeFails() {
+    activeForks(true, true);
+    final OptimismTransaction deposit = deposit(Wei.ZERO, Wei.ZERO, false);
+    when(deposit.getTo()).thenReturn(Optional.empty());
+    when(deposit.isContractCreation()).thenReturn(true);
+    when(deposit.getPayload()).thenReturn(Bytes.wrap(new byte[MAX_INITCODE_SIZE + 1]));
+    when(deposit.getGasLimit()).thenReturn(1_000_000L);
+
+    final TransactionProcessingResult result = process(deposit);
+
+    assertThat(result.isFailed()).isTrue();
+    assertThat(result.getGasRemaining()).isZero();
+    assertThat(result.getValidationResult().getInvalidReason())
+        .isEqualTo(TransactionInvalidReason.INITCODE_TOO_LARGE);
+    assertThat(worldState.get(SENDER).getNonce()).isEqualTo(1L);
+    verify(contractCreationProcessor, never()).process(any(), any());
+  }
+
+  private TransactionProcessingResult process(final OptimismTransaction deposit) {
+    final WorldUpdater updater = worldState.updater();
+    final TransactionProcessingResult result =
+        processor.processTransaction(
+            updater,
+            blockHeader,
+            deposit,
+            COINBASE,
+            OperationTracer.NO_TRACING,
+            mock(BlockHashLookup.class),
+            false,
+            Wei.ZERO);
+    updater.commit();
+    return result;
+  }
+
+  private void executionSucceeds() {
+    doAnswer(
+            invocation -> {
+              final MessageFrame messageFrame = invocation.getArgument(0);
+              messageFrame.decrementRemainingGas(EXECUTION_GAS);
+              messageFrame.getMessageFrameStack().pop();
+              messageFrame.setState(MessageFrame.State.COMPLETED_SUCCESS);
+              return null;
+            })
+        .when(messageCallProcessor)
+        .process(any(), any());
+  }
+
+  private void activeForks(final boolean regolith, final boolean canyon) {
+    when(genesisOptions.isRegolith(TIMESTAMP)).thenReturn(regolith);
+    when(genesisOptions.isCanyon(TIMESTAMP)).thenReturn(canyon);
+  }
+
+  private static OptimismTransaction deposit(
+      final Wei mint, final Wei value, final boolean isSystemTx) {
+    final OptimismTransaction deposit = mock(OptimismTransaction.class);
+    when(deposit.getType()).thenReturn(TransactionType.OPTIMISM_DEPOSIT);
+    when(deposit.getHash()).thenReturn(Hash.EMPTY);
+    when(deposit.getSender()).thenReturn(SENDER);
+    when(deposit.getTo()).thenReturn(Optional.of(RECIPIENT));
+    when(deposit.isContractCreation()).thenReturn(false);
+    when(deposit.getPayload()).thenReturn(Bytes.EMPTY);
+    when(deposit.getGasLimit()).thenReturn(GAS_LIMIT);
+    when(deposit.getValue()).thenReturn(value);
+    when(deposit.getMint()).thenReturn(Optional.of(mint));
+    when(deposit.getIsSystemTx()).thenReturn(Optional.of(isSystemTx));
+    return deposit;
+  }
+}
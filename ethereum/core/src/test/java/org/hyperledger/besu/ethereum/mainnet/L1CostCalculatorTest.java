@@ -0,0 +1,202 @@
+/*
+ * Copyright contributors to Besu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.mainnet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import org.hyperledger.besu.config.OptimismGenesisConfigOptions;
+import org.hyperledger.besu.datatypes.RollupGasData;
+import org.hyperledger.besu.datatypes.TransactionType;
+import org.hyperledger.besu.datatypes.Wei;
+import org.hyperledger.besu.ethereum.core.BlockHeader;
+import org.hyperledger.besu.ethereum.core.BlockHeaderTestFixture;
+import org.hyperledger.besu.ethereum.core.Transaction;
+import org.hyperledger.besu.evm.account.Account;
+import org.hyperledger.besu.evm.worldstate.WorldView;
+
+import java.util.Optional;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.units.bigints.UInt256;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class L1CostCalculatorTest {
+
+  private static final long TIMESTAMP = 1_000L;
+  private static final RollupGasData ROLLUP_GAS_DATA = new RollupGasData(10L, 20L, 50L);
+
+  private static final L1BlockInfo BEDROCK_INFO =
+      new L1BlockInfo(
+          Wei.of(1_000_000_000L), UInt256.valueOf(188), UInt256.valueOf(684_000), Wei.ZERO, 0L, 0L);
+  private static final L1BlockInfo ECOTONE_INFO =
+      new L1BlockInfo(
+          Wei.of(1_000_000_000L), UInt256.ZERO, UInt256.ZERO, Wei.of(1L), 1368L, 810949L);
+
+  private final OptimismGenesisConfigOptions genesisOptions =
+      mock(OptimismGenesisConfigOptions.class);
+  private final BlockHeader header =
+      new BlockHeaderTestFixture().timestamp(TIMESTAMP).buildHeader();
+  private L1CostCalculator calculator;
+
+  @BeforeEach
+  void setUp() {
+    calculator = new L1CostCalculator(genesisOptions);
+  }
+
+  @Test
+  void bedrockCostIncludesOverhead() {
+    activeForks(true, false, false);
+
+    assertThat(calculator.l1Cost(header, BEDROCK_INFO, transaction(ROLLUP_GAS_DATA)))
+        .isEqualTo(new L1CostCalculator.L1Cost(Wei.of(374_832_000_000L), 548L));
+  }
+
+  @Test
+  void preRegolithCostIncludesSignatureGas() {
+    activeForks(false, false, false);
+
+    assertThat(calculator.l1Cost(header, BEDROCK_INFO, transaction(ROLLUP_GAS_DATA)))
+        .isEqualTo(new L1CostCalculator.L1Cost(Wei.of(1_119_024_000_000L), 1636L));
+  }
+
+  @Test
+  void ecotoneCostUsesScalars() {
+    activeForks(true, true, false);
+
+    assertThat(calculator.l1Cost(header, ECOTONE_INFO, transaction(ROLLUP_GAS_DATA)))
+        .isEqualTo(new L1CostCalculator.L1Cost(Wei.of(492_480_018L), 360L));
+  }
+
+  @Test
+  void ecotoneActivationBlockUsesBedrockCost() {
+    activeForks(true, true, false);
+
+    assertThat(calculator.l1Cost(header, BEDROCK_INFO, transaction(ROLLUP_GAS_DATA)))
+        .isEqualTo(new L1CostCalculator.L1Cost(Wei.of(374_832_000_000L), 548L));
+  }
+
+  @Test
+  void fjordCostIsFlooredAtMinimumTransactionSize() {
+    activeForks(true, true, true);
+
+    assertThat(calculator.l1Cost(header, ECOTONE_INFO, transaction(ROLLUP_GAS_DATA)))
+        .isEqualTo(new L1CostCalculator.L1Cost(Wei.of(2_188_800_081L), 1600L));
+  }
+
+  @Test
+  void fjordCostUsesCompressedSize() {
+    activeForks(true, true, true);
+
+    final Transaction transaction = transaction(new RollupGasData(10L, 20L, 200L));
+
+    assertThat(calculator.l1Cost(header, ECOTONE_INFO, transaction))
+        .isEqualTo(new L1CostCalculator.L1Cost(Wei.of(2_729_748_888L), 1995L));
+  }
+
+  @Test
+  void depositTransactionHasNoL1Cost() {
+    final Transaction deposit = mock(Transaction.class);
+    when(deposit.getType()).thenReturn(TransactionType.OPTIMISM_DEPOSIT);
+
+    assertThat(calculator.l1Cost(header, ECOTONE_INFO, deposit))
+        .isEqualTo(L1CostCalculator.L1Cost.ZERO);
+  }
+
+  @Test
+  void l1AttributesDepositIsReusedForTheBlock() {
+    activeForks(true, true, false);
+    final WorldView worldView = mock(WorldView.class);
+
+    calculator.onDepositTransaction(header, ecotoneL1InfoDeposit());
+
+    assertThat(calculator.l1Cost(header, transaction(ROLLUP_GAS_DATA), worldView))
+        .isEqualTo(new L1CostCalculator.L1Cost(Wei.of(492_480_018L), 360L));
+    verifyNoInteractions(worldView);
+  }
+
+  @Test
+  void cachedCostIsOnlyAvailableAfterTheL1AttributesDeposit() {
+    activeForks(true, true, false);
+
+    assertThat(calculator.cachedL1Cost(header, transaction(ROLLUP_GAS_DATA))).isEmpty();
+
+    calculator.onDepositTransaction(header, ecotoneL1InfoDeposit());
+
+    assertThat(calculator.cachedL1Cost(header, transaction(ROLLUP_GAS_DATA)))
+        .contains(new L1CostCalculator.L1Cost(Wei.of(492_480_018L), 360L));
+  }
+
+  @Test
+  void readsPackedEcotoneScalarsFromL1BlockStorage() {
+    final Account l1Block = mock(Account.class);
+    when(l1Block.getStorageValue(UInt256.valueOf(1))).thenReturn(UInt256.valueOf(1_000_000_000L));
+    // sequence number, blob base fee scalar and base fee scalar, packed from the low order bytes
+    when(l1Block.getStorageValue(UInt256.valueOf(3)))
+        .thenReturn(
+            UInt256.fromBytes(
+                Bytes.concatenate(
+                    Bytes.wrap(new byte[16]),
+                    Bytes.ofUnsignedInt(1368L),
+                    Bytes.ofUnsignedInt(810949L),
+                    Bytes.ofUnsignedLong(42L))));
+    when(l1Block.getStorageValue(UInt256.valueOf(5))).thenReturn(UInt256.ZERO);
+    when(l1Block.getStorageValue(UInt256.valueOf(6))).thenReturn(UInt256.ZERO);
+    when(l1Block.getStorageValue(UInt256.valueOf(7))).thenReturn(UInt256.ONE);
+    final WorldView worldView = mock(WorldView.class);
+    when(worldView.get(L1BlockInfo.L1_BLOCK_ADDRESS)).thenReturn(l1Block);
+
+    assertThat(L1BlockInfo.fromWorldState(worldView)).isEqualTo(ECOTONE_INFO);
+  }
+
+  @Test
+  void decodesEcotoneL1AttributesDeposit() {
+    assertThat(L1BlockInfo.fromL1InfoDeposit(ecotoneL1InfoDeposit())).contains(ECOTONE_INFO);
+  }
+
+  private void activeForks(final boolean regolith, final boolean ecotone, final boolean fjord) {
+    when(genesisOptions.isRegolith(TIMESTAMP)).thenReturn(regolith);
+    when(genesisOptions.isEcotone(TIMESTAMP)).thenReturn(ecotone);
+    when(genesisOptions.isFjord(TIMESTAMP)).thenReturn(fjord);
+  }
+
+  private static Transaction transaction(final RollupGasData rollupGasData) {
+    final Transaction transaction = mock(Transaction.class);
+    when(transaction.getType()).thenReturn(TransactionType.EIP1559);
+    when(transaction.getRollupGasData()).thenReturn(rollupGasData);
+    return transaction;
+  }
+
+  private static Transaction ecotoneL1InfoDeposit() {
+    final Transaction deposit = mock(Transaction.class);
+    when(deposit.getType()).thenReturn(TransactionType.OPTIMISM_DEPOSIT);
+    when(deposit.getTo()).thenReturn(Optional.of(L1BlockInfo.L1_BLOCK_ADDRESS));
+    when(deposit.getSender()).thenReturn(L1BlockInfo.L1_INFO_DEPOSITOR_ADDRESS);
+    when(deposit.getPayload())
+        .thenReturn(
+            Bytes.concatenate(
+                Bytes.fromHexString("0x440a5e20"),
+                Bytes.fromHexString("0x00000558"),
+                Bytes.fromHexString("0x000c5fc5"),
+                Bytes.wrap(new byte[24]),
+                UInt256.valueOf(1_000_000_000L),
+                UInt256.ONE,
+                Bytes.wrap(new byte[64])));
+    return deposit;
+  }
+}
@@ -157,11 +157,7 @@ public abstract class AbstractIsolationTests {
   @BeforeEach
   public void createStorage() {
     worldStateKeyValueStorage =
-        // FYI: BonsaiSnapshoIsolationTests  work with frozen/cached worldstates, using PARTIAL
-        // flat db strategy allows the tests to make account assertions based on trie
-        // (whereas a full db strategy will not, since the worldstates are frozen/cached)
-        createKeyValueStorageProvider()
-            .createWorldStateStorage(DataStorageConfiguration.DEFAULT_BONSAI_PARTIAL_DB_CONFIG);
+        createKeyValueStorageProvider().createWorldStateStorage(getDataStorageConfiguration());
     archive =
         new BonsaiWorldStateProvider(
             (BonsaiWorldStateKeyValueStorage) worldStateKeyValueStorage,
@@ -191,6 +187,13 @@ public abstract class AbstractIsolationTests {
     transactionPool.setEnabled();
   }
 
+  protected DataStorageConfiguration getDataStorageConfiguration() {
+    // FYI: BonsaiSnapshoIsolationTests  work with frozen/cached worldstates, using PARTIAL
+    // flat db strategy allows the tests to make account assertions based on trie
+    // (whereas a full db strategy will not, since the worldstates are frozen/cached)
+    return DataStorageConfiguration.DEFAULT_BONSAI_PARTIAL_DB_CONFIG;
+  }
+
   // storage provider which uses a temporary directory based rocksdb
   protected StorageProvider createKeyValueStorageProvider() {
     return new KeyValueStorageProviderBuilder()
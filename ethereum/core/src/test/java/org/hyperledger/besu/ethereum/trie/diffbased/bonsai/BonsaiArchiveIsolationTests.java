@@ -0,0 +1,101 @@
+/*
+ * Copyright contributors to Hyperledger Besu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.trie.diffbased.bonsai;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.hyperledger.besu.datatypes.Address;
+import org.hyperledger.besu.datatypes.Wei;
+import org.hyperledger.besu.ethereum.BlockProcessingResult;
+import org.hyperledger.besu.ethereum.core.Block;
+import org.hyperledger.besu.ethereum.core.MutableWorldState;
+import org.hyperledger.besu.ethereum.trie.diffbased.bonsai.storage.BonsaiArchiveWorldStateKeyValueStorage;
+import org.hyperledger.besu.ethereum.trie.diffbased.bonsai.storage.BonsaiWorldStateKeyValueStorage;
+import org.hyperledger.besu.ethereum.trie.diffbased.bonsai.storage.flat.BonsaiArchiver;
+import org.hyperledger.besu.ethereum.trie.diffbased.bonsai.worldview.BonsaiWorldState;
+import org.hyperledger.besu.ethereum.worldstate.DataStorageConfiguration;
+import org.hyperledger.besu.ethereum.worldstate.ImmutableDataStorageConfiguration;
+import org.hyperledger.besu.ethereum.worldstate.ImmutableDiffBasedSubStorageConfiguration;
+import org.hyperledger.besu.plugin.services.storage.DataStorageFormat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class BonsaiArchiveIsolationTests extends AbstractIsolationTests {
+
+  @Override
+  protected DataStorageConfiguration getDataStorageConfiguration() {
+    return ImmutableDataStorageConfiguration.builder()
+        .dataStorageFormat(DataStorageFormat.BONSAI)
+        .diffBasedSubStorageConfiguration(
+            ImmutableDiffBasedSubStorageConfiguration.builder()
+                .unstable(
+                    ImmutableDiffBasedSubStorageConfiguration.DiffBasedUnstable.builder()
+                        .archiveEnabled(true)
+                        .build())
+                .build())
+        .build();
+  }
+
+  @BeforeEach
+  public void startArchiver() {
+    blockchain.observeBlockAdded(
+        new BonsaiArchiver(
+            (BonsaiWorldStateKeyValueStorage) worldStateKeyValueStorage,
+            archive.getTrieLogManager(),
+            blockchain,
+            Runnable::run));
+  }
+
+  @Test
+  public void testBlockOnNonHeadParentIsValidatedWithoutTheArchive() throws Exception {
+    final Address testAddress = Address.fromHexString("0xdeadbeef");
+    final Address otherAddress = Address.fromHexString("0xfeedbeef");
+
+    final Block firstBlock = forTransactions(List.of(burnTransaction(sender1, 0L, testAddress)));
+    assertThat(executeBlock(archive.getMutable(), firstBlock).isSuccessful()).isTrue();
+    final Block secondBlock = forTransactions(List.of(burnTransaction(sender1, 1L, testAddress)));
+    assertThat(executeBlock(archive.getMutable(), secondBlock).isSuccessful()).isTrue();
+
+    // queries of the first block are served by the archive
+    try (MutableWorldState queried =
+        archive.getMutableForQuery(firstBlock.getHeader()).orElseThrow()) {
+      assertThat(((BonsaiWorldState) queried).getWorldStateStorage())
+          .isInstanceOf(BonsaiArchiveWorldStateKeyValueStorage.class);
+      assertThat(queried.get(testAddress).getBalance())
+          .isEqualTo(Wei.of(1_000_000_000_000_000_000L));
+    }
+
+    // a fork on top of the first block is built and validated on the rolled back state
+    final Block forkBlock =
+        forTransactions(
+            List.of(burnTransaction(sender1, 1L, otherAddress)), firstBlock.getHeader());
+    try (MutableWorldState parentWorldState =
+        archive.getMutable(firstBlock.getHeader(), false).orElseThrow()) {
+      assertThat(((BonsaiWorldState) parentWorldState).getWorldStateStorage())
+          .isNotInstanceOf(BonsaiArchiveWorldStateKeyValueStorage.class);
+      assertThat(parentWorldState.rootHash()).isEqualTo(firstBlock.getHeader().getStateRoot());
+
+      final BlockProcessingResult result =
+          protocolSchedule
+              .getByBlockHeader(forkBlock.getHeader())
+              .getBlockProcessor()
+              .processBlock(blockchain, parentWorldState, forkBlock);
+      assertThat(result.isSuccessful()).isTrue();
+    }
+  }
+}
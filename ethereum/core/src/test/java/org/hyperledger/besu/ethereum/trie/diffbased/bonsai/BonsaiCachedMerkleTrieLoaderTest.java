@@ -15,6 +15,9 @@
 package org.hyperledger.besu.ethereum.trie.diffbased.bonsai;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hyperledger.besu.metrics.BesuMetricCategory.BLOCKCHAIN;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 
 import org.hyperledger.besu.datatypes.Address;
 import org.hyperledger.besu.datatypes.Hash;
@@ -31,6 +34,7 @@ import org.hyperledger.besu.ethereum.trie.diffbased.bonsai.storage.BonsaiWorldSt
 import org.hyperledger.besu.ethereum.trie.patricia.StoredMerklePatriciaTrie;
 import org.hyperledger.besu.ethereum.worldstate.DataStorageConfiguration;
 import org.hyperledger.besu.ethereum.worldstate.WorldStateStorageCoordinator;
+import org.hyperledger.besu.metrics.ObservableMetricsSystem;
 import org.hyperledger.besu.metrics.noop.NoOpMetricsSystem;
 
 import java.util.ArrayList;
@@ -40,6 +44,7 @@ import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -93,6 +98,31 @@ class BonsaiCachedMerkleTrieLoaderTest {
     assertThat(cachedTrie.get(hashAccountZero)).isEqualTo(trie.get(hashAccountZero));
   }
 
+  @Test
+  void shouldAddNodesOfSeveralAccountsInCacheWithBatchReads() {
+    merkleTrieLoader.cacheAccountNodes(inMemoryWorldState, Hash.wrap(trie.getRootHash()), accounts);
+
+    final BonsaiWorldStateKeyValueStorage emptyStorage =
+        new BonsaiWorldStateKeyValueStorage(
+            new InMemoryKeyValueStorageProvider(),
+            new NoOpMetricsSystem(),
+            DataStorageConfiguration.DEFAULT_BONSAI_CONFIG);
+    StoredMerklePatriciaTrie<Bytes, Bytes> cachedTrie =
+        new StoredMerklePatriciaTrie<>(
+            (location, hash) ->
+                merkleTrieLoader.getAccountStateTrieNode(emptyStorage, location, hash),
+            trie.getRootHash(),
+            Function.identity(),
+            Function.identity());
+
+    for (final Address account : accounts) {
+      final Hash accountHash = account.addressHash();
+      assertThat(cachedTrie.get(accountHash)).isPresent().isEqualTo(trie.get(accountHash));
+    }
+    Mockito.verify(inMemoryWorldState, Mockito.never())
+        .getAccountStateTrieNode(Mockito.any(), Mockito.any());
+  }
+
   @Test
   void shouldAddStorageNodesInCacheDuringPreload() {
     final Hash hashAccountZero = accounts.get(0).addressHash();
@@ -186,4 +216,54 @@ class BonsaiCachedMerkleTrieLoaderTest {
         });
     assertThat(originalSlots).isNotEmpty().isEqualTo(cachedSlots);
   }
+
+  @Test
+  void shouldKeepNodesReadThroughTheLoaderForLaterReads() {
+    final Hash hashAccountZero = accounts.get(0).addressHash();
+    new StoredMerklePatriciaTrie<Bytes, Bytes>(
+            (location, hash) ->
+                merkleTrieLoader.getAccountStateTrieNode(inMemoryWorldState, location, hash),
+            trie.getRootHash(),
+            Function.identity(),
+            Function.identity())
+        .get(hashAccountZero);
+
+    final BonsaiWorldStateKeyValueStorage emptyStorage =
+        new BonsaiWorldStateKeyValueStorage(
+            new InMemoryKeyValueStorageProvider(),
+            new NoOpMetricsSystem(),
+            DataStorageConfiguration.DEFAULT_BONSAI_CONFIG);
+    final StoredMerklePatriciaTrie<Bytes, Bytes> cachedTrie =
+        new StoredMerklePatriciaTrie<>(
+            (location, hash) ->
+                merkleTrieLoader.getAccountStateTrieNode(emptyStorage, location, hash),
+            trie.getRootHash(),
+            Function.identity(),
+            Function.identity());
+    assertThat(cachedTrie.get(hashAccountZero)).isPresent().isEqualTo(trie.get(hashAccountZero));
+  }
+
+  @Test
+  void shouldNotKeepNodesLargerThanTheCacheSize() {
+    final BonsaiCachedMerkleTrieLoader smallLoader =
+        new BonsaiCachedMerkleTrieLoader(new NoOpMetricsSystem(), 64);
+    final Bytes32 rootHash = trie.getRootHash();
+    assertThat(smallLoader.getAccountStateTrieNode(inMemoryWorldState, Bytes.EMPTY, rootHash))
+        .isPresent();
+
+    Mockito.clearInvocations(inMemoryWorldState);
+    assertThat(smallLoader.getAccountStateTrieNode(inMemoryWorldState, Bytes.EMPTY, rootHash))
+        .isPresent();
+    Mockito.verify(inMemoryWorldState).getAccountStateTrieNode(Bytes.EMPTY, rootHash);
+  }
+
+  @Test
+  void shouldKeepTheAccountAndStorageNodesCacheMetrics() {
+    final ObservableMetricsSystem metricsSystem = Mockito.mock(ObservableMetricsSystem.class);
+    new BonsaiCachedMerkleTrieLoader(metricsSystem);
+    Mockito.verify(metricsSystem)
+        .createGuavaCacheCollector(eq(BLOCKCHAIN), eq("accountsNodes"), any());
+    Mockito.verify(metricsSystem)
+        .createGuavaCacheCollector(eq(BLOCKCHAIN), eq("storageNodes"), any());
+  }
 }
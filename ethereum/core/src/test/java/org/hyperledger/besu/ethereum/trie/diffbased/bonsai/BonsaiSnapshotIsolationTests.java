@@ -83,6 +83,35 @@ public class BonsaiSnapshotIsolationTests extends AbstractIsolationTests {
     }
   }
 
+  @Test
+  public void testHeadReadersShareTheHeadSnapshot() throws Exception {
+    Address testAddress = Address.fromHexString("0xdeadbeef");
+
+    var firstBlock = forTransactions(List.of(burnTransaction(sender1, 0L, testAddress)));
+    var res = executeBlock(archive.getMutable(), firstBlock);
+    assertThat(res.isSuccessful()).isTrue();
+
+    // both readers are layers on top of the snapshot of the head
+    var headReader = archive.getMutable(firstBlock.getHeader(), false);
+    var headReader2 = archive.getMutable(firstBlock.getHeader(), false);
+
+    var secondBlock = forTransactions(List.of(burnTransaction(sender1, 1L, testAddress)));
+    var res2 = executeBlock(archive.getMutable(), secondBlock);
+    assertThat(res2.isSuccessful()).isTrue();
+
+    // closing a reader does not release the snapshot of the other one
+    headReader.get().close();
+    assertThat(headReader2.get().get(testAddress).getBalance())
+        .isEqualTo(Wei.of(1_000_000_000_000_000_000L));
+    assertThat(headReader2.get().rootHash()).isEqualTo(firstBlock.getHeader().getStateRoot());
+    headReader2.get().close();
+
+    var newHeadReader = archive.getMutable(secondBlock.getHeader(), false);
+    assertThat(newHeadReader.get().get(testAddress).getBalance())
+        .isEqualTo(Wei.of(2_000_000_000_000_000_000L));
+    newHeadReader.get().close();
+  }
+
   @Test
   public void testSnapshotRollToTrieLogBlockHash() {
     // assert we can roll a snapshot to a specific worldstate without mutating head
@@ -0,0 +1,132 @@
+/*
+ * Copyright contributors to Hyperledger Besu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.trie.diffbased.bonsai;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.hyperledger.besu.datatypes.Address;
+import org.hyperledger.besu.datatypes.Hash;
+import org.hyperledger.besu.datatypes.Wei;
+import org.hyperledger.besu.ethereum.core.Block;
+import org.hyperledger.besu.ethereum.core.BlockHeader;
+import org.hyperledger.besu.ethereum.core.MutableWorldState;
+import org.hyperledger.besu.ethereum.trie.diffbased.bonsai.storage.BonsaiWorldStateKeyValueStorage;
+import org.hyperledger.besu.ethereum.trie.diffbased.common.trielog.TrieLogCompactor;
+import org.hyperledger.besu.ethereum.trie.diffbased.common.trielog.TrieLogManager;
+import org.hyperledger.besu.evm.account.Account;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+
+public class BonsaiTrieLogRangeIsolationTests extends AbstractIsolationTests {
+
+  private static final int BLOCK_COUNT = 130;
+  private final List<Address> recipients =
+      List.of(
+          Address.fromHexString("0xdeadbeef"),
+          Address.fromHexString("0xfeedbeef"),
+          Address.fromHexString("0xbeefbeef"));
+
+  @Test
+  public void rollingAcrossCompactedRangesMatchesRollingBlockByBlock() {
+    appendBlocks();
+    final List<Long> targets = List.of(0L, 128L, 64L, (long) BLOCK_COUNT);
+
+    // without ranges, each block is rolled with its own trie log
+    final Map<Long, Map<Address, Wei>> rolledBlockByBlock = new LinkedHashMap<>();
+    targets.forEach(number -> rolledBlockByBlock.put(number, rollTo(number)));
+
+    final TrieLogManager trieLogManager = archive.getTrieLogManager();
+    assertThat(trieLogManager.compactTrieLogRange(header(64), 64)).isTrue();
+    assertThat(trieLogManager.compactTrieLogRange(header(128), 64)).isTrue();
+    // only the ranges can roll across the blocks without trie logs
+    pruneTrieLogs(1, 63);
+    pruneTrieLogs(65, 127);
+
+    final Map<Long, Map<Address, Wei>> rolledAcrossRanges = new LinkedHashMap<>();
+    targets.forEach(number -> rolledAcrossRanges.put(number, rollTo(number)));
+
+    assertThat(rolledAcrossRanges).isEqualTo(rolledBlockByBlock);
+  }
+
+  @Test
+  public void compactedRangesAreReadAfterThePrunedTrieLogs() {
+    final TrieLogManager trieLogManager = archive.getTrieLogManager();
+    trieLogManager.subscribe(
+        new TrieLogCompactor(trieLogManager, blockchain, Long.MAX_VALUE, Runnable::run));
+    appendBlocks();
+
+    // the range is compacted once it is 64 blocks behind the head
+    assertThat(storage().getTrieLogRange(header(64).getHash(), 64)).isPresent();
+    assertThat(storage().getTrieLogRange(header(128).getHash(), 64)).isEmpty();
+
+    pruneTrieLogs(1, 63);
+    assertThat(trieLogManager.getTrieLogRange(header(64), 0))
+        .hasValueSatisfying(
+            range -> {
+              assertThat(range.size()).isEqualTo(64);
+              assertThat(range.trieLog().getBlockHash()).isEqualTo(header(64).getHash());
+            });
+    assertThat(rollTo(0)).isEqualTo(Map.of());
+    assertThat(rollTo(64)).isNotEmpty();
+
+    // pruning the last trie log of a range also prunes the range
+    pruneTrieLogs(64, 64);
+    assertThat(storage().getTrieLogRange(header(64).getHash(), 64)).isEmpty();
+    assertThat(trieLogManager.getTrieLogRange(header(64), 0)).isEmpty();
+  }
+
+  private void appendBlocks() {
+    for (int i = 0; i < BLOCK_COUNT; i++) {
+      final Block block =
+          forTransactions(
+              List.of(burnTransaction(sender1, (long) i, recipients.get(i % recipients.size()))));
+      assertThat(executeBlock(archive.getMutable(), block).isSuccessful()).isTrue();
+    }
+  }
+
+  // rolls the persisted world state, that checks its state root against the block header
+  private Map<Address, Wei> rollTo(final long blockNumber) {
+    final BlockHeader header = header(blockNumber);
+    final MutableWorldState worldState = archive.getMutable(header, true).orElseThrow();
+    assertThat(worldState.rootHash()).isEqualTo(header.getStateRoot());
+    final Map<Address, Wei> balances = new LinkedHashMap<>();
+    recipients.forEach(
+        recipient ->
+            Optional.ofNullable(worldState.get(recipient))
+                .map(Account::getBalance)
+                .ifPresent(balance -> balances.put(recipient, balance)));
+    return balances;
+  }
+
+  private void pruneTrieLogs(final long fromBlockNumber, final long toBlockNumber) {
+    for (long number = fromBlockNumber; number <= toBlockNumber; number++) {
+      final Hash blockHash = header(number).getHash();
+      assertThat(storage().pruneTrieLog(blockHash)).isTrue();
+    }
+  }
+
+  private BlockHeader header(final long blockNumber) {
+    return blockchain.getBlockHeader(blockNumber).orElseThrow();
+  }
+
+  private BonsaiWorldStateKeyValueStorage storage() {
+    return (BonsaiWorldStateKeyValueStorage) worldStateKeyValueStorage;
+  }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright contributors to Besu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.trie.diffbased.bonsai.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.hyperledger.besu.crypto.KeyPair;
+import org.hyperledger.besu.crypto.SignatureAlgorithmFactory;
+import org.hyperledger.besu.datatypes.AccessListEntry;
+import org.hyperledger.besu.datatypes.Address;
+import org.hyperledger.besu.datatypes.StorageSlotKey;
+import org.hyperledger.besu.datatypes.TransactionType;
+import org.hyperledger.besu.ethereum.core.Transaction;
+import org.hyperledger.besu.ethereum.core.TransactionTestFixture;
+import org.hyperledger.besu.ethereum.trie.diffbased.bonsai.worldview.BonsaiWorldState;
+import org.hyperledger.besu.ethereum.trie.diffbased.bonsai.worldview.BonsaiWorldStateUpdateAccumulator;
+import org.hyperledger.besu.ethereum.trie.diffbased.common.DiffBasedValue;
+import org.hyperledger.besu.ethereum.trie.diffbased.common.worldview.accumulator.preload.StorageConsumingMap;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import org.apache.tuweni.bytes.Bytes32;
+import org.apache.tuweni.units.bigints.UInt256;
+import org.junit.jupiter.api.Test;
+
+class BonsaiStoragePrefetcherTest {
+
+  private static final KeyPair KEY_PAIR =
+      SignatureAlgorithmFactory.getInstance().generateKeyPair();
+  private static final Address COINBASE = Address.fromHexString("0xc0");
+  private static final Address CONTRACT = Address.fromHexString("0xc1");
+  private static final Address LISTED = Address.fromHexString("0xc2");
+
+  private final BonsaiStoragePrefetcher prefetcher =
+      new BonsaiStoragePrefetcher(MoreExecutors.newDirectExecutorService());
+
+  @Test
+  void collectsSendersRecipientsAndAccessLists() {
+    final Transaction transaction =
+        new TransactionTestFixture()
+            .type(TransactionType.EIP1559)
+            .to(Optional.of(CONTRACT))
+            .accessList(List.of(new AccessListEntry(LISTED, List.of(Bytes32.leftPad(UInt256.ONE)))))
+            .createTransaction(KEY_PAIR);
+
+    final Map<Address, Set<StorageSlotKey>> keys =
+        prefetcher.collectKeys(List.of(transaction), COINBASE);
+
+    assertThat(keys)
+        .containsOnlyKeys(COINBASE, transaction.getSender(), CONTRACT, LISTED)
+        .containsEntry(CONTRACT, Set.of())
+        .containsEntry(LISTED, Set.of(new StorageSlotKey(UInt256.ONE)));
+  }
+
+  @Test
+  void collectsSlotsAccessedByPreviousBlocksInCalledContracts() {
+    final StorageSlotKey slot = new StorageSlotKey(UInt256.valueOf(7));
+    final StorageConsumingMap<StorageSlotKey, DiffBasedValue<UInt256>> slots =
+        new StorageConsumingMap<>(CONTRACT, new ConcurrentHashMap<>(), __ -> {});
+    slots.put(slot, new DiffBasedValue<>(UInt256.ONE, UInt256.ONE));
+    final BonsaiWorldStateUpdateAccumulator accumulator =
+        mock(BonsaiWorldStateUpdateAccumulator.class);
+    when(accumulator.getStorageToUpdate()).thenReturn(Map.of(CONTRACT, slots));
+    prefetcher.recordAccessedSlots(accumulator);
+
+    final Transaction call =
+        new TransactionTestFixture().to(Optional.of(CONTRACT)).createTransaction(KEY_PAIR);
+    final Transaction transfer =
+        new TransactionTestFixture().to(Optional.of(LISTED)).createTransaction(KEY_PAIR);
+
+    final Map<Address, Set<StorageSlotKey>> keys =
+        prefetcher.collectKeys(List.of(call, transfer), COINBASE);
+
+    assertThat(keys).containsEntry(CONTRACT, Set.of(slot)).containsEntry(LISTED, Set.of());
+  }
+
+  @Test
+  void closedPrefetcherDoesNotReadTheStorage() {
+    final BonsaiWorldState worldState = mock(BonsaiWorldState.class);
+    final Transaction transaction =
+        new TransactionTestFixture().to(Optional.of(CONTRACT)).createTransaction(KEY_PAIR);
+    prefetcher.close();
+
+    prefetcher.prefetch(worldState, List.of(transaction), COINBASE);
+
+    verify(worldState, never()).getWorldStateStorage();
+  }
+}
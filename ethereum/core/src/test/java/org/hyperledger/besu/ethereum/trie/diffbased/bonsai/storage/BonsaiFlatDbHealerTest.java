@@ -0,0 +1,195 @@
+/*
+ * Copyright contributors to Hyperledger Besu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.trie.diffbased.bonsai.storage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hyperledger.besu.ethereum.storage.keyvalue.KeyValueSegmentIdentifier.TRIE_BRANCH_STORAGE;
+import static org.hyperledger.besu.ethereum.trie.diffbased.common.storage.DiffBasedWorldStateKeyValueStorage.WORLD_ROOT_HASH_KEY;
+
+import org.hyperledger.besu.datatypes.Hash;
+import org.hyperledger.besu.datatypes.StorageSlotKey;
+import org.hyperledger.besu.datatypes.Wei;
+import org.hyperledger.besu.ethereum.chain.VariablesStorage;
+import org.hyperledger.besu.ethereum.core.InMemoryKeyValueStorageProvider;
+import org.hyperledger.besu.ethereum.rlp.RLP;
+import org.hyperledger.besu.ethereum.trie.MerkleTrie;
+import org.hyperledger.besu.ethereum.trie.RangeManager;
+import org.hyperledger.besu.ethereum.trie.common.PmtStateTrieAccountValue;
+import org.hyperledger.besu.ethereum.trie.patricia.SimpleMerklePatriciaTrie;
+import org.hyperledger.besu.ethereum.worldstate.DataStorageConfiguration;
+import org.hyperledger.besu.metrics.noop.NoOpMetricsSystem;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.function.Function;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+import org.apache.tuweni.units.bigints.UInt256;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class BonsaiFlatDbHealerTest {
+
+  private final Random random = new Random(1);
+  private final InMemoryKeyValueStorageProvider storageProvider =
+      new InMemoryKeyValueStorageProvider();
+  private final VariablesStorage variablesStorage = storageProvider.createVariablesStorage();
+  private final List<Hash> accountHashes = new ArrayList<>();
+  private final List<Hash> slotHashes = new ArrayList<>();
+  private BonsaiWorldStateKeyValueStorage storage;
+  private Hash stateRoot;
+
+  @BeforeEach
+  void setUp() {
+    storage =
+        new BonsaiWorldStateKeyValueStorage(
+            storageProvider,
+            new NoOpMetricsSystem(),
+            DataStorageConfiguration.DEFAULT_BONSAI_CONFIG);
+    storage.upgradeToFullFlatDbMode();
+
+    final BonsaiWorldStateKeyValueStorage.Updater updater = storage.updater();
+    for (int i = 0; i < 40; i++) {
+      final Hash accountHash = Hash.wrap(Bytes32.random(random));
+      final MerkleTrie<Bytes, Bytes> storageTrie =
+          new SimpleMerklePatriciaTrie<>(Function.identity());
+      for (int j = 0; j < i; j++) {
+        final Hash slotHash = Hash.wrap(Bytes32.random(random));
+        final UInt256 value = UInt256.valueOf(random.nextInt(1_000) + 1L);
+        updater.putStorageValueBySlotHash(accountHash, slotHash, value);
+        storageTrie.put(slotHash, RLP.encode(out -> out.writeBytes(value.toMinimalBytes())));
+        slotHashes.add(slotHash);
+      }
+      final PmtStateTrieAccountValue account =
+          new PmtStateTrieAccountValue(
+              i, Wei.of(i), Hash.wrap(storageTrie.getRootHash()), Hash.EMPTY);
+      updater.putAccountInfoState(accountHash, RLP.encode(account::writeTo));
+      accountHashes.add(accountHash);
+    }
+    updater.commit();
+
+    // write the tries of the flat database
+    final BonsaiTrieRebuilder trieRebuilder = new BonsaiTrieRebuilder(storage);
+    stateRoot = trieRebuilder.computeStateRoot();
+    final BonsaiWorldStateKeyValueStorage.Updater rootUpdater = storage.updater();
+    rootUpdater
+        .getWorldStateTransaction()
+        .put(TRIE_BRANCH_STORAGE, WORLD_ROOT_HASH_KEY, stateRoot.toArrayUnsafe());
+    rootUpdater.commit();
+    trieRebuilder.rebuild();
+  }
+
+  @Test
+  void consistentFlatDatabaseHasNoMismatch() {
+    final BonsaiFlatDbHealer.Result result = new BonsaiFlatDbHealer(storage, 4).verify();
+
+    assertThat(result.isConsistent()).isTrue();
+    assertThat(result.getAccounts()).isEqualTo(40);
+    assertThat(result.getSlots()).isEqualTo(slotHashes.size());
+  }
+
+  @Test
+  void healRepairsTheFlatDatabase() {
+    final Hash updatedAccount = accountHashes.get(3);
+    final Hash removedAccount = accountHashes.get(10);
+    final Hash addedAccount = Hash.wrap(Bytes32.random(random));
+    final BonsaiWorldStateKeyValueStorage.Updater updater = storage.updater();
+    updater.putAccountInfoState(updatedAccount, Bytes.of(1));
+    updater.removeAccountInfoState(removedAccount);
+    updater.putAccountInfoState(addedAccount, Bytes.of(2));
+    updater.putStorageValueBySlotHash(addedAccount, Hash.ZERO, UInt256.ONE);
+    updater.commit();
+
+    final BonsaiFlatDbHealer.Result verifyResult = new BonsaiFlatDbHealer(storage, 4).verify();
+    assertThat(verifyResult.getAccountMismatches()).isEqualTo(3);
+    assertThat(verifyResult.getSlotMismatches()).isEqualTo(1);
+    // nothing was repaired
+    assertThat(storage.getAccount(addedAccount)).isPresent();
+
+    final BonsaiFlatDbHealer.Result healResult =
+        new BonsaiFlatDbHealer(storage, 4).heal(variablesStorage);
+    assertThat(healResult.getAccountMismatches()).isEqualTo(3);
+    assertThat(healResult.getSlotMismatches()).isEqualTo(1);
+
+    assertThat(storage.getAccount(addedAccount)).isEmpty();
+    assertThat(storage.getAccount(removedAccount)).isPresent();
+    assertThat(new BonsaiFlatDbHealer(storage, 4).verify().isConsistent()).isTrue();
+    assertThat(variablesStorage.getFlatDbHealingProgress()).isEmpty();
+  }
+
+  @Test
+  void healWritesTheRepairedSlotsLeftPadded() {
+    // the account with index 1 has a single slot, the first one
+    final Hash accountHash = accountHashes.get(1);
+    final StorageSlotKey slotKey = new StorageSlotKey(slotHashes.get(0), Optional.empty());
+    final Bytes originalValue =
+        storage.getStorageValueByStorageSlotKey(accountHash, slotKey).orElseThrow();
+    assertThat(originalValue.size()).isEqualTo(Bytes32.SIZE);
+    final BonsaiWorldStateKeyValueStorage.Updater updater = storage.updater();
+    updater.putStorageValueBySlotHash(accountHash, slotKey.getSlotHash(), UInt256.valueOf(5_000));
+    updater.commit();
+
+    assertThat(new BonsaiFlatDbHealer(storage, 4).heal(variablesStorage).getSlotMismatches())
+        .isEqualTo(1);
+
+    assertThat(storage.getStorageValueByStorageSlotKey(accountHash, slotKey))
+        .contains(originalValue);
+  }
+
+  @Test
+  void healResumesFromTheSavedProgress() {
+    final BonsaiWorldStateKeyValueStorage.Updater updater = storage.updater();
+    updater.removeAccountInfoState(accountHashes.get(10));
+    updater.commit();
+    // all the ranges were already checked
+    saveProgress(stateRoot);
+
+    assertThat(new BonsaiFlatDbHealer(storage, 4).heal(variablesStorage).getAccounts()).isZero();
+    assertThat(variablesStorage.getFlatDbHealingProgress()).isEmpty();
+  }
+
+  @Test
+  void healIgnoresTheProgressOfAnotherStateRoot() {
+    final BonsaiWorldStateKeyValueStorage.Updater updater = storage.updater();
+    updater.removeAccountInfoState(accountHashes.get(10));
+    updater.commit();
+    saveProgress(Hash.EMPTY_TRIE_HASH);
+
+    final BonsaiFlatDbHealer.Result result =
+        new BonsaiFlatDbHealer(storage, 4).heal(variablesStorage);
+    assertThat(result.getAccounts()).isEqualTo(40);
+    assertThat(result.getAccountMismatches()).isEqualTo(1);
+  }
+
+  private void saveProgress(final Hash progressStateRoot) {
+    final int nbRanges = RangeManager.generateAllRanges(4).size();
+    final VariablesStorage.Updater updater = variablesStorage.updater();
+    updater.setFlatDbHealingProgress(
+        RLP.encode(
+            out -> {
+              out.startList();
+              out.writeBytes(progressStateRoot);
+              out.writeList(
+                  Collections.nCopies(nbRanges, Bytes.EMPTY),
+                  (cursor, listOut) -> listOut.writeBytes(cursor));
+              out.endList();
+            }));
+    updater.commit();
+  }
+}
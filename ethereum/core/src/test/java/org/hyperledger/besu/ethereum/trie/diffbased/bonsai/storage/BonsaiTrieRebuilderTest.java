@@ -0,0 +1,146 @@
+/*
+ * Copyright contributors to Hyperledger Besu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.trie.diffbased.bonsai.storage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.hyperledger.besu.ethereum.storage.keyvalue.KeyValueSegmentIdentifier.TRIE_BRANCH_STORAGE;
+import static org.hyperledger.besu.ethereum.trie.diffbased.common.storage.DiffBasedWorldStateKeyValueStorage.WORLD_ROOT_HASH_KEY;
+
+import org.hyperledger.besu.datatypes.Hash;
+import org.hyperledger.besu.datatypes.Wei;
+import org.hyperledger.besu.ethereum.core.InMemoryKeyValueStorageProvider;
+import org.hyperledger.besu.ethereum.rlp.RLP;
+import org.hyperledger.besu.ethereum.trie.MerkleTrie;
+import org.hyperledger.besu.ethereum.trie.RangeManager;
+import org.hyperledger.besu.ethereum.trie.common.PmtStateTrieAccountValue;
+import org.hyperledger.besu.ethereum.trie.patricia.SimpleMerklePatriciaTrie;
+import org.hyperledger.besu.ethereum.trie.patricia.StoredMerklePatriciaTrie;
+import org.hyperledger.besu.ethereum.worldstate.DataStorageConfiguration;
+import org.hyperledger.besu.metrics.noop.NoOpMetricsSystem;
+
+import java.util.Random;
+import java.util.function.Function;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+import org.apache.tuweni.units.bigints.UInt256;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class BonsaiTrieRebuilderTest {
+
+  private final Random random = new Random(1);
+  private final MerkleTrie<Bytes, Bytes> expectedAccountTrie =
+      new SimpleMerklePatriciaTrie<>(Function.identity());
+  private BonsaiWorldStateKeyValueStorage storage;
+
+  @BeforeEach
+  void setUp() {
+    storage =
+        new BonsaiWorldStateKeyValueStorage(
+            new InMemoryKeyValueStorageProvider(),
+            new NoOpMetricsSystem(),
+            DataStorageConfiguration.DEFAULT_BONSAI_CONFIG);
+    storage.upgradeToFullFlatDbMode();
+
+    final BonsaiWorldStateKeyValueStorage.Updater updater = storage.updater();
+    for (int i = 0; i < 50; i++) {
+      final Hash accountHash = Hash.wrap(Bytes32.random(random));
+      final MerkleTrie<Bytes, Bytes> storageTrie =
+          new SimpleMerklePatriciaTrie<>(Function.identity());
+      for (int j = 0; j < i; j++) {
+        final Hash slotHash = Hash.wrap(Bytes32.random(random));
+        final UInt256 value = UInt256.valueOf(random.nextInt(1_000) + 1L);
+        updater.putStorageValueBySlotHash(accountHash, slotHash, value);
+        storageTrie.put(slotHash, RLP.encode(out -> out.writeBytes(value.toMinimalBytes())));
+      }
+      // the flat account may hold a stale storage root, the rebuilt one is used
+      final PmtStateTrieAccountValue flatAccount =
+          new PmtStateTrieAccountValue(i, Wei.of(i), Hash.EMPTY_TRIE_HASH, Hash.EMPTY);
+      final PmtStateTrieAccountValue account =
+          new PmtStateTrieAccountValue(
+              i, Wei.of(i), Hash.wrap(storageTrie.getRootHash()), Hash.EMPTY);
+      updater.putAccountInfoState(accountHash, RLP.encode(flatAccount::writeTo));
+      expectedAccountTrie.put(accountHash, RLP.encode(account::writeTo));
+    }
+    updater.commit();
+  }
+
+  @Test
+  void computesTheStateRootOfTheFlatDatabase() {
+    assertThat(new BonsaiTrieRebuilder(storage).computeStateRoot())
+        .isEqualTo(expectedAccountTrie.getRootHash());
+    // nothing was written
+    assertThat(storage.getAccountStateTrieNode(Bytes.EMPTY, expectedAccountTrie.getRootHash()))
+        .isEmpty();
+  }
+
+  @Test
+  void rebuildsTheTriesOfThePersistedStateRoot() {
+    saveWorldStateRootHash(expectedAccountTrie.getRootHash());
+
+    assertThat(new BonsaiTrieRebuilder(storage).rebuild())
+        .isEqualTo(expectedAccountTrie.getRootHash());
+
+    final MerkleTrie<Bytes, Bytes> accountTrie =
+        new StoredMerklePatriciaTrie<>(
+            storage::getAccountStateTrieNode,
+            expectedAccountTrie.getRootHash(),
+            Function.identity(),
+            Function.identity());
+    assertThat(accountTrie.entriesFrom(Bytes32.ZERO, Integer.MAX_VALUE))
+        .isEqualTo(expectedAccountTrie.entriesFrom(Bytes32.ZERO, Integer.MAX_VALUE));
+    accountTrie
+        .entriesFrom(Bytes32.ZERO, Integer.MAX_VALUE)
+        .forEach(
+            (accountHash, value) -> {
+              final Hash storageRoot =
+                  PmtStateTrieAccountValue.readFrom(RLP.input(value)).getStorageRoot();
+              final MerkleTrie<Bytes, Bytes> storageTrie =
+                  new StoredMerklePatriciaTrie<>(
+                      (location, hash) ->
+                          storage.getAccountStorageTrieNode(Hash.wrap(accountHash), location, hash),
+                      storageRoot,
+                      Function.identity(),
+                      Function.identity());
+              assertThat(storageTrie.entriesFrom(Bytes32.ZERO, Integer.MAX_VALUE))
+                  .isEqualTo(
+                      storage.streamFlatStorages(
+                          Hash.wrap(accountHash),
+                          RangeManager.MIN_RANGE,
+                          RangeManager.MAX_RANGE,
+                          Integer.MAX_VALUE));
+            });
+  }
+
+  @Test
+  void doesNotWriteTheTriesOfAnotherStateRoot() {
+    saveWorldStateRootHash(Hash.EMPTY_TRIE_HASH);
+
+    assertThatThrownBy(() -> new BonsaiTrieRebuilder(storage).rebuild())
+        .isInstanceOf(IllegalStateException.class);
+    assertThat(storage.getAccountStateTrieNode(Bytes.EMPTY, expectedAccountTrie.getRootHash()))
+        .isEmpty();
+  }
+
+  private void saveWorldStateRootHash(final Bytes32 rootHash) {
+    final BonsaiWorldStateKeyValueStorage.Updater updater = storage.updater();
+    updater
+        .getWorldStateTransaction()
+        .put(TRIE_BRANCH_STORAGE, WORLD_ROOT_HASH_KEY, rootHash.toArrayUnsafe());
+    updater.commit();
+  }
+}
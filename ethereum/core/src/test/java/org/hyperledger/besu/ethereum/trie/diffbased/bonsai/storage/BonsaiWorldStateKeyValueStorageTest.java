@@ -21,6 +21,7 @@ import static org.hyperledger.besu.ethereum.worldstate.DiffBasedSubStorageConfig
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -49,6 +50,7 @@ import org.hyperledger.besu.plugin.services.storage.KeyValueStorage;
 
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.TreeMap;
 
@@ -273,6 +275,37 @@ public class BonsaiWorldStateKeyValueStorageTest {
     verify(storage, times(1)).getAccountStateTrieNode(any(), eq(trie.getRootHash()));
   }
 
+  @ParameterizedTest
+  @MethodSource("flatDbMode")
+  void getAccounts_readFlatDatabaseInOneBatchAndMatchGetAccount(final FlatDbMode flatDbMode) {
+    final BonsaiWorldStateKeyValueStorage storage = spy(setUp(flatDbMode));
+    final WorldStateStorageCoordinator coordinator = new WorldStateStorageCoordinator(storage);
+    final MerkleTrie<Bytes, Bytes> trie = TrieGenerator.generateTrie(coordinator, 3);
+    final TreeMap<Bytes32, Bytes> accounts =
+        (TreeMap<Bytes32, Bytes>)
+            trie.entriesFrom(root -> StorageEntriesCollector.collectEntries(root, Hash.ZERO, 3));
+
+    // save world state root hash
+    final BonsaiWorldStateKeyValueStorage.Updater updater = storage.updater();
+    updater
+        .getWorldStateTransaction()
+        .put(TRIE_BRANCH_STORAGE, WORLD_ROOT_HASH_KEY, trie.getRootHash().toArrayUnsafe());
+    updater.commit();
+
+    // remove one account from the flat database
+    storage.updater().removeAccountInfoState(Hash.wrap(accounts.lastKey())).commit();
+
+    final List<Hash> accountHashes =
+        List.of(Hash.wrap(accounts.firstKey()), Hash.wrap(accounts.lastKey()), Hash.ZERO);
+    final List<Optional<Bytes>> expected = accountHashes.stream().map(storage::getAccount).toList();
+    Mockito.reset(storage);
+
+    assertThat(storage.getAccounts(accountHashes)).isEqualTo(expected);
+    assertThat(expected.get(0)).contains(accounts.firstEntry().getValue());
+    assertThat(expected.get(1).isPresent()).isEqualTo(flatDbMode == FlatDbMode.PARTIAL);
+    verify(storage, never()).getAccount(any());
+  }
+
   @ParameterizedTest
   @MethodSource("flatDbMode")
   void shouldUsePartialDBStrategyAfterDowngradingMode(final FlatDbMode flatDbMode) {
@@ -0,0 +1,142 @@
+/*
+ * Copyright contributors to Hyperledger Besu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.trie.diffbased.bonsai.storage.flat;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.hyperledger.besu.datatypes.Address;
+import org.hyperledger.besu.datatypes.Hash;
+import org.hyperledger.besu.datatypes.StorageSlotKey;
+import org.hyperledger.besu.datatypes.Wei;
+import org.hyperledger.besu.ethereum.rlp.RLP;
+import org.hyperledger.besu.ethereum.storage.keyvalue.KeyValueSegmentIdentifier;
+import org.hyperledger.besu.ethereum.trie.common.PmtStateTrieAccountValue;
+import org.hyperledger.besu.ethereum.trie.diffbased.common.storage.flat.CodeHashCodeStorageStrategy;
+import org.hyperledger.besu.ethereum.trie.diffbased.common.trielog.TrieLogLayer;
+import org.hyperledger.besu.metrics.noop.NoOpMetricsSystem;
+import org.hyperledger.besu.plugin.services.storage.SegmentedKeyValueStorage;
+import org.hyperledger.besu.plugin.services.storage.SegmentedKeyValueStorageTransaction;
+import org.hyperledger.besu.services.kvstore.SegmentedInMemoryKeyValueStorage;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.units.bigints.UInt256;
+import org.junit.jupiter.api.Test;
+
+class BonsaiArchiveFlatDbStrategyTest {
+
+  private static final Address ADDRESS = Address.fromHexString("0x01");
+  private static final StorageSlotKey SLOT = new StorageSlotKey(UInt256.ONE);
+
+  private final BonsaiArchiveFlatDbStrategy archiveFlatDbStrategy =
+      new BonsaiArchiveFlatDbStrategy(new NoOpMetricsSystem(), new CodeHashCodeStorageStrategy());
+  private final SegmentedKeyValueStorage storage =
+      new SegmentedInMemoryKeyValueStorage(
+          List.of(
+              KeyValueSegmentIdentifier.ACCOUNT_INFO_STATE_ARCHIVE,
+              KeyValueSegmentIdentifier.ACCOUNT_STORAGE_ARCHIVE,
+              KeyValueSegmentIdentifier.TRIE_BRANCH_STORAGE));
+
+  @Test
+  void readsTheAccountOfEachArchivedBlock() {
+    // created by block 11, updated by block 13
+    archive(11, accountChange(null, account(1)));
+    archive(13, accountChange(account(1), account(2)));
+
+    assertThat(getAccount(9)).contains(Bytes.EMPTY);
+    assertThat(getAccount(10)).contains(Bytes.EMPTY);
+    assertThat(getAccount(11)).contains(encoded(account(1)));
+    assertThat(getAccount(12)).contains(encoded(account(1)));
+    assertThat(getAccount(13)).contains(encoded(account(2)));
+    assertThat(getAccount(20)).contains(encoded(account(2)));
+  }
+
+  @Test
+  void readsNothingForKeysThatNeverChanged() {
+    archive(11, accountChange(null, account(1)));
+
+    assertThat(
+            archiveFlatDbStrategy.getArchivedAccount(
+                storage, Address.fromHexString("0x02").addressHash(), 11))
+        .isEmpty();
+    assertThat(getSlot(11)).isEmpty();
+  }
+
+  @Test
+  void readsTheStorageOfEachArchivedBlock() {
+    archive(11, storageChange(null, UInt256.valueOf(5)));
+    archive(14, storageChange(UInt256.valueOf(5), UInt256.ZERO));
+
+    assertThat(getSlot(10)).contains(Bytes.EMPTY);
+    assertThat(getSlot(12)).contains(UInt256.valueOf(5));
+    assertThat(getSlot(14)).contains(Bytes.EMPTY);
+  }
+
+  @Test
+  void unarchivedBlocksAreReplacedByTheNewCanonicalBlocks() {
+    archive(11, accountChange(null, account(1)));
+    archive(12, accountChange(account(1), account(2)));
+    archive(13, accountChange(account(2), account(3)));
+
+    // reorg to a block 12 that does not change the account, the parent 11 stays canonical
+    unarchive(13, accountChange(account(2), account(3)), true);
+    unarchive(12, accountChange(account(1), account(2)), false);
+
+    assertThat(getAccount(11)).contains(encoded(account(1)));
+    assertThat(getAccount(12)).contains(encoded(account(1)));
+    assertThat(getAccount(13)).contains(encoded(account(1)));
+  }
+
+  private void archive(final long blockNumber, final TrieLogLayer trieLog) {
+    final SegmentedKeyValueStorageTransaction transaction = storage.startTransaction();
+    archiveFlatDbStrategy.archiveBlock(transaction, blockNumber, trieLog);
+    transaction.commit();
+  }
+
+  private void unarchive(
+      final long blockNumber, final TrieLogLayer trieLog, final boolean removePrior) {
+    final SegmentedKeyValueStorageTransaction transaction = storage.startTransaction();
+    archiveFlatDbStrategy.unarchiveBlock(transaction, blockNumber, trieLog, removePrior);
+    transaction.commit();
+  }
+
+  private Optional<Bytes> getAccount(final long blockNumber) {
+    return archiveFlatDbStrategy.getArchivedAccount(storage, ADDRESS.addressHash(), blockNumber);
+  }
+
+  private Optional<Bytes> getSlot(final long blockNumber) {
+    return archiveFlatDbStrategy.getArchivedStorageValue(
+        storage, ADDRESS.addressHash(), SLOT.getSlotHash(), blockNumber);
+  }
+
+  private static TrieLogLayer accountChange(
+      final PmtStateTrieAccountValue prior, final PmtStateTrieAccountValue updated) {
+    return new TrieLogLayer().addAccountChange(ADDRESS, prior, updated);
+  }
+
+  private static TrieLogLayer storageChange(final UInt256 prior, final UInt256 updated) {
+    return new TrieLogLayer().addStorageChange(ADDRESS, SLOT, prior, updated);
+  }
+
+  private static PmtStateTrieAccountValue account(final long nonce) {
+    return new PmtStateTrieAccountValue(nonce, Wei.ONE, Hash.EMPTY_TRIE_HASH, Hash.EMPTY);
+  }
+
+  private static Bytes encoded(final PmtStateTrieAccountValue account) {
+    return RLP.encode(account::writeTo);
+  }
+}
@@ -25,6 +25,7 @@ import org.hyperledger.besu.ethereum.core.BlockHeaderTestFixture;
 import org.hyperledger.besu.ethereum.core.BlockchainSetupUtil;
 import org.hyperledger.besu.ethereum.trie.common.PmtStateTrieAccountValue;
 import org.hyperledger.besu.ethereum.trie.diffbased.common.trielog.TrieLogLayer;
+import org.hyperledger.besu.ethereum.worldstate.TrieLogEncoding;
 import org.hyperledger.besu.plugin.services.storage.DataStorageFormat;
 import org.hyperledger.besu.plugin.services.trielogs.TrieLog;
 import org.hyperledger.besu.plugin.services.trielogs.TrieLogFactory;
@@ -71,4 +72,58 @@ public class TrieLogFactoryTests {
     TrieLog layer = factory.deserialize(rlp);
     assertThat(layer).isEqualTo(trieLogFixture);
   }
+
+  @Test
+  public void testCompactSerializeDeserializeAreEqual() {
+    TrieLogFactory factory = new TrieLogFactoryImpl(TrieLogEncoding.COMPACT);
+    byte[] compact = factory.serialize(trieLogFixture);
+
+    byte[] rlp = new TrieLogFactoryImpl().serialize(trieLogFixture);
+
+    assertThat(compact[0]).isEqualTo(CompactTrieLogCodec.COMPACT_VERSION);
+    assertThat(compact.length).isLessThan(rlp.length);
+    assertThat(factory.deserialize(compact)).isEqualTo(trieLogFixture);
+  }
+
+  @Test
+  public void testCompactKeepsUnchangedHashesOfUpdatedAccounts() {
+    final Hash storageRoot = Hash.hash(Bytes.of(1));
+    final Hash codeHash = Hash.hash(Bytes.of(2));
+    final TrieLogLayer trieLog =
+        new TrieLogLayer()
+            .setBlockHash(headerFixture.getBlockHash())
+            .addAccountChange(
+                accountFixture,
+                new PmtStateTrieAccountValue(1, Wei.fromEth(1), storageRoot, codeHash),
+                new PmtStateTrieAccountValue(2, Wei.ZERO, storageRoot, codeHash))
+            .addStorageChange(
+                accountFixture, new StorageSlotKey(UInt256.ONE), UInt256.MAX_VALUE, UInt256.ZERO);
+
+    TrieLogFactory factory = new TrieLogFactoryImpl(TrieLogEncoding.COMPACT);
+    assertThat(factory.deserialize(factory.serialize(trieLog))).isEqualTo(trieLog);
+  }
+
+  @Test
+  public void testCompressedSerializeDeserializeAreEqual() {
+    final Bytes code = Bytes.fromHexString("0x6080604052348015600f57600080fd5b50".repeat(64));
+    final TrieLogLayer trieLog =
+        new TrieLogLayer()
+            .setBlockHash(headerFixture.getBlockHash())
+            .addCodeChange(accountFixture, null, code, headerFixture.getBlockHash());
+
+    TrieLogFactory factory = new TrieLogFactoryImpl(TrieLogEncoding.COMPACT_COMPRESSED);
+    byte[] compressed = factory.serialize(trieLog);
+
+    assertThat(compressed[0]).isEqualTo(CompactTrieLogCodec.COMPACT_DEFLATED_VERSION);
+    assertThat(compressed.length).isLessThan(code.size());
+    assertThat(factory.deserialize(compressed)).isEqualTo(trieLog);
+  }
+
+  @Test
+  public void testCompactFactoryReadsRlpTrieLogs() {
+    byte[] rlp = new TrieLogFactoryImpl().serialize(trieLogFixture);
+
+    TrieLogFactory factory = new TrieLogFactoryImpl(TrieLogEncoding.COMPACT_COMPRESSED);
+    assertThat(factory.deserialize(rlp)).isEqualTo(trieLogFixture);
+  }
 }
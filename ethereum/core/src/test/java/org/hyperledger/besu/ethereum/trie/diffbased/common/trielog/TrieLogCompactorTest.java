@@ -0,0 +1,92 @@
+/*
+ * Copyright contributors to Hyperledger Besu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.trie.diffbased.common.trielog;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.hyperledger.besu.ethereum.chain.Blockchain;
+import org.hyperledger.besu.ethereum.core.BlockHeader;
+import org.hyperledger.besu.plugin.services.trielogs.TrieLog;
+import org.hyperledger.besu.plugin.services.trielogs.TrieLogEvent;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class TrieLogCompactorTest {
+
+  private static final long RANGE_END = 1024;
+
+  private final TrieLogManager trieLogManager = mock(TrieLogManager.class);
+  private final Blockchain blockchain = mock(Blockchain.class);
+  private final BlockHeader rangeEndHeader = mock(BlockHeader.class);
+
+  @BeforeEach
+  public void setup() {
+    when(blockchain.getBlockHeader(RANGE_END)).thenReturn(Optional.of(rangeEndHeader));
+    when(trieLogManager.compactTrieLogRange(rangeEndHeader, 64)).thenReturn(true);
+    when(trieLogManager.compactTrieLogRange(rangeEndHeader, 1024)).thenReturn(true);
+  }
+
+  @Test
+  public void onlyTheRangesInTheRetainedTrieLogsShouldBeCompacted() {
+    new TrieLogCompactor(trieLogManager, blockchain, 512, Runnable::run)
+        .onTrieLogAdded(trieLogAdded(RANGE_END + TrieLogCompactor.COMPACTION_DELAY));
+
+    verify(trieLogManager).compactTrieLogRange(rangeEndHeader, 64);
+    verify(trieLogManager, never()).compactTrieLogRange(rangeEndHeader, 1024);
+  }
+
+  @Test
+  public void allTheRangesShouldBeCompactedWhenTheTrieLogsAreNotPruned() {
+    new TrieLogCompactor(trieLogManager, blockchain, Long.MAX_VALUE, Runnable::run)
+        .onTrieLogAdded(trieLogAdded(RANGE_END + TrieLogCompactor.COMPACTION_DELAY));
+
+    verify(trieLogManager).compactTrieLogRange(rangeEndHeader, 64);
+    verify(trieLogManager).compactTrieLogRange(rangeEndHeader, 1024);
+  }
+
+  @Test
+  public void nothingShouldBeCompactedWhenNoRangeFitsInTheRetainedTrieLogs() {
+    new TrieLogCompactor(trieLogManager, blockchain, 64, Runnable::run)
+        .onTrieLogAdded(trieLogAdded(RANGE_END + TrieLogCompactor.COMPACTION_DELAY));
+
+    verify(trieLogManager, never()).compactTrieLogRange(rangeEndHeader, 64);
+    verify(trieLogManager, never()).compactTrieLogRange(rangeEndHeader, 1024);
+  }
+
+  @Test
+  public void longerRangesShouldNotBeCompactedWhenAShorterOneIsMissing() {
+    when(trieLogManager.compactTrieLogRange(rangeEndHeader, 64)).thenReturn(false);
+
+    new TrieLogCompactor(trieLogManager, blockchain, Long.MAX_VALUE, Runnable::run)
+        .onTrieLogAdded(trieLogAdded(RANGE_END + TrieLogCompactor.COMPACTION_DELAY));
+
+    verify(trieLogManager, never()).compactTrieLogRange(rangeEndHeader, 1024);
+  }
+
+  private static TrieLogEvent trieLogAdded(final long blockNumber) {
+    final TrieLog trieLog = mock(TrieLog.class);
+    when(trieLog.getBlockNumber()).thenReturn(Optional.of(blockNumber));
+    final TrieLogEvent event = mock(TrieLogEvent.class);
+    when(event.getType()).thenReturn(TrieLogEvent.Type.ADDED);
+    when(event.layer()).thenReturn(trieLog);
+    return event;
+  }
+}
@@ -21,6 +21,7 @@ import org.hyperledger.besu.datatypes.StorageSlotKey;
 import org.hyperledger.besu.datatypes.Wei;
 import org.hyperledger.besu.ethereum.trie.common.PmtStateTrieAccountValue;
 
+import java.util.List;
 import java.util.Optional;
 
 import org.apache.tuweni.bytes.Bytes;
@@ -132,4 +133,39 @@ public class TrieLogLayerTests {
     Assertions.assertThat(updatedStorageValue).isPresent();
     Assertions.assertThat(updatedStorageValue.get()).isEqualTo(newValue);
   }
+
+  @Test
+  public void testMergeKeepsFirstPriorAndLastUpdatedValues() {
+    Address address = Address.fromHexString("0x00");
+    Address otherAddress = Address.fromHexString("0x01");
+    StorageSlotKey storageSlotKey = new StorageSlotKey(UInt256.ONE);
+    StorageSlotKey otherStorageSlotKey = new StorageSlotKey(UInt256.valueOf(2));
+    PmtStateTrieAccountValue firstValue =
+        new PmtStateTrieAccountValue(0, Wei.ZERO, Hash.EMPTY, Hash.EMPTY);
+    PmtStateTrieAccountValue secondValue =
+        new PmtStateTrieAccountValue(1, Wei.fromEth(1), Hash.EMPTY, Hash.EMPTY);
+    PmtStateTrieAccountValue thirdValue =
+        new PmtStateTrieAccountValue(2, Wei.fromEth(2), Hash.EMPTY, Hash.EMPTY);
+
+    trieLogLayer.addAccountChange(address, firstValue, secondValue);
+    trieLogLayer.addAccountChange(otherAddress, null, firstValue);
+    trieLogLayer.addStorageChange(address, storageSlotKey, UInt256.ZERO, UInt256.ONE);
+    trieLogLayer.addStorageChange(address, otherStorageSlotKey, null, UInt256.ONE);
+    otherTrieLogLayer.addAccountChange(address, secondValue, thirdValue);
+    otherTrieLogLayer.addAccountChange(otherAddress, firstValue, null);
+    otherTrieLogLayer.addStorageChange(address, storageSlotKey, UInt256.ONE, UInt256.valueOf(2));
+    otherTrieLogLayer.addStorageChange(address, otherStorageSlotKey, UInt256.ONE, null);
+
+    TrieLogLayer merged = TrieLogLayer.merge(List.of(trieLogLayer, otherTrieLogLayer));
+
+    Assertions.assertThat(merged.getPriorAccount(address)).contains(firstValue);
+    Assertions.assertThat(merged.getAccount(address)).contains(thirdValue);
+    Assertions.assertThat(merged.getPriorStorageByStorageSlotKey(address, storageSlotKey))
+        .contains(UInt256.ZERO);
+    Assertions.assertThat(merged.getStorageByStorageSlotKey(address, storageSlotKey))
+        .contains(UInt256.valueOf(2));
+    // the account and the slot created then deleted within the merged blocks are dropped
+    Assertions.assertThat(merged.getAccountChanges()).containsOnlyKeys(address);
+    Assertions.assertThat(merged.getStorageChanges().get(address)).containsOnlyKeys(storageSlotKey);
+  }
 }
@@ -317,6 +317,38 @@ public class TrieLogPrunerTest {
     verify(worldState, times(1)).pruneTrieLog(key(1));
   }
 
+  @Test
+  public void onTrieLogAdded_should_schedule_one_pruning_pass_at_a_time() {
+    // Given
+    final TriggerableConsumer triggerableConsumer = new TriggerableConsumer();
+    TrieLogPruner trieLogPruner =
+        new TrieLogPruner(
+            worldState,
+            blockchain,
+            triggerableConsumer,
+            0,
+            2,
+            1000,
+            false,
+            new NoOpMetricsSystem());
+    when(blockchain.getChainHeadBlockNumber()).thenReturn(2L);
+
+    // When
+    for (int blockNumber = 1; blockNumber <= 2; blockNumber++) {
+      final TrieLogLayer layer = new TrieLogLayer();
+      layer.setBlockNumber((long) blockNumber);
+      layer.setBlockHash(key(blockNumber));
+      trieLogPruner.onTrieLogAdded(new TrieLogAddedEvent(layer));
+    }
+    assertThat(triggerableConsumer.scheduledCount).isEqualTo(1);
+    triggerableConsumer.run();
+
+    // Then
+    verify(worldState, times(1)).pruneTrieLog(key(1));
+    verify(worldState, times(1)).pruneTrieLog(key(2));
+    assertThat(trieLogPruner.pruneFromQueue()).isEqualTo(0);
+  }
+
   @Test
   public void onTrieLogAdded_should_not_prune_when_no_blockNumber() {
     // Given
@@ -374,10 +406,12 @@ public class TrieLogPrunerTest {
   private static class TriggerableConsumer implements Consumer<Runnable> {
 
     private Runnable runnable;
+    private int scheduledCount = 0;
 
     @Override
     public void accept(final Runnable runnable) {
       this.runnable = runnable;
+      scheduledCount++;
     }
 
     public void run() {
@@ -0,0 +1,109 @@
+/*
+ * Copyright contributors to Hyperledger Besu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.trie.diffbased.common.worldview.accumulator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.hyperledger.besu.datatypes.Hash;
+import org.hyperledger.besu.datatypes.StorageSlotKey;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+
+import org.apache.tuweni.units.bigints.UInt256;
+import org.junit.jupiter.api.Test;
+
+public class StorageSlotMapTest {
+
+  private final StorageSlotMap<UInt256> map = new StorageSlotMap<>();
+
+  @Test
+  public void slotsShouldBeFoundByTheirHash() {
+    map.put(slot(1), UInt256.ONE);
+
+    assertThat(map.get(new StorageSlotKey(Hash.hash(UInt256.ONE), Optional.empty())))
+        .isEqualTo(UInt256.ONE);
+    assertThat(map.get(slot(2))).isNull();
+    assertThat(map).hasSize(1);
+  }
+
+  @Test
+  public void growingShouldKeepEverySlot() {
+    final Map<StorageSlotKey, UInt256> expected = new HashMap<>();
+    for (int i = 0; i < 1000; i++) {
+      map.put(slot(i), UInt256.valueOf(i));
+      expected.put(slot(i), UInt256.valueOf(i));
+    }
+
+    assertThat(map).hasSize(1000).isEqualTo(expected);
+  }
+
+  @Test
+  public void removedSlotsShouldBeReusedAndDroppedOnResize() {
+    for (int i = 0; i < 100; i++) {
+      map.put(slot(i), UInt256.valueOf(i));
+      assertThat(map.remove(slot(i))).isEqualTo(UInt256.valueOf(i));
+    }
+    map.put(slot(7), UInt256.MAX_VALUE);
+
+    assertThat(map).containsOnlyKeys(slot(7));
+    assertThat(map.remove(slot(8))).isNull();
+    assertThat(map.get(slot(7))).isEqualTo(UInt256.MAX_VALUE);
+  }
+
+  @Test
+  public void iteratorRemoveShouldOnlyRemoveTheCurrentSlot() {
+    for (int i = 0; i < 20; i++) {
+      map.put(slot(i), UInt256.valueOf(i));
+    }
+
+    final Iterator<Map.Entry<StorageSlotKey, UInt256>> iterator = map.entrySet().iterator();
+    while (iterator.hasNext()) {
+      if (iterator.next().getValue().toLong() % 2 == 0) {
+        iterator.remove();
+      }
+    }
+
+    assertThat(map).hasSize(10);
+    assertThat(map.values()).allMatch(value -> value.toLong() % 2 == 1);
+  }
+
+  @Test
+  public void conditionalWritesShouldFollowTheCurrentValue() {
+    assertThat(map.putIfAbsent(slot(1), UInt256.ONE)).isNull();
+    assertThat(map.putIfAbsent(slot(1), UInt256.ZERO)).isEqualTo(UInt256.ONE);
+    assertThat(map.replace(slot(1), UInt256.ZERO, UInt256.MAX_VALUE)).isFalse();
+    assertThat(map.replace(slot(1), UInt256.ONE, UInt256.MAX_VALUE)).isTrue();
+    assertThat(map.replace(slot(2), UInt256.ONE)).isNull();
+    assertThat(map.remove(slot(1), UInt256.ONE)).isFalse();
+    assertThat(map.remove(slot(1), UInt256.MAX_VALUE)).isTrue();
+    assertThat(map).isEmpty();
+  }
+
+  @Test
+  public void clearShouldRemoveEverySlot() {
+    map.put(slot(1), UInt256.ONE);
+    map.clear();
+
+    assertThat(map).isEmpty();
+    assertThat(map.get(slot(1))).isNull();
+  }
+
+  private static StorageSlotKey slot(final long slot) {
+    return new StorageSlotKey(UInt256.valueOf(slot));
+  }
+}
@@ -240,4 +240,70 @@ public class MemoryTest {
     assertThat(memory.getWord(32)).isEqualTo(Bytes32.ZERO);
     assertThat(memory.getWord(64)).isEqualTo(Bytes32.ZERO);
   }
+
+  @Test
+  public void shouldSetAndGetBytesAcrossPages() {
+    final Bytes value = Bytes.concatenate(WORD1, WORD2, WORD3, WORD4);
+    memory.setBytes(4090, value.size(), value);
+    assertThat(memory.getBytes(4090, value.size())).isEqualTo(value);
+    assertThat(memory.getWord(4090 + 32)).isEqualTo(WORD2);
+    assertThat(memory.getBytes(0, 4090)).isEqualTo(Bytes.wrap(new byte[4090]));
+    assertThat(memory.getActiveWords()).isEqualTo((4090 + 128 + 31) / 32);
+  }
+
+  @Test
+  public void shouldNotChangeViewWhenMemoryIsWrittenAfterwards() {
+    final Bytes value = pattern(10_000);
+    memory.setBytes(0, value.size(), value);
+    final Bytes view = memory.getBytesView(100, 9_000);
+    final Bytes singlePageView = memory.getBytesView(4096, 2_048);
+
+    memory.setWord(4096, WORD1);
+    memory.setBytes(0, 10_000, Bytes.EMPTY);
+
+    assertThat(view).isEqualTo(value.slice(100, 9_000));
+    assertThat(singlePageView).isEqualTo(value.slice(4096, 2_048));
+    assertThat(memory.getBytes(0, 10_000)).isEqualTo(Bytes.wrap(new byte[10_000]));
+  }
+
+  @Test
+  public void shouldExpandMemoryWhenTakingAView() {
+    final Bytes view = memory.getBytesView(32, 5_000);
+    assertThat(view).isEqualTo(Bytes.wrap(new byte[5_000]));
+    assertThat(memory.getActiveWords()).isEqualTo((32 + 5_000 + 31) / 32);
+  }
+
+  @Test
+  public void shouldCopyOverlappingRangesAcrossPages() {
+    final Bytes value = pattern(8_192);
+    memory.setBytes(0, value.size(), value);
+
+    memory.copy(4_000, 3_990, 200);
+
+    final byte[] expected = value.toArray();
+    System.arraycopy(value.toArrayUnsafe(), 3_990, expected, 4_000, 200);
+    assertThat(memory.getBytes(0, 8_192)).isEqualTo(Bytes.wrap(expected));
+  }
+
+  @Test
+  public void shouldCopyDisjointRangesAcrossPagesWithoutChangingViews() {
+    final Bytes value = pattern(13_000);
+    memory.setBytes(0, value.size(), value);
+    final Bytes view = memory.getBytesView(8_192, 4_096);
+
+    memory.copy(8_000, 100, 5_000);
+
+    final byte[] expected = value.toArray();
+    System.arraycopy(value.toArrayUnsafe(), 100, expected, 8_000, 5_000);
+    assertThat(memory.getBytes(0, 13_000)).isEqualTo(Bytes.wrap(expected));
+    assertThat(view).isEqualTo(value.slice(8_192, 4_096));
+  }
+
+  private static Bytes pattern(final int length) {
+    final byte[] bytes = new byte[length];
+    for (int i = 0; i < length; i++) {
+      bytes[i] = (byte) (i * 31 + 7);
+    }
+    return Bytes.wrap(bytes);
+  }
 }
@@ -71,6 +71,7 @@ class SnapServer implements BesuEvents.InitialSyncCompletionListener {
   private static final int MAX_RESPONSE_SIZE = 2 * 1024 * 1024;
   private static final int MAX_CODE_LOOKUPS_PER_REQUEST = 1024;
   private static final int MAX_TRIE_LOOKUPS_PER_REQUEST = 1024;
+  private static final int TRIE_NODES_BATCH_SIZE = 64;
   private static final AccountRangeMessage EMPTY_ACCOUNT_RANGE =
       AccountRangeMessage.create(new HashMap<>(), new ArrayDeque<>());
   private static final StorageRangeMessage EMPTY_STORAGE_RANGE =
@@ -512,54 +513,85 @@ class SnapServer implements BesuEvents.InitialSyncCompletionListener {
                     triePaths.paths().size() < MAX_TRIE_LOOKUPS_PER_REQUEST
                         ? triePaths.paths()
                         : triePaths.paths().subList(0, MAX_TRIE_LOOKUPS_PER_REQUEST);
-                for (var triePath : triePathList) {
+                // There must be at least one element in the path otherwise it is invalid
+                if (triePathList.stream().anyMatch(List::isEmpty)) {
+                  LOGGER.debug("returned empty trie nodes message due to invalid path");
+                  return EMPTY_TRIE_NODES_MESSAGE;
+                }
+
+                // the accounts of the storage paths are read with a single batch read
+                final List<Hash> storagePathAccounts =
+                    triePathList.stream()
+                        .filter(triePath -> triePath.size() > 1)
+                        .map(triePath -> Hash.wrap(Bytes32.leftPad(triePath.getFirst())))
+                        .toList();
+                final List<Optional<Bytes>> accounts = storage.getAccounts(storagePathAccounts);
+                final List<TrieNodeRequest> requests = new ArrayList<>();
+                int storagePathIndex = 0;
+                for (int i = 0; i < triePathList.size(); i++) {
+                  final List<Bytes> triePath = triePathList.get(i);
                   // first element in paths is account
                   if (triePath.size() == 1) {
                     // if there is only one path, presume it should be compact encoded account path
                     final Bytes location = CompactEncoding.decode(triePath.get(0));
-                    var optStorage = storage.getTrieNodeUnsafe(location);
-                    if (optStorage.isEmpty() && location.isEmpty()) {
-                      optStorage = Optional.of(MerkleTrie.EMPTY_TRIE_NODE);
-                    }
-                    var trieNode = optStorage.orElse(Bytes.EMPTY);
-                    if (!trieNodes.isEmpty()
-                        && (sumListBytes(trieNodes) + trieNode.size() > maxResponseBytes
-                            || stopWatch.getTime()
-                                > ResponseSizePredicate.MAX_MILLIS_PER_REQUEST)) {
-                      break;
-                    }
-                    trieNodes.add(trieNode);
-                  } else {
-                    // There must be at least one element in the path otherwise it is invalid
-                    if (triePath.isEmpty()) {
-                      LOGGER.debug("returned empty trie nodes message due to invalid path");
-                      return EMPTY_TRIE_NODES_MESSAGE;
-                    }
-
+                    requests.add(new TrieNodeRequest(i, true, location, location));
+                  } else if (accounts.get(storagePathIndex++).isPresent()) {
                     // otherwise the first element should be account hash, and subsequent paths
                     // are compact encoded account storage paths
-
                     final Bytes32 accountPrefix = Bytes32.leftPad(triePath.getFirst());
-                    var optAccount = storage.getAccount(Hash.wrap(accountPrefix));
-                    if (optAccount.isEmpty()) {
+                    for (var path : triePath.subList(1, triePath.size())) {
+                      final Bytes location = CompactEncoding.decode(path);
+                      requests.add(
+                          new TrieNodeRequest(
+                              i, false, location, Bytes.concatenate(accountPrefix, location)));
+                    }
+                  }
+                }
+                // the nodes are read in batches, and the response budgets are checked before each
+                // batch, so no node is read once the response is full or too much time elapsed
+                int responseBytes = 0;
+                int skippedPathIndex = -1;
+                boolean isResponseComplete = false;
+                for (int batchStart = 0;
+                    batchStart < requests.size() && !isResponseComplete;
+                    batchStart += TRIE_NODES_BATCH_SIZE) {
+                  if (!trieNodes.isEmpty()
+                      && (responseBytes >= maxResponseBytes
+                          || stopWatch.getTime() > ResponseSizePredicate.MAX_MILLIS_PER_REQUEST)) {
+                    break;
+                  }
+                  final int batchEnd =
+                      Math.min(batchStart + TRIE_NODES_BATCH_SIZE, requests.size());
+                  final List<TrieNodeRequest> batch = requests.subList(batchStart, batchEnd);
+                  final List<Optional<Bytes>> nodes =
+                      storage.getTrieNodesUnsafe(batch.stream().map(TrieNodeRequest::key).toList());
+
+                  for (int i = 0; i < batch.size(); i++) {
+                    final TrieNodeRequest request = batch.get(i);
+                    if (request.pathIndex() == skippedPathIndex) {
                       continue;
                     }
-
-                    List<Bytes> storagePaths = triePath.subList(1, triePath.size());
-                    for (var path : storagePaths) {
-                      final Bytes location = CompactEncoding.decode(path);
-                      var optStorage =
-                          storage.getTrieNodeUnsafe(Bytes.concatenate(accountPrefix, location));
-                      if (optStorage.isEmpty() && location.isEmpty()) {
-                        optStorage = Optional.of(MerkleTrie.EMPTY_TRIE_NODE);
-                      }
-                      var trieNode = optStorage.orElse(Bytes.EMPTY);
+                    var optStorage = nodes.get(i);
+                    if (optStorage.isEmpty() && request.location().isEmpty()) {
+                      optStorage = Optional.of(MerkleTrie.EMPTY_TRIE_NODE);
+                    }
+                    var trieNode = optStorage.orElse(Bytes.EMPTY);
+                    if (request.isAccountNode()) {
                       if (!trieNodes.isEmpty()
-                          && sumListBytes(trieNodes) + trieNode.size() > maxResponseBytes) {
+                          && (responseBytes + trieNode.size() > maxResponseBytes
+                              || stopWatch.getTime()
+                                  > ResponseSizePredicate.MAX_MILLIS_PER_REQUEST)) {
+                        isResponseComplete = true;
                         break;
                       }
-                      trieNodes.add(trieNode);
+                    } else if (!trieNodes.isEmpty()
+                        && responseBytes + trieNode.size() > maxResponseBytes) {
+                      // skip the remaining storage paths of this account
+                      skippedPathIndex = request.pathIndex();
+                      continue;
                     }
+                    trieNodes.add(trieNode);
+                    responseBytes += trieNode.size();
                   }
                 }
                 var resp = TrieNodesMessage.create(trieNodes);
@@ -582,6 +614,8 @@ class SnapServer implements BesuEvents.InitialSyncCompletionListener {
     }
   }
 
+  private record TrieNodeRequest(int pathIndex, boolean isAccountNode, Bytes location, Bytes key) {}
+
   /**
    * Predicate that doesn't immediately stop when the delegate predicate returns false, but instead
    * sets a flag to stop after the current element is processed.
@@ -22,6 +22,7 @@ import org.hyperledger.besu.ethereum.trie.NodeUpdater;
 import org.hyperledger.besu.ethereum.trie.RangeManager;
 import org.hyperledger.besu.ethereum.trie.SnapCommitVisitor;
 import org.hyperledger.besu.ethereum.trie.patricia.StoredMerklePatriciaTrie;
+import org.hyperledger.besu.ethereum.trie.patricia.StreamingStackTrie;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -123,6 +124,16 @@ public class StackTrie {
         proofsEntries.put(Hash.hash(proof), proof);
       }
 
+      if (proofs.isEmpty() && startKeyHash.equals(RangeManager.MIN_RANGE)) {
+        // the whole trie was received, it can be built from the sorted keys without any proof
+        final StreamingStackTrie<Bytes> trie =
+            new StreamingStackTrie<>(nodeUpdater, Function.identity());
+        keys.forEach(trie::put);
+        keys.forEach(flatDatabaseUpdater::update);
+        trie.commit();
+        return;
+      }
+
       if (!keys.isEmpty()) {
         final InnerNodeDiscoveryManager<Bytes> snapStoredNodeFactory =
             new InnerNodeDiscoveryManager<>(
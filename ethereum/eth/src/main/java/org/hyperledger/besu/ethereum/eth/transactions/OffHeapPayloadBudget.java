@@ -0,0 +1,76 @@
+/*
+ * Copyright contributors to Hyperledger Besu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.eth.transactions;
+
+import org.hyperledger.besu.ethereum.core.Transaction;
+
+import java.lang.ref.Cleaner;
+import java.nio.ByteBuffer;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounds the memory used by the payloads of the pending transactions that are stored off heap. The
+ * size of a payload is reserved before its direct buffer is allocated, and it is released when the
+ * buffer is garbage collected, that is when its memory is actually freed. Once the budget is used
+ * up, the payloads stay on the heap, so the direct memory limit of the JVM is never approached,
+ * where each allocation would trigger a full garbage collection.
+ */
+class OffHeapPayloadBudget {
+  private static final Cleaner CLEANER = Cleaner.create();
+
+  private final long maxBytes;
+  private final AtomicLong reservedBytes = new AtomicLong();
+
+  OffHeapPayloadBudget(final long maxBytes) {
+    this.maxBytes = maxBytes;
+  }
+
+  /**
+   * Copies the transaction with its payload stored off heap, if the payload fits in the budget.
+   *
+   * @param transaction the transaction to copy
+   * @return the copy with the payload stored off heap, or empty if the budget is used up
+   */
+  Optional<Transaction> moveOffHeap(final Transaction transaction) {
+    final int payloadSize = transaction.getPayload().size();
+    if (!reserve(payloadSize)) {
+      return Optional.empty();
+    }
+    final ByteBuffer offHeapPayload = ByteBuffer.allocateDirect(payloadSize);
+    CLEANER.register(offHeapPayload, () -> reservedBytes.addAndGet(-payloadSize));
+    return Optional.of(transaction.detachedOffHeapPayloadCopy(offHeapPayload));
+  }
+
+  /**
+   * Returns the bytes of the payloads currently stored off heap.
+   *
+   * @return the reserved bytes
+   */
+  long getReservedBytes() {
+    return reservedBytes.get();
+  }
+
+  private boolean reserve(final int size) {
+    long reserved;
+    do {
+      reserved = reservedBytes.get();
+      if (reserved + size > maxBytes) {
+        return false;
+      }
+    } while (!reservedBytes.compareAndSet(reserved, reserved + size));
+    return true;
+  }
+}
@@ -36,6 +36,8 @@ public abstract class PendingTransaction
   static final int OPTIONAL_TO_MEMORY_SIZE = 112;
   static final int OPTIONAL_CHAIN_ID_MEMORY_SIZE = 80;
   static final int PAYLOAD_BASE_MEMORY_SIZE = 32;
+  // the wrapper and the direct buffer, the payload bytes are not on the heap
+  static final int OFF_HEAP_PAYLOAD_MEMORY_SIZE = 160;
   static final int ACCESS_LIST_STORAGE_KEY_MEMORY_SIZE = 32;
   static final int ACCESS_LIST_ENTRY_BASE_MEMORY_SIZE = 248;
   static final int OPTIONAL_ACCESS_LIST_MEMORY_SIZE = 24;
@@ -214,6 +216,9 @@ public abstract class PendingTransaction
   }
 
   private int computePayloadMemorySize() {
+    if (transaction.isPayloadOffHeap()) {
+      return OFF_HEAP_PAYLOAD_MEMORY_SIZE;
+    }
     return transaction.getPayload().size() > 0
         ? PAYLOAD_BASE_MEMORY_SIZE + transaction.getPayload().size()
         : 0;
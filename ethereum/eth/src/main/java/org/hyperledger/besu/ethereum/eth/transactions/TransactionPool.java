@@ -44,6 +44,7 @@ import org.hyperledger.besu.ethereum.transaction.TransactionInvalidReason;
 import org.hyperledger.besu.ethereum.trie.MerkleTrieException;
 import org.hyperledger.besu.evm.account.Account;
 import org.hyperledger.besu.evm.fluent.SimpleAccount;
+import org.hyperledger.besu.evm.gascalculator.GasCalculator;
 import org.hyperledger.besu.util.Subscribers;
 
 import java.io.BufferedReader;
@@ -54,11 +55,12 @@ import java.io.FileWriter;
 import java.io.IOException;
 import java.math.BigInteger;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.HashMap;
-import java.util.IntSummaryStatistics;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
@@ -72,12 +74,14 @@ import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Iterators;
 import com.google.common.collect.ListMultimap;
 import com.google.common.collect.Multimaps;
 import org.apache.tuweni.bytes.Bytes;
@@ -94,6 +98,10 @@ import org.slf4j.LoggerFactory;
 public class TransactionPool implements BlockAddedObserver {
   private static final Logger LOG = LoggerFactory.getLogger(TransactionPool.class);
   private static final Logger LOG_FOR_REPLAY = LoggerFactory.getLogger("LOG_FOR_REPLAY");
+  // min number of transactions whose sender each computation worker recovers
+  private static final int MIN_SENDER_RECOVERIES_BY_WORKER = 8;
+  private static final int RESTORE_BATCH_SIZE = 1024;
+  private static final String JOURNAL_FILE_SUFFIX = ".journal";
   private final Supplier<PendingTransactions> pendingTransactionsSupplier;
   private final BlobCache cacheForBlobsOfTransactionsAddedToABlock;
   private volatile PendingTransactions pendingTransactions = new DisabledPendingTransactions();
@@ -108,6 +116,8 @@ public class TransactionPool implements BlockAddedObserver {
       new PendingTransactionsListenersProxy();
   private volatile OptionalLong subscribeConnectId = OptionalLong.empty();
   private final SaveRestoreManager saveRestoreManager = new SaveRestoreManager();
+  private final OffHeapPayloadBudget offHeapPayloadBudget;
+  private final Optional<TransactionPoolJournal> maybeJournal;
   private final Set<Address> localSenders = ConcurrentHashMap.newKeySet();
   private final EthScheduler.OrderedProcessor<BlockAddedEvent> blockAddedEventOrderedProcessor;
   private final ListMultimap<VersionedHash, BlobsWithCommitments.BlobQuad>
@@ -131,6 +141,8 @@ public class TransactionPool implements BlockAddedObserver {
     this.transactionBroadcaster = transactionBroadcaster;
     this.metrics = metrics;
     this.configuration = configuration;
+    this.offHeapPayloadBudget =
+        new OffHeapPayloadBudget(configuration.getUnstable().getOffHeapPayloadMaxSize());
     this.blockAddedEventOrderedProcessor =
         ethContext.getScheduler().createOrderedProcessor(this::processBlockAddedEvent);
     this.cacheForBlobsOfTransactionsAddedToABlock = blobCache;
@@ -140,6 +152,22 @@ public class TransactionPool implements BlockAddedObserver {
     subscribeDroppedTransactions(
         (transaction, reason) -> unmapBlobsOnTransactionDropped(transaction));
     subscribeDroppedTransactions(transactionBroadcaster);
+    this.maybeJournal = createJournal();
+    maybeJournal.ifPresent(
+        journal ->
+            subscribeDroppedTransactions((transaction, reason) -> journal.removed(transaction)));
+  }
+
+  private Optional<TransactionPoolJournal> createJournal() {
+    final int journalMaxSize = configuration.getUnstable().getJournalMaxSize();
+    if (configuration.getEnableSaveRestore() && journalMaxSize > 0) {
+      return Optional.of(
+          new TransactionPoolJournal(
+              Path.of(configuration.getSaveFile().getPath() + JOURNAL_FILE_SUFFIX),
+              journalMaxSize,
+              () -> pendingTransactions.getPendingTransactions()));
+    }
+    return Optional.empty();
   }
 
   private void initLogForReplay() {
@@ -203,19 +231,30 @@ public class TransactionPool implements BlockAddedObserver {
     final List<Transaction> addedTransactions = new ArrayList<>(initialCount);
     LOG.trace("Adding {} remote transactions", initialCount);
 
-    final var validationResults =
-        sortedBySenderAndNonce(transactions)
-            .collect(
-                Collectors.toMap(
-                    Transaction::getHash,
-                    transaction -> {
-                      final var result = addTransaction(transaction, false);
-                      if (result.isValid()) {
-                        addedTransactions.add(transaction);
-                      }
-                      return result;
-                    },
-                    (transaction1, transaction2) -> transaction1));
+    recoverSenders(transactions);
+
+    final Map<Hash, ValidationResult<TransactionInvalidReason>> validationResults =
+        new HashMap<>(initialCount);
+    final List<Transaction> transactionsWithSender = new ArrayList<>(initialCount);
+    for (final Transaction transaction : transactions) {
+      if (hasRecoverableSender(transaction)) {
+        transactionsWithSender.add(transaction);
+      } else {
+        validationResults.putIfAbsent(
+            transaction.getHash(),
+            ValidationResult.invalid(
+                TransactionInvalidReason.INVALID_SIGNATURE, "sender cannot be recovered"));
+      }
+    }
+    sortedBySenderAndNonce(transactionsWithSender)
+        .forEach(
+            transaction -> {
+              final var result = addTransaction(transaction, false);
+              if (result.isValid()) {
+                addedTransactions.add(transaction);
+              }
+              validationResults.putIfAbsent(transaction.getHash(), result);
+            });
 
     LOG_FOR_REPLAY
         .atTrace()
@@ -259,7 +298,8 @@ public class TransactionPool implements BlockAddedObserver {
     if (validationResult.result.isValid()) {
       final TransactionAddedResult status =
           pendingTransactions.addTransaction(
-              PendingTransaction.newPendingTransaction(transaction, isLocal, hasPriority),
+              PendingTransaction.newPendingTransaction(
+                  maybeMovePayloadOffHeap(transaction), isLocal, hasPriority),
               validationResult.maybeAccount);
       if (status.isSuccess()) {
         LOG.atTrace()
@@ -267,6 +307,7 @@ public class TransactionPool implements BlockAddedObserver {
             .addArgument(() -> isLocal ? "local" : "remote")
             .addArgument(transaction::toTraceLog)
             .log();
+        maybeJournal.ifPresent(journal -> journal.added(transaction, isLocal));
       } else {
         final var rejectReason =
             status
@@ -308,11 +349,75 @@ public class TransactionPool implements BlockAddedObserver {
         .orElse(true);
   }
 
+  /**
+   * Recovers the senders of a large batch of transactions using the computation workers too, since
+   * it is the most expensive part of their validation and it does not need the pool. The calling
+   * thread recovers the senders as well, and returns once none is left to start, so it is never
+   * blocked by busy workers. A sender that cannot be recovered is left to the usual validation.
+   *
+   * @param transactions the transactions whose sender to recover
+   */
+  private void recoverSenders(final Collection<Transaction> transactions) {
+    final int workers =
+        Math.min(
+            Runtime.getRuntime().availableProcessors() - 1,
+            transactions.size() / MIN_SENDER_RECOVERIES_BY_WORKER);
+    if (workers <= 0) {
+      return;
+    }
+    final List<Transaction> txs = List.copyOf(transactions);
+    final AtomicInteger nextTx = new AtomicInteger();
+    final Supplier<Void> recoverNextSenders =
+        () -> {
+          for (int i = nextTx.getAndIncrement(); i < txs.size(); i = nextTx.getAndIncrement()) {
+            try {
+              txs.get(i).getSender();
+            } catch (final RuntimeException e) {
+              // rejected later on, when the sender is needed
+            }
+          }
+          return null;
+        };
+    for (int i = 0; i < workers; i++) {
+      ethContext.getScheduler().scheduleComputationTask(recoverNextSenders);
+    }
+    recoverNextSenders.get();
+  }
+
+  // the recovered senders are cached, so only the invalid signatures are checked again
+  private static boolean hasRecoverableSender(final Transaction transaction) {
+    try {
+      transaction.getSender();
+      return true;
+    } catch (final RuntimeException e) {
+      LOG.atTrace()
+          .setMessage("Discard transaction {} whose sender cannot be recovered")
+          .addArgument(transaction::getHash)
+          .log();
+      return false;
+    }
+  }
+
   private Stream<Transaction> sortedBySenderAndNonce(final Collection<Transaction> transactions) {
     return transactions.stream()
         .sorted(Comparator.comparing(Transaction::getSender).thenComparing(Transaction::getNonce));
   }
 
+  private Transaction maybeMovePayloadOffHeap(final Transaction transaction) {
+    final int offHeapPayloadMinSize = configuration.getUnstable().getOffHeapPayloadMinSize();
+    if (offHeapPayloadMinSize > 0 && transaction.getPayload().size() >= offHeapPayloadMinSize) {
+      final Optional<Transaction> maybeOffHeapCopy = offHeapPayloadBudget.moveOffHeap(transaction);
+      if (maybeOffHeapCopy.isPresent()) {
+        return maybeOffHeapCopy.get();
+      }
+      LOG.atTrace()
+          .setMessage("Off heap payload budget used up, keeping the payload of {} on the heap")
+          .addArgument(transaction::toTraceLog)
+          .log();
+    }
+    return transaction;
+  }
+
   private boolean isPriorityTransaction(final Transaction transaction, final boolean isLocal) {
     if (isLocal && !configuration.getNoLocalPriority()) {
       // unless no-local-priority option is specified, senders of local sent txs are prioritized
@@ -601,10 +706,12 @@ public class TransactionPool implements BlockAddedObserver {
     ValidationResultAndAccount(
         final Account account, final ValidationResult<TransactionInvalidReason> result) {
       this.result = result;
-      this.maybeAccount =
-          Optional.ofNullable(account)
-              .map(
-                  acct -> new SimpleAccount(acct.getAddress(), acct.getNonce(), acct.getBalance()));
+      this.maybeAccount = snapshotOf(account);
+    }
+
+    static Optional<Account> snapshotOf(final Account account) {
+      return Optional.ofNullable(account)
+          .map(acct -> new SimpleAccount(acct.getAddress(), acct.getNonce(), acct.getBalance()));
     }
 
     ValidationResultAndAccount(final ValidationResult<TransactionInvalidReason> result) {
@@ -790,35 +897,46 @@ public class TransactionPool implements BlockAddedObserver {
     }
 
     private void executeSaveToDisk(final PendingTransactions pendingTransactionsToSave) {
+      if (maybeJournal.isPresent()) {
+        // the pool content is already in the journal, that only needs to be written to disk
+        maybeJournal.get().close();
+        LOG.info("Closed transaction pool journal {}", maybeJournal.get().getPath());
+        return;
+      }
       final File saveFile = configuration.getSaveFile();
       try (final BufferedWriter bw =
           new BufferedWriter(new FileWriter(saveFile, StandardCharsets.US_ASCII))) {
         final var allTxs = pendingTransactionsToSave.getPendingTransactions();
         LOG.info("Saving {} transactions to file {}", allTxs.size(), saveFile);
 
-        final long savedTxs =
-            allTxs.parallelStream()
-                .takeWhile(unused -> !isCancelled.get())
-                .map(
-                    ptx -> {
-                      final BytesValueRLPOutput rlp = new BytesValueRLPOutput();
-                      ptx.getTransaction().writeTo(rlp);
-                      return (ptx.isReceivedFromLocalSource() ? "l" : "r")
-                          + rlp.encoded().toBase64String();
-                    })
-                .mapToInt(
-                    line -> {
-                      synchronized (bw) {
-                        try {
-                          bw.write(line);
-                          bw.newLine();
-                        } catch (IOException e) {
-                          throw new RuntimeException(e);
-                        }
-                      }
-                      return 1;
-                    })
-                .sum();
+        // saved in sender and nonce order, so they can be restored without nonce gaps, and
+        // encoded one batch at a time, so only a batch of encoded lines is kept in memory
+        final Iterator<List<PendingTransaction>> batches =
+            Iterators.partition(
+                allTxs.stream()
+                    .sorted(
+                        Comparator.comparing(PendingTransaction::getSender)
+                            .thenComparing(PendingTransaction::getNonce))
+                    .iterator(),
+                RESTORE_BATCH_SIZE);
+        int savedTxs = 0;
+        while (batches.hasNext() && !isCancelled.get()) {
+          final List<String> lines =
+              batches.next().parallelStream()
+                  .map(
+                      ptx -> {
+                        final BytesValueRLPOutput rlp = new BytesValueRLPOutput();
+                        ptx.getTransaction().writeTo(rlp);
+                        return (ptx.isReceivedFromLocalSource() ? "l" : "r")
+                            + rlp.encoded().toBase64String();
+                      })
+                  .toList();
+          for (final String line : lines) {
+            bw.write(line);
+            bw.newLine();
+          }
+          savedTxs += lines.size();
+        }
         if (isCancelled.get()) {
           LOG.info(
               "Saved {} transactions to file {}, before operation was cancelled",
@@ -834,38 +952,33 @@ public class TransactionPool implements BlockAddedObserver {
 
     private void executeLoadFromDisk() {
       if (configuration.getEnableSaveRestore()) {
+        maybeJournal.ifPresent(this::restoreFromJournal);
         final File saveFile = configuration.getSaveFile();
         if (saveFile.exists()) {
           LOG.info("Loading transaction pool content from file {}", saveFile);
           try (final BufferedReader br =
               new BufferedReader(new FileReader(saveFile, StandardCharsets.US_ASCII))) {
-            final IntSummaryStatistics stats =
-                br.lines()
-                    .takeWhile(unused -> !isCancelled.get())
-                    .mapToInt(
-                        line -> {
-                          final boolean isLocal = line.charAt(0) == 'l';
-                          final Transaction tx =
-                              Transaction.readFrom(Bytes.fromBase64String(line.substring(1)));
-
-                          final ValidationResult<TransactionInvalidReason> result =
-                              addTransaction(tx, isLocal);
-
-                          return result.isValid() ? 1 : 0;
-                        })
-                    .summaryStatistics();
+            final Iterator<List<String>> batches =
+                Iterators.partition(br.lines().iterator(), RESTORE_BATCH_SIZE);
+            long loadedTxs = 0;
+            long addedTxs = 0;
+            while (batches.hasNext() && !isCancelled.get()) {
+              final List<String> batch = batches.next();
+              loadedTxs += batch.size();
+              addedTxs += restoreBatch(batch);
+            }
 
             if (isCancelled.get()) {
               LOG.info(
                   "Added {} transactions of {} loaded from file {}, before operation was cancelled",
-                  stats.getSum(),
-                  stats.getCount(),
+                  addedTxs,
+                  loadedTxs,
                   saveFile);
             } else {
               LOG.info(
                   "Added {} transactions of {} loaded from file {}",
-                  stats.getSum(),
-                  stats.getCount(),
+                  addedTxs,
+                  loadedTxs,
                   saveFile);
             }
           } catch (IOException e) {
@@ -875,5 +988,143 @@ public class TransactionPool implements BlockAddedObserver {
         saveFile.delete();
       }
     }
+
+    /**
+     * Decodes a batch of saved transactions and recovers their senders in parallel, since these
+     * are the most expensive steps, then adds them to the pool one by one in file order, that is
+     * already sorted by sender and nonce.
+     *
+     * @param lines the saved transactions
+     * @return the number of transactions added to the pool
+     */
+    private int restoreBatch(final List<String> lines) {
+      final List<Optional<Transaction>> txs =
+          lines.parallelStream()
+              .map(line -> decodeWithSender(() -> Bytes.fromBase64String(line.substring(1))))
+              .toList();
+
+      int added = 0;
+      for (int i = 0; i < txs.size() && !isCancelled.get(); i++) {
+        if (txs.get(i).isPresent()
+            && addTransaction(txs.get(i).get(), lines.get(i).charAt(0) == 'l').isValid()) {
+          added++;
+        }
+      }
+      return added;
+    }
+
+    /**
+     * Restores the transactions of the journal, that were fully validated when first added, so
+     * they are only checked against the nonce and the balance of their sender at the chain head.
+     * The transactions are decoded and their senders recovered in parallel, then they are added in
+     * sender and nonce order, one batch at a time, so the world state of the chain head is opened
+     * once per batch. The journal then records the restored pool.
+     *
+     * @param journal the journal to restore
+     */
+    private void restoreFromJournal(final TransactionPoolJournal journal) {
+      final List<TransactionPoolJournal.Entry> entries;
+      try {
+        entries = journal.open();
+      } catch (IOException e) {
+        LOG.error("Error while opening transaction pool journal {}", journal.getPath(), e);
+        return;
+      }
+      LOG.info(
+          "Restoring {} transactions from transaction pool journal {}",
+          entries.size(),
+          journal.getPath());
+
+      final List<PendingTransaction> pendingTxs =
+          entries.parallelStream()
+              .map(
+                  entry ->
+                      decodeWithSender(entry::rlp)
+                          .map(
+                              tx ->
+                                  PendingTransaction.newPendingTransaction(
+                                      maybeMovePayloadOffHeap(tx),
+                                      entry.isLocal(),
+                                      isPriorityTransaction(tx, entry.isLocal()))))
+              .flatMap(Optional::stream)
+              .sorted(
+                  Comparator.comparing(PendingTransaction::getSender)
+                      .thenComparing(PendingTransaction::getNonce))
+              .toList();
+      final Iterator<List<PendingTransaction>> batches =
+          Iterators.partition(pendingTxs.iterator(), RESTORE_BATCH_SIZE);
+      long addedTxs = 0;
+      while (batches.hasNext() && !isCancelled.get()) {
+        addedTxs += restoreBatchAtChainHead(batches.next(), journal);
+      }
+      LOG.info(
+          "Added {} transactions of {} restored from transaction pool journal {}",
+          addedTxs,
+          entries.size(),
+          journal.getPath());
+    }
+
+    private int restoreBatchAtChainHead(
+        final List<PendingTransaction> batch, final TransactionPoolJournal journal) {
+      final BlockHeader chainHeadBlockHeader = getChainHeadBlockHeader().orElse(null);
+      if (chainHeadBlockHeader == null) {
+        LOG.warn("Chain head not available, transactions of the journal not restored");
+        return 0;
+      }
+      final GasCalculator gasCalculator =
+          protocolSchedule.getByBlockHeader(chainHeadBlockHeader).getGasCalculator();
+      try (final var worldState =
+          protocolContext
+              .getWorldStateArchive()
+              .getMutable(chainHeadBlockHeader, false)
+              .orElseThrow()) {
+        int added = 0;
+        for (final PendingTransaction pendingTx : batch) {
+          final Transaction tx = pendingTx.getTransaction();
+          final Account sender = worldState.get(tx.getSender());
+          final long senderNonce = sender == null ? Account.DEFAULT_NONCE : sender.getNonce();
+          final Wei senderBalance = sender == null ? Account.DEFAULT_BALANCE : sender.getBalance();
+          final Wei upfrontCost = tx.getUpfrontCost(gasCalculator.blobGasCost(tx.getBlobCount()));
+          if (Long.compareUnsigned(tx.getNonce(), senderNonce) >= 0
+              && upfrontCost.compareTo(senderBalance) <= 0
+              && pendingTransactions
+                  .addTransaction(pendingTx, ValidationResultAndAccount.snapshotOf(sender))
+                  .isSuccess()) {
+            journal.added(tx, pendingTx.isReceivedFromLocalSource());
+            added++;
+          }
+        }
+        return added;
+      } catch (Exception e) {
+        LOG.warn("Error while restoring transactions of the journal at the chain head", e);
+        return 0;
+      }
+    }
+
+    /**
+     * Decodes a saved transaction and recovers its sender, that is then cached by the transaction.
+     *
+     * @param rlpSupplier supplies the RLP of the saved transaction
+     * @return the transaction, or empty if it cannot be decoded or its sender recovered
+     */
+    private Optional<Transaction> decodeWithSender(final Supplier<Bytes> rlpSupplier) {
+      try {
+        final Transaction tx = Transaction.readFrom(rlpSupplier.get());
+        tx.getSender();
+        // the blobs are not saved, so a blob transaction is restored only if they are cached
+        final Transaction restoredTx = pendingTransactions.restoreBlob(tx).orElse(tx);
+        if (restoredTx.getType().supportsBlob()
+            && restoredTx.getBlobsWithCommitments().isEmpty()) {
+          return Optional.empty();
+        }
+        return Optional.of(restoredTx);
+      } catch (RuntimeException e) {
+        LOG.atDebug()
+            .setMessage("Skipping saved transaction that cannot be restored: {}")
+            .addArgument(e::getMessage)
+            .log();
+        return Optional.empty();
+      }
+    }
   }
 }
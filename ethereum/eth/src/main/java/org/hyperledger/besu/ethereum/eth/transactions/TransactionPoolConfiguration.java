@@ -40,6 +40,9 @@ public interface TransactionPoolConfiguration {
   interface Unstable {
     Duration ETH65_TRX_ANNOUNCED_BUFFERING_PERIOD = Duration.ofMillis(500);
     int DEFAULT_TX_MSG_KEEP_ALIVE = 60;
+    int DEFAULT_OFF_HEAP_PAYLOAD_MIN_SIZE = 0;
+    long DEFAULT_OFF_HEAP_PAYLOAD_MAX_SIZE = 64_000_000L;
+    int DEFAULT_JOURNAL_MAX_SIZE = 0;
 
     TransactionPoolConfiguration.Unstable DEFAULT =
         ImmutableTransactionPoolConfiguration.Unstable.builder().build();
@@ -53,6 +56,34 @@ public interface TransactionPoolConfiguration {
     default int getTxMessageKeepAliveSeconds() {
       return DEFAULT_TX_MSG_KEEP_ALIVE;
     }
+
+    /**
+     * Min size, in bytes, of the payload of a pending transaction for it to be stored outside the
+     * Java heap, zero means that all the payloads are stored on the heap.
+     */
+    @Value.Default
+    default int getOffHeapPayloadMinSize() {
+      return DEFAULT_OFF_HEAP_PAYLOAD_MIN_SIZE;
+    }
+
+    /**
+     * Max size, in bytes, of all the payloads stored outside the Java heap, when it is reached the
+     * payloads are stored on the heap. It must stay below the max direct memory of the JVM.
+     */
+    @Value.Default
+    default long getOffHeapPayloadMaxSize() {
+      return DEFAULT_OFF_HEAP_PAYLOAD_MAX_SIZE;
+    }
+
+    /**
+     * Max size, in bytes, of the memory mapped journal that records the changes of the pool, when
+     * save and restore is enabled, instead of saving the pool on shutdown. Zero means that the
+     * journal is disabled.
+     */
+    @Value.Default
+    default int getJournalMaxSize() {
+      return DEFAULT_JOURNAL_MAX_SIZE;
+    }
   }
 
   enum Implementation {
@@ -0,0 +1,331 @@
+/*
+ * Copyright contributors to Hyperledger Besu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.eth.transactions;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import org.hyperledger.besu.datatypes.Hash;
+import org.hyperledger.besu.ethereum.core.Transaction;
+import org.hyperledger.besu.ethereum.rlp.BytesValueRLPOutput;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Append only journal of the transactions added to and removed from the pool, written to a memory
+ * mapped file as soon as the pool changes, so the pool content survives a restart even if it was
+ * not saved on shutdown.
+ *
+ * <p>The file starts with the format version, followed by the records, that are either:
+ *
+ * <ul>
+ *   <li>added: type, local flag, hash, length and RLP of the transaction
+ *   <li>removed: type and hash of the transaction
+ * </ul>
+ *
+ * <p>A zero type marks the end of the records, and the type of a record is written last, so a
+ * record that is not completely written is never read. When the file is full, it is compacted in
+ * place by writing the current content of the pool.
+ *
+ * <p>The removals are notified while the pool holds its lock, so they are queued and written only
+ * if the journal lock is free, otherwise with the next record, since the journal lock is held
+ * while reading the pool content to compact the file.
+ *
+ * <p>This class is safe for use across multiple threads.
+ */
+class TransactionPoolJournal {
+  private static final Logger LOG = LoggerFactory.getLogger(TransactionPoolJournal.class);
+  private static final int VERSION = 1;
+  private static final byte END = 0;
+  private static final byte ADDED = 1;
+  private static final byte REMOVED = 2;
+  private static final int ADDED_HEADER_SIZE = 1 + 1 + Bytes32.SIZE + Integer.BYTES;
+  private static final int REMOVED_SIZE = 1 + Bytes32.SIZE;
+
+  private final Path path;
+  private final int maxSize;
+  private final Supplier<Collection<PendingTransaction>> poolContentSupplier;
+  private final Queue<Hash> removedHashes = new ConcurrentLinkedQueue<>();
+  private final ReentrantLock lock = new ReentrantLock();
+  private volatile boolean isOpen = false;
+  private FileChannel channel;
+  private MappedByteBuffer buffer;
+
+  /**
+   * Creates a journal that is not open yet.
+   *
+   * @param path the path of the journal file
+   * @param maxSize the max size in bytes of the journal file
+   * @param poolContentSupplier supplies the content of the pool when the journal is compacted
+   */
+  TransactionPoolJournal(
+      final Path path,
+      final int maxSize,
+      final Supplier<Collection<PendingTransaction>> poolContentSupplier) {
+    checkArgument(maxSize > Integer.BYTES, "max size must be greater than %s", Integer.BYTES);
+    this.path = path;
+    this.maxSize = maxSize;
+    this.poolContentSupplier = poolContentSupplier;
+  }
+
+  Path getPath() {
+    return path;
+  }
+
+  /**
+   * Opens the journal and returns the transactions that it contains, that are the ones added and
+   * not removed yet, in the order they were added. The journal is then cleared and records the
+   * changes of the pool, until it is closed.
+   *
+   * @return the transactions in the journal
+   * @throws IOException if the journal file cannot be read or mapped
+   */
+  List<Entry> open() throws IOException {
+    lock.lock();
+    try {
+      if (isOpen) {
+        return List.of();
+      }
+      channel =
+          FileChannel.open(
+              path,
+              StandardOpenOption.CREATE,
+              StandardOpenOption.READ,
+              StandardOpenOption.WRITE);
+      final List<Entry> entries = read();
+      if (channel.size() > maxSize) {
+        channel.truncate(maxSize);
+      }
+      buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, maxSize);
+      buffer.putInt(0, VERSION);
+      buffer.position(Integer.BYTES);
+      buffer.put(buffer.position(), END);
+      removedHashes.clear();
+      isOpen = true;
+      return entries;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Records a transaction added to the pool, compacting the journal when it is full.
+   *
+   * @param transaction the added transaction
+   * @param isLocal whether the transaction was received from a local source
+   */
+  void added(final Transaction transaction, final boolean isLocal) {
+    if (isOpen) {
+      // encoded before taking the lock, since it is the most expensive step
+      final Bytes rlp = encode(transaction);
+      lock.lock();
+      try {
+        if (isOpen) {
+          writeRemovedHashes();
+          if (!hasRoomFor(ADDED_HEADER_SIZE + rlp.size())) {
+            compact();
+          }
+          if (hasRoomFor(ADDED_HEADER_SIZE + rlp.size())) {
+            writeAdded(transaction.getHash(), isLocal, rlp);
+          } else {
+            LOG.atDebug()
+                .setMessage("Transaction pool journal {} is full, transaction {} not journaled")
+                .addArgument(path)
+                .addArgument(transaction::getHash)
+                .log();
+          }
+          writeRemovedHashes();
+        }
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+
+  /**
+   * Records a transaction removed from the pool, without ever waiting for the journal lock.
+   *
+   * @param transaction the removed transaction
+   */
+  void removed(final Transaction transaction) {
+    if (isOpen) {
+      removedHashes.add(transaction.getHash());
+      if (lock.tryLock()) {
+        try {
+          if (isOpen) {
+            writeRemovedHashes();
+          }
+        } finally {
+          lock.unlock();
+        }
+      }
+    }
+  }
+
+  /** Writes the queued removals and the journal content to disk, then closes the journal. */
+  void close() {
+    lock.lock();
+    try {
+      if (isOpen) {
+        isOpen = false;
+        writeRemovedHashes();
+        buffer.force();
+        buffer = null;
+        channel.close();
+        channel = null;
+      }
+    } catch (final IOException e) {
+      LOG.warn("Error while closing transaction pool journal {}", path, e);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private List<Entry> read() throws IOException {
+    final long size = Math.min(channel.size(), maxSize);
+    if (size < Integer.BYTES) {
+      return List.of();
+    }
+    final MappedByteBuffer content = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+    final int version = content.getInt();
+    if (version != VERSION) {
+      LOG.warn("Ignoring transaction pool journal {} with unknown version {}", path, version);
+      return List.of();
+    }
+    final Map<Hash, Entry> entries = new LinkedHashMap<>();
+    while (content.hasRemaining()) {
+      final byte type = content.get();
+      if (type == ADDED && content.remaining() >= ADDED_HEADER_SIZE - 1) {
+        final boolean isLocal = content.get() != 0;
+        final Hash hash = readHash(content);
+        final int length = content.getInt();
+        if (length < 0 || length > content.remaining()) {
+          LOG.warn("Ignoring truncated record at the end of transaction pool journal {}", path);
+          break;
+        }
+        final byte[] rlp = new byte[length];
+        content.get(rlp);
+        entries.put(hash, new Entry(Bytes.wrap(rlp), isLocal));
+      } else if (type == REMOVED && content.remaining() >= REMOVED_SIZE - 1) {
+        entries.remove(readHash(content));
+      } else {
+        if (type != END) {
+          LOG.warn("Ignoring unknown record at the end of transaction pool journal {}", path);
+        }
+        break;
+      }
+    }
+    return new ArrayList<>(entries.values());
+  }
+
+  private static Hash readHash(final MappedByteBuffer content) {
+    final byte[] hash = new byte[Bytes32.SIZE];
+    content.get(hash);
+    return Hash.wrap(Bytes32.wrap(hash));
+  }
+
+  private void compact() {
+    // the removals queued so far are already applied to the pool content
+    removedHashes.clear();
+    final List<PendingTransaction> poolContent =
+        poolContentSupplier.get().stream()
+            .sorted(
+                Comparator.comparing(PendingTransaction::getSender)
+                    .thenComparing(PendingTransaction::getNonce))
+            .toList();
+    buffer.position(Integer.BYTES);
+    buffer.put(buffer.position(), END);
+    int journaled = 0;
+    for (final PendingTransaction pendingTransaction : poolContent) {
+      final Transaction transaction = pendingTransaction.getTransaction();
+      final Bytes rlp = encode(transaction);
+      if (!hasRoomFor(ADDED_HEADER_SIZE + rlp.size())) {
+        break;
+      }
+      writeAdded(transaction.getHash(), pendingTransaction.isReceivedFromLocalSource(), rlp);
+      journaled++;
+    }
+    if (journaled < poolContent.size()) {
+      LOG.warn(
+          "Transaction pool journal {} is full, only {} of {} pending transactions are journaled",
+          path,
+          journaled,
+          poolContent.size());
+    } else {
+      LOG.debug("Compacted transaction pool journal {} to {} transactions", path, journaled);
+    }
+  }
+
+  private void writeRemovedHashes() {
+    while (!removedHashes.isEmpty() && hasRoomFor(REMOVED_SIZE)) {
+      final int position = buffer.position();
+      buffer.position(position + 1);
+      buffer.put(removedHashes.poll().toArrayUnsafe());
+      commit(position, REMOVED);
+    }
+  }
+
+  private void writeAdded(final Hash hash, final boolean isLocal, final Bytes rlp) {
+    final int position = buffer.position();
+    buffer.position(position + 1);
+    buffer.put(isLocal ? (byte) 1 : (byte) 0);
+    buffer.put(hash.toArrayUnsafe());
+    buffer.putInt(rlp.size());
+    buffer.put(rlp.toArrayUnsafe());
+    commit(position, ADDED);
+  }
+
+  private void commit(final int position, final byte type) {
+    buffer.put(buffer.position(), END);
+    buffer.put(position, type);
+  }
+
+  private boolean hasRoomFor(final int recordSize) {
+    // one more byte for the end marker
+    return buffer.remaining() > recordSize;
+  }
+
+  private static Bytes encode(final Transaction transaction) {
+    final BytesValueRLPOutput rlp = new BytesValueRLPOutput();
+    transaction.writeTo(rlp);
+    return rlp.encoded();
+  }
+
+  /**
+   * A transaction read from the journal.
+   *
+   * @param rlp the RLP of the transaction
+   * @param isLocal whether the transaction was received from a local source
+   */
+  record Entry(Bytes rlp, boolean isLocal) {}
+}
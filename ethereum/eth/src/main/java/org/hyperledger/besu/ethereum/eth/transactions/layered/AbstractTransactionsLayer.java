@@ -53,6 +53,7 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.OptionalLong;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiFunction;
 import java.util.function.BinaryOperator;
 import java.util.function.Function;
@@ -76,7 +77,8 @@ public abstract class AbstractTransactionsLayer implements TransactionsLayer {
   protected final BiFunction<PendingTransaction, PendingTransaction, Boolean>
       transactionReplacementTester;
   protected final TransactionPoolMetrics metrics;
-  protected final Map<Hash, PendingTransaction> pendingTransactions = new HashMap<>();
+  // only updated under the pool lock, but read without it to look up and count the transactions
+  protected final Map<Hash, PendingTransaction> pendingTransactions = new ConcurrentHashMap<>();
   protected final Map<Address, NavigableMap<Long, PendingTransaction>> txsBySender =
       new HashMap<>();
   private final Subscribers<PendingTransactionAddedListener> onAddedListeners =
@@ -80,9 +80,21 @@ public class LayeredPendingTransactions implements PendingTransactions {
   }
 
   @Override
-  public synchronized TransactionAddedResult addTransaction(
+  public TransactionAddedResult addTransaction(
       final PendingTransaction pendingTransaction, final Optional<Account> maybeSenderAccount) {
+    // compute the cached values of the transaction before taking the lock,
+    // so that concurrent additions only serialize on the layers updates
+    pendingTransaction.getHash();
+    pendingTransaction.getSender();
+    pendingTransaction.memorySize();
 
+    synchronized (this) {
+      return addTransactionToLayers(pendingTransaction, maybeSenderAccount);
+    }
+  }
+
+  private TransactionAddedResult addTransactionToLayers(
+      final PendingTransaction pendingTransaction, final Optional<Account> maybeSenderAccount) {
     final long stateSenderNonce = maybeSenderAccount.map(AccountState::getNonce).orElse(0L);
 
     logTransactionForReplayAdd(pendingTransaction, stateSenderNonce);
@@ -387,18 +399,21 @@ public class LayeredPendingTransactions implements PendingTransactions {
     return -1;
   }
 
+  // the count and the lookups below do not take the lock, since the layers keep their transactions
+  // by hash in concurrent maps. A transaction moving between two layers can be briefly missed by
+  // these reads, as it can be briefly missed by a read just before it is added.
   @Override
-  public synchronized int size() {
+  public int size() {
     return prioritizedTransactions.count();
   }
 
   @Override
-  public synchronized boolean containsTransaction(final Transaction transaction) {
+  public boolean containsTransaction(final Transaction transaction) {
     return prioritizedTransactions.contains(transaction);
   }
 
   @Override
-  public synchronized Optional<Transaction> getTransactionByHash(final Hash transactionHash) {
+  public Optional<Transaction> getTransactionByHash(final Hash transactionHash) {
     return prioritizedTransactions.getByHash(transactionHash);
   }
 
@@ -21,6 +21,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.hyperledger.besu.ethereum.mainnet.ValidationResult.valid;
 import static org.hyperledger.besu.ethereum.transaction.TransactionInvalidReason.EXCEEDS_BLOCK_GAS_LIMIT;
 import static org.hyperledger.besu.ethereum.transaction.TransactionInvalidReason.GAS_PRICE_TOO_LOW;
+import static org.hyperledger.besu.ethereum.transaction.TransactionInvalidReason.INVALID_SIGNATURE;
 import static org.hyperledger.besu.ethereum.transaction.TransactionInvalidReason.INVALID_TRANSACTION_FORMAT;
 import static org.hyperledger.besu.ethereum.transaction.TransactionInvalidReason.NONCE_TOO_FAR_IN_FUTURE_FOR_SENDER;
 import static org.hyperledger.besu.ethereum.transaction.TransactionInvalidReason.NONCE_TOO_LOW;
@@ -29,20 +30,28 @@ import static org.hyperledger.besu.ethereum.transaction.TransactionInvalidReason
 import static org.hyperledger.besu.ethereum.transaction.TransactionInvalidReason.TX_FEECAP_EXCEEDED;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.clearInvocations;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 import static org.mockito.quality.Strictness.LENIENT;
 
+import org.hyperledger.besu.crypto.SignatureAlgorithmFactory;
 import org.hyperledger.besu.datatypes.Address;
+import org.hyperledger.besu.datatypes.Hash;
 import org.hyperledger.besu.datatypes.TransactionType;
 import org.hyperledger.besu.datatypes.Wei;
 import org.hyperledger.besu.ethereum.core.Block;
 import org.hyperledger.besu.ethereum.core.BlockHeader;
 import org.hyperledger.besu.ethereum.core.Difficulty;
+import org.hyperledger.besu.ethereum.core.MutableWorldState;
 import org.hyperledger.besu.ethereum.core.Transaction;
 import org.hyperledger.besu.ethereum.eth.manager.EthPeer;
 import org.hyperledger.besu.ethereum.eth.manager.EthProtocolManagerTestUtil;
@@ -51,20 +60,32 @@ import org.hyperledger.besu.ethereum.eth.messages.EthPV65;
 import org.hyperledger.besu.ethereum.mainnet.TransactionValidationParams;
 import org.hyperledger.besu.ethereum.mainnet.ValidationResult;
 import org.hyperledger.besu.ethereum.mainnet.feemarket.FeeMarket;
+import org.hyperledger.besu.ethereum.rlp.BytesValueRLPOutput;
 import org.hyperledger.besu.ethereum.transaction.TransactionInvalidReason;
+import org.hyperledger.besu.ethereum.worldstate.WorldStateArchive;
+import org.hyperledger.besu.evm.account.Account;
+import org.hyperledger.besu.evm.gascalculator.CancunGasCalculator;
 import org.hyperledger.besu.plugin.services.TransactionPoolValidatorService;
 import org.hyperledger.besu.util.number.Percentage;
 
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
+import org.apache.tuweni.bytes.Bytes;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.condition.DisabledIf;
 import org.junit.jupiter.api.condition.EnabledIf;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
@@ -1061,4 +1082,253 @@ public abstract class AbstractTransactionPoolTest extends AbstractTransactionPoo
         .map(PendingTransaction::getTransaction)
         .containsExactlyInAnyOrder(transaction1, transaction2a, transaction3);
   }
+
+  @Test
+  public void addRemoteTransactionsShouldAddLargeBatchesInNonceOrder() {
+    final List<Transaction> batch =
+        IntStream.range(0, 32).mapToObj(nonce -> createTransaction(nonce, Wei.of(7L))).toList();
+    batch.forEach(this::givenTransactionIsValid);
+
+    transactionPool.addRemoteTransactions(batch.reversed());
+
+    // added in nonce order, so none of them is first added with a nonce gap
+    final ArgumentCaptor<PendingTransaction> addedCaptor =
+        ArgumentCaptor.forClass(PendingTransaction.class);
+    verify(transactions, times(batch.size())).addTransaction(addedCaptor.capture(), any());
+    assertThat(addedCaptor.getAllValues())
+        .map(PendingTransaction::getTransaction)
+        .containsExactlyElementsOf(batch);
+    assertThat(transactionPool.getPendingTransactions())
+        .map(PendingTransaction::getTransaction)
+        .containsExactlyInAnyOrderElementsOf(batch);
+  }
+
+  @Test
+  public void addRemoteTransactionsShouldRejectOnlyTheTransactionsWithoutRecoverableSender() {
+    final List<Transaction> batch =
+        IntStream.range(0, 64).mapToObj(nonce -> createTransaction(nonce, Wei.of(7L))).toList();
+    batch.forEach(this::givenTransactionIsValid);
+    // no curve point has 5 as x coordinate, so no public key can be recovered
+    final Transaction unrecoverableSenderTx =
+        Transaction.builder()
+            .copiedFrom(createTransaction(64, Wei.of(7L)))
+            .sender(null)
+            .signature(
+                SignatureAlgorithmFactory.getInstance()
+                    .createSignature(BigInteger.valueOf(5), BigInteger.ONE, (byte) 0))
+            .build();
+    final List<Transaction> received = new ArrayList<>(batch.reversed());
+    received.add(received.size() / 2, unrecoverableSenderTx);
+
+    final Map<Hash, ValidationResult<TransactionInvalidReason>> results =
+        transactionPool.addRemoteTransactions(received);
+
+    assertThat(results.get(unrecoverableSenderTx.getHash()).getInvalidReason())
+        .isEqualTo(INVALID_SIGNATURE);
+    assertThat(batch).allSatisfy(tx -> assertThat(results.get(tx.getHash()).isValid()).isTrue());
+    assertThat(transactionPool.getPendingTransactions())
+        .map(PendingTransaction::getTransaction)
+        .containsExactlyInAnyOrderElementsOf(batch);
+    if (Runtime.getRuntime().availableProcessors() > 1) {
+      // the batch is large enough for the senders to be recovered by the computation workers too
+      verify(ethContext.getScheduler(), atLeastOnce()).scheduleComputationTask(any());
+    }
+  }
+
+  @Test
+  public void largePayloadsShouldBeStoredOffHeapWhenEnabled() {
+    transactionPool =
+        createTransactionPool(
+            b ->
+                b.minGasPrice(Wei.of(2))
+                    .unstable(
+                        ImmutableTransactionPoolConfiguration.Unstable.builder()
+                            .offHeapPayloadMinSize(32)
+                            .build()));
+    final Transaction smallPayloadTx =
+        createBaseTransaction(0).payload(Bytes.repeat((byte) 1, 31)).createTransaction(KEY_PAIR1);
+    final Transaction largePayloadTx =
+        createBaseTransaction(1).payload(Bytes.repeat((byte) 1, 32)).createTransaction(KEY_PAIR1);
+    givenTransactionIsValid(smallPayloadTx);
+    givenTransactionIsValid(largePayloadTx);
+
+    transactionPool.addRemoteTransactions(List.of(smallPayloadTx, largePayloadTx));
+
+    assertThat(transactionPool.getTransactionByHash(smallPayloadTx.getHash()))
+        .hasValueSatisfying(tx -> assertThat(tx.isPayloadOffHeap()).isFalse());
+    assertThat(transactionPool.getTransactionByHash(largePayloadTx.getHash()))
+        .hasValueSatisfying(
+            tx -> {
+              assertThat(tx.isPayloadOffHeap()).isTrue();
+              assertThat(tx.getPayload()).isEqualTo(largePayloadTx.getPayload());
+              assertThat(tx).isEqualTo(largePayloadTx);
+            });
+  }
+
+  @Test
+  public void largePayloadsShouldStayOnHeapWhenTheOffHeapBudgetIsUsedUp() {
+    transactionPool =
+        createTransactionPool(
+            b ->
+                b.minGasPrice(Wei.of(2))
+                    .unstable(
+                        ImmutableTransactionPoolConfiguration.Unstable.builder()
+                            .offHeapPayloadMinSize(32)
+                            .offHeapPayloadMaxSize(48)
+                            .build()));
+    final Transaction firstTx =
+        createBaseTransaction(0).payload(Bytes.repeat((byte) 1, 32)).createTransaction(KEY_PAIR1);
+    final Transaction secondTx =
+        createBaseTransaction(1).payload(Bytes.repeat((byte) 1, 32)).createTransaction(KEY_PAIR1);
+    givenTransactionIsValid(firstTx);
+    givenTransactionIsValid(secondTx);
+
+    transactionPool.addRemoteTransactions(List.of(firstTx, secondTx));
+
+    assertThat(transactionPool.getTransactionByHash(firstTx.getHash()))
+        .hasValueSatisfying(tx -> assertThat(tx.isPayloadOffHeap()).isTrue());
+    assertThat(transactionPool.getTransactionByHash(secondTx.getHash()))
+        .hasValueSatisfying(tx -> assertThat(tx.isPayloadOffHeap()).isFalse());
+  }
+
+  @Test
+  public void savedTransactionsShouldBeRestoredWhenThePoolIsEnabledAgain(
+      @TempDir final Path tempDir) throws Exception {
+    transactionPool =
+        createTransactionPool(
+            b ->
+                b.minGasPrice(Wei.of(2))
+                    .enableSaveRestore(true)
+                    .saveFile(tempDir.resolve("txpool.dump").toFile()));
+    final List<Transaction> savedTransactions =
+        IntStream.range(0, 8).mapToObj(nonce -> createTransaction(nonce, Wei.of(7L))).toList();
+    savedTransactions.forEach(this::givenTransactionIsValid);
+    transactionPool.addRemoteTransactions(savedTransactions);
+
+    transactionPool.setDisabled().get();
+    transactions.reset();
+    assertThat(transactions.size()).isZero();
+
+    transactionPool.setEnabled().get();
+
+    assertThat(transactionPool.getPendingTransactions())
+        .map(PendingTransaction::getTransaction)
+        .containsExactlyInAnyOrderElementsOf(savedTransactions);
+  }
+
+  @Test
+  public void savedTransactionsShouldBeRestoredInNonceOrderWhenLocalAndRemoteAreMixed(
+      @TempDir final Path tempDir) throws Exception {
+    transactionPool =
+        createTransactionPool(
+            b ->
+                b.minGasPrice(Wei.of(2))
+                    .enableSaveRestore(true)
+                    .saveFile(tempDir.resolve("txpool.dump").toFile()));
+    final Transaction remoteTx0 = createTransaction(0, Wei.of(7L));
+    final Transaction localTx1 = createTransaction(1, Wei.of(7L));
+    final Transaction remoteTx2 = createTransaction(2, Wei.of(7L));
+    List.of(remoteTx0, localTx1, remoteTx2).forEach(this::givenTransactionIsValid);
+    transactionPool.addRemoteTransactions(List.of(remoteTx0));
+    transactionPool.addTransactionViaApi(localTx1);
+    transactionPool.addRemoteTransactions(List.of(remoteTx2));
+
+    transactionPool.setDisabled().get();
+    transactions.reset();
+    clearInvocations(transactions);
+
+    transactionPool.setEnabled().get();
+
+    final ArgumentCaptor<PendingTransaction> addedCaptor =
+        ArgumentCaptor.forClass(PendingTransaction.class);
+    verify(transactions, times(3)).addTransaction(addedCaptor.capture(), any());
+    assertThat(addedCaptor.getAllValues())
+        .map(PendingTransaction::getTransaction)
+        .containsExactly(remoteTx0, localTx1, remoteTx2);
+    assertThat(addedCaptor.getAllValues())
+        .map(PendingTransaction::isReceivedFromLocalSource)
+        .containsExactly(false, true, false);
+  }
+
+  @Test
+  public void savedTransactionsThatCannotBeRestoredShouldBeSkipped(@TempDir final Path tempDir)
+      throws Exception {
+    final Path saveFile = tempDir.resolve("txpool.dump");
+    transactionPool =
+        createTransactionPool(
+            b -> b.minGasPrice(Wei.of(2)).enableSaveRestore(true).saveFile(saveFile.toFile()));
+    final Transaction transaction0 = createTransaction(0, Wei.of(7L));
+    final Transaction transaction1 = createTransaction(1, Wei.of(7L));
+    List.of(transaction0, transaction1).forEach(this::givenTransactionIsValid);
+    transactionPool.setDisabled().get();
+    Files.write(
+        saveFile,
+        List.of(
+            "r" + encoded(transaction0),
+            "r" + Bytes.of(1, 2, 3).toBase64String(),
+            "r" + encoded(transaction1)));
+
+    transactionPool.setEnabled().get();
+
+    assertThat(transactionPool.getPendingTransactions())
+        .map(PendingTransaction::getTransaction)
+        .containsExactlyInAnyOrder(transaction0, transaction1);
+    assertThat(saveFile).doesNotExist();
+  }
+
+  @Test
+  public void journaledTransactionsShouldBeRestoredCheckingOnlyTheSenderNonceAndBalance(
+      @TempDir final Path tempDir) throws Exception {
+    final List<Transaction> journaledTransactions =
+        IntStream.range(0, 4).mapToObj(nonce -> createTransaction(nonce, Wei.of(7L))).toList();
+    journaledTransactions.forEach(this::givenTransactionIsValid);
+    final Account sender = mock(Account.class);
+    when(sender.getAddress()).thenReturn(journaledTransactions.getFirst().getSender());
+    when(sender.getNonce()).thenReturn(0L);
+    when(sender.getBalance()).thenReturn(Wei.fromEth(1000));
+    final MutableWorldState worldState = mock(MutableWorldState.class);
+    when(worldState.get(sender.getAddress())).thenReturn(sender);
+    final WorldStateArchive worldStateArchive = spy(protocolContext.getWorldStateArchive());
+    doReturn(Optional.of(worldState))
+        .when(worldStateArchive)
+        .getMutable(any(BlockHeader.class), eq(false));
+    protocolContext = spy(protocolContext);
+    doReturn(worldStateArchive).when(protocolContext).getWorldStateArchive();
+    when(protocolSpec.getGasCalculator()).thenReturn(new CancunGasCalculator());
+    transactionPool =
+        createTransactionPool(
+            b ->
+                b.minGasPrice(Wei.of(2))
+                    .enableSaveRestore(true)
+                    .saveFile(tempDir.resolve("txpool.dump").toFile())
+                    .unstable(
+                        ImmutableTransactionPoolConfiguration.Unstable.builder()
+                            .journalMaxSize(1_000_000)
+                            .build()));
+    // wait for the journal to be opened
+    transactionPool.setDisabled().get();
+    transactionPool.setEnabled().get();
+    transactionPool.addRemoteTransactions(journaledTransactions);
+
+    transactionPool.setDisabled().get();
+    transactions.reset();
+    clearInvocations(transactionValidatorFactory.get());
+    // the first transaction is confirmed while the pool is disabled
+    when(sender.getNonce()).thenReturn(1L);
+
+    transactionPool.setEnabled().get();
+
+    assertThat(transactionPool.getPendingTransactions())
+        .map(PendingTransaction::getTransaction)
+        .containsExactlyInAnyOrderElementsOf(journaledTransactions.subList(1, 4));
+    verify(transactionValidatorFactory.get(), never()).validateForSender(any(), any(), any());
+    assertThat(tempDir.resolve("txpool.dump")).doesNotExist();
+    assertThat(tempDir.resolve("txpool.dump.journal")).exists();
+  }
+
+  private static String encoded(final Transaction transaction) {
+    final BytesValueRLPOutput rlp = new BytesValueRLPOutput();
+    transaction.writeTo(rlp);
+    return rlp.encoded().toBase64String();
+  }
 }
@@ -0,0 +1,137 @@
+/*
+ * Copyright contributors to Hyperledger Besu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.eth.transactions;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.hyperledger.besu.crypto.KeyPair;
+import org.hyperledger.besu.crypto.SignatureAlgorithmFactory;
+import org.hyperledger.besu.ethereum.core.Transaction;
+import org.hyperledger.besu.ethereum.core.TransactionTestFixture;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class TransactionPoolJournalTest {
+  private static final KeyPair KEY_PAIR = SignatureAlgorithmFactory.getInstance().generateKeyPair();
+
+  @TempDir private Path tempDir;
+  private final List<PendingTransaction> poolContent = new ArrayList<>();
+
+  @Test
+  public void openShouldReturnTheAddedTransactionsThatAreNotRemoved() throws IOException {
+    final List<Transaction> txs = createTransactions(4);
+    final TransactionPoolJournal journal = createJournal(1_000_000);
+    assertThat(journal.open()).isEmpty();
+
+    journal.added(txs.get(0), true);
+    journal.added(txs.get(1), false);
+    journal.added(txs.get(2), false);
+    journal.removed(txs.get(1));
+    journal.added(txs.get(3), true);
+    journal.close();
+
+    final List<TransactionPoolJournal.Entry> entries = createJournal(1_000_000).open();
+    assertThat(entries)
+        .map(entry -> Transaction.readFrom(entry.rlp()))
+        .containsExactly(txs.get(0), txs.get(2), txs.get(3));
+    assertThat(entries)
+        .map(TransactionPoolJournal.Entry::isLocal)
+        .containsExactly(true, false, true);
+  }
+
+  @Test
+  public void openShouldClearTheJournal() throws IOException {
+    final TransactionPoolJournal journal = createJournal(1_000_000);
+    journal.open();
+    journal.added(createTransactions(1).getFirst(), false);
+    journal.close();
+
+    assertThat(journal.open()).hasSize(1);
+    journal.close();
+
+    assertThat(journal.open()).isEmpty();
+  }
+
+  @Test
+  public void journalShouldBeCompactedWithThePoolContentWhenFull() throws IOException {
+    final List<Transaction> txs = createTransactions(32);
+    final TransactionPoolJournal journal = createJournal(2_000);
+    journal.open();
+    // only the last transactions are still in the pool, when the journal is full
+    for (final Transaction tx : txs) {
+      journal.added(tx, false);
+      poolContent.add(PendingTransaction.newPendingTransaction(tx, false, false));
+      if (poolContent.size() > 4) {
+        journal.removed(poolContent.removeFirst().getTransaction());
+      }
+    }
+    journal.close();
+
+    assertThat(createJournal(2_000).open())
+        .map(entry -> Transaction.readFrom(entry.rlp()))
+        .containsExactlyElementsOf(txs.subList(28, 32));
+  }
+
+  @Test
+  public void journalWithUnknownVersionShouldBeIgnored() throws IOException {
+    final TransactionPoolJournal journal = createJournal(1_000_000);
+    journal.open();
+    journal.added(createTransactions(1).getFirst(), false);
+    journal.close();
+    try (final FileChannel channel =
+        FileChannel.open(journal.getPath(), StandardOpenOption.WRITE)) {
+      channel.write(ByteBuffer.allocate(Integer.BYTES).putInt(0, 2));
+    }
+
+    assertThat(createJournal(1_000_000).open()).isEmpty();
+  }
+
+  @Test
+  public void changesShouldNotBeRecordedWhenTheJournalIsClosed() throws IOException {
+    final List<Transaction> txs = createTransactions(2);
+    final TransactionPoolJournal journal = createJournal(1_000_000);
+    journal.open();
+    journal.added(txs.get(0), false);
+    journal.close();
+
+    journal.added(txs.get(1), false);
+    journal.removed(txs.get(0));
+
+    assertThat(journal.open())
+        .map(entry -> Transaction.readFrom(entry.rlp()))
+        .containsExactly(txs.get(0));
+  }
+
+  private TransactionPoolJournal createJournal(final int maxSize) {
+    return new TransactionPoolJournal(
+        tempDir.resolve("txpool.dump.journal"), maxSize, () -> List.copyOf(poolContent));
+  }
+
+  private static List<Transaction> createTransactions(final int count) {
+    return IntStream.range(0, count)
+        .mapToObj(nonce -> new TransactionTestFixture().nonce(nonce).createTransaction(KEY_PAIR))
+        .toList();
+  }
+}
@@ -32,6 +32,7 @@ import static org.hyperledger.besu.plugin.data.TransactionSelectionResult.BLOCK_
 import static org.hyperledger.besu.plugin.data.TransactionSelectionResult.CURRENT_TX_PRICE_BELOW_MIN;
 import static org.hyperledger.besu.plugin.data.TransactionSelectionResult.SELECTED;
 import static org.hyperledger.besu.plugin.data.TransactionSelectionResult.TX_TOO_LARGE_FOR_REMAINING_GAS;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
@@ -56,11 +57,13 @@ import org.hyperledger.besu.ethereum.mainnet.feemarket.FeeMarket;
 import org.hyperledger.besu.evm.account.Account;
 import org.hyperledger.besu.plugin.data.TransactionSelectionResult;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.OptionalLong;
+import java.util.concurrent.CountDownLatch;
 import java.util.function.BiFunction;
 import java.util.stream.Stream;
 
@@ -232,6 +235,42 @@ public class LayeredPendingTransactionsTest extends BaseTransactionPoolTest {
     assertTransactionPending(pendingTransactions, transaction0);
   }
 
+  @Test
+  public void lookupsDoNotWaitForThePoolLock() throws InterruptedException {
+    pendingTransactions.addTransaction(
+        createRemotePendingTransaction(transaction0), Optional.empty());
+
+    final CountDownLatch locked = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    final Thread lockHolder =
+        new Thread(
+            () -> {
+              synchronized (pendingTransactions) {
+                locked.countDown();
+                try {
+                  release.await();
+                } catch (final InterruptedException e) {
+                  Thread.currentThread().interrupt();
+                }
+              }
+            });
+    lockHolder.start();
+    try {
+      locked.await();
+      assertTimeoutPreemptively(
+          Duration.ofSeconds(10),
+          () -> {
+            assertThat(pendingTransactions.size()).isEqualTo(1);
+            assertThat(pendingTransactions.containsTransaction(transaction0)).isTrue();
+            assertThat(pendingTransactions.getTransactionByHash(transaction0.getHash()))
+                .contains(transaction0);
+          });
+    } finally {
+      release.countDown();
+      lockHolder.join();
+    }
+  }
+
   @Test
   public void evictTransactionsWhenSizeLimitExceeded() {
     final List<Transaction> firstTxs = new ArrayList<>(MAX_TRANSACTIONS);
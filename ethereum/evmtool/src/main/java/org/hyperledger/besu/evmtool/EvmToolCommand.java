@@ -498,6 +498,7 @@ public class EvmToolCommand implements Runnable {
                         : MessageFrame.Type.MESSAGE_CALL)
                 .worldUpdater(updater.updater())
                 .initialGas(txGas)
+                .wordStack(evm.getEvmConfiguration().wordStackEnabled())
                 .contract(contractAddress)
                 .address(contractAddress)
                 .originator(sender)
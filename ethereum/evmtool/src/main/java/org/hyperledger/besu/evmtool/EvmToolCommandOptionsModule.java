@@ -138,10 +138,21 @@ public class EvmToolCommandOptionsModule {
       EvmConfiguration.WorldUpdaterMode
           .STACKED; // Stacked Updater.  Years of battle tested correctness.
 
+  @CommandLine.Option(
+      names = {"--Xevm-word-stack-enabled"},
+      description =
+          "Keep the EVM operand stack words as long limbs, so arithmetic does not allocate",
+      fallbackValue = "true",
+      defaultValue = "false",
+      hidden = true,
+      arity = "0..1")
+  private Boolean wordStackEnabled = false;
+
   @Provides
   @Singleton
   EvmConfiguration provideEvmConfiguration() {
-    return new EvmConfiguration(jumpDestCacheWeightKilobytes, worldstateUpdateMode);
+    return new EvmConfiguration(
+        jumpDestCacheWeightKilobytes, worldstateUpdateMode, wordStackEnabled);
   }
 
   /** Default constructor for the EvmToolCommandOptionsModule class. */
@@ -22,12 +22,11 @@ import org.hyperledger.besu.ethereum.trie.diffbased.bonsai.storage.BonsaiPreImag
 import org.hyperledger.besu.ethereum.trie.diffbased.bonsai.worldview.BonsaiWorldStateUpdateAccumulator;
 import org.hyperledger.besu.ethereum.trie.diffbased.common.DiffBasedValue;
 import org.hyperledger.besu.ethereum.trie.diffbased.common.worldview.DiffBasedWorldView;
+import org.hyperledger.besu.ethereum.trie.diffbased.common.worldview.accumulator.StorageSlotMap;
 import org.hyperledger.besu.ethereum.trie.diffbased.common.worldview.accumulator.preload.Consumer;
 import org.hyperledger.besu.ethereum.trie.diffbased.common.worldview.accumulator.preload.StorageConsumingMap;
 import org.hyperledger.besu.evm.internal.EvmConfiguration;
 
-import java.util.concurrent.ConcurrentHashMap;
-
 import org.apache.tuweni.units.bigints.UInt256;
 
 public class BonsaiReferenceTestUpdateAccumulator extends BonsaiWorldStateUpdateAccumulator {
@@ -68,7 +67,7 @@ public class BonsaiReferenceTestUpdateAccumulator extends BonsaiWorldStateUpdate
         .forEach(
             (k, v) -> {
               StorageConsumingMap<StorageSlotKey, DiffBasedValue<UInt256>> newMap =
-                  new StorageConsumingMap<>(k, new ConcurrentHashMap<>(), v.getConsumer());
+                  new StorageConsumingMap<>(k, new StorageSlotMap<>(v.size()), v.getConsumer());
               v.forEach((key, value) -> newMap.put(key, value.copy()));
               copy.getStorageToUpdate().put(k, newMap);
             });
@@ -45,6 +45,18 @@ public class ReferenceTestProtocolSchedules {
   private static final List<String> SPECS_PRIOR_TO_DELETING_EMPTY_ACCOUNTS =
       Arrays.asList("Frontier", "Homestead", "EIP150");
 
+  // -Dtest.ethereum.evm.wordStack=true runs the reference tests with the word operand stack, and
+  // -Dtest.ethereum.evm.preDecoding=true pre-decodes the code and precharges its runs from the
+  // first execution
+  private static final EvmConfiguration EVM_CONFIGURATION =
+      new EvmConfiguration(
+          EvmConfiguration.DEFAULT.jumpDestCacheWeightKB(),
+          EvmConfiguration.DEFAULT.worldUpdaterMode(),
+          Boolean.getBoolean("test.ethereum.evm.wordStack"),
+          Boolean.getBoolean("test.ethereum.evm.preDecoding")
+              ? 1
+              : EvmConfiguration.DEFAULT_PRE_DECODING_THRESHOLD);
+
   private static ReferenceTestProtocolSchedules instance;
 
   public static ReferenceTestProtocolSchedules getInstance() {
@@ -156,7 +168,7 @@ public class ReferenceTestProtocolSchedules {
             ProtocolSpecAdapters.create(0, Function.identity()),
             PrivacyParameters.DEFAULT,
             false,
-            EvmConfiguration.DEFAULT,
+            EVM_CONFIGURATION,
             MiningConfiguration.MINING_DISABLED,
             new BadBlockManager(),
             false,
@@ -0,0 +1,188 @@
+/*
+ * Copyright contributors to Besu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.trie.patricia;
+
+import static org.hyperledger.besu.ethereum.trie.CompactEncoding.bytesToPath;
+
+import org.hyperledger.besu.ethereum.trie.MerkleTrieException;
+import org.hyperledger.besu.ethereum.trie.Node;
+import org.hyperledger.besu.ethereum.trie.NodeLoader;
+import org.hyperledger.besu.ethereum.trie.NullNode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+
+/**
+ * A {@link StoredMerklePatriciaTrie} that can apply a batch of updates in parallel. When the root
+ * is a branch, the updates are partitioned by the first nibble of their path, each of the 16 sub
+ * tries is updated and hashed in its own task, and the root branch is assembled from the results.
+ *
+ * <p>The updates of a sub trie are applied in the order of the batch with the same visitors as
+ * {@link #put} and {@link #remove}, so the trie ends up with the same nodes, root hash and committed
+ * nodes as when the updates are applied one by one.
+ *
+ * @param <V> The type of values stored by this trie.
+ */
+public class ParallelStoredMerklePatriciaTrie<K extends Bytes, V>
+    extends StoredMerklePatriciaTrie<K, V> {
+
+  // below this many updates the tasks cost more than they save
+  private static final int MIN_PARALLEL_UPDATES = 32;
+  private static final int BRANCH_WIDTH = 16;
+
+  private final Executor executor;
+
+  public ParallelStoredMerklePatriciaTrie(
+      final NodeLoader nodeLoader,
+      final Bytes32 rootHash,
+      final Function<V, Bytes> valueSerializer,
+      final Function<Bytes, V> valueDeserializer) {
+    this(nodeLoader, rootHash, valueSerializer, valueDeserializer, ForkJoinPool.commonPool());
+  }
+
+  public ParallelStoredMerklePatriciaTrie(
+      final NodeLoader nodeLoader,
+      final Bytes32 rootHash,
+      final Function<V, Bytes> valueSerializer,
+      final Function<Bytes, V> valueDeserializer,
+      final Executor executor) {
+    super(nodeLoader, rootHash, valueSerializer, valueDeserializer);
+    this.executor = executor;
+  }
+
+  /**
+   * Applies a batch of updates, in parallel over the sub tries of the root when there are enough
+   * of them.
+   *
+   * @param updates the value to put for each key, or empty to remove the key, in the order to apply
+   *     them
+   * @param onFailure maps the exception thrown while updating a key to the exception to throw
+   * @throws MerkleTrieException the exception returned by {@code onFailure} when a node cannot be
+   *     loaded
+   */
+  public void updateAll(
+      final Map<K, Optional<V>> updates,
+      final BiFunction<K, MerkleTrieException, MerkleTrieException> onFailure) {
+    if (updates.size() < MIN_PARALLEL_UPDATES
+        || root.getChildren().size() != BRANCH_WIDTH
+        || root.getValue().isPresent()
+        || updates.keySet().stream().anyMatch(Bytes::isEmpty)) {
+      updates.forEach((key, value) -> update(key, value, onFailure));
+      return;
+    }
+
+    final List<List<Map.Entry<K, Optional<V>>>> updatesByNibble = new ArrayList<>(BRANCH_WIDTH);
+    for (int i = 0; i < BRANCH_WIDTH; i++) {
+      updatesByNibble.add(new ArrayList<>());
+    }
+    for (final Map.Entry<K, Optional<V>> entry : updates.entrySet()) {
+      updatesByNibble.get((entry.getKey().get(0) & 0xff) >>> 4).add(entry);
+    }
+
+    final List<Node<V>> children = root.getChildren();
+    final List<CompletableFuture<Node<V>>> updatedChildren = new ArrayList<>(BRANCH_WIDTH);
+    for (int i = 0; i < BRANCH_WIDTH; i++) {
+      final Node<V> child = children.get(i);
+      final List<Map.Entry<K, Optional<V>>> childUpdates = updatesByNibble.get(i);
+      updatedChildren.add(
+          childUpdates.isEmpty()
+              ? CompletableFuture.completedFuture(child)
+              : CompletableFuture.supplyAsync(
+                  () -> updateChild(child, childUpdates, onFailure), executor));
+    }
+
+    final List<Node<V>> newChildren = new ArrayList<>(BRANCH_WIDTH);
+    for (final CompletableFuture<Node<V>> updatedChild : updatedChildren) {
+      try {
+        newChildren.add(updatedChild.join());
+      } catch (final CompletionException e) {
+        if (e.getCause() instanceof RuntimeException cause) {
+          throw cause;
+        }
+        throw e;
+      }
+    }
+    root = assembleRoot(newChildren);
+  }
+
+  private void update(
+      final K key,
+      final Optional<V> value,
+      final BiFunction<K, MerkleTrieException, MerkleTrieException> onFailure) {
+    try {
+      if (value.isPresent()) {
+        put(key, value.get());
+      } else {
+        remove(key);
+      }
+    } catch (final MerkleTrieException e) {
+      throw onFailure.apply(key, e);
+    }
+  }
+
+  private Node<V> updateChild(
+      final Node<V> child,
+      final List<Map.Entry<K, Optional<V>>> childUpdates,
+      final BiFunction<K, MerkleTrieException, MerkleTrieException> onFailure) {
+    Node<V> updated = child;
+    for (final Map.Entry<K, Optional<V>> entry : childUpdates) {
+      // the path below the root branch, without the nibble of the child
+      final Bytes path = bytesToPath(entry.getKey()).slice(1);
+      try {
+        if (entry.getValue().isPresent()) {
+          updated = updated.accept(getPutVisitor(entry.getValue().get()), path);
+        } else {
+          updated = updated.accept(getRemoveVisitor(), path);
+        }
+      } catch (final MerkleTrieException e) {
+        throw onFailure.apply(entry.getKey(), e);
+      }
+    }
+    // hash the sub trie in this task rather than when the root hash is computed
+    updated.getHash();
+    return updated;
+  }
+
+  private Node<V> assembleRoot(final List<Node<V>> children) {
+    int onlyChildIndex = -1;
+    int childCount = 0;
+    for (int i = 0; i < BRANCH_WIDTH; i++) {
+      if (children.get(i) != NullNode.instance()) {
+        onlyChildIndex = i;
+        childCount++;
+      }
+    }
+    if (childCount == 0) {
+      return NullNode.instance();
+    } else if (childCount == 1) {
+      // the root branch is flattened into its only child, as the remove visitor does
+      final Node<V> onlyChild = children.get(onlyChildIndex);
+      return onlyChild.replacePath(
+          Bytes.concatenate(Bytes.of(onlyChildIndex), onlyChild.getPath()));
+    }
+    return nodeFactory.createBranch(children, Optional.empty());
+  }
+}
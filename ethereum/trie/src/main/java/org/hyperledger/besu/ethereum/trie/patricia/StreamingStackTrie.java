@@ -0,0 +1,201 @@
+/*
+ * Copyright contributors to Hyperledger Besu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.trie.patricia;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+
+import org.hyperledger.besu.ethereum.trie.CompactEncoding;
+import org.hyperledger.besu.ethereum.trie.MerkleTrie;
+import org.hyperledger.besu.ethereum.trie.Node;
+import org.hyperledger.besu.ethereum.trie.NodeFactory;
+import org.hyperledger.besu.ethereum.trie.NodeUpdater;
+import org.hyperledger.besu.ethereum.trie.NullNode;
+import org.hyperledger.besu.ethereum.trie.StoredNode;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Optional;
+import java.util.function.Function;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+
+/**
+ * Builds a Merkle Patricia Trie from its entries sorted by key, in a single pass and without
+ * reading any node. Only the rightmost path of the trie is kept in memory: once an entry with a
+ * greater key is added, the nodes on its left are final, so they are given to the node updater and
+ * replaced by their hash. The nodes are stored as a {@link StoredMerklePatriciaTrie} commit would
+ * store them.
+ *
+ * <p>All the keys must have the same size, as the hashed keys of the world state tries.
+ *
+ * @param <V> the type of the values
+ */
+public class StreamingStackTrie<V> {
+
+  private final NodeUpdater nodeUpdater;
+  private final Function<V, Bytes> valueSerializer;
+  private final NodeFactory<V> nodeFactory;
+
+  // the open branches of the rightmost path, the deepest first
+  private final Deque<OpenBranch<V>> openBranches = new ArrayDeque<>();
+
+  // the last entry, which is not yet attached to its parent branch
+  private Bytes lastPath;
+  private V lastValue;
+  // the branch closed below the last entry parent, or null if the last entry is still a leaf
+  private Node<V> lastBranch;
+  private int lastBranchDepth;
+  private boolean committed = false;
+
+  public StreamingStackTrie(
+      final NodeUpdater nodeUpdater, final Function<V, Bytes> valueSerializer) {
+    this.nodeUpdater = nodeUpdater;
+    this.valueSerializer = valueSerializer;
+    this.nodeFactory = new DefaultNodeFactory<>(valueSerializer);
+  }
+
+  /**
+   * Adds an entry to the trie.
+   *
+   * @param key the key, greater than the key of the previous entry
+   * @param value the value
+   */
+  public void put(final Bytes key, final V value) {
+    checkState(!committed, "The trie was already committed");
+    final Bytes path = CompactEncoding.bytesToPath(key);
+    if (lastPath == null) {
+      lastPath = path;
+      lastValue = value;
+      return;
+    }
+    checkArgument(path.size() == lastPath.size(), "All the keys must have the same size");
+    final int commonPrefixLength = commonPrefixLength(lastPath, path);
+    // the leaf terminator is always common, a key with a longer common prefix is a duplicate
+    checkArgument(
+        commonPrefixLength < path.size() - 1
+            && path.get(commonPrefixLength) > lastPath.get(commonPrefixLength),
+        "The keys must be added in increasing order");
+
+    // the branches below the fork point cannot get new children anymore
+    closeBranchesBelow(commonPrefixLength);
+    OpenBranch<V> parent = openBranches.peek();
+    if (parent == null || parent.depth < commonPrefixLength) {
+      parent = new OpenBranch<>(commonPrefixLength);
+      openBranches.push(parent);
+    }
+    parent.children[lastPath.get(commonPrefixLength)] = attachLast(parent.depth);
+
+    lastPath = path;
+    lastValue = value;
+    lastBranch = null;
+  }
+
+  /**
+   * Stores the remaining nodes, the root included, and returns the root hash. The trie cannot be
+   * used anymore afterwards.
+   *
+   * @return the root hash of the trie
+   */
+  public Bytes32 commit() {
+    checkState(!committed, "The trie was already committed");
+    committed = true;
+    if (lastPath == null) {
+      return MerkleTrie.EMPTY_TRIE_NODE_HASH;
+    }
+    closeBranchesBelow(-1);
+    final Node<V> root = lastNode(-1);
+    if (!(root instanceof StoredNode)) {
+      // the root is stored even when it is small enough to be inlined
+      nodeUpdater.store(Bytes.EMPTY, root.getHash(), root.getEncodedBytes());
+    }
+    return root.getHash();
+  }
+
+  private void closeBranchesBelow(final int depth) {
+    while (!openBranches.isEmpty() && openBranches.peek().depth > depth) {
+      final OpenBranch<V> branch = openBranches.pop();
+      branch.children[lastPath.get(branch.depth)] = attachLast(branch.depth);
+      lastBranch = branch.close(nodeFactory, valueSerializer);
+      lastBranchDepth = branch.depth;
+      if (isStored(lastBranch)) {
+        final Bytes location = lastPath.slice(0, branch.depth);
+        nodeUpdater.store(location, lastBranch.getHash(), lastBranch.getEncodedBytes());
+        lastBranch = new StoredNode<>(nodeFactory, location, lastBranch.getHash());
+      }
+    }
+  }
+
+  /**
+   * Returns the node of the last entry to attach to the branch at the given depth, which is a leaf
+   * or the last closed branch, behind an extension if it is deeper than the next level.
+   */
+  private Node<V> attachLast(final int parentDepth) {
+    final Node<V> node = lastNode(parentDepth);
+    if (isStored(node)) {
+      final Bytes location = lastPath.slice(0, parentDepth + 1);
+      nodeUpdater.store(location, node.getHash(), node.getEncodedBytes());
+      return new StoredNode<>(nodeFactory, location, node.getHash());
+    }
+    return node;
+  }
+
+  private Node<V> lastNode(final int parentDepth) {
+    final int depth = parentDepth + 1;
+    if (lastBranch == null) {
+      return new LeafNode<>(lastPath.slice(depth), lastValue, nodeFactory, valueSerializer);
+    } else if (lastBranchDepth == depth) {
+      return lastBranch;
+    } else {
+      return new ExtensionNode<>(
+          lastPath.slice(depth, lastBranchDepth - depth), lastBranch, nodeFactory);
+    }
+  }
+
+  private static <V> boolean isStored(final Node<V> node) {
+    // the smaller nodes are inlined in their parent
+    return !(node instanceof StoredNode) && node.getEncodedBytes().size() >= 32;
+  }
+
+  private static int commonPrefixLength(final Bytes path1, final Bytes path2) {
+    int length = 0;
+    while (length < path1.size() && path1.get(length) == path2.get(length)) {
+      length++;
+    }
+    return length;
+  }
+
+  private static class OpenBranch<V> {
+    private static final int RADIX = 16;
+
+    private final int depth;
+    private final Node<V>[] children;
+
+    @SuppressWarnings("unchecked")
+    private OpenBranch(final int depth) {
+      this.depth = depth;
+      this.children = new Node[RADIX];
+      Arrays.fill(children, NullNode.instance());
+    }
+
+    private BranchNode<V> close(
+        final NodeFactory<V> nodeFactory, final Function<V, Bytes> valueSerializer) {
+      return new BranchNode<>(
+          Arrays.asList(children), Optional.empty(), nodeFactory, valueSerializer);
+    }
+  }
+}
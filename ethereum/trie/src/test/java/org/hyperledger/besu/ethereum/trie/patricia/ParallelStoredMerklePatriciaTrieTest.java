@@ -0,0 +1,140 @@
+/*
+ * Copyright contributors to Besu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.trie.patricia;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.hyperledger.besu.ethereum.trie.MerkleTrie;
+import org.hyperledger.besu.ethereum.trie.MerkleTrieException;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.function.Function;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+import org.junit.jupiter.api.Test;
+
+public class ParallelStoredMerklePatriciaTrieTest {
+
+  private final Random random = new Random(42);
+  private final Map<Bytes, Bytes> sequentialNodes = new HashMap<>();
+  private final Map<Bytes, Bytes> parallelNodes = new HashMap<>();
+
+  @Test
+  public void shouldComputeSameRootAndNodesAsSequentialUpdates() {
+    final Map<Bytes32, Optional<Bytes>> initial = new LinkedHashMap<>();
+    for (int i = 0; i < 500; i++) {
+      initial.put(Bytes32.random(random), Optional.of(Bytes.of(i)));
+    }
+    final Bytes32 rootHash = commitBoth(MerkleTrie.EMPTY_TRIE_NODE_HASH, initial);
+
+    final Map<Bytes32, Optional<Bytes>> updates = new LinkedHashMap<>();
+    initial.keySet().stream().limit(100).forEach(key -> updates.put(key, Optional.empty()));
+    initial.keySet().stream().skip(100).limit(100).forEach(key -> updates.put(key, value()));
+    for (int i = 0; i < 100; i++) {
+      updates.put(Bytes32.random(random), value());
+    }
+    commitBoth(rootHash, updates);
+  }
+
+  @Test
+  public void shouldFlattenRootWhenOnlyOneSubTrieRemains() {
+    final Map<Bytes32, Optional<Bytes>> initial = new LinkedHashMap<>();
+    for (int i = 0; i < 80; i++) {
+      initial.put(keyWithFirstNibble(i % 2), Optional.of(Bytes.of(i)));
+    }
+    final Bytes32 rootHash = commitBoth(MerkleTrie.EMPTY_TRIE_NODE_HASH, initial);
+
+    final Map<Bytes32, Optional<Bytes>> updates = new LinkedHashMap<>();
+    initial.keySet().stream()
+        .filter(key -> key.get(0) >>> 4 == 0)
+        .forEach(key -> updates.put(key, Optional.empty()));
+    commitBoth(rootHash, updates);
+  }
+
+  @Test
+  public void shouldMapFailureOfTheUpdatedKey() {
+    final Map<Bytes32, Optional<Bytes>> initial = new LinkedHashMap<>();
+    for (int i = 0; i < 100; i++) {
+      initial.put(Bytes32.random(random), Optional.of(Bytes.of(i)));
+    }
+    final Bytes32 rootHash = commitBoth(MerkleTrie.EMPTY_TRIE_NODE_HASH, initial);
+
+    // only the root node can be loaded
+    final ParallelStoredMerklePatriciaTrie<Bytes32, Bytes> trie =
+        new ParallelStoredMerklePatriciaTrie<>(
+            (location, hash) ->
+                location.isEmpty() ? Optional.of(parallelNodes.get(location)) : Optional.empty(),
+            rootHash,
+            Function.identity(),
+            Function.identity());
+    final Map<Bytes32, Optional<Bytes>> updates = new LinkedHashMap<>();
+    initial.keySet().forEach(key -> updates.put(key, value()));
+    final Bytes32 firstKey = initial.keySet().iterator().next();
+
+    assertThatThrownBy(
+            () ->
+                trie.updateAll(
+                    Map.of(firstKey, value()),
+                    (key, e) -> new MerkleTrieException(key.toHexString())))
+        .isInstanceOf(MerkleTrieException.class)
+        .hasMessage(firstKey.toHexString());
+    assertThatThrownBy(
+            () -> trie.updateAll(updates, (key, e) -> new MerkleTrieException(key.toHexString())))
+        .isInstanceOf(MerkleTrieException.class)
+        .satisfies(e -> assertThat(updates).containsKey(Bytes32.fromHexString(e.getMessage())));
+  }
+
+  private Bytes32 commitBoth(final Bytes32 rootHash, final Map<Bytes32, Optional<Bytes>> updates) {
+    final MerkleTrie<Bytes32, Bytes> sequential =
+        new StoredMerklePatriciaTrie<>(
+            (location, hash) -> Optional.ofNullable(sequentialNodes.get(location)),
+            rootHash,
+            Function.identity(),
+            Function.identity());
+    final ParallelStoredMerklePatriciaTrie<Bytes32, Bytes> parallel =
+        new ParallelStoredMerklePatriciaTrie<>(
+            (location, hash) -> Optional.ofNullable(parallelNodes.get(location)),
+            rootHash,
+            Function.identity(),
+            Function.identity());
+
+    updates.forEach(
+        (key, value) ->
+            value.ifPresentOrElse(v -> sequential.put(key, v), () -> sequential.remove(key)));
+    parallel.updateAll(updates, (key, e) -> e);
+
+    assertThat(parallel.getRootHash()).isEqualTo(sequential.getRootHash());
+    sequential.commit((location, hash, value) -> sequentialNodes.put(location, value));
+    parallel.commit((location, hash, value) -> parallelNodes.put(location, value));
+    assertThat(parallelNodes).isEqualTo(sequentialNodes);
+    return parallel.getRootHash();
+  }
+
+  private Bytes32 keyWithFirstNibble(final int nibble) {
+    final Bytes32 key = Bytes32.random(random);
+    return Bytes32.wrap(
+        Bytes.concatenate(Bytes.of((nibble << 4) | (key.get(0) & 0x0f)), key.slice(1)));
+  }
+
+  private Optional<Bytes> value() {
+    return Optional.of(Bytes32.random(random));
+  }
+}
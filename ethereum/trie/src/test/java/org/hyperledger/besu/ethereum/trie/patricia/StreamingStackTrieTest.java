@@ -0,0 +1,93 @@
+/*
+ * Copyright contributors to Hyperledger Besu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.trie.patricia;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.hyperledger.besu.ethereum.trie.MerkleTrie;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+public class StreamingStackTrieTest {
+
+  @Test
+  public void emptyTrieHasTheEmptyRootHash() {
+    final Map<Bytes, Bytes> nodes = new HashMap<>();
+    final StreamingStackTrie<Bytes> trie =
+        new StreamingStackTrie<>(
+            (location, hash, value) -> nodes.put(location, value), Function.identity());
+
+    assertThat(trie.commit()).isEqualTo(MerkleTrie.EMPTY_TRIE_NODE_HASH);
+    assertThat(nodes).isEmpty();
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {1, 2, 3, 17, 256, 5000})
+  public void storesTheSameNodesAsStoredTrie(final int size) {
+    final Random random = new Random(size);
+    final TreeMap<Bytes32, Bytes> entries = new TreeMap<>();
+    while (entries.size() < size) {
+      // small values so that some of the nodes are inlined in their parent
+      entries.put(Bytes32.random(random), Bytes.random(1 + random.nextInt(40), random));
+    }
+
+    final Map<Bytes, Bytes> expectedNodes = new HashMap<>();
+    final StoredMerklePatriciaTrie<Bytes, Bytes> storedTrie =
+        new StoredMerklePatriciaTrie<>(
+            (location, hash) -> {
+              throw new IllegalStateException("no node should be loaded");
+            },
+            Function.identity(),
+            Function.identity());
+    entries.forEach(storedTrie::put);
+    final Bytes32 expectedRootHash = storedTrie.getRootHash();
+    storedTrie.commit((location, hash, value) -> expectedNodes.put(location, value));
+
+    final Map<Bytes, Bytes> nodes = new HashMap<>();
+    final StreamingStackTrie<Bytes> trie =
+        new StreamingStackTrie<>(
+            (location, hash, value) -> assertThat(nodes.put(location, value)).isNull(),
+            Function.identity());
+    entries.forEach(trie::put);
+
+    assertThat(trie.commit()).isEqualTo(expectedRootHash);
+    assertThat(nodes).isEqualTo(expectedNodes);
+  }
+
+  @Test
+  public void rejectsKeysOutOfOrder() {
+    final StreamingStackTrie<Bytes> trie =
+        new StreamingStackTrie<>((location, hash, value) -> {}, Function.identity());
+    trie.put(Bytes.of(1, 2), Bytes.of(1));
+
+    assertThatThrownBy(() -> trie.put(Bytes.of(1, 1), Bytes.of(2)))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> trie.put(Bytes.of(1, 2), Bytes.of(2)))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> trie.put(Bytes.of(1, 2, 3), Bytes.of(2)))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+}
@@ -20,7 +20,9 @@ import static org.hyperledger.besu.evm.operation.SwapOperation.SWAP_BASE;
 
 import org.hyperledger.besu.datatypes.Hash;
 import org.hyperledger.besu.evm.code.CodeFactory;
+import org.hyperledger.besu.evm.code.CodeV0;
 import org.hyperledger.besu.evm.code.EOFLayout;
+import org.hyperledger.besu.evm.code.InstructionStream;
 import org.hyperledger.besu.evm.frame.ExceptionalHaltReason;
 import org.hyperledger.besu.evm.frame.MessageFrame;
 import org.hyperledger.besu.evm.frame.MessageFrame.State;
@@ -92,6 +94,7 @@ public class EVM {
   private final CodeCache codeCache;
   private final EvmConfiguration evmConfiguration;
   private final EvmSpecVersion evmSpecVersion;
+  private final int[] fixedGas;
 
   // Optimized operation flags
   private final boolean enableShanghai;
@@ -122,6 +125,7 @@ public class EVM {
             evmConfiguration.maxInitcodeSizeOverride().orElse(evmSpecVersion.maxInitcodeSize));
 
     enableShanghai = EvmSpecVersion.SHANGHAI.ordinal() <= evmSpecVersion.ordinal();
+    fixedGas = InstructionStream.fixedGas(operations.getOperations(), gasCalculator);
   }
 
   /**
@@ -208,11 +212,41 @@ public class EVM {
 
     var operationTracer = tracing == OperationTracer.NO_TRACING ? null : tracing;
     byte[] code = frame.getCode().getBytes().toArrayUnsafe();
+    // hot legacy code has its push immediates pre-decoded, so they are not sliced on every push.
+    // The word stack reads the immediates from the code into its limbs and does not need them.
+    final InstructionStream instructionStream =
+        frame.getCode() instanceof CodeV0 codeV0 ? codeV0.getInstructionStream(fixedGas) : null;
+    final Bytes[] pushImmediates =
+        instructionStream == null || frame.getWordStack() != null
+            ? null
+            : instructionStream.getPushImmediates();
+    // the static gas of a run of fixed cost operations is charged when entering the run. A tracer
+    // sees the gas of every step, and the runs must have been built for the operations and the
+    // gas calculator of this EVM.
+    final boolean precharging =
+        instructionStream != null
+            && operationTracer == null
+            && instructionStream.getFixedGas() == fixedGas;
+    final int[] runs = precharging ? instructionStream.getRuns() : null;
+    final short[] superInstructions =
+        precharging ? instructionStream.getSuperInstructions() : null;
+    int chargedEnd = -1;
     Operation[] operationArray = operations.getOperations();
     while (frame.getState() == MessageFrame.State.CODE_EXECUTING) {
       Operation currentOperation;
       int opcode;
       int pc = frame.getPC();
+      boolean precharged = pc < chargedEnd;
+      if (!precharged && runs != null && pc < code.length && runs[pc] != 0) {
+        // when the whole run is not affordable every operation is charged on its own, so that the
+        // frame runs out of gas at the same operation
+        final int run = runs[pc];
+        if (frame.getRemainingGas() >= run >>> 16) {
+          frame.decrementRemainingGas(run >>> 16);
+          chargedEnd = pc + (run & 0xffff);
+          precharged = true;
+        }
+      }
       try {
         opcode = code[pc] & 0xff;
         currentOperation = operationArray[opcode];
@@ -228,7 +262,7 @@ public class EVM {
       OperationResult result;
       try {
         result =
-            switch (opcode) {
+            switch (precharged && superInstructions[pc] != 0 ? superInstructions[pc] : opcode) {
               case 0x00 -> StopOperation.staticOperation(frame);
               case 0x01 -> AddOperation.staticOperation(frame);
               case 0x02 -> MulOperation.staticOperation(frame);
@@ -292,7 +326,7 @@ public class EVM {
                       0x7d,
                       0x7e,
                       0x7f ->
-                  PushOperation.staticOperation(frame, code, pc, opcode - PUSH_BASE);
+                  push(frame, code, pushImmediates, pc, opcode);
               case 0x80, // DUP1-16
                       0x81,
                       0x82,
@@ -327,6 +361,21 @@ public class EVM {
                       0x9e,
                       0x9f ->
                   SwapOperation.staticOperation(frame, opcode - SWAP_BASE);
+              case InstructionStream.PUSH_ADD -> {
+                push(frame, code, pushImmediates, pc, opcode);
+                frame.setPC(frame.getPC() + 1);
+                yield AddOperation.staticOperation(frame);
+              }
+              case InstructionStream.PUSH_JUMPI -> {
+                push(frame, code, pushImmediates, pc, opcode);
+                frame.setPC(frame.getPC() + 1);
+                yield JumpiOperation.staticOperation(frame);
+              }
+              case InstructionStream.DUP_SWAP -> {
+                DupOperation.staticOperation(frame, opcode - DupOperation.DUP_BASE);
+                frame.setPC(pc + 1);
+                yield SwapOperation.staticOperation(frame, (code[pc + 1] & 0xff) - SWAP_BASE);
+              }
               default -> { // unoptimized operations
                 frame.setCurrentOperation(currentOperation);
                 yield currentOperation.execute(frame, this);
@@ -342,7 +391,7 @@ public class EVM {
         LOG.trace("MessageFrame evaluation halted because of {}", haltReason);
         frame.setExceptionalHaltReason(Optional.of(haltReason));
         frame.setState(State.EXCEPTIONAL_HALT);
-      } else if (frame.decrementRemainingGas(result.getGasCost()) < 0) {
+      } else if (!precharged && frame.decrementRemainingGas(result.getGasCost()) < 0) {
         frame.setExceptionalHaltReason(Optional.of(ExceptionalHaltReason.INSUFFICIENT_GAS));
         frame.setState(State.EXCEPTIONAL_HALT);
       }
@@ -350,6 +399,10 @@ public class EVM {
         final int currentPC = frame.getPC();
         final int opSize = result.getPcIncrement();
         frame.setPC(currentPC + opSize);
+        if (precharged && (currentPC + opSize <= pc || currentPC + opSize >= chargedEnd)) {
+          // a jump or the end of the run, the next operation is charged again
+          chargedEnd = -1;
+        }
       }
       if (operationTracer != null) {
         operationTracer.tracePostExecution(frame, result);
@@ -357,6 +410,17 @@ public class EVM {
     }
   }
 
+  private static OperationResult push(
+      final MessageFrame frame,
+      final byte[] code,
+      final Bytes[] pushImmediates,
+      final int pc,
+      final int opcode) {
+    return pushImmediates == null
+        ? PushOperation.staticOperation(frame, code, pc, opcode - PUSH_BASE)
+        : PushOperation.staticOperation(frame, pushImmediates[pc], pc, opcode - PUSH_BASE);
+  }
+
   /**
    * Get Operations (unsafe)
    *
@@ -378,6 +442,9 @@ public class EVM {
     Code result = codeCache.getIfPresent(codeHash);
     if (result == null) {
       result = getCodeUncached(codeBytes);
+      if (result instanceof CodeV0 codeV0) {
+        codeV0.enablePreDecoding(evmConfiguration.preDecodingThreshold());
+      }
       codeCache.put(codeHash, result);
     }
     return result;
@@ -45,6 +45,12 @@ public class CodeV0 implements Code {
   /** Code section info for the legacy code */
   private final CodeSection codeSectionZero;
 
+  /** Counts the executions until the threshold, only for code kept in the code cache */
+  private int executionsBeforePreDecoding = -1;
+
+  /** Used to cache the pre-decoded instruction stream */
+  private volatile InstructionStream instructionStream;
+
   /**
    * Public constructor.
    *
@@ -130,6 +136,39 @@ public class CodeV0 implements Code {
     return true;
   }
 
+  /**
+   * Enables the pre-decoding of this code once it gets hot. Only code that is kept in the code
+   * cache is worth pre-decoding, since the decoding is amortized over many executions.
+   *
+   * @param threshold the number of executions after which the code is pre-decoded, at least 1
+   */
+  public void enablePreDecoding(final int threshold) {
+    if (executionsBeforePreDecoding < 0) {
+      executionsBeforePreDecoding = threshold;
+    }
+  }
+
+  /**
+   * Returns the pre-decoded instruction stream of this code, counting an execution. The stream is
+   * only built after the code has been executed enough times, if pre-decoding is enabled.
+   *
+   * @param fixedGas the gas table of the runs, used if the stream is built by this call
+   * @return the instruction stream, or null if this code is not pre-decoded (yet)
+   */
+  public InstructionStream getInstructionStream(final int[] fixedGas) {
+    final InstructionStream stream = instructionStream;
+    if (stream != null || executionsBeforePreDecoding < 0) {
+      return stream;
+    }
+    // the count is not synchronized, concurrent executions may only delay the decoding
+    if (--executionsBeforePreDecoding > 0) {
+      return null;
+    }
+    final InstructionStream decoded = InstructionStream.decode(bytes.toArrayUnsafe(), fixedGas);
+    instructionStream = decoded;
+    return decoded;
+  }
+
   @Override
   public CodeSection getCodeSection(final int section) {
     if (section == 0) {
@@ -0,0 +1,298 @@
+/*
+ * Copyright contributors to Besu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.evm.code;
+
+import static org.hyperledger.besu.evm.operation.PushOperation.PUSH_BASE;
+import static org.hyperledger.besu.evm.operation.PushOperation.PUSH_MAX;
+
+import org.hyperledger.besu.evm.gascalculator.GasCalculator;
+import org.hyperledger.besu.evm.operation.AddModOperation;
+import org.hyperledger.besu.evm.operation.AddOperation;
+import org.hyperledger.besu.evm.operation.AndOperation;
+import org.hyperledger.besu.evm.operation.ByteOperation;
+import org.hyperledger.besu.evm.operation.DivOperation;
+import org.hyperledger.besu.evm.operation.DupOperation;
+import org.hyperledger.besu.evm.operation.GtOperation;
+import org.hyperledger.besu.evm.operation.IsZeroOperation;
+import org.hyperledger.besu.evm.operation.JumpDestOperation;
+import org.hyperledger.besu.evm.operation.JumpOperation;
+import org.hyperledger.besu.evm.operation.JumpiOperation;
+import org.hyperledger.besu.evm.operation.LtOperation;
+import org.hyperledger.besu.evm.operation.ModOperation;
+import org.hyperledger.besu.evm.operation.MulModOperation;
+import org.hyperledger.besu.evm.operation.MulOperation;
+import org.hyperledger.besu.evm.operation.NotOperation;
+import org.hyperledger.besu.evm.operation.Operation;
+import org.hyperledger.besu.evm.operation.OrOperation;
+import org.hyperledger.besu.evm.operation.PopOperation;
+import org.hyperledger.besu.evm.operation.Push0Operation;
+import org.hyperledger.besu.evm.operation.PushOperation;
+import org.hyperledger.besu.evm.operation.SDivOperation;
+import org.hyperledger.besu.evm.operation.SGtOperation;
+import org.hyperledger.besu.evm.operation.SLtOperation;
+import org.hyperledger.besu.evm.operation.SModOperation;
+import org.hyperledger.besu.evm.operation.SignExtendOperation;
+import org.hyperledger.besu.evm.operation.SubOperation;
+import org.hyperledger.besu.evm.operation.SwapOperation;
+import org.hyperledger.besu.evm.operation.XorOperation;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToLongFunction;
+
+import org.apache.tuweni.bytes.Bytes;
+
+/**
+ * The pre-decoded form of legacy code, built once for hot code and then shared by all its
+ * executions. The opcodes are already read by index from the code bytes, so what is decoded are the
+ * push immediates, that would otherwise be sliced from the code on every execution of a push.
+ *
+ * <p>The decoding also splits the code in runs of fixed cost operations, whose static gas can be
+ * charged once when entering the run, and marks the pairs of operations that can be executed as
+ * one superinstruction inside such a run.
+ */
+public final class InstructionStream {
+
+  /** A push followed by ADD. */
+  public static final int PUSH_ADD = 0x100;
+
+  /** A push followed by JUMPI. */
+  public static final int PUSH_JUMPI = 0x101;
+
+  /** A DUP followed by a SWAP. */
+  public static final int DUP_SWAP = 0x102;
+
+  private static final int ADD = 0x01;
+  private static final int JUMP = 0x56;
+  private static final int JUMPI = 0x57;
+  private static final int DUP1 = 0x80;
+  private static final int SWAP1 = 0x90;
+  private static final int SWAP16 = 0x9f;
+
+  // the operations dispatched statically by EVM.runToHalt that can be part of a run, with the
+  // gas their static form returns and the tier of the gas calculator their instances are built with
+  private static final StaticOperation[] STATIC_OPERATIONS = new StaticOperation[256];
+
+  static {
+    setStaticOperation(AddOperation.class, 3, GasCalculator::getVeryLowTierGasCost, 0x01);
+    setStaticOperation(MulOperation.class, 5, GasCalculator::getLowTierGasCost, 0x02);
+    setStaticOperation(SubOperation.class, 3, GasCalculator::getVeryLowTierGasCost, 0x03);
+    setStaticOperation(DivOperation.class, 5, GasCalculator::getLowTierGasCost, 0x04);
+    setStaticOperation(SDivOperation.class, 5, GasCalculator::getLowTierGasCost, 0x05);
+    setStaticOperation(ModOperation.class, 5, GasCalculator::getLowTierGasCost, 0x06);
+    setStaticOperation(SModOperation.class, 5, GasCalculator::getLowTierGasCost, 0x07);
+    setStaticOperation(AddModOperation.class, 8, GasCalculator::getMidTierGasCost, 0x08);
+    setStaticOperation(MulModOperation.class, 8, GasCalculator::getMidTierGasCost, 0x09);
+    setStaticOperation(SignExtendOperation.class, 5, GasCalculator::getLowTierGasCost, 0x0b);
+    setStaticOperation(LtOperation.class, 3, GasCalculator::getVeryLowTierGasCost, 0x10);
+    setStaticOperation(GtOperation.class, 3, GasCalculator::getVeryLowTierGasCost, 0x11);
+    setStaticOperation(SLtOperation.class, 3, GasCalculator::getVeryLowTierGasCost, 0x12);
+    setStaticOperation(SGtOperation.class, 3, GasCalculator::getVeryLowTierGasCost, 0x13);
+    setStaticOperation(IsZeroOperation.class, 3, GasCalculator::getVeryLowTierGasCost, 0x15);
+    setStaticOperation(AndOperation.class, 3, GasCalculator::getVeryLowTierGasCost, 0x16);
+    setStaticOperation(OrOperation.class, 3, GasCalculator::getVeryLowTierGasCost, 0x17);
+    setStaticOperation(XorOperation.class, 3, GasCalculator::getVeryLowTierGasCost, 0x18);
+    setStaticOperation(NotOperation.class, 3, GasCalculator::getVeryLowTierGasCost, 0x19);
+    setStaticOperation(ByteOperation.class, 3, GasCalculator::getVeryLowTierGasCost, 0x1a);
+    setStaticOperation(PopOperation.class, 2, GasCalculator::getBaseTierGasCost, 0x50);
+    setStaticOperation(JumpOperation.class, 8, GasCalculator::getMidTierGasCost, JUMP);
+    setStaticOperation(JumpiOperation.class, 10, GasCalculator::getHighTierGasCost, JUMPI);
+    setStaticOperation(
+        JumpDestOperation.class, 1, GasCalculator::getJumpDestOperationGasCost, 0x5b);
+    setStaticOperation(Push0Operation.class, 2, GasCalculator::getBaseTierGasCost, PUSH_BASE);
+    for (int opcode = PUSH_BASE + 1; opcode <= PUSH_MAX; opcode++) {
+      setStaticOperation(PushOperation.class, 3, GasCalculator::getVeryLowTierGasCost, opcode);
+    }
+    for (int opcode = DUP1; opcode <= SWAP16; opcode++) {
+      setStaticOperation(
+          opcode < SWAP1 ? DupOperation.class : SwapOperation.class,
+          3,
+          GasCalculator::getVeryLowTierGasCost,
+          opcode);
+    }
+  }
+
+  // equal tables are shared, so that the EVM recognizes by identity the runs built for its table
+  private static final Map<String, int[]> FIXED_GAS_TABLES = new ConcurrentHashMap<>();
+
+  // the gas and the length of a run are packed in one int, so both are kept under 16 bits
+  private static final int MAX_RUN = 0xffff;
+
+  private final Bytes[] pushImmediates;
+  private final int[] fixedGas;
+  private final int[] runs;
+  private final short[] superInstructions;
+
+  private InstructionStream(
+      final Bytes[] pushImmediates,
+      final int[] fixedGas,
+      final int[] runs,
+      final short[] superInstructions) {
+    this.pushImmediates = pushImmediates;
+    this.fixedGas = fixedGas;
+    this.runs = runs;
+    this.superInstructions = superInstructions;
+  }
+
+  /**
+   * Builds the gas table of the runs for the operations of an EVM. An opcode is part of the runs
+   * only if its operation is the one that EVM.runToHalt dispatches statically, and if the gas
+   * calculator charges it the gas that the static dispatch returns, so that charging the run up
+   * front charges exactly what the operations would. Every other opcode is 0 and is charged on its
+   * own. Equal tables are returned as the same array.
+   *
+   * @param operations the operations of the EVM, indexed by opcode
+   * @param gasCalculator the gas calculator of the EVM
+   * @return the gas of the operations that can be part of a run, indexed by opcode
+   */
+  public static int[] fixedGas(final Operation[] operations, final GasCalculator gasCalculator) {
+    final int[] fixedGas = new int[256];
+    for (int opcode = 0; opcode < fixedGas.length; opcode++) {
+      final StaticOperation staticOperation = STATIC_OPERATIONS[opcode];
+      if (staticOperation != null
+          && operations[opcode] != null
+          && operations[opcode].getClass() == staticOperation.type()
+          && staticOperation.gasCost().applyAsLong(gasCalculator) == staticOperation.gas()) {
+        fixedGas[opcode] = staticOperation.gas();
+      }
+    }
+    return FIXED_GAS_TABLES.computeIfAbsent(Arrays.toString(fixedGas), __ -> fixedGas);
+  }
+
+  /**
+   * Decodes legacy code.
+   *
+   * @param code the code bytes
+   * @param fixedGas the gas table of the runs, see {@link #fixedGas(Operation[], GasCalculator)}
+   * @return the decoded code
+   */
+  public static InstructionStream decode(final byte[] code, final int[] fixedGas) {
+    final Bytes[] pushImmediates = new Bytes[code.length];
+    final int[] instructionStarts = new int[code.length];
+    int instructions = 0;
+    for (int pc = 0; pc < code.length; pc++) {
+      instructionStarts[instructions++] = pc;
+      final int opcode = code[pc] & 0xff;
+      if (opcode > PUSH_BASE && opcode <= PUSH_MAX) {
+        final int pushSize = opcode - PUSH_BASE;
+        pushImmediates[pc] = PushOperation.immediate(code, pc, pushSize);
+        pc += pushSize;
+      }
+    }
+
+    // a run starting at an instruction extends over the fixed cost operations that follow it, and
+    // ends after a jump since the next instruction executed is not the following one
+    final int[] runs = new int[code.length];
+    final short[] superInstructions = new short[code.length];
+    int nextGas = 0;
+    int nextLength = 0;
+    int nextOpcode = -1;
+    for (int i = instructions - 1; i >= 0; i--) {
+      final int pc = instructionStarts[i];
+      final int nextPc = i + 1 < instructions ? instructionStarts[i + 1] : code.length;
+      final int opcode = code[pc] & 0xff;
+      final int gas = fixedGas[opcode];
+      if (gas == 0) {
+        nextGas = 0;
+        nextLength = 0;
+      } else {
+        final int size = nextPc - pc;
+        if (opcode == JUMP
+            || opcode == JUMPI
+            || nextGas == 0
+            || nextGas + gas > MAX_RUN
+            || nextLength + size > MAX_RUN) {
+          nextGas = gas;
+          nextLength = size;
+        } else {
+          nextGas += gas;
+          nextLength += size;
+          // the following instruction is in the same run, so it can be fused with this one
+          superInstructions[pc] = (short) superInstruction(opcode, nextOpcode);
+        }
+        runs[pc] = (nextGas << 16) | nextLength;
+      }
+      nextOpcode = opcode;
+    }
+    return new InstructionStream(pushImmediates, fixedGas, runs, superInstructions);
+  }
+
+  private static void setStaticOperation(
+      final Class<? extends Operation> type,
+      final int gas,
+      final ToLongFunction<GasCalculator> gasCost,
+      final int opcode) {
+    STATIC_OPERATIONS[opcode] = new StaticOperation(type, gas, gasCost);
+  }
+
+  private static int superInstruction(final int opcode, final int nextOpcode) {
+    if (opcode > PUSH_BASE && opcode <= PUSH_MAX) {
+      if (nextOpcode == ADD) {
+        return PUSH_ADD;
+      } else if (nextOpcode == JUMPI) {
+        return PUSH_JUMPI;
+      }
+    } else if (opcode >= DUP1 && opcode < SWAP1 && nextOpcode >= SWAP1 && nextOpcode <= SWAP16) {
+      return DUP_SWAP;
+    }
+    return 0;
+  }
+
+  /**
+   * Returns the push immediates indexed by the pc of their push, other positions are null. The
+   * array is shared and must not be modified.
+   *
+   * @return the push immediates
+   */
+  public Bytes[] getPushImmediates() {
+    return pushImmediates;
+  }
+
+  /**
+   * Returns the gas table the runs were built with. The array is shared and must not be modified.
+   *
+   * @return the gas table of the runs
+   */
+  public int[] getFixedGas() {
+    return fixedGas;
+  }
+
+  /**
+   * Returns the runs of fixed cost operations indexed by the pc of their first instruction. A run
+   * is packed as its static gas in the high 16 bits and its length in bytes in the low 16 bits, it
+   * is 0 when the instruction is not a fixed cost operation. The array is shared and must not be
+   * modified.
+   *
+   * @return the runs
+   */
+  public int[] getRuns() {
+    return runs;
+  }
+
+  /**
+   * Returns the superinstructions indexed by the pc of their first instruction, 0 where the
+   * instruction and the following one cannot be fused. The second instruction is always part of the
+   * run of the first one. The array is shared and must not be modified.
+   *
+   * @return the superinstructions
+   */
+  public short[] getSuperInstructions() {
+    return superInstructions;
+  }
+
+  private record StaticOperation(
+      Class<? extends Operation> type, int gas, ToLongFunction<GasCalculator> gasCost) {}
+}
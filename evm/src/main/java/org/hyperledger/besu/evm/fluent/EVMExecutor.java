@@ -712,6 +712,7 @@ public class EVMExecutor {
             .type(messageFrameType)
             .worldUpdater(worldUpdater.updater())
             .initialGas(gas)
+            .wordStack(evm.getEvmConfiguration().wordStackEnabled())
             .contract(contract)
             .address(receiver)
             .originator(sender)
@@ -27,26 +27,46 @@ import org.apache.tuweni.bytes.MutableBytes;
  *
  * <p>Note: this is meant to map to I in Section 9.1 "Basics" and Section 9.4.1 "Machine State" in
  * the Yellow Paper Revision 59dccd.
+ *
+ * <p>The memory is split in fixed size pages, so that expanding it never copies the bytes already
+ * written, and pages are only allocated once written. Pages can be shared with read-only views of
+ * the memory, such as the output data of a frame or the input data of a call, and a shared page is
+ * copied before it is written again.
  */
 public class Memory {
 
   // See below.
   private static final long MAX_BYTES = Integer.MAX_VALUE;
 
+  private static final int PAGE_SHIFT = 12;
+  private static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+  private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+  // read in place of the pages never written, it is never modified
+  private static final byte[] ZERO_PAGE = new byte[PAGE_SIZE];
+
+  // below this length copying the bytes is cheaper than possibly copying a whole page on the next
+  // write to a shared page
+  private static final int MIN_VIEW_LENGTH = PAGE_SIZE / 4;
+
   /**
-   * The data stored within the memory.
+   * The pages of the data stored within the memory, null for the pages never written.
    *
    * <p>Note that the current Ethereum spec don't put a limit on memory, so we could theoretically
-   * overflow this. A byte array implementation limits us to 2 GiB. But that would cost over 51
-   * trillion gas. So this is likely a reasonable limitation, at least at first.
+   * overflow this. Integer indexes limit us to 2 GiB. But that would cost over 51 trillion gas. So
+   * this is likely a reasonable limitation, at least at first.
    */
-  private byte[] memBytes;
+  private byte[][] pages;
+
+  // whether a page is referenced by a view, and must be copied before being written
+  private boolean[] sharedPages;
 
   private int activeWords;
 
   /** Instantiates a new Memory. */
   public Memory() {
-    memBytes = new byte[0];
+    pages = new byte[0][];
+    sharedPages = new boolean[0];
   }
 
   private static RuntimeException overflow(final long v) {
@@ -132,16 +152,89 @@ public class Memory {
   private void maybeExpandCapacity(final int newActiveWords) {
     if (activeWords >= newActiveWords) return;
 
-    int neededSize = newActiveWords * Bytes32.SIZE;
-    if (neededSize > memBytes.length) {
-      int newSize = Math.max(neededSize, memBytes.length * 2);
-      byte[] newMem = new byte[newSize];
-      System.arraycopy(memBytes, 0, newMem, 0, memBytes.length);
-      memBytes = newMem;
+    // only the page references are copied, the new pages are allocated once written
+    final int neededPages =
+        (int) (((long) newActiveWords * Bytes32.SIZE + PAGE_MASK) >>> PAGE_SHIFT);
+    if (neededPages > pages.length) {
+      final int newLength = Math.max(neededPages, pages.length * 2);
+      pages = Arrays.copyOf(pages, newLength);
+      sharedPages = Arrays.copyOf(sharedPages, newLength);
     }
     activeWords = newActiveWords;
   }
 
+  private byte[] readablePage(final int index) {
+    final byte[] page = index < pages.length ? pages[index] : null;
+    return page == null ? ZERO_PAGE : page;
+  }
+
+  private byte[] writablePage(final int index) {
+    byte[] page = pages[index];
+    if (page == null) {
+      page = new byte[PAGE_SIZE];
+      pages[index] = page;
+    } else if (sharedPages[index]) {
+      page = page.clone();
+      pages[index] = page;
+      sharedPages[index] = false;
+    }
+    return page;
+  }
+
+  private byte[] sharedPage(final int index) {
+    final byte[] page = pages[index];
+    if (page == null) {
+      return ZERO_PAGE;
+    }
+    sharedPages[index] = true;
+    return page;
+  }
+
+  private void read(final int start, final byte[] dest, final int destOffset, final int length) {
+    int done = 0;
+    while (done < length) {
+      final int position = start + done;
+      final int pageOffset = position & PAGE_MASK;
+      final int chunk = Math.min(PAGE_SIZE - pageOffset, length - done);
+      System.arraycopy(
+          readablePage(position >>> PAGE_SHIFT), pageOffset, dest, destOffset + done, chunk);
+      done += chunk;
+    }
+  }
+
+  private void write(final int start, final byte[] src, final int srcOffset, final int length) {
+    int done = 0;
+    while (done < length) {
+      final int position = start + done;
+      final int pageOffset = position & PAGE_MASK;
+      final int chunk = Math.min(PAGE_SIZE - pageOffset, length - done);
+      System.arraycopy(
+          src, srcOffset + done, writablePage(position >>> PAGE_SHIFT), pageOffset, chunk);
+      done += chunk;
+    }
+  }
+
+  private void fillZeros(final int start, final int length) {
+    int done = 0;
+    while (done < length) {
+      final int position = start + done;
+      final int pageOffset = position & PAGE_MASK;
+      final int chunk = Math.min(PAGE_SIZE - pageOffset, length - done);
+      // a page never written is already zeros
+      if (pages[position >>> PAGE_SHIFT] != null) {
+        Arrays.fill(
+            writablePage(position >>> PAGE_SHIFT), pageOffset, pageOffset + chunk, (byte) 0);
+      }
+      done += chunk;
+    }
+  }
+
+  private byte[] copyOfRange(final int start, final int length) {
+    final byte[] bytes = new byte[length];
+    read(start, bytes, 0, length);
+    return bytes;
+  }
+
   /**
    * Returns true if the object is equal to this memory instance; otherwise false.
    *
@@ -154,12 +247,15 @@ public class Memory {
     if (other == this) return true;
     if (!(other instanceof Memory)) return false;
 
-    return Arrays.equals(memBytes, ((Memory) other).memBytes);
+    final Memory otherMemory = (Memory) other;
+    return activeWords == otherMemory.activeWords
+        && Arrays.equals(
+            copyOfRange(0, getActiveBytes()), otherMemory.copyOfRange(0, getActiveBytes()));
   }
 
   @Override
   public int hashCode() {
-    return Arrays.hashCode(memBytes);
+    return Arrays.hashCode(copyOfRange(0, getActiveBytes()));
   }
 
   /**
@@ -200,7 +296,42 @@ public class Memory {
 
     final int start = asByteIndex(location);
     ensureCapacityForBytes(start, length);
-    return Bytes.wrap(Arrays.copyOfRange(memBytes, start, start + length));
+    return Bytes.wrap(copyOfRange(start, length));
+  }
+
+  /**
+   * Returns a read-only view of bytes from memory. Later writes to memory are not visible through
+   * the view, as the pages it shares are copied before being written again, so it can outlive the
+   * frame owning this memory like a copy. Short ranges are copied.
+   *
+   * @param location The location in memory to start with.
+   * @param numBytes The number of bytes to get.
+   * @return A view of the bytes from memory starting at {@code location} and extending {@code
+   *     numBytes}.
+   */
+  public Bytes getBytesView(final long location, final long numBytes) {
+    // See getBytes for why we check length == 0 first, before calling asByteIndex(location).
+    final int length = asByteLength(numBytes);
+    if (length < MIN_VIEW_LENGTH) {
+      return getBytes(location, numBytes);
+    }
+
+    final int start = asByteIndex(location);
+    ensureCapacityForBytes(start, length);
+    final int firstPage = start >>> PAGE_SHIFT;
+    final int lastPage = (start + length - 1) >>> PAGE_SHIFT;
+    if (firstPage == lastPage) {
+      return Bytes.wrap(sharedPage(firstPage), start & PAGE_MASK, length);
+    }
+    final Bytes[] slices = new Bytes[lastPage - firstPage + 1];
+    int done = 0;
+    for (int i = 0; i < slices.length; i++) {
+      final int pageOffset = (start + done) & PAGE_MASK;
+      final int chunk = Math.min(PAGE_SIZE - pageOffset, length - done);
+      slices[i] = Bytes.wrap(sharedPage(firstPage + i), pageOffset, chunk);
+      done += chunk;
+    }
+    return Bytes.wrap(slices);
   }
 
   /**
@@ -223,23 +354,17 @@ public class Memory {
 
     final int start = asByteIndex(location);
 
-    // Arrays.copyOfRange would throw if start > memBytes.length, so just return the expected
-    // number of zeros without expanding the memory.
-    // Otherwise, just follow the happy path.
-    if (start > memBytes.length) {
-      return Bytes.wrap(new byte[(int) numBytes]);
-    } else {
-      return Bytes.wrap(Arrays.copyOfRange(memBytes, start, start + length));
-    }
+    // The pages beyond the memory are read as zeros, so this does not expand the memory.
+    return Bytes.wrap(copyOfRange(start, length));
   }
 
   /**
-   * Returns a copy of bytes from memory.
+   * Returns bytes from memory. The bytes wrap the memory when they are within one page, and are a
+   * copy otherwise, so writes to them are not guaranteed to be visible in memory.
    *
    * @param location The location in memory to start with.
    * @param numBytes The number of bytes to get.
-   * @return A fresh copy of the bytes from memory starting at {@code location} and extending {@code
-   *     numBytes}.
+   * @return The bytes from memory starting at {@code location} and extending {@code numBytes}.
    */
   public MutableBytes getMutableBytes(final long location, final long numBytes) {
     // Note: if length == 0, we don't require any memory expansion, whatever location is. So
@@ -254,7 +379,11 @@ public class Memory {
     final int start = asByteIndex(location);
 
     ensureCapacityForBytes(start, length);
-    return MutableBytes.wrap(memBytes, start, length);
+    final int pageOffset = start & PAGE_MASK;
+    if (pageOffset + length <= PAGE_SIZE) {
+      return MutableBytes.wrap(writablePage(start >>> PAGE_SHIFT), pageOffset, length);
+    }
+    return MutableBytes.wrap(copyOfRange(start, length));
   }
 
   /**
@@ -317,11 +446,11 @@ public class Memory {
 
     ensureCapacityForBytes(start, length);
     if (srcLength >= length) {
-      System.arraycopy(taintedValue.toArrayUnsafe(), 0, memBytes, start, length);
+      write(start, taintedValue.toArrayUnsafe(), 0, length);
     } else {
-      Arrays.fill(memBytes, start + srcLength, end, (byte) 0);
+      fillZeros(start + srcLength, end - start - srcLength);
       if (srcLength > 0) {
-        System.arraycopy(taintedValue.toArrayUnsafe(), 0, memBytes, start, srcLength);
+        write(start, taintedValue.toArrayUnsafe(), 0, srcLength);
       }
     }
   }
@@ -357,12 +486,12 @@ public class Memory {
 
     ensureCapacityForBytes(start, length);
     if (srcLength >= length) {
-      System.arraycopy(value.toArrayUnsafe(), 0, memBytes, start, length);
+      write(start, value.toArrayUnsafe(), 0, length);
     } else {
       int divider = end - srcLength;
-      Arrays.fill(memBytes, start, divider, (byte) 0);
+      fillZeros(start, divider - start);
       if (srcLength > 0) {
-        System.arraycopy(value.toArrayUnsafe(), 0, memBytes, divider, srcLength);
+        write(divider, value.toArrayUnsafe(), 0, srcLength);
       }
     }
   }
@@ -394,7 +523,7 @@ public class Memory {
     }
 
     ensureCapacityForBytes(location, numBytes);
-    Arrays.fill(memBytes, location, location + numBytes, (byte) 0);
+    fillZeros(location, numBytes);
   }
 
   /**
@@ -406,7 +535,7 @@ public class Memory {
   void setByte(final long location, final byte value) {
     final int start = asByteIndex(location);
     ensureCapacityForBytes(start, 1);
-    memBytes[start] = value;
+    writablePage(start >>> PAGE_SHIFT)[start & PAGE_MASK] = value;
   }
 
   /**
@@ -418,7 +547,7 @@ public class Memory {
   public Bytes32 getWord(final long location) {
     final int start = asByteIndex(location);
     ensureCapacityForBytes(start, Bytes32.SIZE);
-    return Bytes32.wrap(Arrays.copyOfRange(memBytes, start, start + Bytes32.SIZE));
+    return Bytes32.wrap(copyOfRange(start, Bytes32.SIZE));
   }
 
   /**
@@ -433,7 +562,7 @@ public class Memory {
   public void setWord(final long location, final Bytes32 bytes) {
     final int start = asByteIndex(location);
     ensureCapacityForBytes(start, Bytes32.SIZE);
-    System.arraycopy(bytes.toArrayUnsafe(), 0, memBytes, start, Bytes32.SIZE);
+    write(start, bytes.toArrayUnsafe(), 0, Bytes32.SIZE);
   }
 
   /**
@@ -447,11 +576,40 @@ public class Memory {
    */
   public void copy(final long dst, final long src, final long length) {
     ensureCapacityForBytes(Math.max(dst, src), length);
-    System.arraycopy(memBytes, asByteIndex(src), memBytes, asByteIndex(dst), asByteLength(length));
+    final int from = asByteIndex(src);
+    final int to = asByteIndex(dst);
+    final int size = asByteLength(length);
+    if (size == 0) {
+      return;
+    }
+    final int fromOffset = from & PAGE_MASK;
+    final int toOffset = to & PAGE_MASK;
+    if (fromOffset + size <= PAGE_SIZE && toOffset + size <= PAGE_SIZE) {
+      // the destination page is taken first, as it is replaced when it is shared
+      final byte[] toPage = writablePage(to >>> PAGE_SHIFT);
+      System.arraycopy(readablePage(from >>> PAGE_SHIFT), fromOffset, toPage, toOffset, size);
+    } else if (to + size <= from || from + size <= to) {
+      // the ranges do not overlap, so the pages are copied to each other directly
+      int done = 0;
+      while (done < size) {
+        final int fromPosition = from + done;
+        final int toPosition = to + done;
+        final int fromPageOffset = fromPosition & PAGE_MASK;
+        final int toPageOffset = toPosition & PAGE_MASK;
+        final int chunk =
+            Math.min(Math.min(PAGE_SIZE - fromPageOffset, PAGE_SIZE - toPageOffset), size - done);
+        final byte[] toPage = writablePage(toPosition >>> PAGE_SHIFT);
+        System.arraycopy(
+            readablePage(fromPosition >>> PAGE_SHIFT), fromPageOffset, toPage, toPageOffset, chunk);
+        done += chunk;
+      }
+    } else {
+      write(to, copyOfRange(from, size), 0, size);
+    }
   }
 
   @Override
   public String toString() {
-    return Bytes.wrap(memBytes).toHexString();
+    return Bytes.wrap(copyOfRange(0, getActiveBytes())).toHexString();
   }
 }
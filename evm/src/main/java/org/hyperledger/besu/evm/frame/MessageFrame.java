@@ -30,6 +30,7 @@ import org.hyperledger.besu.evm.internal.OperandStack;
 import org.hyperledger.besu.evm.internal.ReturnStack;
 import org.hyperledger.besu.evm.internal.StorageEntry;
 import org.hyperledger.besu.evm.internal.UnderflowException;
+import org.hyperledger.besu.evm.internal.WordStack;
 import org.hyperledger.besu.evm.log.Log;
 import org.hyperledger.besu.evm.operation.BlockHashOperation.BlockHashLookup;
 import org.hyperledger.besu.evm.operation.Operation;
@@ -212,6 +213,7 @@ public class MessageFrame {
   private int section = 0;
   private final Memory memory = new Memory();
   private final OperandStack stack;
+  private final WordStack wordStack;
   private final Supplier<ReturnStack> returnStack;
   private Bytes output = Bytes.EMPTY;
   private Bytes returnData = Bytes.EMPTY;
@@ -276,7 +278,13 @@ public class MessageFrame {
     this.type = type;
     this.worldUpdater = worldUpdater;
     this.gasRemaining = initialGas;
-    this.stack = new OperandStack(txValues.maxStackSize());
+    if (txValues.wordStack()) {
+      this.wordStack = new WordStack(txValues.maxStackSize());
+      this.stack = wordStack;
+    } else {
+      this.wordStack = null;
+      this.stack = new OperandStack(txValues.maxStackSize());
+    }
     this.returnStack = Suppliers.memoize(ReturnStack::new);
     this.pc = code.isValid() ? code.getCodeSection(0).getEntryPoint() : 0;
     this.recipient = recipient;
@@ -487,6 +495,16 @@ public class MessageFrame {
     stack.set(offset, value);
   }
 
+  /**
+   * Returns the operand stack keeping its words as limbs, when enabled in the EVM configuration.
+   * Operations can then work on the limbs rather than popping and pushing {@link Bytes}.
+   *
+   * @return the word stack, or null if the operand stack holds {@link Bytes}
+   */
+  public WordStack getWordStack() {
+    return wordStack;
+  }
+
   /**
    * Return the current stack size.
    *
@@ -620,7 +638,20 @@ public class MessageFrame {
    * @return The bytes in the specified range
    */
   public Bytes readMemory(final long offset, final long length) {
-    return readMutableMemory(offset, length, false).copy();
+    // a single copy, even when the bytes span several memory pages
+    return memory.getBytes(offset, length);
+  }
+
+  /**
+   * Read bytes in memory as a read-only view, that is not affected by later writes to memory. Used
+   * to pass data to another frame without copying it.
+   *
+   * @param offset The offset in memory
+   * @param length The length of the bytes to read
+   * @return The bytes in the specified range
+   */
+  public Bytes readMemoryView(final long offset, final long length) {
+    return memory.getBytesView(offset, length);
   }
 
   /**
@@ -1339,6 +1370,7 @@ public class MessageFrame {
     private Code code;
     private BlockValues blockValues;
     private int maxStackSize = DEFAULT_MAX_STACK_SIZE;
+    private boolean wordStack = false;
     private boolean isStatic = false;
     private Consumer<MessageFrame> completer;
     private Address miningBeneficiary;
@@ -1543,6 +1575,18 @@ public class MessageFrame {
       return this;
     }
 
+    /**
+     * Sets whether the operand stack keeps its words as limbs. Child frames use the setting of
+     * their parent.
+     *
+     * @param wordStack true to use a {@link WordStack}
+     * @return the builder
+     */
+    public Builder wordStack(final boolean wordStack) {
+      this.wordStack = wordStack;
+      return this;
+    }
+
     /**
      * Sets Completer.
      *
@@ -1682,7 +1726,8 @@ public class MessageFrame {
                 UndoTable.of(HashBasedTable.create()),
                 UndoSet.of(new BytesTrieSet<>(Address.SIZE)),
                 UndoSet.of(new BytesTrieSet<>(Address.SIZE)),
-                new UndoScalar<>(0L));
+                new UndoScalar<>(0L),
+                wordStack);
         updater = worldUpdater;
         newStatic = isStatic;
       } else {
@@ -28,13 +28,22 @@ import java.util.OptionalInt;
  * @param maxCodeSizeOverride An optional override of the maximum code size set by the EVM fork
  * @param maxInitcodeSizeOverride An optional override of the maximum initcode size set by the EVM
  *     fork
+ * @param wordStackEnabled whether the operand stack keeps its words as long limbs, see {@link
+ *     WordStack}
+ * @param preDecodingThreshold the number of executions after which legacy code kept in the code
+ *     cache is pre-decoded, at least 1
  */
 public record EvmConfiguration(
     long jumpDestCacheWeightKB,
     WorldUpdaterMode worldUpdaterMode,
     Integer evmStackSize,
     Optional<Integer> maxCodeSizeOverride,
-    Optional<Integer> maxInitcodeSizeOverride) {
+    Optional<Integer> maxInitcodeSizeOverride,
+    boolean wordStackEnabled,
+    int preDecodingThreshold) {
+
+  /** The default number of executions after which cached legacy code is pre-decoded. */
+  public static final int DEFAULT_PRE_DECODING_THRESHOLD = 64;
 
   /** How should the world state update be handled within transactions? */
   public enum WorldUpdaterMode {
@@ -58,12 +67,49 @@ public record EvmConfiguration(
    */
   public EvmConfiguration(
       final Long jumpDestCacheWeightKilobytes, final WorldUpdaterMode worldstateUpdateMode) {
+    this(jumpDestCacheWeightKilobytes, worldstateUpdateMode, false);
+  }
+
+  /**
+   * Create an EVM Configuration without any overrides
+   *
+   * @param jumpDestCacheWeightKilobytes the jump dest cache weight (in kibibytes)
+   * @param worldstateUpdateMode the workd update mode
+   * @param wordStackEnabled whether the operand stack keeps its words as long limbs
+   */
+  public EvmConfiguration(
+      final Long jumpDestCacheWeightKilobytes,
+      final WorldUpdaterMode worldstateUpdateMode,
+      final boolean wordStackEnabled) {
+    this(
+        jumpDestCacheWeightKilobytes,
+        worldstateUpdateMode,
+        wordStackEnabled,
+        DEFAULT_PRE_DECODING_THRESHOLD);
+  }
+
+  /**
+   * Create an EVM Configuration without any overrides
+   *
+   * @param jumpDestCacheWeightKilobytes the jump dest cache weight (in kibibytes)
+   * @param worldstateUpdateMode the workd update mode
+   * @param wordStackEnabled whether the operand stack keeps its words as long limbs
+   * @param preDecodingThreshold the number of executions after which cached legacy code is
+   *     pre-decoded
+   */
+  public EvmConfiguration(
+      final Long jumpDestCacheWeightKilobytes,
+      final WorldUpdaterMode worldstateUpdateMode,
+      final boolean wordStackEnabled,
+      final int preDecodingThreshold) {
     this(
         jumpDestCacheWeightKilobytes,
         worldstateUpdateMode,
         MessageFrame.DEFAULT_MAX_STACK_SIZE,
         Optional.empty(),
-        Optional.empty());
+        Optional.empty(),
+        wordStackEnabled,
+        preDecodingThreshold);
   }
 
   /**
@@ -95,6 +141,8 @@ public record EvmConfiguration(
         newMaxCodeSize.isPresent() ? Optional.of(newMaxCodeSize.getAsInt()) : Optional.empty(),
         newMaxInitcodeSize.isPresent()
             ? Optional.of(newMaxInitcodeSize.getAsInt())
-            : Optional.empty());
+            : Optional.empty(),
+        wordStackEnabled,
+        preDecodingThreshold);
   }
 }
@@ -0,0 +1,462 @@
+/*
+ * Copyright contributors to Besu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.evm.internal;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.Arrays;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+
+/**
+ * An operand stack that stores each word as four {@code long} limbs in one flat array, instead of
+ * one {@link Bytes} object per entry. Like {@link FlexStack} the array grows 32 words at a time, up
+ * to maxSize.
+ *
+ * <p>The arithmetic, comparison and bitwise operations work on the limbs in place and do not
+ * allocate. The {@link Bytes} accessors inherited from {@link OperandStack} remain available for
+ * the other operations, they convert at the boundary and always read back words as 32 bytes.
+ */
+public class WordStack extends OperandStack {
+
+  private static final int INCREMENT = 32;
+
+  // limbs of the word at index i are at [i * 4, i * 4 + 3], least significant limb first
+  private static final int LIMBS = 4;
+
+  private long[] limbs;
+
+  // scratch space for the product of mul, so that it does not allocate
+  private final long[] product = new long[LIMBS];
+
+  private final int maxSize;
+  private int currentCapacity;
+
+  private int top;
+
+  /**
+   * Instantiates a new Word stack.
+   *
+   * @param maxSize the max size
+   */
+  public WordStack(final int maxSize) {
+    // the words are held in the limbs, the entries of the parent stack are never used
+    super(1);
+    checkArgument(maxSize > 0, "max size must be positive");
+
+    this.currentCapacity = Math.min(INCREMENT, maxSize);
+    this.limbs = new long[currentCapacity * LIMBS];
+    this.maxSize = maxSize;
+    this.top = -1;
+  }
+
+  @Override
+  public Bytes get(final int offset) {
+    if (offset < 0 || offset >= size()) {
+      throw new UnderflowException();
+    }
+
+    return toBytes(top - offset);
+  }
+
+  @Override
+  public Bytes pop() {
+    if (top < 0) {
+      throw new UnderflowException();
+    }
+
+    return toBytes(top--);
+  }
+
+  @Override
+  public Bytes peek() {
+    if (top < 0) {
+      return null;
+    } else {
+      return toBytes(top);
+    }
+  }
+
+  @Override
+  public void bulkPop(final int items) {
+    checkArgument(items > 0, "number of items to pop must be greater than 0");
+    if (items > size()) {
+      throw new UnderflowException();
+    }
+
+    top -= items;
+  }
+
+  @Override
+  public void preserveTop(final int cutPoint, final int itemsToKeep) {
+    checkArgument(cutPoint >= 0, "cutPoint must be positive");
+    checkArgument(itemsToKeep >= 0, "itemsToKeep must be positive");
+    if (itemsToKeep == 0) {
+      if (cutPoint < size()) {
+        bulkPop(top - cutPoint);
+      }
+    } else {
+      int targetSize = cutPoint + itemsToKeep;
+      int currentSize = size();
+      if (targetSize > currentSize) {
+        throw new UnderflowException();
+      } else if (targetSize < currentSize) {
+        System.arraycopy(
+            limbs,
+            (currentSize - itemsToKeep) * LIMBS,
+            limbs,
+            cutPoint * LIMBS,
+            itemsToKeep * LIMBS);
+        top = targetSize - 1;
+      }
+    }
+  }
+
+  @Override
+  public void push(final Bytes operand) {
+    write(nextTop() * LIMBS, operand);
+    top++;
+  }
+
+  /**
+   * Pushes the immediate of a push instruction read directly from the code. The bytes past the end
+   * of the code are read as zero.
+   *
+   * @param code the code
+   * @param start the index of the first byte of the immediate
+   * @param length the size of the immediate
+   */
+  public void push(final byte[] code, final int start, final int length) {
+    final int base = nextTop() * LIMBS;
+    clear(base);
+    final int end = Math.min(start + length, code.length);
+    for (int index = start; index < end; index++) {
+      final int i = length - 1 - (index - start);
+      limbs[base + (i >>> 3)] |= (code[index] & 0xffL) << ((i & 7) << 3);
+    }
+    top++;
+  }
+
+  /** Pushes a zero word. */
+  public void pushZero() {
+    clear(nextTop() * LIMBS);
+    top++;
+  }
+
+  @Override
+  public void set(final int offset, final Bytes operand) {
+    if (offset < 0) {
+      throw new UnderflowException();
+    } else if (offset >= size()) {
+      throw new OverflowException();
+    }
+
+    write((top - offset) * LIMBS, operand);
+  }
+
+  /** Removes the top word, without reading it. */
+  public void drop() {
+    if (top < 0) {
+      throw new UnderflowException();
+    }
+
+    top--;
+  }
+
+  /**
+   * Pushes a copy of a word.
+   *
+   * @param offset the offset of the word to copy
+   */
+  public void dup(final int offset) {
+    if (offset < 0 || offset >= size()) {
+      throw new UnderflowException();
+    }
+
+    final int base = nextTop() * LIMBS;
+    System.arraycopy(limbs, (top - offset) * LIMBS, limbs, base, LIMBS);
+    top++;
+  }
+
+  /**
+   * Exchanges the top word with another one.
+   *
+   * @param offset the offset of the word to exchange with the top word
+   */
+  public void swap(final int offset) {
+    if (offset < 0 || offset >= size()) {
+      throw new UnderflowException();
+    }
+
+    final int a = top * LIMBS;
+    final int b = (top - offset) * LIMBS;
+    for (int i = 0; i < LIMBS; i++) {
+      final long tmp = limbs[a + i];
+      limbs[a + i] = limbs[b + i];
+      limbs[b + i] = tmp;
+    }
+  }
+
+  /** Replaces the two top words a and b by a + b, modulo 2^256. */
+  public void add() {
+    final int a = binaryOperands();
+    final int b = a - LIMBS;
+    long carry = 0;
+    for (int i = 0; i < LIMBS; i++) {
+      final long x = limbs[a + i];
+      final long partial = x + limbs[b + i];
+      final long sum = partial + carry;
+      carry =
+          (Long.compareUnsigned(partial, x) < 0 || Long.compareUnsigned(sum, partial) < 0)
+              ? 1L
+              : 0L;
+      limbs[b + i] = sum;
+    }
+    top--;
+  }
+
+  /** Replaces the two top words a and b by a - b, modulo 2^256. */
+  public void sub() {
+    final int a = binaryOperands();
+    final int b = a - LIMBS;
+    long borrow = 0;
+    for (int i = 0; i < LIMBS; i++) {
+      final long x = limbs[a + i];
+      final long y = limbs[b + i];
+      final long partial = x - y;
+      limbs[b + i] = partial - borrow;
+      borrow =
+          (Long.compareUnsigned(x, y) < 0 || Long.compareUnsigned(partial, borrow) < 0)
+              ? 1L
+              : 0L;
+    }
+    top--;
+  }
+
+  /** Replaces the two top words a and b by a * b, modulo 2^256. */
+  public void mul() {
+    final int a = binaryOperands();
+    final int b = a - LIMBS;
+    Arrays.fill(product, 0L);
+    // schoolbook multiplication, the limbs above the fourth one are discarded
+    for (int i = 0; i < LIMBS; i++) {
+      final long x = limbs[a + i];
+      long carry = 0;
+      for (int j = 0; i + j < LIMBS; j++) {
+        final long y = limbs[b + j];
+        final long low = x * y;
+        long high = Math.unsignedMultiplyHigh(x, y);
+        final long partial = product[i + j] + low;
+        if (Long.compareUnsigned(partial, low) < 0) {
+          high++;
+        }
+        final long sum = partial + carry;
+        if (Long.compareUnsigned(sum, carry) < 0) {
+          high++;
+        }
+        product[i + j] = sum;
+        carry = high;
+      }
+    }
+    System.arraycopy(product, 0, limbs, b, LIMBS);
+    top--;
+  }
+
+  /** Replaces the two top words a and b by 1 if a &lt; b, 0 otherwise. */
+  public void lt() {
+    final int a = binaryOperands();
+    final int b = a - LIMBS;
+    setBoolean(b, compare(a, b) < 0);
+    top--;
+  }
+
+  /** Replaces the two top words a and b by 1 if a &gt; b, 0 otherwise. */
+  public void gt() {
+    final int a = binaryOperands();
+    final int b = a - LIMBS;
+    setBoolean(b, compare(a, b) > 0);
+    top--;
+  }
+
+  /** Replaces the two top words a and b by 1 if a = b, 0 otherwise. */
+  public void eq() {
+    final int a = binaryOperands();
+    final int b = a - LIMBS;
+    setBoolean(b, compare(a, b) == 0);
+    top--;
+  }
+
+  /** Replaces the top word by 1 if it is zero, 0 otherwise. */
+  public void isZero() {
+    final int a = unaryOperand();
+    setBoolean(a, (limbs[a] | limbs[a + 1] | limbs[a + 2] | limbs[a + 3]) == 0);
+  }
+
+  /** Replaces the two top words a and b by a &amp; b. */
+  public void and() {
+    final int a = binaryOperands();
+    final int b = a - LIMBS;
+    for (int i = 0; i < LIMBS; i++) {
+      limbs[b + i] &= limbs[a + i];
+    }
+    top--;
+  }
+
+  /** Replaces the two top words a and b by a | b. */
+  public void or() {
+    final int a = binaryOperands();
+    final int b = a - LIMBS;
+    for (int i = 0; i < LIMBS; i++) {
+      limbs[b + i] |= limbs[a + i];
+    }
+    top--;
+  }
+
+  /** Replaces the two top words a and b by a ^ b. */
+  public void xor() {
+    final int a = binaryOperands();
+    final int b = a - LIMBS;
+    for (int i = 0; i < LIMBS; i++) {
+      limbs[b + i] ^= limbs[a + i];
+    }
+    top--;
+  }
+
+  /** Replaces the top word by its bitwise negation. */
+  public void not() {
+    final int a = unaryOperand();
+    for (int i = 0; i < LIMBS; i++) {
+      limbs[a + i] = ~limbs[a + i];
+    }
+  }
+
+  @Override
+  public int size() {
+    return top + 1;
+  }
+
+  @Override
+  public String toString() {
+    final StringBuilder builder = new StringBuilder();
+    for (int i = 0; i <= top; ++i) {
+      builder.append(String.format("%n0x%04X ", i)).append(toBytes(i));
+    }
+    return builder.toString();
+  }
+
+  @Override
+  public int hashCode() {
+    return Arrays.hashCode(Arrays.copyOf(limbs, size() * LIMBS));
+  }
+
+  @Override
+  public boolean equals(final Object other) {
+    if (!(other instanceof WordStack that)) {
+      return false;
+    }
+
+    return Arrays.equals(limbs, 0, size() * LIMBS, that.limbs, 0, that.size() * LIMBS);
+  }
+
+  @Override
+  public boolean isFull() {
+    return top + 1 >= maxSize;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return top < 0;
+  }
+
+  private int nextTop() {
+    final int nextTop = top + 1;
+    if (nextTop >= maxSize) {
+      throw new OverflowException();
+    }
+    if (nextTop >= currentCapacity) {
+      currentCapacity = Math.min(currentCapacity + INCREMENT, maxSize);
+      limbs = Arrays.copyOf(limbs, currentCapacity * LIMBS);
+    }
+    return nextTop;
+  }
+
+  private int unaryOperand() {
+    if (top < 0) {
+      throw new UnderflowException();
+    }
+    return top * LIMBS;
+  }
+
+  private int binaryOperands() {
+    if (top < 1) {
+      throw new UnderflowException();
+    }
+    return top * LIMBS;
+  }
+
+  private int compare(final int a, final int b) {
+    for (int i = LIMBS - 1; i >= 0; i--) {
+      final int comparison = Long.compareUnsigned(limbs[a + i], limbs[b + i]);
+      if (comparison != 0) {
+        return comparison;
+      }
+    }
+    return 0;
+  }
+
+  private void setBoolean(final int base, final boolean value) {
+    limbs[base] = value ? 1L : 0L;
+    limbs[base + 1] = 0L;
+    limbs[base + 2] = 0L;
+    limbs[base + 3] = 0L;
+  }
+
+  private void clear(final int base) {
+    limbs[base] = 0L;
+    limbs[base + 1] = 0L;
+    limbs[base + 2] = 0L;
+    limbs[base + 3] = 0L;
+  }
+
+  private void write(final int base, final Bytes operand) {
+    final int size = operand.size();
+    if (size == Bytes32.SIZE) {
+      limbs[base] = operand.getLong(24);
+      limbs[base + 1] = operand.getLong(16);
+      limbs[base + 2] = operand.getLong(8);
+      limbs[base + 3] = operand.getLong(0);
+    } else {
+      clear(base);
+      // words are at most 32 bytes, so only the low order bytes of a longer value are kept
+      final int length = Math.min(size, Bytes32.SIZE);
+      for (int i = 0; i < length; i++) {
+        limbs[base + (i >>> 3)] |= (operand.get(size - 1 - i) & 0xffL) << ((i & 7) << 3);
+      }
+    }
+  }
+
+  private Bytes toBytes(final int index) {
+    final int base = index * LIMBS;
+    final byte[] bytes = new byte[Bytes32.SIZE];
+    for (int i = 0; i < LIMBS; i++) {
+      final long limb = limbs[base + LIMBS - 1 - i];
+      for (int j = 0; j < 8; j++) {
+        bytes[i * 8 + j] = (byte) (limb >>> ((7 - j) << 3));
+      }
+    }
+    return Bytes32.wrap(bytes);
+  }
+}
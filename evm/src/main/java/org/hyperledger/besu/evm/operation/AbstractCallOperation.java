@@ -216,7 +216,7 @@ public abstract class AbstractCallOperation extends AbstractOperation {
       return new OperationResult(cost, null);
     }
 
-    final Bytes inputData = frame.readMutableMemory(inputDataOffset(frame), inputDataLength(frame));
+    final Bytes inputData = frame.readMemoryView(inputDataOffset(frame), inputDataLength(frame));
 
     final Code code =
         contract == null
@@ -161,7 +161,7 @@ public abstract class AbstractCreateOperation extends AbstractOperation {
   private void fail(final MessageFrame frame) {
     final long inputOffset = clampedToLong(frame.getStackItem(1));
     final long inputSize = clampedToLong(frame.getStackItem(2));
-    frame.readMutableMemory(inputOffset, inputSize);
+    frame.expandMemory(inputOffset, inputSize);
     frame.popStackItems(getStackItemsConsumed());
     frame.pushStackItem(LEGACY_FAILURE_STACK_ITEM);
   }
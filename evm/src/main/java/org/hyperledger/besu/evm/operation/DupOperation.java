@@ -18,6 +18,7 @@ import org.hyperledger.besu.evm.EVM;
 import org.hyperledger.besu.evm.frame.ExceptionalHaltReason;
 import org.hyperledger.besu.evm.frame.MessageFrame;
 import org.hyperledger.besu.evm.gascalculator.GasCalculator;
+import org.hyperledger.besu.evm.internal.WordStack;
 
 /** The Dup operation. */
 public class DupOperation extends AbstractFixedCostOperation {
@@ -66,6 +67,12 @@ public class DupOperation extends AbstractFixedCostOperation {
    * @return the operation result
    */
   public static OperationResult staticOperation(final MessageFrame frame, final int index) {
+    final WordStack wordStack = frame.getWordStack();
+    if (wordStack != null) {
+      wordStack.dup(index - 1);
+      return dupSuccess;
+    }
+
     frame.pushStackItem(frame.getStackItem(index - 1));
 
     return dupSuccess;
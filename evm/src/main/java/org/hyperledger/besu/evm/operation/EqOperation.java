@@ -17,6 +17,7 @@ package org.hyperledger.besu.evm.operation;
 import org.hyperledger.besu.evm.EVM;
 import org.hyperledger.besu.evm.frame.MessageFrame;
 import org.hyperledger.besu.evm.gascalculator.GasCalculator;
+import org.hyperledger.besu.evm.internal.WordStack;
 
 import org.apache.tuweni.bytes.Bytes;
 import org.apache.tuweni.units.bigints.UInt256;
@@ -49,6 +50,12 @@ public class EqOperation extends AbstractFixedCostOperation {
    * @return the operation result
    */
   public static OperationResult staticOperation(final MessageFrame frame) {
+    final WordStack wordStack = frame.getWordStack();
+    if (wordStack != null) {
+      wordStack.eq();
+      return eqSuccess;
+    }
+
     final Bytes value0 = frame.popStackItem().trimLeadingZeros();
     final Bytes value1 = frame.popStackItem().trimLeadingZeros();
 
@@ -17,6 +17,7 @@ package org.hyperledger.besu.evm.operation;
 import org.hyperledger.besu.evm.EVM;
 import org.hyperledger.besu.evm.frame.MessageFrame;
 import org.hyperledger.besu.evm.gascalculator.GasCalculator;
+import org.hyperledger.besu.evm.internal.WordStack;
 
 import org.apache.tuweni.bytes.Bytes;
 
@@ -48,6 +49,12 @@ public class IsZeroOperation extends AbstractFixedCostOperation {
    * @return the operation result
    */
   public static OperationResult staticOperation(final MessageFrame frame) {
+    final WordStack wordStack = frame.getWordStack();
+    if (wordStack != null) {
+      wordStack.isZero();
+      return isZeroSuccess;
+    }
+
     final Bytes value = frame.popStackItem().trimLeadingZeros();
 
     frame.pushStackItem((value.size() == 0) ? BYTES_ONE : Bytes.EMPTY);
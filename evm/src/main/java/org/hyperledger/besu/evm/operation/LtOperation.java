@@ -17,6 +17,7 @@ package org.hyperledger.besu.evm.operation;
 import org.hyperledger.besu.evm.EVM;
 import org.hyperledger.besu.evm.frame.MessageFrame;
 import org.hyperledger.besu.evm.gascalculator.GasCalculator;
+import org.hyperledger.besu.evm.internal.WordStack;
 
 import org.apache.tuweni.bytes.Bytes;
 
@@ -48,6 +49,12 @@ public class LtOperation extends AbstractFixedCostOperation {
    * @return the operation result
    */
   public static OperationResult staticOperation(final MessageFrame frame) {
+    final WordStack wordStack = frame.getWordStack();
+    if (wordStack != null) {
+      wordStack.lt();
+      return ltSuccess;
+    }
+
     final Bytes value0 = frame.popStackItem().trimLeadingZeros();
     final Bytes value1 = frame.popStackItem().trimLeadingZeros();
 
@@ -17,6 +17,7 @@ package org.hyperledger.besu.evm.operation;
 import org.hyperledger.besu.evm.EVM;
 import org.hyperledger.besu.evm.frame.MessageFrame;
 import org.hyperledger.besu.evm.gascalculator.GasCalculator;
+import org.hyperledger.besu.evm.internal.WordStack;
 
 import java.math.BigInteger;
 
@@ -50,6 +51,12 @@ public class MulOperation extends AbstractFixedCostOperation {
    * @return the operation result
    */
   public static OperationResult staticOperation(final MessageFrame frame) {
+    final WordStack wordStack = frame.getWordStack();
+    if (wordStack != null) {
+      wordStack.mul();
+      return mulSuccess;
+    }
+
     BigInteger a = new BigInteger(1, frame.popStackItem().toArrayUnsafe());
     BigInteger b = new BigInteger(1, frame.popStackItem().toArrayUnsafe());
     BigInteger c = a.multiply(b);
@@ -19,6 +19,7 @@ import static org.hyperledger.besu.evm.operation.PushOperation.PUSH_BASE;
 import org.hyperledger.besu.evm.EVM;
 import org.hyperledger.besu.evm.frame.MessageFrame;
 import org.hyperledger.besu.evm.gascalculator.GasCalculator;
+import org.hyperledger.besu.evm.internal.WordStack;
 
 import org.apache.tuweni.bytes.Bytes;
 
@@ -49,6 +50,12 @@ public class Push0Operation extends AbstractFixedCostOperation {
    * @return the operation result
    */
   public static OperationResult staticOperation(final MessageFrame frame) {
+    final WordStack wordStack = frame.getWordStack();
+    if (wordStack != null) {
+      wordStack.pushZero();
+      return push0Success;
+    }
+
     frame.pushStackItem(Bytes.EMPTY);
     return push0Success;
   }
@@ -17,6 +17,7 @@ package org.hyperledger.besu.evm.operation;
 import org.hyperledger.besu.evm.EVM;
 import org.hyperledger.besu.evm.frame.MessageFrame;
 import org.hyperledger.besu.evm.gascalculator.GasCalculator;
+import org.hyperledger.besu.evm.internal.WordStack;
 
 import org.apache.tuweni.bytes.Bytes;
 
@@ -68,24 +69,55 @@ public class PushOperation extends AbstractFixedCostOperation {
    */
   public static OperationResult staticOperation(
       final MessageFrame frame, final byte[] code, final int pc, final int pushSize) {
-    final int copyStart = pc + 1;
-    Bytes push;
-    if (code.length <= copyStart) {
-      push = Bytes.EMPTY;
+    final WordStack wordStack = frame.getWordStack();
+    if (wordStack != null) {
+      wordStack.push(code, pc + 1, pushSize);
     } else {
-      final int copyLength = Math.min(pushSize, code.length - pc - 1);
-      final int rightPad = pushSize - copyLength;
-      if (rightPad == 0) {
-        push = Bytes.wrap(code, copyStart, copyLength);
-      } else {
-        // Right Pad the push with 0s up to pushSize if greater than the copyLength
-        var bytecodeLocal = new byte[pushSize];
-        System.arraycopy(code, copyStart, bytecodeLocal, 0, copyLength);
-        push = Bytes.wrap(bytecodeLocal);
-      }
+      frame.pushStackItem(immediate(code, pc, pushSize));
     }
-    frame.pushStackItem(push);
     frame.setPC(pc + pushSize);
     return pushSuccess;
   }
+
+  /**
+   * Performs Push operation with an immediate that was already decoded from the code.
+   *
+   * @param frame the frame
+   * @param immediate the immediate of the push at pc, as returned by {@link #immediate(byte[], int,
+   *     int)}
+   * @param pc the pc
+   * @param pushSize the push size
+   * @return the operation result
+   */
+  public static OperationResult staticOperation(
+      final MessageFrame frame, final Bytes immediate, final int pc, final int pushSize) {
+    frame.pushStackItem(immediate);
+    frame.setPC(pc + pushSize);
+    return pushSuccess;
+  }
+
+  /**
+   * Reads the immediate of a push from the code. A push truncated by the end of the code is right
+   * padded with zeros.
+   *
+   * @param code the code
+   * @param pc the pc of the push
+   * @param pushSize the push size
+   * @return the immediate
+   */
+  public static Bytes immediate(final byte[] code, final int pc, final int pushSize) {
+    final int copyStart = pc + 1;
+    if (code.length <= copyStart) {
+      return Bytes.EMPTY;
+    }
+    final int copyLength = Math.min(pushSize, code.length - pc - 1);
+    final int rightPad = pushSize - copyLength;
+    if (rightPad == 0) {
+      return Bytes.wrap(code, copyStart, copyLength);
+    }
+    // Right Pad the push with 0s up to pushSize if greater than the copyLength
+    var bytecodeLocal = new byte[pushSize];
+    System.arraycopy(code, copyStart, bytecodeLocal, 0, copyLength);
+    return Bytes.wrap(bytecodeLocal);
+  }
 }
@@ -17,6 +17,7 @@ package org.hyperledger.besu.evm.operation;
 import org.hyperledger.besu.evm.EVM;
 import org.hyperledger.besu.evm.frame.MessageFrame;
 import org.hyperledger.besu.evm.gascalculator.GasCalculator;
+import org.hyperledger.besu.evm.internal.WordStack;
 
 import java.math.BigInteger;
 
@@ -51,6 +52,12 @@ public class SubOperation extends AbstractFixedCostOperation {
    * @return the operation result
    */
   public static OperationResult staticOperation(final MessageFrame frame) {
+    final WordStack wordStack = frame.getWordStack();
+    if (wordStack != null) {
+      wordStack.sub();
+      return subSuccess;
+    }
+
     final BigInteger value0 = new BigInteger(1, frame.popStackItem().toArrayUnsafe());
     final BigInteger value1 = new BigInteger(1, frame.popStackItem().toArrayUnsafe());
 
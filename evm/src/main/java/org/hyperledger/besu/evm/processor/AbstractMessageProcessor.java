@@ -228,6 +228,24 @@ public abstract class AbstractMessageProcessor {
     }
   }
 
+  /**
+   * Returns whether the frames run by this processor keep their operand stack words as limbs.
+   *
+   * @return true if the word stack is enabled in the configuration of the evm
+   */
+  public boolean isWordStackEnabled() {
+    return evm.getEvmConfiguration().wordStackEnabled();
+  }
+
+  /**
+   * Returns the maximum size of the initcode of the contract creation transactions.
+   *
+   * @return the max initcode size of the evm
+   */
+  public int getMaxInitcodeSize() {
+    return evm.getMaxInitcodeSize();
+  }
+
   /**
    * Gets code from evm.
    *
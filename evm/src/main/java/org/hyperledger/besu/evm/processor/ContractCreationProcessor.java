@@ -123,8 +123,12 @@ public class ContractCreationProcessor extends AbstractMessageProcessor {
 
   @Override
   public void codeSuccess(final MessageFrame frame, final OperationTracer operationTracer) {
+    // the output data can be a view of the memory of the frame, the deployed code gets its own
+    // array
     final Bytes contractCode =
-        frame.getCreatedCode() == null ? frame.getOutputData() : frame.getCreatedCode().getBytes();
+        frame.getCreatedCode() == null
+            ? frame.getOutputData().copy()
+            : frame.getCreatedCode().getBytes();
 
     final long depositFee = evm.getGasCalculator().codeDepositGasCost(contractCode.size());
 
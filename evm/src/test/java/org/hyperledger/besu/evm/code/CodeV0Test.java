@@ -14,6 +14,7 @@
  */
 package org.hyperledger.besu.evm.code;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hyperledger.besu.evm.frame.MessageFrame.Type.MESSAGE_CALL;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.Mockito.mock;
@@ -27,9 +28,14 @@ import org.hyperledger.besu.evm.EVM;
 import org.hyperledger.besu.evm.MainnetEVMs;
 import org.hyperledger.besu.evm.frame.BlockValues;
 import org.hyperledger.besu.evm.frame.MessageFrame;
+import org.hyperledger.besu.evm.gascalculator.FrontierGasCalculator;
+import org.hyperledger.besu.evm.gascalculator.GasCalculator;
 import org.hyperledger.besu.evm.internal.EvmConfiguration;
 import org.hyperledger.besu.evm.operation.JumpOperation;
+import org.hyperledger.besu.evm.operation.MulOperation;
 import org.hyperledger.besu.evm.operation.Operation.OperationResult;
+import org.hyperledger.besu.evm.operation.OperationRegistry;
+import org.hyperledger.besu.evm.tracing.OperationTracer;
 import org.hyperledger.besu.evm.worldstate.WorldUpdater;
 
 import javax.annotation.Nonnull;
@@ -70,6 +76,200 @@ class CodeV0Test {
     Mockito.verify(getsCached, times(1)).calculateJumpDests();
   }
 
+  @Test
+  void instructionStreamHoldsPushImmediates() {
+    // PUSH2 0x0102 JUMPDEST PUSH1 0x5b PUSH2 0x03 (truncated)
+    final Bytes codeBytes = Bytes.fromHexString("0x6101025b605b6103");
+    final InstructionStream stream =
+        InstructionStream.decode(codeBytes.toArrayUnsafe(), fixedGas());
+
+    assertThat(stream.getPushImmediates())
+        .containsExactly(
+            Bytes.fromHexString("0x0102"),
+            null,
+            null,
+            null,
+            Bytes.fromHexString("0x5b"),
+            null,
+            Bytes.fromHexString("0x0300"),
+            null);
+  }
+
+  @Test
+  void cachedCodeIsPreDecodedOnceHot() {
+    final Bytes codeBytes = Bytes.fromHexString("0x600160020100");
+    final CodeV0 uncached = (CodeV0) evm.getCodeUncached(codeBytes);
+    final CodeV0 cached = (CodeV0) evm.getCode(Hash.hash(codeBytes), codeBytes);
+
+    for (int i = 1; i < EvmConfiguration.DEFAULT_PRE_DECODING_THRESHOLD; i++) {
+      assertThat(cached.getInstructionStream(fixedGas())).isNull();
+    }
+    assertThat(cached.getInstructionStream(fixedGas())).isNotNull();
+    assertThat(cached.getInstructionStream(fixedGas()))
+        .isSameAs(cached.getInstructionStream(fixedGas()));
+    assertThat(uncached.getInstructionStream(fixedGas())).isNull();
+  }
+
+  @Test
+  void cachedCodeIsPreDecodedAfterTheConfiguredExecutions() {
+    evm =
+        MainnetEVMs.osaka(
+            new EvmConfiguration(32_000L, EvmConfiguration.WorldUpdaterMode.STACKED, false, 1));
+    final Bytes codeBytes = Bytes.fromHexString("0x600160020100");
+    final CodeV0 cached = (CodeV0) evm.getCode(Hash.hash(codeBytes), codeBytes);
+
+    assertThat(cached.getInstructionStream(fixedGas())).isNotNull();
+  }
+
+  @Test
+  void preDecodedCodeExecutesLikeRawCode() {
+    // PUSH1 1 PUSH32 2 ADD PUSH2 0x0300 (truncated), leaves 3 and 0x0300 on the stack
+    final Bytes codeBytes =
+        Bytes.fromHexString(
+            "0x60017f000000000000000000000000000000000000000000000000000000000000000201610300");
+    final CodeV0 raw = (CodeV0) evm.getCodeUncached(codeBytes);
+    final CodeV0 preDecoded = (CodeV0) evm.getCode(Hash.hash(codeBytes), codeBytes);
+    for (int i = 0; i < EvmConfiguration.DEFAULT_PRE_DECODING_THRESHOLD; i++) {
+      preDecoded.getInstructionStream(fixedGas());
+    }
+
+    final MessageFrame rawFrame = createFrame(raw);
+    evm.runToHalt(rawFrame, OperationTracer.NO_TRACING);
+    final MessageFrame preDecodedFrame = createFrame(preDecoded);
+    evm.runToHalt(preDecodedFrame, OperationTracer.NO_TRACING);
+
+    assertThat(preDecodedFrame.getState()).isEqualTo(rawFrame.getState());
+    assertThat(preDecodedFrame.getRemainingGas()).isEqualTo(rawFrame.getRemainingGas());
+    assertThat(preDecodedFrame.stackSize()).isEqualTo(2);
+    for (int i = 0; i < rawFrame.stackSize(); i++) {
+      assertThat(UInt256.fromBytes(preDecodedFrame.getStackItem(i)))
+          .isEqualTo(UInt256.fromBytes(rawFrame.getStackItem(i)));
+    }
+  }
+
+  @Test
+  void instructionStreamSplitsFixedCostRuns() {
+    // PUSH1 1 PUSH1 2 ADD DUP1 SWAP1 CALLER PUSH1 1 PUSH1 0x0d JUMPI JUMPDEST STOP
+    final Bytes codeBytes = Bytes.fromHexString("0x60016002018090336001600d575b00");
+    final InstructionStream stream =
+        InstructionStream.decode(codeBytes.toArrayUnsafe(), fixedGas());
+
+    assertThat(stream.getRuns())
+        .containsExactly(
+            run(15, 7),
+            0,
+            run(12, 5),
+            0,
+            run(9, 3),
+            run(6, 2),
+            run(3, 1),
+            0,
+            run(16, 5),
+            0,
+            run(13, 3),
+            0,
+            run(10, 1),
+            run(1, 1),
+            0);
+    assertThat(stream.getSuperInstructions())
+        .containsExactly(
+            0,
+            0,
+            InstructionStream.PUSH_ADD,
+            0,
+            0,
+            InstructionStream.DUP_SWAP,
+            0,
+            0,
+            0,
+            0,
+            InstructionStream.PUSH_JUMPI,
+            0,
+            0,
+            0,
+            0);
+  }
+
+  @Test
+  void prechargedCodeRunsOutOfGasLikeRawCode() {
+    // PUSH1 0 PUSH1 5, then until the counter is 0: JUMPDEST DUP1 SWAP2 PUSH1 3 ADD SWAP2 POP
+    // PUSH1 1 SWAP1 SUB DUP1 PUSH1 4 JUMPI, and STOP. Leaves 15 and 0 on the stack.
+    final Bytes codeBytes =
+        Bytes.fromHexString("0x600060055b80916003019150600190038060045700");
+    final CodeV0 raw = (CodeV0) evm.getCodeUncached(codeBytes);
+    final CodeV0 preDecoded = (CodeV0) evm.getCode(Hash.hash(codeBytes), codeBytes);
+    for (int i = 0; i < EvmConfiguration.DEFAULT_PRE_DECODING_THRESHOLD; i++) {
+      preDecoded.getInstructionStream(fixedGas());
+    }
+
+    // the loop costs 6 gas to enter, 43 gas per iteration and STOP is free
+    for (long gas = 0; gas <= 6 + 5 * 43; gas++) {
+      final MessageFrame rawFrame = createFrame(raw, gas);
+      evm.runToHalt(rawFrame, OperationTracer.NO_TRACING);
+      final MessageFrame preDecodedFrame = createFrame(preDecoded, gas);
+      evm.runToHalt(preDecodedFrame, OperationTracer.NO_TRACING);
+
+      assertThat(preDecodedFrame.getState()).isEqualTo(rawFrame.getState());
+      assertThat(preDecodedFrame.getExceptionalHaltReason())
+          .isEqualTo(rawFrame.getExceptionalHaltReason());
+      assertThat(preDecodedFrame.getPC()).isEqualTo(rawFrame.getPC());
+      assertThat(preDecodedFrame.getRemainingGas()).isEqualTo(rawFrame.getRemainingGas());
+      assertThat(preDecodedFrame.stackSize()).isEqualTo(rawFrame.stackSize());
+      for (int i = 0; i < rawFrame.stackSize(); i++) {
+        assertThat(UInt256.fromBytes(preDecodedFrame.getStackItem(i)))
+            .isEqualTo(UInt256.fromBytes(rawFrame.getStackItem(i)));
+      }
+    }
+    final MessageFrame completed = createFrame(preDecoded, 6 + 5 * 43);
+    evm.runToHalt(completed, OperationTracer.NO_TRACING);
+    assertThat(completed.getState()).isEqualTo(MessageFrame.State.CODE_SUCCESS);
+    assertThat(completed.getRemainingGas()).isZero();
+    assertThat(UInt256.fromBytes(completed.getStackItem(1))).isEqualTo(UInt256.valueOf(15));
+  }
+
+  @Test
+  void fixedGasFollowsTheOperationsAndTheGasCalculator() {
+    assertThat(fixedGas()[0x01]).isEqualTo(3);
+    assertThat(fixedGas()[0x5b]).isEqualTo(1);
+    assertThat(fixedGas()[0x5f]).isEqualTo(2);
+    // SLOAD is not a fixed cost operation
+    assertThat(fixedGas()[0x54]).isZero();
+
+    // PUSH0 is not an operation before Shanghai
+    final EVM frontier = MainnetEVMs.frontier(EvmConfiguration.DEFAULT);
+    final int[] frontierFixedGas =
+        InstructionStream.fixedGas(frontier.getOperationsUnsafe(), frontier.getGasCalculator());
+    assertThat(frontierFixedGas[0x01]).isEqualTo(3);
+    assertThat(frontierFixedGas[0x5f]).isZero();
+
+    // the operations charged differently than their static form are charged on their own
+    final GasCalculator gasCalculator =
+        new FrontierGasCalculator() {
+          @Override
+          public long getVeryLowTierGasCost() {
+            return 4;
+          }
+        };
+    final OperationRegistry operations = MainnetEVMs.frontierOperations(gasCalculator);
+    final int[] customFixedGas =
+        InstructionStream.fixedGas(operations.getOperations(), gasCalculator);
+    assertThat(customFixedGas[0x01]).isZero();
+    assertThat(customFixedGas[0x02]).isEqualTo(5);
+
+    // and so are the operations replaced in the registry
+    operations.put(new MulOperation(gasCalculator) {});
+    assertThat(InstructionStream.fixedGas(operations.getOperations(), gasCalculator)[0x02])
+        .isZero();
+  }
+
+  private int[] fixedGas() {
+    return InstructionStream.fixedGas(evm.getOperationsUnsafe(), evm.getGasCalculator());
+  }
+
+  private static int run(final int gas, final int length) {
+    return (gas << 16) | length;
+  }
+
   @Nonnull
   private MessageFrame createJumpFrame(final CodeV0 getsCached) {
     final MessageFrame frame =
@@ -96,4 +296,29 @@ class CodeV0Test {
     frame.pushStackItem(UInt256.fromHexString("0x03"));
     return frame;
   }
+
+  private MessageFrame createFrame(final CodeV0 code) {
+    return createFrame(code, 10_000L);
+  }
+
+  private MessageFrame createFrame(final CodeV0 code, final long initialGas) {
+    return MessageFrame.builder()
+        .type(MESSAGE_CALL)
+        .worldUpdater(mock(WorldUpdater.class))
+        .initialGas(initialGas)
+        .address(Address.ZERO)
+        .originator(Address.ZERO)
+        .contract(Address.ZERO)
+        .gasPrice(Wei.ZERO)
+        .inputData(Bytes.EMPTY)
+        .sender(Address.ZERO)
+        .value(Wei.ZERO)
+        .apparentValue(Wei.ZERO)
+        .code(code)
+        .blockValues(mock(BlockValues.class))
+        .completer(f -> {})
+        .miningBeneficiary(Address.ZERO)
+        .blockHashLookup(l -> Hash.EMPTY)
+        .build();
+  }
 }
@@ -0,0 +1,274 @@
+/*
+ * Copyright contributors to Besu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.evm.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.hyperledger.besu.evm.frame.MessageFrame.Type.MESSAGE_CALL;
+import static org.mockito.Mockito.mock;
+
+import org.hyperledger.besu.datatypes.Address;
+import org.hyperledger.besu.datatypes.Hash;
+import org.hyperledger.besu.datatypes.Wei;
+import org.hyperledger.besu.evm.EVM;
+import org.hyperledger.besu.evm.MainnetEVMs;
+import org.hyperledger.besu.evm.frame.BlockValues;
+import org.hyperledger.besu.evm.frame.MessageFrame;
+import org.hyperledger.besu.evm.tracing.OperationTracer;
+import org.hyperledger.besu.evm.worldstate.WorldUpdater;
+
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+import org.apache.tuweni.units.bigints.UInt256;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class WordStackTest {
+
+  private static final BigInteger TWO_TO_256 = BigInteger.ONE.shiftLeft(256);
+  private static final BigInteger ONE = BigInteger.ONE;
+  private static final BigInteger ZERO = BigInteger.ZERO;
+
+  @Test
+  void pushPop() {
+    final WordStack stack = new WordStack(1);
+    stack.push(UInt256.fromHexString("0x01"));
+    assertThat(stack.size()).isEqualTo(1);
+    assertThat(stack.pop()).isEqualTo(Bytes32.fromHexString("0x01"));
+    assertThat(stack.isEmpty()).isTrue();
+  }
+
+  @Test
+  void shortValuesAreReadBackAsWords() {
+    final WordStack stack = new WordStack(3);
+    stack.push(Bytes.EMPTY);
+    stack.push(Bytes.fromHexString("0x0102"));
+    stack.push(Address.fromHexString("0x00000000000000000000000000000000000000ff"));
+    assertThat(stack.get(0)).isEqualTo(Bytes32.fromHexString("0xff"));
+    assertThat(stack.get(1)).isEqualTo(Bytes32.fromHexString("0x0102"));
+    assertThat(stack.get(2)).isEqualTo(Bytes32.ZERO);
+  }
+
+  @Test
+  void pushFromCodePadsPastTheEnd() {
+    final byte[] code = Bytes.fromHexString("0x60ff620102").toArrayUnsafe();
+    final WordStack stack = new WordStack(2);
+    stack.push(code, 1, 1);
+    stack.push(code, 3, 3);
+    assertThat(stack.get(0)).isEqualTo(Bytes32.fromHexString("0x010200"));
+    assertThat(stack.get(1)).isEqualTo(Bytes32.fromHexString("0xff"));
+  }
+
+  @Test
+  void pop_StackUnderflow() {
+    final WordStack stack = new WordStack(1);
+    assertThatThrownBy(stack::pop).isInstanceOf(UnderflowException.class);
+    assertThatThrownBy(stack::drop).isInstanceOf(UnderflowException.class);
+  }
+
+  @Test
+  void binaryOperation_StackUnderflow() {
+    final WordStack stack = new WordStack(2);
+    stack.push(UInt256.ONE);
+    assertThatThrownBy(stack::add).isInstanceOf(UnderflowException.class);
+    assertThat(stack.size()).isEqualTo(1);
+  }
+
+  @Test
+  void set() {
+    final WordStack stack = new WordStack(3);
+    stack.push(UInt256.fromHexString("0x01"));
+    stack.push(UInt256.fromHexString("0x02"));
+    stack.push(UInt256.fromHexString("0x03"));
+    stack.set(2, UInt256.fromHexString("0x04"));
+    assertThat(stack.get(0)).isEqualTo(Bytes32.fromHexString("0x03"));
+    assertThat(stack.get(1)).isEqualTo(Bytes32.fromHexString("0x02"));
+    assertThat(stack.get(2)).isEqualTo(Bytes32.fromHexString("0x04"));
+    final Bytes32 operand = Bytes32.fromHexString("0x01");
+    assertThatThrownBy(() -> stack.set(3, operand)).isInstanceOf(OverflowException.class);
+  }
+
+  @Test
+  void dupAndSwap() {
+    final WordStack stack = new WordStack(4);
+    stack.push(UInt256.fromHexString("0x01"));
+    stack.push(UInt256.fromHexString("0x02"));
+    stack.dup(1);
+    stack.swap(2);
+    assertThat(stack.size()).isEqualTo(3);
+    assertThat(stack.get(0)).isEqualTo(Bytes32.fromHexString("0x01"));
+    assertThat(stack.get(1)).isEqualTo(Bytes32.fromHexString("0x02"));
+    assertThat(stack.get(2)).isEqualTo(Bytes32.fromHexString("0x01"));
+    assertThatThrownBy(() -> stack.dup(3)).isInstanceOf(UnderflowException.class);
+  }
+
+  @Test
+  void preserveTop() {
+    final WordStack stack = new WordStack(8);
+    for (int i = 1; i <= 8; i++) {
+      stack.push(UInt256.valueOf(i));
+    }
+    stack.preserveTop(1, 3);
+    assertThat(stack.size()).isEqualTo(4);
+    assertThat(stack.get(0)).isEqualTo(Bytes32.fromHexString("0x08"));
+    assertThat(stack.get(1)).isEqualTo(Bytes32.fromHexString("0x07"));
+    assertThat(stack.get(2)).isEqualTo(Bytes32.fromHexString("0x06"));
+    assertThat(stack.get(3)).isEqualTo(Bytes32.fromHexString("0x01"));
+    assertThatThrownBy(() -> stack.preserveTop(4, 2)).isInstanceOf(UnderflowException.class);
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {5, 31, 32, 33, 1023, 1024, 1025})
+  void largeOverflows(final int n) {
+    final WordStack stack = new WordStack(n);
+    for (int i = 0; i < n; i++) {
+      stack.push(UInt256.valueOf(i));
+    }
+    assertThatThrownBy(() -> stack.push(UInt256.ONE)).isInstanceOf(OverflowException.class);
+    assertThat(stack.get(n - 1)).isEqualTo(Bytes32.ZERO);
+    assertThat(UInt256.fromBytes(stack.get(0))).isEqualTo(UInt256.valueOf(n - 1));
+  }
+
+  static Stream<Arguments> limbOperations() {
+    return Stream.of(
+        operation("add", WordStack::add, (a, b) -> a.add(b).mod(TWO_TO_256)),
+        operation("sub", WordStack::sub, (a, b) -> a.subtract(b).mod(TWO_TO_256)),
+        operation("mul", WordStack::mul, (a, b) -> a.multiply(b).mod(TWO_TO_256)),
+        operation("lt", WordStack::lt, (a, b) -> a.compareTo(b) < 0 ? ONE : ZERO),
+        operation("gt", WordStack::gt, (a, b) -> a.compareTo(b) > 0 ? ONE : ZERO),
+        operation("eq", WordStack::eq, (a, b) -> a.equals(b) ? ONE : ZERO),
+        operation("and", WordStack::and, BigInteger::and),
+        operation("or", WordStack::or, BigInteger::or),
+        operation("xor", WordStack::xor, BigInteger::xor),
+        operation("isZero", WordStack::isZero, (a, b) -> a.signum() == 0 ? ONE : ZERO),
+        operation("not", WordStack::not, (a, b) -> TWO_TO_256.subtract(ONE).subtract(a)));
+  }
+
+  private static Arguments operation(
+      final String name,
+      final Consumer<WordStack> operation,
+      final BinaryOperator<BigInteger> expected) {
+    return Arguments.of(name, operation, expected);
+  }
+
+  @ParameterizedTest(name = "{0}")
+  @MethodSource("limbOperations")
+  void operationsMatchBigIntegerArithmetic(
+      final String name,
+      final Consumer<WordStack> operation,
+      final BinaryOperator<BigInteger> expected) {
+    final boolean unary = name.equals("isZero") || name.equals("not");
+    final Random random = new Random(name.hashCode());
+    for (int i = 0; i < 2_000; i++) {
+      final BigInteger a = randomWord(random);
+      final BigInteger b = i % 10 == 0 ? a : randomWord(random);
+      final WordStack stack = new WordStack(4);
+      stack.push(UInt256.valueOf(42));
+      stack.push(UInt256.valueOf(b));
+      stack.push(UInt256.valueOf(a));
+
+      operation.accept(stack);
+
+      assertThat(stack.size()).isEqualTo(unary ? 3 : 2);
+      assertThat(new BigInteger(1, stack.pop().toArrayUnsafe()))
+          .as("%s(%s, %s)", name, a, b)
+          .isEqualTo(expected.apply(a, b));
+      assertThat(UInt256.fromBytes(stack.get(stack.size() - 1))).isEqualTo(UInt256.valueOf(42));
+    }
+  }
+
+  @Test
+  void executesLikeTheOperandStack() {
+    final Bytes code =
+        Bytes.fromHexString(
+            "0x7f"
+                + "ff".repeat(32) // PUSH32 2^256 - 1
+                + "600201" // PUSH1 2 ADD, wraps around to 1
+                + "600503" // PUSH1 5 SUB, 5 - 1
+                + "8002" // DUP1 MUL
+                + "7f"
+                + "ab".repeat(32) // PUSH32
+                + "02" // MUL, keeps the low 256 bits
+                + "8019" // DUP1 NOT
+                + "8116" // DUP2 AND
+                + "600317" // PUSH1 3 OR
+                + "8018" // DUP1 XOR
+                + "15" // ISZERO
+                + "5f10" // PUSH0 LT
+                + "600711" // PUSH1 7 GT
+                + "8114" // DUP2 EQ
+                + "90" // SWAP1
+                + "600a9004" // PUSH1 10 SWAP1 DIV, through the Bytes accessors
+                + "6001601f1b" // PUSH1 1 PUSH1 31 SHL
+                + "50" // POP
+                + "620102"); // PUSH3 truncated by the end of the code
+    final EVM evm = MainnetEVMs.cancun(EvmConfiguration.DEFAULT);
+
+    final MessageFrame operandStackFrame = createFrame(evm, code, false);
+    evm.runToHalt(operandStackFrame, OperationTracer.NO_TRACING);
+    final MessageFrame wordStackFrame = createFrame(evm, code, true);
+    evm.runToHalt(wordStackFrame, OperationTracer.NO_TRACING);
+
+    assertThat(operandStackFrame.getWordStack()).isNull();
+    assertThat(wordStackFrame.getWordStack()).isNotNull();
+    assertThat(wordStackFrame.getState()).isEqualTo(operandStackFrame.getState());
+    assertThat(wordStackFrame.getRemainingGas()).isEqualTo(operandStackFrame.getRemainingGas());
+    assertThat(wordStackFrame.stackSize()).isEqualTo(operandStackFrame.stackSize());
+    for (int i = 0; i < operandStackFrame.stackSize(); i++) {
+      assertThat(wordStackFrame.getStackItem(i))
+          .isEqualTo(Bytes32.leftPad(operandStackFrame.getStackItem(i)));
+    }
+  }
+
+  private static BigInteger randomWord(final Random random) {
+    return switch (random.nextInt(4)) {
+      case 0 -> BigInteger.valueOf(random.nextInt(3));
+      case 1 -> TWO_TO_256.subtract(BigInteger.valueOf(random.nextInt(3) + 1L));
+      default -> new BigInteger(1 + random.nextInt(256), random);
+    };
+  }
+
+  private static MessageFrame createFrame(
+      final EVM evm, final Bytes code, final boolean wordStack) {
+    return MessageFrame.builder()
+        .type(MESSAGE_CALL)
+        .worldUpdater(mock(WorldUpdater.class))
+        .initialGas(10_000L)
+        .wordStack(wordStack)
+        .address(Address.ZERO)
+        .originator(Address.ZERO)
+        .contract(Address.ZERO)
+        .gasPrice(Wei.ZERO)
+        .inputData(Bytes.EMPTY)
+        .sender(Address.ZERO)
+        .value(Wei.ZERO)
+        .apparentValue(Wei.ZERO)
+        .code(evm.getCodeUncached(code))
+        .blockValues(mock(BlockValues.class))
+        .completer(f -> {})
+        .miningBeneficiary(Address.ZERO)
+        .blockHashLookup(l -> Hash.EMPTY)
+        .build();
+  }
+}
@@ -17,6 +17,8 @@ package org.hyperledger.besu.plugin.services.storage;
 import org.hyperledger.besu.plugin.services.exception.StorageException;
 
 import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Predicate;
@@ -83,6 +85,27 @@ public interface SegmentedKeyValueStorage extends Closeable {
     return get(segment, key).isPresent();
   }
 
+  /**
+   * Get the values of several keys, each one from its own segment, in a single call. Storages that
+   * can read a batch of keys more efficiently than one key at a time override this method.
+   *
+   * @param segments the segment of each key, in the order of the keys
+   * @param keys Indexes into persistent data repository.
+   * @return The values persisted at the key indexes, in the order of the keys.
+   * @throws StorageException the storage exception
+   */
+  default List<Optional<byte[]>> multiGet(
+      final List<SegmentIdentifier> segments, final List<byte[]> keys) throws StorageException {
+    if (segments.size() != keys.size()) {
+      throw new IllegalArgumentException("Each key must have a segment");
+    }
+    final List<Optional<byte[]>> values = new ArrayList<>(keys.size());
+    for (int i = 0; i < keys.size(); i++) {
+      values.add(get(segments.get(i), keys.get(i)));
+    }
+    return values;
+  }
+
   /**
    * Begins a transaction. Returns a transaction object that can be updated and committed.
    *
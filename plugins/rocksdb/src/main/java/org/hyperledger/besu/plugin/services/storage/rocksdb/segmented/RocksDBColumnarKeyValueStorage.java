@@ -353,6 +353,29 @@ public abstract class RocksDBColumnarKeyValueStorage implements SegmentedKeyValu
     }
   }
 
+  @Override
+  public List<Optional<byte[]>> multiGet(
+      final List<SegmentIdentifier> segments, final List<byte[]> keys) throws StorageException {
+    throwIfClosed();
+    if (segments.size() != keys.size()) {
+      throw new IllegalArgumentException("Each key must have a segment");
+    }
+    if (keys.isEmpty()) {
+      return List.of();
+    }
+
+    // a single call lets RocksDB read the keys of the batch in parallel across SST files
+    final List<ColumnFamilyHandle> keyColumnHandles =
+        segments.stream().map(this::safeColumnHandle).toList();
+    try (final OperationTimer.TimingContext ignored = metrics.getReadLatency().startTimer()) {
+      return getDB().multiGetAsList(readOptions, keyColumnHandles, keys).stream()
+          .map(Optional::ofNullable)
+          .toList();
+    } catch (final RocksDBException e) {
+      throw new StorageException(e);
+    }
+  }
+
   @Override
   public Optional<NearestKeyValue> getNearestBefore(
       final SegmentIdentifier segmentIdentifier, final Bytes key) throws StorageException {
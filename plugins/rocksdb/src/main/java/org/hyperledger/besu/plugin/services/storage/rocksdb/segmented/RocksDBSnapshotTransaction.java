@@ -21,6 +21,7 @@ import org.hyperledger.besu.plugin.services.storage.SegmentedKeyValueStorageTran
 import org.hyperledger.besu.plugin.services.storage.rocksdb.RocksDBMetrics;
 import org.hyperledger.besu.plugin.services.storage.rocksdb.RocksDbIterator;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
@@ -106,6 +107,35 @@ public class RocksDBSnapshotTransaction
     }
   }
 
+  /**
+   * Get data against a batch of keys, each one from its own segment, including the data written
+   * to this transaction.
+   *
+   * @param segmentIds the segment id of each key
+   * @param keys the keys
+   * @return the optional data of each key, in the order of the keys
+   */
+  public List<Optional<byte[]>> multiGet(
+      final List<SegmentIdentifier> segmentIds, final List<byte[]> keys) {
+    throwIfClosed();
+    if (segmentIds.size() != keys.size()) {
+      throw new IllegalArgumentException("Each key must have a segment");
+    }
+    if (keys.isEmpty()) {
+      return List.of();
+    }
+
+    final List<ColumnFamilyHandle> columnHandles =
+        segmentIds.stream().map(columnFamilyMapper).toList();
+    try (final OperationTimer.TimingContext ignored = metrics.getReadLatency().startTimer()) {
+      return snapTx.multiGetAsList(readOptions, columnHandles, keys).stream()
+          .map(Optional::ofNullable)
+          .toList();
+    } catch (final RocksDBException e) {
+      throw new StorageException(e);
+    }
+  }
+
   @Override
   public void put(final SegmentIdentifier segmentId, final byte[] key, final byte[] value) {
     throwIfClosed();
@@ -18,6 +18,7 @@ import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import org.hyperledger.besu.plugin.services.storage.SegmentIdentifier;
@@ -62,6 +63,32 @@ public class LayeredKeyValueStorageTest {
     assertTrue(result.collect(Collectors.toList()).isEmpty());
   }
 
+  @Test
+  void shouldReadKeysMissingFromLayerInOneParentBatch() {
+    byte[] key1 = {1};
+    byte[] value1 = {10};
+    byte[] key2 = {2};
+    byte[] value2 = {20};
+    byte[] key3 = {3};
+
+    var hashValueStore = createSegmentMap();
+    hashValueStore.get(segmentId).put(Bytes.wrap(key1), Optional.of(value1));
+    hashValueStore.get(segmentId).put(Bytes.wrap(key3), Optional.empty());
+    layeredKeyValueStorage = new LayeredKeyValueStorage(hashValueStore, parentStorage);
+    when(parentStorage.multiGet(List.of(segmentId), List.of(key2)))
+        .thenReturn(List.of(Optional.of(value2)));
+
+    List<Optional<byte[]>> result =
+        layeredKeyValueStorage.multiGet(
+            List.of(segmentId, segmentId, segmentId), List.of(key1, key2, key3));
+
+    assertEquals(3, result.size());
+    assertArrayEquals(value1, result.get(0).orElseThrow());
+    assertArrayEquals(value2, result.get(1).orElseThrow());
+    assertTrue(result.get(2).isEmpty());
+    verify(parentStorage).multiGet(List.of(segmentId), List.of(key2));
+  }
+
   private ConcurrentMap<SegmentIdentifier, NavigableMap<Bytes, Optional<byte[]>>>
       createSegmentMap() {
     ConcurrentMap<SegmentIdentifier, NavigableMap<Bytes, Optional<byte[]>>> map =
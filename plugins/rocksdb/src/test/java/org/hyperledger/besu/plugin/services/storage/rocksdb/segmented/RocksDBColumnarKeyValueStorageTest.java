@@ -111,6 +111,31 @@ public abstract class RocksDBColumnarKeyValueStorageTest extends AbstractKeyValu
     store.close();
   }
 
+  @Test
+  public void multiGetReadsEachKeyFromItsSegment() throws Exception {
+    final SegmentedKeyValueStorage store = createSegmentedStore();
+    final byte[] key = bytesFromHexString("0001");
+    final byte[] missingKey = bytesFromHexString("0002");
+
+    final SegmentedKeyValueStorageTransaction tx = store.startTransaction();
+    tx.put(TestSegment.FOO, key, bytesFromHexString("0FFF"));
+    tx.put(TestSegment.BAR, key, bytesFromHexString("1337"));
+    tx.commit();
+
+    final List<Optional<byte[]>> values =
+        store.multiGet(
+            List.of(TestSegment.BAR, TestSegment.FOO, TestSegment.FOO),
+            List.of(key, missingKey, key));
+
+    assertThat(values).hasSize(3);
+    assertThat(values.get(0)).contains(bytesFromHexString("1337"));
+    assertThat(values.get(1)).isEmpty();
+    assertThat(values.get(2)).contains(bytesFromHexString("0FFF"));
+    assertThat(store.multiGet(List.of(), List.of())).isEmpty();
+
+    store.close();
+  }
+
   @Test
   public void canRemoveThroughSegmentIteration() throws Exception {
     // we're looping this in order to catch intermittent failures when rocksdb objects are not close
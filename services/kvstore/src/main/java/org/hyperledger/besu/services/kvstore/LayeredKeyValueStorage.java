@@ -24,8 +24,10 @@ import org.hyperledger.besu.plugin.services.storage.SegmentedKeyValueStorage;
 import org.hyperledger.besu.plugin.services.storage.SegmentedKeyValueStorageTransaction;
 import org.hyperledger.besu.plugin.services.storage.SnappedKeyValueStorage;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.NavigableMap;
 import java.util.Optional;
@@ -101,6 +103,46 @@ public class LayeredKeyValueStorage extends SegmentedInMemoryKeyValueStorage
     }
   }
 
+  @Override
+  public List<Optional<byte[]>> multiGet(
+      final List<SegmentIdentifier> segmentIds, final List<byte[]> keys) throws StorageException {
+    throwIfClosed();
+    if (segmentIds.size() != keys.size()) {
+      throw new IllegalArgumentException("Each key must have a segment");
+    }
+
+    final Lock lock = rwLock.readLock();
+    lock.lock();
+    try {
+      final List<Optional<byte[]>> values = new ArrayList<>(keys.size());
+      // the keys not found in this layer are read from the parent in a single batch
+      final List<Integer> parentIndexes = new ArrayList<>();
+      final List<SegmentIdentifier> parentSegmentIds = new ArrayList<>();
+      final List<byte[]> parentKeys = new ArrayList<>();
+      for (int i = 0; i < keys.size(); i++) {
+        final Optional<byte[]> foundKey =
+            hashValueStore
+                .computeIfAbsent(segmentIds.get(i), __ -> newSegmentMap())
+                .get(Bytes.wrap(keys.get(i)));
+        values.add(foundKey);
+        if (foundKey == null) {
+          parentIndexes.add(i);
+          parentSegmentIds.add(segmentIds.get(i));
+          parentKeys.add(keys.get(i));
+        }
+      }
+      if (!parentKeys.isEmpty()) {
+        final List<Optional<byte[]>> parentValues = parent.multiGet(parentSegmentIds, parentKeys);
+        for (int i = 0; i < parentIndexes.size(); i++) {
+          values.set(parentIndexes.get(i), parentValues.get(i));
+        }
+      }
+      return values;
+    } finally {
+      lock.unlock();
+    }
+  }
+
   @Override
   public Optional<NearestKeyValue> getNearestBefore(
       final SegmentIdentifier segmentIdentifier, final Bytes key) throws StorageException {
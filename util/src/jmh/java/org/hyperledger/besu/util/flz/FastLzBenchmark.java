@@ -0,0 +1,111 @@
+/*
+ * Copyright contributors to Besu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.util.flz;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FastLzBenchmark {
+
+  public enum Calldata {
+    // signed ETH transfer, mostly incompressible
+    TRANSFER,
+    // ABI encoded contract call, left padded words
+    CONTRACT_CALL,
+    // batch of repeated ABI encoded records, e.g. a router multicall
+    MULTICALL,
+    // random bytes, e.g. compressed or encrypted payloads
+    RANDOM
+  }
+
+  @Param({"TRANSFER", "CONTRACT_CALL", "MULTICALL", "RANDOM"})
+  public Calldata calldata;
+
+  @Param({"128", "1024", "16384"})
+  public int size;
+
+  private byte[] data;
+  private ByteBuffer directBuffer;
+  private final FastLz fastLz = new FastLz();
+
+  @Setup(Level.Trial)
+  public void prepare() {
+    final Random random = new Random(size);
+    data = new byte[size];
+    switch (calldata) {
+      case TRANSFER, RANDOM -> random.nextBytes(data);
+      case CONTRACT_CALL -> {
+        for (int i = 0; i < size; i++) {
+          // 32 bytes words holding addresses and small amounts
+          data[i] = i % 32 < 12 + random.nextInt(12) ? 0 : (byte) random.nextInt();
+        }
+      }
+      case MULTICALL -> {
+        final byte[] record = new byte[160];
+        for (int i = 0; i < record.length; i++) {
+          record[i] = i % 32 < 12 ? 0 : (byte) random.nextInt();
+        }
+        for (int i = 0; i < size; i++) {
+          // repeated records that differ in a few bytes
+          data[i] = i % 29 == 0 ? (byte) random.nextInt() : record[i % record.length];
+        }
+      }
+    }
+    if (calldata == Calldata.TRANSFER) {
+      // RLP list prefix, zero nonce and fees, empty data and access list
+      for (int i = 0; i < Math.min(size, 12); i++) {
+        data[i] = 0;
+      }
+    }
+    directBuffer = ByteBuffer.allocateDirect(size);
+    directBuffer.put(data);
+    directBuffer.flip();
+  }
+
+  @Benchmark
+  public long threadLocalCompressor() {
+    return FastLz.flzCompressLength(data);
+  }
+
+  @Benchmark
+  public long dedicatedCompressor() {
+    return fastLz.compressedLength(data, 0, data.length);
+  }
+
+  @Benchmark
+  public long directBuffer() {
+    return fastLz.compressedLength(directBuffer);
+  }
+}
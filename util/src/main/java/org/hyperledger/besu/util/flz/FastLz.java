@@ -14,10 +14,36 @@
  */
 package org.hyperledger.besu.util.flz;
 
-/** FastLz compress algorithm. */
-public class FastLz {
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Objects;
 
-  private FastLz() {}
+/**
+ * FastLz compress algorithm.
+ *
+ * <p>An instance owns its hash table and reuses it across calls, so computing a compressed length
+ * does not allocate. Instances are not thread-safe; the static methods use a thread-confined
+ * instance.
+ */
+public final class FastLz {
+
+  private static final int HASH_SIZE = 8192;
+  private static final int HASH_MASK = HASH_SIZE - 1;
+  private static final int MAX_DISTANCE = 0x1fff;
+
+  private static final ThreadLocal<FastLz> THREAD_LOCAL = ThreadLocal.withInitial(FastLz::new);
+
+  // each entry holds the generation that wrote it in the high 32 bits and the position in the low
+  // 32 bits, so that entries written by a previous call read as empty without clearing the table
+  private final long[] hashTable = new long[HASH_SIZE];
+  private int generation;
+
+  private byte[] array;
+  private ByteBuffer buffer;
+  private int base;
+
+  /** Instantiates a new FastLz compressor. */
+  public FastLz() {}
 
   /**
    * FlzCompressLen returns the length of the data after compression through FastLZ, based on <a
@@ -27,25 +53,91 @@ public class FastLz {
    * @return the length of the data after compression
    */
   public static long flzCompressLength(final byte[] ib) {
+    return THREAD_LOCAL.get().compressedLength(ib, 0, ib.length);
+  }
+
+  /**
+   * Returns the length of a slice of an array after compression through FastLZ.
+   *
+   * @param ib the array holding the data that should be compressed
+   * @param offset the offset of the data in the array
+   * @param length the length of the data
+   * @return the length of the data after compression
+   */
+  public static long flzCompressLength(final byte[] ib, final int offset, final int length) {
+    return THREAD_LOCAL.get().compressedLength(ib, offset, length);
+  }
+
+  /**
+   * Returns the length of the remaining bytes of a buffer after compression through FastLZ. The
+   * position of the buffer is not modified.
+   *
+   * @param ib the buffer holding the data that should be compressed
+   * @return the length of the data after compression
+   */
+  public static long flzCompressLength(final ByteBuffer ib) {
+    return THREAD_LOCAL.get().compressedLength(ib);
+  }
+
+  /**
+   * Returns the length of a slice of an array after compression through FastLZ.
+   *
+   * @param ib the array holding the data that should be compressed
+   * @param offset the offset of the data in the array
+   * @param length the length of the data
+   * @return the length of the data after compression
+   */
+  public long compressedLength(final byte[] ib, final int offset, final int length) {
+    Objects.checkFromIndexSize(offset, length, ib.length);
+    array = ib;
+    base = offset;
+    try {
+      return compress(length);
+    } finally {
+      array = null;
+    }
+  }
+
+  /**
+   * Returns the length of the remaining bytes of a buffer after compression through FastLZ. The
+   * position of the buffer is not modified.
+   *
+   * @param ib the buffer holding the data that should be compressed
+   * @return the length of the data after compression
+   */
+  public long compressedLength(final ByteBuffer ib) {
+    if (ib.hasArray()) {
+      return compressedLength(ib.array(), ib.arrayOffset() + ib.position(), ib.remaining());
+    }
+    buffer = ib;
+    base = ib.position();
+    try {
+      return compress(ib.remaining());
+    } finally {
+      buffer = null;
+    }
+  }
+
+  private long compress(final int length) {
+    nextGeneration();
     var n = 0;
-    var ht = new int[8192];
 
     var a = 0;
-    var ipLimit = ib.length > 13 ? ib.length - 13 : 0;
+    final var ipLimit = length > 13 ? length - 13 : 0;
     for (var ip = a + 2; ip < ipLimit; ) {
       var r = 0;
       var d = 0;
       for (; ; ) {
-        var s = u24(ib, ip);
-        var h = hash(s);
-        r = ht[h];
-        ht[h] = ip;
+        final var s = u24(ip);
+        final var h = hash(s);
+        r = lookup(h);
+        store(h, ip);
         d = ip - r;
         if (ip >= ipLimit) {
           break;
         }
         ip++;
-        if (d <= 0x1fff && s == u24(ib, r)) {
+        if (d <= MAX_DISTANCE && s == u24(r)) {
           break;
         }
       }
@@ -56,28 +148,53 @@ public class FastLz {
       if (ip > a) {
         n = literals(n, ip - a);
       }
-      var l = cmp(ib, r + 3, ip + 3, ipLimit + 9);
+      final var l = cmp(r + 3, ip + 3, ipLimit + 9);
       n = match(n, l);
-      ip = setNextHash(ib, ht, setNextHash(ib, ht, ip + l));
+      ip = setNextHash(setNextHash(ip + l));
       a = ip;
     }
-    n = literals(n, ib.length - a);
-    return n;
+    return literals(n, length - a);
+  }
+
+  private void nextGeneration() {
+    generation++;
+    if (generation == 0) {
+      Arrays.fill(hashTable, 0L);
+      generation = 1;
+    }
   }
 
-  static int u24(final byte[] ib, final int i) {
-    return (ib[i] & 0xFF) | (ib[i + 1] & 0xFF) << 8 | (ib[i + 2] & 0xFF) << 16;
+  private int lookup(final int h) {
+    final long entry = hashTable[h];
+    return (int) (entry >>> 32) == generation ? (int) entry : 0;
   }
 
-  static int cmp(final byte[] ib, final int p, final int q, final int e) {
-    var loopCount = 0;
-    var value = e;
-    for (value = value - q; loopCount < value; loopCount++) {
-      if ((ib[p + loopCount] & 0xFF) != (ib[q + loopCount] & 0xFF)) {
-        value = 0;
+  private void store(final int h, final int ip) {
+    hashTable[h] = ((long) generation << 32) | (ip & 0xFFFFFFFFL);
+  }
+
+  private int setNextHash(final int ip) {
+    store(hash(u24(ip)), ip);
+    return ip + 1;
+  }
+
+  private byte byteAt(final int i) {
+    return array != null ? array[base + i] : buffer.get(base + i);
+  }
+
+  private int u24(final int i) {
+    return (byteAt(i) & 0xFF) | (byteAt(i + 1) & 0xFF) << 8 | (byteAt(i + 2) & 0xFF) << 16;
+  }
+
+  // returns the length of the match including the first mismatching byte, as solady.js does
+  private int cmp(final int p, final int q, final int e) {
+    final var limit = e - q;
+    for (var l = 0; l < limit; l++) {
+      if (byteAt(p + l) != byteAt(q + l)) {
+        return l + 1;
       }
     }
-    return loopCount;
+    return Math.max(limit, 0);
   }
 
   static int literals(final int n, final int r) {
@@ -106,11 +223,6 @@ public class FastLz {
   }
 
   static int hash(final int v) {
-    return (int) ((2654435769L * v) >> 19) & 0x1fff;
-  }
-
-  static int setNextHash(final byte[] ib, final int[] ht, final int ip) {
-    ht[hash(u24(ib, ip))] = ip;
-    return ip + 1;
+    return (int) ((2654435769L * v) >> 19) & HASH_MASK;
   }
 }
@@ -16,7 +16,9 @@ package org.hyperledger.besu.util.flz;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
+import java.nio.ByteBuffer;
 import java.util.Arrays;
+import java.util.Random;
 
 import org.apache.logging.log4j.core.config.plugins.convert.HexConverter;
 import org.junit.jupiter.api.Test;
@@ -63,4 +65,113 @@ public class FastLzTest {
     flzSize = FastLz.flzCompressLength(contractCallTx);
     assertEquals(202, flzSize);
   }
+
+  @Test
+  void matchesReferenceImplementation() {
+    final Random random = new Random(42);
+    final FastLz fastLz = new FastLz();
+    for (int i = 0; i < 10_000; i++) {
+      final byte[] data = randomCalldata(random, random.nextInt(i % 100 == 0 ? 20_000 : 600));
+      final long expected = ReferenceFastLz.flzCompressLength(data);
+
+      assertEquals(expected, FastLz.flzCompressLength(data));
+      assertEquals(expected, fastLz.compressedLength(data, 0, data.length));
+
+      final byte[] padded = new byte[data.length + 11];
+      System.arraycopy(data, 0, padded, 7, data.length);
+      assertEquals(expected, FastLz.flzCompressLength(padded, 7, data.length));
+
+      final ByteBuffer direct = ByteBuffer.allocateDirect(data.length + 3);
+      direct.position(3);
+      direct.put(data);
+      direct.position(3);
+      assertEquals(expected, FastLz.flzCompressLength(direct));
+      assertEquals(3, direct.position());
+    }
+  }
+
+  private static byte[] randomCalldata(final Random random, final int length) {
+    final byte[] data = new byte[length];
+    final int distribution = random.nextInt(4);
+    for (int i = 0; i < length; i++) {
+      data[i] =
+          switch (distribution) {
+            // incompressible
+            case 0 -> (byte) random.nextInt();
+            // sparse, mostly zero bytes
+            case 1 -> random.nextInt(4) == 0 ? (byte) random.nextInt() : 0;
+            // low entropy
+            case 2 -> (byte) random.nextInt(3);
+            // ABI encoded words: left padded values that often repeat a previous word
+            default ->
+                i % 32 < 12
+                    ? 0
+                    : random.nextBoolean() && i >= 32 ? data[i - 32] : (byte) random.nextInt();
+          };
+    }
+    return data;
+  }
+
+  /** The original allocating implementation, used as a reference. */
+  private static final class ReferenceFastLz {
+
+    static long flzCompressLength(final byte[] ib) {
+      var n = 0;
+      var ht = new int[8192];
+
+      var a = 0;
+      var ipLimit = ib.length > 13 ? ib.length - 13 : 0;
+      for (var ip = a + 2; ip < ipLimit; ) {
+        var r = 0;
+        var d = 0;
+        for (; ; ) {
+          var s = u24(ib, ip);
+          var h = FastLz.hash(s);
+          r = ht[h];
+          ht[h] = ip;
+          d = ip - r;
+          if (ip >= ipLimit) {
+            break;
+          }
+          ip++;
+          if (d <= 0x1fff && s == u24(ib, r)) {
+            break;
+          }
+        }
+        if (ip >= ipLimit) {
+          break;
+        }
+        ip--;
+        if (ip > a) {
+          n = FastLz.literals(n, ip - a);
+        }
+        var l = cmp(ib, r + 3, ip + 3, ipLimit + 9);
+        n = FastLz.match(n, l);
+        ip = setNextHash(ib, ht, setNextHash(ib, ht, ip + l));
+        a = ip;
+      }
+      n = FastLz.literals(n, ib.length - a);
+      return n;
+    }
+
+    static int u24(final byte[] ib, final int i) {
+      return (ib[i] & 0xFF) | (ib[i + 1] & 0xFF) << 8 | (ib[i + 2] & 0xFF) << 16;
+    }
+
+    static int cmp(final byte[] ib, final int p, final int q, final int e) {
+      var loopCount = 0;
+      var value = e;
+      for (value = value - q; loopCount < value; loopCount++) {
+        if ((ib[p + loopCount] & 0xFF) != (ib[q + loopCount] & 0xFF)) {
+          value = 0;
+        }
+      }
+      return loopCount;
+    }
+
+    static int setNextHash(final byte[] ib, final int[] ht, final int ip) {
+      ht[FastLz.hash(u24(ib, ip))] = ip;
+      return ip + 1;
+    }
+  }
 }